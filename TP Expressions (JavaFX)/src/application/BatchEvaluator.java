@@ -0,0 +1,457 @@
+package application;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import expressions.Expression;
+import expressions.binary.AssignmentExpression;
+import expressions.terminal.VariableExpression;
+import parser.ExpressionParser;
+import parser.exceptions.ParserException;
+
+/**
+ * Headless batch evaluator used by {@link Main} in "--batch" mode.
+ * Expressions are read from a text file (or standard input) using the same
+ * format as {@link expressions.models.ExpressionsModel#load(java.io.File, boolean)}:
+ * one or more contexts separated by ";" per line and an optional
+ * "type int|float|double" line.
+ * <ul>
+ * 	<li>Without variable bindings, each line is parsed, evaluated and
+ * 	printed as soon as it is read, so arbitrarily large files are processed
+ * 	with a constant memory footprint.</li>
+ * 	<li>With variable bindings (a CSV file whose header contains variables
+ * 	names and whose rows contain variables values) all expressions are parsed
+ * 	once, then evaluated for each row of bindings which is read (and
+ * 	evaluated) one at a time. Results are printed as CSV: bindings followed
+ * 	by one column per expression.</li>
+ * </ul>
+ * A single parser and a single variables environment
+ * ({@link VariableExpression#getValues()}) are reused throughout the batch.
+ * Results are written to a buffered output and throughput statistics are
+ * printed on the error stream at the end of the batch.
+ * @implNote This class does not depend on JavaFX.
+ */
+public class BatchEvaluator
+{
+	/**
+	 * Name used to designate standard input as a source file
+	 */
+	public static final String STDIN = "-";
+
+	/**
+	 * Expressions separator within a line
+	 */
+	private static final String Separator = ";";
+
+	/**
+	 * CSV values separator
+	 */
+	private static final String CsvSeparator = ",";
+
+	/**
+	 * Size of output buffer
+	 */
+	private static final int BufferSize = 1 << 16;
+
+	/**
+	 * The parser used for all expressions (may change with "type" lines)
+	 */
+	private ExpressionParser<? extends Number> parser;
+
+	/**
+	 * Function converting a String to a number of the current type
+	 */
+	private Function<String, Number> numberReader;
+
+	/**
+	 * Buffered output to print results
+	 */
+	private final Writer out;
+
+	/**
+	 * Stream to print errors and statistics
+	 */
+	private final PrintStream err;
+
+	/**
+	 * Number of parsed contexts
+	 */
+	private long contexts;
+
+	/**
+	 * Number of evaluated expressions
+	 */
+	private long evaluations;
+
+	/**
+	 * Number of bindings rows evaluated
+	 */
+	private long rows;
+
+	/**
+	 * Number of errors (parsing errors or invalid bindings)
+	 */
+	private long errors;
+
+	/**
+	 * Constructor
+	 * @param numberType the initial type of numbers: "int", "float" or "double"
+	 * @param out the stream to print results to (which will be buffered)
+	 * @param err the stream to print errors and statistics to
+	 * @throws IllegalArgumentException if numberType is not supported
+	 */
+	public BatchEvaluator(String numberType, PrintStream out, PrintStream err)
+	    throws IllegalArgumentException
+	{
+		this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8),
+		                              BufferSize);
+		this.err = err;
+		if (!setNumberType(numberType))
+		{
+			throw new IllegalArgumentException("unsupported number type " + numberType);
+		}
+	}
+
+	/**
+	 * Run the batch
+	 * @param expressionsSource the expressions file name or {@link #STDIN}
+	 * @param bindingsSource the CSV variables bindings file name,
+	 * {@link #STDIN} or null if there are no bindings
+	 * @return true if the batch completed without errors
+	 * @throws IOException if reading sources or writing results fails
+	 * @throws IllegalArgumentException if both sources are {@link #STDIN}
+	 */
+	public boolean run(String expressionsSource, String bindingsSource)
+	    throws IOException, IllegalArgumentException
+	{
+		if (STDIN.equals(expressionsSource) && STDIN.equals(bindingsSource))
+		{
+			throw new IllegalArgumentException("expressions and bindings can't both be read from stdin");
+		}
+		long start = System.nanoTime();
+		try (BufferedReader expressionsReader = open(expressionsSource))
+		{
+			if (bindingsSource == null)
+			{
+				streamExpressions(expressionsReader);
+			}
+			else
+			{
+				List<Expression<? extends Number>> expressions =
+				    readExpressions(expressionsReader);
+				try (BufferedReader bindingsReader = open(bindingsSource))
+				{
+					streamBindings(expressions, bindingsReader);
+				}
+			}
+		}
+		finally
+		{
+			out.flush();
+		}
+		printStatistics(System.nanoTime() - start);
+		return errors == 0;
+	}
+
+	/**
+	 * Parse, evaluate and print expressions line by line
+	 * @param reader the expressions source
+	 * @throws IOException if reading or writing fails
+	 */
+	private void streamExpressions(BufferedReader reader) throws IOException
+	{
+		String line;
+		long lineNumber = 0;
+		while ((line = reader.readLine()) != null)
+		{
+			lineNumber++;
+			for (String context : line.split(Separator))
+			{
+				Expression<? extends Number> expression =
+				    parseContext(context, lineNumber, true);
+				if (expression != null)
+				{
+					out.write(expression.toString());
+					String value = evaluate(expression);
+					if (!value.isEmpty() &&
+					    !(expression instanceof AssignmentExpression<?>))
+					{
+						out.write(" = ");
+						out.write(value);
+					}
+					out.write(System.lineSeparator());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Parse all expressions
+	 * @param reader the expressions source
+	 * @return the list of parsed expressions
+	 * @throws IOException if reading fails
+	 */
+	private List<Expression<? extends Number>> readExpressions(BufferedReader reader)
+	    throws IOException
+	{
+		List<Expression<? extends Number>> expressions = new ArrayList<>();
+		String line;
+		long lineNumber = 0;
+		while ((line = reader.readLine()) != null)
+		{
+			lineNumber++;
+			for (String context : line.split(Separator))
+			{
+				Expression<? extends Number> expression =
+				    parseContext(context, lineNumber, expressions.isEmpty());
+				if (expression != null)
+				{
+					expressions.add(expression);
+				}
+			}
+		}
+		return expressions;
+	}
+
+	/**
+	 * Read bindings rows one at a time, bind variables then evaluate and print
+	 * all expressions
+	 * @param expressions the expressions to evaluate for each row
+	 * @param reader the CSV bindings source
+	 * @throws IOException if reading or writing fails
+	 */
+	private void streamBindings(List<Expression<? extends Number>> expressions,
+	                            BufferedReader reader)
+	    throws IOException
+	{
+		String header = reader.readLine();
+		if (header == null)
+		{
+			return;
+		}
+		String[] names = header.split(CsvSeparator);
+		for (int i = 0; i < names.length; i++)
+		{
+			names[i] = names[i].trim();
+			out.write(names[i]);
+			out.write(CsvSeparator);
+		}
+		for (int i = 0; i < expressions.size(); i++)
+		{
+			out.write(expressions.get(i).toString());
+			out.write(i < expressions.size() - 1 ? CsvSeparator : System.lineSeparator());
+		}
+
+		Map<String, Optional<? extends Number>> environment =
+			VariableExpression.getValues();
+		String line;
+		long lineNumber = 1;
+		while ((line = reader.readLine()) != null)
+		{
+			lineNumber++;
+			if (line.isBlank())
+			{
+				continue;
+			}
+			String[] cells = line.split(CsvSeparator, -1);
+			if (cells.length != names.length)
+			{
+				error("bindings line " + lineNumber + ": expected "
+				    + names.length + " values but found " + cells.length);
+				continue;
+			}
+			/*
+			 * Reset all variables (including the ones assigned by expressions
+			 * during the previous row) then bind this row values
+			 */
+			VariableExpression.clearAllValues();
+			boolean valid = true;
+			for (int i = 0; i < names.length; i++)
+			{
+				String cell = cells[i].trim();
+				if (cell.isEmpty())
+				{
+					environment.put(names[i], Optional.empty());
+					continue;
+				}
+				try
+				{
+					environment.put(names[i], Optional.of(numberReader.apply(cell)));
+				}
+				catch (NumberFormatException e)
+				{
+					error("bindings line " + lineNumber + ": invalid value "
+					    + cell + " for " + names[i]);
+					valid = false;
+					break;
+				}
+			}
+			if (!valid)
+			{
+				continue;
+			}
+			rows++;
+			for (int i = 0; i < names.length; i++)
+			{
+				out.write(cells[i].trim());
+				out.write(CsvSeparator);
+			}
+			for (int i = 0; i < expressions.size(); i++)
+			{
+				out.write(evaluate(expressions.get(i)));
+				out.write(i < expressions.size() - 1 ? CsvSeparator : System.lineSeparator());
+			}
+		}
+	}
+
+	/**
+	 * Parse a single context
+	 * @param context the context to parse
+	 * @param lineNumber the line number of this context (for error messages)
+	 * @param typeAllowed indicates if a "type" line is allowed
+	 * @return the parsed expression or null if context is empty, a comment,
+	 * a "type" line or if it can't be parsed.
+	 */
+	private Expression<? extends Number> parseContext(String context,
+	                                                   long lineNumber,
+	                                                   boolean typeAllowed)
+	{
+		String trimmed = context.trim();
+		if (trimmed.isEmpty() || trimmed.startsWith("#"))
+		{
+			return null;
+		}
+		if (trimmed.startsWith("type"))
+		{
+			if (!typeAllowed)
+			{
+				error("line " + lineNumber + ": number type can't be changed after expressions");
+			}
+			else if (!setNumberType(trimmed.substring(trimmed.lastIndexOf(' ') + 1)))
+			{
+				error("line " + lineNumber + ": unsupported number type " + trimmed);
+			}
+			return null;
+		}
+		try
+		{
+			List<? extends Expression<? extends Number>> parsed = parser.parse(trimmed);
+			contexts++;
+			return parsed.isEmpty() ? null : parsed.get(0);
+		}
+		catch (ParserException e)
+		{
+			error("line " + lineNumber + ": " + trimmed + ": " + e.getLocalizedMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Evaluate an expression
+	 * @param expression the expression to evaluate
+	 * @return the String representation of the expression's value or an
+	 * empty string if expression can't be evaluated
+	 */
+	private String evaluate(Expression<? extends Number> expression)
+	{
+		if (!expression.hasValue())
+		{
+			return "";
+		}
+		try
+		{
+			Number value = expression.value();
+			evaluations++;
+			return String.valueOf(value);
+		}
+		catch (IllegalStateException | ArithmeticException | UnsupportedOperationException e)
+		{
+			return "";
+		}
+	}
+
+	/**
+	 * Change the type of numbers: creates a new parser and clears variables
+	 * @param numberType the new type of numbers: "int", "float" or "double"
+	 * @return true if the number type is supported
+	 */
+	private boolean setNumberType(String numberType)
+	{
+		String type = numberType.toLowerCase();
+		if (type.contains("double"))
+		{
+			parser = new ExpressionParser<Double>(0.0);
+			numberReader = Double::valueOf;
+		}
+		else if (type.contains("float"))
+		{
+			parser = new ExpressionParser<Float>(0.0f);
+			numberReader = Float::valueOf;
+		}
+		else if (type.contains("int"))
+		{
+			parser = new ExpressionParser<Integer>(0);
+			numberReader = Integer::valueOf;
+		}
+		else
+		{
+			return false;
+		}
+		VariableExpression.clearAll();
+		return true;
+	}
+
+	/**
+	 * Open a source
+	 * @param source a file name or {@link #STDIN}
+	 * @return a buffered reader on this source
+	 * @throws IOException if file can't be opened
+	 */
+	private static BufferedReader open(String source) throws IOException
+	{
+		Reader reader = STDIN.equals(source) ?
+		    new InputStreamReader(System.in, StandardCharsets.UTF_8) :
+		    Files.newBufferedReader(Paths.get(source), StandardCharsets.UTF_8);
+		return new BufferedReader(reader, BufferSize);
+	}
+
+	/**
+	 * Report an error
+	 * @param message the error message
+	 */
+	private void error(String message)
+	{
+		errors++;
+		err.println(message);
+	}
+
+	/**
+	 * Print throughput statistics
+	 * @param nanos total batch duration in nanoseconds
+	 */
+	private void printStatistics(long nanos)
+	{
+		double seconds = nanos / 1e9;
+		err.printf("batch: %d contexts, %d bindings rows, %d evaluations, %d errors in %.3f s (%.0f evaluations/s)%n",
+		           contexts,
+		           rows,
+		           evaluations,
+		           errors,
+		           seconds,
+		           seconds > 0 ? evaluations / seconds : 0.0);
+	}
+}
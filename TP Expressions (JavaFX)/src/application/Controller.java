@@ -5,6 +5,7 @@ import java.io.IOException;
 import java.lang.ProcessHandle.Info;
 import java.lang.reflect.Array;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
@@ -20,6 +21,7 @@ import java.util.prefs.Preferences;
 import expressions.Expression;
 import expressions.binary.BinaryOperatorRules;
 import expressions.models.ExpressionDisplay;
+import expressions.models.ExpressionTreeCell;
 import expressions.models.ExpressionsModel;
 import expressions.models.VariableDisplay;
 import expressions.terminal.TerminalExpression;
@@ -61,6 +63,7 @@ import javafx.stage.FileChooser.ExtensionFilter;
 import javafx.stage.Stage;
 import javafx.stage.WindowEvent;
 import logger.LoggerFactory;
+import parser.Diagnostic;
 import parser.exceptions.ParserException;
 import utils.IconFactory;
 
@@ -353,6 +356,20 @@ public class Controller implements Initializable
 	@FXML
 	private MenuItem revertMenuItem;
 
+	/**
+	 * The undo action {@link MenuItem}
+	 * @see #initialize(URL, ResourceBundle)
+	 */
+	@FXML
+	private MenuItem undoMenuItem;
+
+	/**
+	 * The redo action {@link MenuItem}
+	 * @see #initialize(URL, ResourceBundle)
+	 */
+	@FXML
+	private MenuItem redoMenuItem;
+
 	/**
 	 * The selectAll action {@link Button}
 	 * @implNote part of {@link #styleableButtons}
@@ -666,9 +683,18 @@ public class Controller implements Initializable
 				@Override
 				public void onChanged(Change<? extends Expression<Number>> change)
 				{
-					expressionsDisplayList.clear();
-					for (Expression<Number> expression : change.getList())
-					{expressionsDisplayList.add(new ExpressionDisplay<Number>(expression));}
+					/*
+					 * Independent expressions are evaluated in parallel and
+					 * displays are replaced in a single change
+					 */
+					List<? extends Expression<Number>> list = change.getList();
+					List<Number> values = expressionsModel.evaluate(list);
+					List<ExpressionDisplay<Number>> displays = new ArrayList<>(list.size());
+					for (int i = 0; i < list.size(); i++)
+					{
+						displays.add(new ExpressionDisplay<Number>(list.get(i), values.get(i)));
+					}
+					expressionsDisplayList.setAll(displays);
 				}
 			});
 
@@ -744,6 +770,11 @@ public class Controller implements Initializable
 		 */
 		ObjectProperty<TreeItem<Expression<Number>>> rootItemProperty = expressionsModel.rootItemProperty();
 		expressionsTreeView.rootProperty().bind(rootItemProperty);
+		/*
+		 * Tree cells reuse their graphic node across updates
+		 */
+		expressionsTreeView.setCellFactory((TreeView<Expression<Number>> tree) ->
+			new ExpressionTreeCell<Number>());
 
 
 		/*
@@ -768,6 +799,13 @@ public class Controller implements Initializable
 		saveMenuItem.disableProperty().bind(expressionsModel.hasFileProperty().not());
 		revertMenuItem.disableProperty().bind(expressionsModel.hasFileProperty().not());
 		saveButton.disableProperty().bind(expressionsModel.hasFileProperty().not());
+
+		/*
+		 * #undoMenuItem and #redoMenuItem are disabled when there is nothing
+		 * to undo or redo in expressionsModel's history
+		 */
+		undoMenuItem.disableProperty().bind(expressionsModel.canUndoProperty().not());
+		redoMenuItem.disableProperty().bind(expressionsModel.canRedoProperty().not());
 	}
 
 	// ------------------------------------------------------------------------
@@ -898,6 +936,10 @@ public class Controller implements Initializable
 		 * based on #expressionsTableView's selection model's selected items
 		 */
 		ObservableList<ExpressionDisplay<Number>> removable = expressionsTableView.getSelectionModel().getSelectedItems();
+		List<Expression<Number>> removed = new ArrayList<>(removable.size());
+		for (ExpressionDisplay<Number> expr : removable) {
+			removed.add(expr.getExpression());
+		}
 
 		/*
 		 * DONE Clear #expressionsTableView's selection model before removing
@@ -907,11 +949,9 @@ public class Controller implements Initializable
 
 		/**
 		 * DONE Actually remove expressions from #expressionsModel
+		 * (as a single edit which can be undone at once)
 		 */
-		boolean change = false;
-		for (ExpressionDisplay<Number> expr : removable) {
-			change = expressionsModel.remove(expr.getExpression()) || change;
-		}
+		boolean change = expressionsModel.removeAll(removed);
 		
 		/*
 		 * DONE If expressions have been removed then display "Expressions deleted"
@@ -922,6 +962,69 @@ public class Controller implements Initializable
 		}
 	}
 
+	/**
+	 * Action to undo the last edit of {@link #expressionsModel}
+	 * @param event Event associated with this action
+	 * @see ExpressionsModel#undo()
+	 */
+	@FXML
+	public void onUndoAction(ActionEvent event)
+	{
+		logger.info("Undo Action triggered ...");
+		if (expressionsModel.undo())
+		{
+			messageLabel.setText("Last edit undone");
+		}
+	}
+
+	/**
+	 * Action to redo the last undone edit of {@link #expressionsModel}
+	 * @param event Event associated with this action
+	 * @see ExpressionsModel#redo()
+	 */
+	@FXML
+	public void onRedoAction(ActionEvent event)
+	{
+		logger.info("Redo Action triggered ...");
+		if (expressionsModel.redo())
+		{
+			messageLabel.setText("Last undone edit redone");
+		}
+	}
+
+	/**
+	 * Action to plot the first selected expression of
+	 * {@link #expressionsTableView} as a function of one of its variables in
+	 * a new {@link PlotStage}
+	 * @param event Event associated with this action
+	 */
+	@FXML
+	public void onPlotAction(ActionEvent event)
+	{
+		logger.info("Plot Action triggered ...");
+		ExpressionDisplay<Number> selected = expressionsTableView.getSelectionModel().getSelectedItem();
+		if (selected == null)
+		{
+			messageLabel.setText("Select an expression to plot");
+			return;
+		}
+		try
+		{
+			PlotStage plotStage = new PlotStage(parentStage,
+			                                    selected.getExpression(),
+			                                    expressionsModel.getSpecimen(),
+			                                    expressionsModel.getVariables());
+			plotStage.show();
+			messageLabel.setText("Plotting " + selected.getExpression());
+		}
+		catch (IllegalArgumentException | UnsupportedOperationException e)
+		{
+			logger.warning("Can't plot " + selected.getExpression() + ": "
+			    + e.getLocalizedMessage());
+			messageLabel.setText("Can't plot " + selected.getExpression());
+		}
+	}
+
 	/**
 	 * Action to select all expressions in {@link #expressionsTableView}
 	 * @param event Event associated with this action
@@ -1117,17 +1220,13 @@ public class Controller implements Initializable
 	 * {@link Float}s.
 	 * {@link #doublesRadiomenuItem} should set expressions numbers type to
 	 * {@link Double}s.
-	 * Should trigger a re-parsing of all expressions
+	 * Converts all expressions and variables to the new number type in place
+	 * (see {@link ExpressionsModel#retype(Number)})
 	 * @param event Event associated with this action
 	 */
 	public void onSelectNumberType(ActionEvent event)
 	{
 		logger.info("Select Number type action triggered");
-		/*
-		 * DONE Get all expressions model's content into a text buffer
-		 * (to be able to reparse it after changing number type)
-		 */
-		String buffer = expressionsModel.toString();
 
 		/*
 		 * DONE Depending on event source set newSpecimen to the right number type
@@ -1146,36 +1245,23 @@ public class Controller implements Initializable
 			newSpecimen = (Double.valueOf(0.0));
 			msg = "Set number type to double ";
 		}
-		logger.info(msg);
-		
-
-		/*
-		 * DONE If new specimen is different from old one then
-		 * Clear current model
-		 * Set new number type to expressions model
-		 */
-		if(this.specimen.getValue() == newSpecimen) {
-			expressionsModel.clear();
-			expressionsModel.setNumberType(newSpecimen);
+		if (newSpecimen == null)
+		{
+			return;
 		}
+		logger.info(msg);
 
 		/*
-		 * DONE Parse all expressions in text buffer
-		 * (with possible ParserException)
-		 * Set message in #messageLabel
+		 * If new specimen type is different from old one then convert all
+		 * expressions and variables in place (instead of clearing the model
+		 * and parsing its text again)
 		 */
-		try {
-			expressionsModel.parse(buffer);
-		} catch (ParserException e) {
-			Alert alert = new Alert(AlertType.NONE);
-			alert.setAlertType(AlertType.ERROR);
-			alert.setTitle("ERROR");
-			alert.setContentText("Parsing error ");
-			alert.show();
-			return;
+		long start = System.nanoTime();
+		if (expressionsModel.retype(newSpecimen))
+		{
+			messageLabel.setText(msg + "in "
+			    + ((System.nanoTime() - start) / 1000000) + " ms");
 		}
-		messageLabel.setText("Expression parsed ");
-		
 	}
 
 	/**
@@ -1226,7 +1312,7 @@ public class Controller implements Initializable
 		searchField.clear();
 		terminalTypeCombobox.getSelectionModel().select(TerminalType.ALL);
 		binaryTypeCombobox.getSelectionModel().select(BinaryOperatorRules.ANY);
-		messageLabel.clear();
+		messageLabel.setText("");
 	}
 
 	/**
@@ -1482,22 +1568,31 @@ public class Controller implements Initializable
 	 * to current contacts.
 	 * @return true if provided file has been loaded, false otherwise
 	 * @apiNote Protected method so it can be called from Main
+	 * @implNote Invalid expressions are skipped and reported with their
+	 * position so the valid ones are still loaded
 	 */
 	private boolean loadFile(File file, boolean append)
 	{
 		boolean loaded = false;
+		List<Diagnostic> diagnostics = new ArrayList<>();
 		try
 		{
-			loaded = expressionsModel.load(file, append);
+			loaded = expressionsModel.load(file, append, diagnostics);
+			for (Diagnostic diagnostic : diagnostics)
+			{
+				logger.warning(file.getName() + ":" + diagnostic);
+			}
 			if (!loaded)
 			{
 				logger.warning("Unable to load " + file);
 				return false;
 			}
-			String message = String.format("File %s %s%s",
+			String message = String.format("File %s %s%s%s",
 			                               file.getName(),
 			                               loaded ? "" : "not ",
-			                               append ? "appended" : "loaded");
+			                               append ? "appended" : "loaded",
+			                               diagnostics.isEmpty() ? ""
+			                                   : " (" + diagnostics.size() + " invalid expressions skipped)");
 			logger.info(message);
 			messageLabel.setText(message);
 		}
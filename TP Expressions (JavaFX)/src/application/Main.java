@@ -1,5 +1,7 @@
 package application;
 
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
@@ -8,7 +10,11 @@ import java.util.TreeSet;
 import expressions.Expression;
 import expressions.binary.AssignmentExpression;
 import expressions.binary.BinaryExpression;
+import expressions.special.GroupExpression;
+import expressions.terminal.ConstantExpression;
 import expressions.terminal.VariableExpression;
+import expressions.visitors.ExpressionWalker;
+import expressions.visitors.NodeVisitor;
 import parser.ExpressionParser;
 import parser.exceptions.ParserException;
 
@@ -73,21 +79,13 @@ public class Main
 	{
 		Set<VariableExpression<E>> variables = new TreeSet<>();
 
-		if (expression != null)
-		{
-			if (expression instanceof VariableExpression<?>)
+		// Explored iteratively so expressions of any depth can be explored
+		ExpressionWalker.forEach(expression, node -> {
+			if (node instanceof VariableExpression<E> variable)
 			{
-				variables.add((VariableExpression<E>) expression);
+				variables.add(variable);
 			}
-
-			if (expression instanceof BinaryExpression<?>)
-			{
-				BinaryExpression<E> operator =
-				    (BinaryExpression<E>) expression;
-				variables.addAll(extractVariables(operator.getLeft()));
-				variables.addAll(extractVariables(operator.getRight()));
-			}
-		}
+		});
 
 		return variables;
 	}
@@ -105,61 +103,98 @@ public class Main
 	private static <E extends Number> boolean
 	    injectVariable(VariableExpression<E> variable, Expression<E> expression)
 	{
-		boolean result = false;
-		if ((variable != null) && (expression != null))
+		if ((variable == null) || (expression == null))
 		{
-			if (expression instanceof BinaryExpression<?>)
-			{
-				BinaryExpression<E> otherOperator = (BinaryExpression<E>) expression;
-				result = injectVariable(variable, otherOperator);
-			}
+			return false;
 		}
-		return result;
+		VariableInjector<E> injector = new VariableInjector<>(variable);
+		// Explored iteratively so expressions of any depth can be modified
+		ExpressionWalker.forEach(expression, node -> node.accept(injector));
+		return injector.injected;
 	}
 
 	/**
-	 * Inject variable into binary expression
+	 * Node visitor replacing operands of binary expressions equal to (but
+	 * distinct from) a variable by this variable
 	 * @param <E> the type of numbers in expressions
-	 * @param variable the variable to inject
-	 * @param operator the binary expression to modify
-	 * @return true if provided variable habe been found in provided binary
-	 * expression and replaced, false otherwise
 	 */
-	private static <E extends Number> boolean
-	    injectVariable(VariableExpression<E> variable,
-	                   BinaryExpression<E> operator)
+	private static class VariableInjector<E extends Number> implements NodeVisitor<E, Void>
 	{
-		boolean result = false;
-		if ((variable != null) && (operator != null))
+		/**
+		 * The variable to inject
+		 */
+		private final VariableExpression<E> variable;
+
+		/**
+		 * Whether the variable has been injected at least once
+		 */
+		private boolean injected;
+
+		/**
+		 * Constructor
+		 * @param variable the variable to inject
+		 */
+		VariableInjector(VariableExpression<E> variable)
+		{
+			this.variable = variable;
+			injected = false;
+		}
+
+		/**
+		 * Constants don't have operands
+		 * @param constant the visited constant
+		 * @return null
+		 */
+		@Override
+		public Void visitConstant(ConstantExpression<E> constant)
+		{
+			return null;
+		}
+
+		/**
+		 * Variables don't have operands
+		 * @param other the visited variable
+		 * @return null
+		 */
+		@Override
+		public Void visitVariable(VariableExpression<E> other)
+		{
+			return null;
+		}
+
+		/**
+		 * Replace operands of a binary expression equal to the variable
+		 * @param operator the visited binary expression
+		 * @return null
+		 */
+		@Override
+		public Void visitBinary(BinaryExpression<E> operator)
 		{
 			Expression<E> left = operator.getLeft();
-			Expression<E> right = operator.getRight();
-			if ((variable != left))
+			if ((variable != left) && variable.equals(left))
 			{
-				if (variable.equals(left))
-				{
-					operator.setLeft(variable);
-					result |= true;
-				}
-				else
-				{
-					result |= injectVariable(variable, left);
-				}
+				operator.setLeft(variable);
+				injected = true;
 			}
-			if (variable != right)
+			Expression<E> right = operator.getRight();
+			if ((variable != right) && variable.equals(right))
 			{
-				if (variable.equals(right))
-				{
-					operator.setRight(variable);
-					result |= true;
-				}
-				else
-				{
-					result |= injectVariable(variable, right);
-				}
+				operator.setRight(variable);
+				injected = true;
 			}
+			return null;
+		}
+
+		/**
+		 * Groups expressions are visited on their own
+		 * @param group the visited group
+		 * @return null
+		 */
+		@Override
+		public Void visitGroup(GroupExpression<E> group)
+		{
+			return null;
 		}
-		return result;
 	}
 
 	/**
@@ -186,12 +221,67 @@ public class Main
 		System.out.println(expr);
 	}
 
+	/**
+	 * Headless batch mode entry point.
+	 * @param args the program arguments (after "--batch"): [--type
+	 * {int|float|double}] [--vars bindings.csv|-] [expressions-file|-]
+	 * where "-" designates standard input (which is also the default
+	 * expressions source).
+	 * @see BatchEvaluator
+	 */
+	private static void batch(String[] args)
+	{
+		String numTypeString = "int";
+		String bindings = null;
+		String source = BatchEvaluator.STDIN;
+		for (int i = 0; i < args.length; i++)
+		{
+			if (args[i].equals("--type") || args[i].equals("--vars"))
+			{
+				if (i + 1 >= args.length)
+				{
+					System.err.println("missing argument for " + args[i]);
+					System.exit(1);
+				}
+				if (args[i].equals("--type"))
+				{
+					numTypeString = args[++i];
+				}
+				else
+				{
+					bindings = args[++i];
+				}
+			}
+			else
+			{
+				source = args[i];
+			}
+		}
+
+		try
+		{
+			BatchEvaluator evaluator =
+			    new BatchEvaluator(numTypeString, System.out, System.err);
+			if (!evaluator.run(source, bindings))
+			{
+				System.exit(2);
+			}
+		}
+		catch (IOException | IllegalArgumentException e)
+		{
+			System.err.println(e.getLocalizedMessage());
+			System.exit(1);
+		}
+	}
+
 	/**
 	 * Main program entrey point.
 	 * Parses expressions from argument string
 	 * @param args contains the expressions to parse separated by ";" but can
 	 * start with a "--type {int|float|double}" to indicate the type of numbers
-	 * expected in the following expressions. [default is int]
+	 * expected in the following expressions. [default is int].
+	 * If first argument is "--batch" then runs in headless batch mode
+	 * (see {@link #batch(String[])}).
 	 */
 	@SuppressWarnings("unchecked")
 	public static void main(String[] args)
@@ -199,6 +289,13 @@ public class Main
 		if (args.length == 0)
 		{
 			System.out.println("usage: java application.Main --type {int|float|double} expression1;expression2;...");
+			System.out.println("   or: java application.Main --batch [--type {int|float|double}] [--vars bindings.csv|-] [expressions-file|-]");
+			return;
+		}
+
+		if (args[0].equals("--batch"))
+		{
+			batch(Arrays.copyOfRange(args, 1, args.length));
 			return;
 		}
 
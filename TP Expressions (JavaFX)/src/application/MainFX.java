@@ -15,6 +15,7 @@ import javafx.scene.image.Image;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 import logger.LoggerFactory;
+import metrics.Metrics;
 import utils.IconFactory;
 
 /**
@@ -76,6 +77,10 @@ public class MainFX extends Application
 		    (verbose ? null : runningClass.getSimpleName() + ".log");
 		Logger parent = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
 		Level level = (verbose ? Level.ALL : Level.INFO);
+		/*
+		 * Log records are written asynchronously so that logging every UI
+		 * action does not perform I/O on the JavaFX Application Thread
+		 */
 		try
 		{
 			logger = LoggerFactory.getLogger(runningClass,
@@ -83,7 +88,8 @@ public class MainFX extends Application
 			                                 logFilename,
 			                                 false,
 			                                 parent,
-			                                 level);
+			                                 level,
+			                                 true);
 		}
 		catch (IOException ex)
 		{
@@ -91,6 +97,11 @@ public class MainFX extends Application
 			System.exit(ex.hashCode());
 		}
 
+		/*
+		 * Metrics are exposed through JMX (but only collected when enabled)
+		 */
+		Metrics.registerMBean();
+
 		preferences = Preferences.userNodeForPackage(getClass());
 
 		setAttributes(appParameters);
@@ -172,6 +183,18 @@ public class MainFX extends Application
 		primaryStage.show();
 	}
 
+	/**
+	 * Application stop method.
+	 * Called when the application exits: publishes pending log records and
+	 * stops the asynchronous log writer threads.
+	 */
+	@Override
+	public void stop() throws Exception
+	{
+		LoggerFactory.closeAsyncHandlers();
+		super.stop();
+	}
+
 	/**
 	 * Main program entry
 	 * @param args program arguments
@@ -0,0 +1,562 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.DoubleUnaryOperator;
+
+import expressions.Expression;
+import expressions.flat.FlatExpression;
+import expressions.plot.AdaptiveSampler;
+import expressions.plot.Curve;
+import javafx.animation.PauseTransition;
+import javafx.concurrent.Task;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextField;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import javafx.util.Duration;
+import utils.IconFactory;
+
+/**
+ * Window plotting an expression as a function of one of its variables (the
+ * other variables keeping their current values).
+ * <ul>
+ * 	<li>The expression is {@link FlatExpression flattened} once and sampled
+ * 	{@link AdaptiveSampler adaptively} on a background thread so that the
+ * 	UI never waits for evaluations.</li>
+ * 	<li>Samples are kept in a {@link Curve} and only a
+ * 	{@link Curve#downsample(double, double, int) downsampled} version (at
+ * 	most one point per pixel) of the visible part of the curve is handed to
+ * 	the {@link LineChart}, so that zooming and panning stay interactive
+ * 	regardless of the number of samples.</li>
+ * 	<li>When zooming reveals too few samples, the visible range is sampled
+ * 	again (in the background) to provide more details.</li>
+ * </ul>
+ * Scrolling zooms around the mouse pointer, dragging pans and double
+ * clicking resets the plotted range.
+ */
+public class PlotStage extends Stage
+{
+	/**
+	 * Default lower bound of the plotted range
+	 */
+	private static final double DefaultFrom = -10.0;
+
+	/**
+	 * Default upper bound of the plotted range
+	 */
+	private static final double DefaultTo = 10.0;
+
+	/**
+	 * Number of initial regular intervals of the sampled range
+	 */
+	private static final int InitialSamples = 1024;
+
+	/**
+	 * Maximum number of samples per sampling
+	 */
+	private static final int MaxSamples = 1 << 21;
+
+	/**
+	 * Maximum relative deviation from linearity of sampled intervals
+	 */
+	private static final double Tolerance = 1e-4;
+
+	/**
+	 * Zoom factor per scrolled pixel
+	 */
+	private static final double ZoomRate = 0.002;
+
+	/**
+	 * Delay after the last range change before sampling details
+	 */
+	private static final Duration DetailsDelay = Duration.millis(150);
+
+	/**
+	 * Width used for downsampling before the chart is laid out
+	 */
+	private static final int DefaultWidth = 800;
+
+	/**
+	 * The flattened expression to plot (only used on {@link #executor}'s
+	 * thread once plotted)
+	 */
+	private final FlatExpression expression;
+
+	/**
+	 * Values of all variables of {@link #expression} (in the order of
+	 * {@link FlatExpression#getVariables()}) with NaN for variables without
+	 * values
+	 */
+	private final double[] values;
+
+	/**
+	 * Single thread evaluating {@link #expression} in the background
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * Horizontal axis (with manual range)
+	 */
+	private final NumberAxis xAxis;
+
+	/**
+	 * The plotted series
+	 */
+	private final XYChart.Series<Number, Number> series;
+
+	/**
+	 * Combo box of the variable of the plotted function
+	 */
+	private final ComboBox<String> variableComboBox;
+
+	/**
+	 * Lower bound of the sampled range
+	 */
+	private final TextField fromField;
+
+	/**
+	 * Upper bound of the sampled range
+	 */
+	private final TextField toField;
+
+	/**
+	 * Label showing sampling statistics and errors
+	 */
+	private final Label statusLabel;
+
+	/**
+	 * Delays details sampling until range changes settle
+	 */
+	private final PauseTransition detailsDelay;
+
+	/**
+	 * Samples of the whole sampled range (or null if not sampled yet)
+	 */
+	private Curve curve;
+
+	/**
+	 * Samples of a sub-range of {@link #curve} with more details (or null)
+	 */
+	private Curve details;
+
+	/**
+	 * Lower bound of the whole sampled range
+	 */
+	private double from;
+
+	/**
+	 * Upper bound of the whole sampled range
+	 */
+	private double to;
+
+	/**
+	 * The currently running sampling task (or null)
+	 */
+	private Task<Curve> task;
+
+	/**
+	 * Abscissa of the mouse when dragging started (or NaN)
+	 */
+	private double dragX;
+
+	/**
+	 * Constructor
+	 * @param owner the owner window of this stage
+	 * @param source the expression to plot
+	 * @param specimen the number type of the expression
+	 * @param variablesValues the current values of variables
+	 * @throws NullPointerException if source, specimen or variablesValues is
+	 * null
+	 * @throws IllegalArgumentException if specimen is not an
+	 * {@link Integer}, a {@link Float} or a {@link Double}
+	 * @throws UnsupportedOperationException if expression can't be flattened
+	 */
+	public <E extends Number> PlotStage(Window owner,
+	                                    Expression<E> source,
+	                                    E specimen,
+	                                    Map<String, Optional<? extends Number>> variablesValues)
+	    throws NullPointerException,
+	    IllegalArgumentException,
+	    UnsupportedOperationException
+	{
+		expression = FlatExpression.compile(source, specimen);
+		List<String> variables = expression.getVariables();
+		values = new double[variables.size()];
+		List<String> plottable = new ArrayList<>();
+		for (int i = 0; i < values.length; i++)
+		{
+			Optional<? extends Number> value = variablesValues.get(variables.get(i));
+			values[i] = value != null && value.isPresent() ? value.get().doubleValue() : Double.NaN;
+			if (expression.reads(variables.get(i)))
+			{
+				plottable.add(variables.get(i));
+			}
+		}
+		executor = Executors.newSingleThreadExecutor((Runnable runnable) -> {
+			Thread thread = new Thread(runnable, "Plot sampler");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		xAxis = new NumberAxis(DefaultFrom, DefaultTo, (DefaultTo - DefaultFrom) / 10);
+		xAxis.setAutoRanging(false);
+		xAxis.setAnimated(false);
+		NumberAxis yAxis = new NumberAxis();
+		yAxis.setForceZeroInRange(false);
+		yAxis.setAnimated(false);
+		LineChart<Number, Number> chart = new LineChart<>(xAxis, yAxis);
+		chart.setCreateSymbols(false);
+		chart.setAnimated(false);
+		chart.setLegendVisible(false);
+		series = new XYChart.Series<>();
+		chart.getData().add(series);
+		chart.addEventHandler(ScrollEvent.SCROLL, this::onScroll);
+		chart.addEventHandler(MouseEvent.MOUSE_PRESSED, this::onMousePressed);
+		chart.addEventHandler(MouseEvent.MOUSE_DRAGGED, this::onMouseDragged);
+		chart.addEventHandler(MouseEvent.MOUSE_CLICKED, this::onMouseClicked);
+		xAxis.widthProperty().addListener((observable, oldValue, newValue) -> refresh());
+
+		variableComboBox = new ComboBox<>();
+		variableComboBox.getItems().setAll(plottable);
+		variableComboBox.getSelectionModel().selectFirst();
+		variableComboBox.setDisable(plottable.isEmpty());
+		fromField = new TextField(String.valueOf(DefaultFrom));
+		fromField.setPrefColumnCount(6);
+		toField = new TextField(String.valueOf(DefaultTo));
+		toField.setPrefColumnCount(6);
+		Button plotButton = new Button("Plot");
+		plotButton.setDefaultButton(true);
+		plotButton.setOnAction(event -> plot());
+		HBox controls = new HBox(6.0,
+		                         new Label("Variable"),
+		                         variableComboBox,
+		                         new Label("From"),
+		                         fromField,
+		                         new Label("To"),
+		                         toField,
+		                         plotButton);
+		controls.setAlignment(Pos.CENTER_LEFT);
+		controls.setPadding(new Insets(6.0));
+		statusLabel = new Label();
+		statusLabel.setPadding(new Insets(3.0, 6.0, 3.0, 6.0));
+
+		detailsDelay = new PauseTransition(DetailsDelay);
+		detailsDelay.setOnFinished(event -> sampleDetails());
+
+		BorderPane root = new BorderPane(chart, controls, null, statusLabel, null);
+		setScene(new Scene(root, 900, 600));
+		setTitle("Plot of " + source);
+		getIcons().add(IconFactory.getLargeIcon("sigma"));
+		initOwner(owner);
+		setOnHidden(event -> {
+			detailsDelay.stop();
+			cancelTask();
+			executor.shutdownNow();
+		});
+
+		curve = null;
+		details = null;
+		dragX = Double.NaN;
+		plot();
+	}
+
+	/**
+	 * Sample the whole range entered in {@link #fromField} and
+	 * {@link #toField} and reset the plotted range to this range
+	 */
+	private void plot()
+	{
+		double newFrom;
+		double newTo;
+		try
+		{
+			newFrom = Double.parseDouble(fromField.getText().trim());
+			newTo = Double.parseDouble(toField.getText().trim());
+		}
+		catch (NumberFormatException e)
+		{
+			statusLabel.setText("Invalid range: " + e.getLocalizedMessage());
+			return;
+		}
+		if (!(newFrom < newTo) || !Double.isFinite(newFrom) || !Double.isFinite(newTo))
+		{
+			statusLabel.setText("Invalid range: from should be lower than to");
+			return;
+		}
+		from = newFrom;
+		to = newTo;
+		curve = null;
+		details = null;
+		setRange(from, to);
+		DoubleUnaryOperator function = function();
+		if (function == null)
+		{
+			return;
+		}
+		submit(function, from, to, (Curve sampled) -> {
+			curve = sampled;
+			refresh();
+		});
+	}
+
+	/**
+	 * Sample the visible range with more details if {@link #curve} has less
+	 * than a sample per two pixels within this range
+	 */
+	private void sampleDetails()
+	{
+		double lower = xAxis.getLowerBound();
+		double upper = xAxis.getUpperBound();
+		if ((curve == null) || (curve.count(lower, upper) >= width() / 2)
+		    || ((details != null) && (details.count(lower, upper) >= width() / 2)))
+		{
+			return;
+		}
+		DoubleUnaryOperator function = function();
+		if (function == null)
+		{
+			return;
+		}
+		submit(function, lower, upper, (Curve sampled) -> {
+			details = sampled;
+			refresh();
+		});
+	}
+
+	/**
+	 * The function to sample
+	 * @return the function of the selected variable or of a dummy variable if
+	 * the expression doesn't read any variable, or null if a variable read by
+	 * the expression has no value
+	 */
+	private DoubleUnaryOperator function()
+	{
+		String variable = variableComboBox.getValue();
+		List<String> variables = expression.getVariables();
+		for (int i = 0; i < values.length; i++)
+		{
+			String name = variables.get(i);
+			if (Double.isNaN(values[i]) && !name.equals(variable) && expression.reads(name))
+			{
+				statusLabel.setText("No value for variable " + name);
+				return null;
+			}
+		}
+		if (variable == null)
+		{
+			double[] point = values.clone();
+			return (double x) -> expression.evaluate(point);
+		}
+		return AdaptiveSampler.function(expression, variable, values);
+	}
+
+	/**
+	 * Sample a function in the background (cancelling any running sampling)
+	 * @param function the function to sample
+	 * @param lower the lower bound of the sampled range
+	 * @param upper the upper bound of the sampled range
+	 * @param onSucceeded action receiving the samples on the JavaFX
+	 * application thread
+	 */
+	private void submit(DoubleUnaryOperator function,
+	                    double lower,
+	                    double upper,
+	                    Consumer<Curve> onSucceeded)
+	{
+		cancelTask();
+		int initial = Math.max(InitialSamples, width());
+		Task<Curve> sampling = new Task<>()
+		{
+			/**
+			 * Sample the function
+			 * @return the samples
+			 */
+			@Override
+			protected Curve call()
+			{
+				long start = System.nanoTime();
+				Curve sampled = AdaptiveSampler.sample(function,
+				                                       lower,
+				                                       upper,
+				                                       initial,
+				                                       MaxSamples,
+				                                       Tolerance,
+				                                       this::isCancelled);
+				updateMessage(sampled.size() + " samples in "
+				    + ((System.nanoTime() - start) / 1000000L) + " ms");
+				return sampled;
+			}
+		};
+		sampling.setOnSucceeded(event -> {
+			if (task == sampling)
+			{
+				task = null;
+				statusLabel.setText(sampling.getMessage());
+				onSucceeded.accept(sampling.getValue());
+			}
+		});
+		sampling.setOnFailed(event -> {
+			if (task == sampling)
+			{
+				task = null;
+				statusLabel.setText("Sampling failed: "
+				    + sampling.getException().getLocalizedMessage());
+			}
+		});
+		task = sampling;
+		statusLabel.setText("Sampling ...");
+		executor.execute(sampling);
+	}
+
+	/**
+	 * Cancel the running sampling (if any)
+	 */
+	private void cancelTask()
+	{
+		if (task != null)
+		{
+			task.cancel(false);
+			task = null;
+		}
+	}
+
+	/**
+	 * Display the downsampled samples of the visible range
+	 */
+	private void refresh()
+	{
+		double lower = xAxis.getLowerBound();
+		double upper = xAxis.getUpperBound();
+		Curve source = curve;
+		if ((details != null)
+		    && (details.size() > 0)
+		    && (details.x(0) <= lower)
+		    && (details.x(details.size() - 1) >= upper))
+		{
+			source = details;
+		}
+		if (source == null)
+		{
+			series.getData().clear();
+			return;
+		}
+		Curve visible = source.downsample(lower, upper, Math.max(3, width()));
+		List<XYChart.Data<Number, Number>> points = new ArrayList<>(visible.size());
+		for (int i = 0; i < visible.size(); i++)
+		{
+			points.add(new XYChart.Data<>(visible.x(i), visible.y(i)));
+		}
+		series.getData().setAll(points);
+	}
+
+	/**
+	 * Change the plotted range
+	 * @param lower the new lower bound
+	 * @param upper the new upper bound
+	 */
+	private void setRange(double lower, double upper)
+	{
+		if (!(lower < upper) || !Double.isFinite(lower) || !Double.isFinite(upper))
+		{
+			return;
+		}
+		xAxis.setLowerBound(lower);
+		xAxis.setUpperBound(upper);
+		xAxis.setTickUnit((upper - lower) / 10);
+		refresh();
+		detailsDelay.playFromStart();
+	}
+
+	/**
+	 * Width of the plot in pixels
+	 * @return the width of the horizontal axis (or a default width if it
+	 * isn't laid out yet)
+	 */
+	private int width()
+	{
+		int width = (int) xAxis.getWidth();
+		return width > 0 ? width : DefaultWidth;
+	}
+
+	/**
+	 * Abscissa at a scene location
+	 * @param sceneX the horizontal scene coordinate
+	 * @param sceneY the vertical scene coordinate
+	 * @return the abscissa value at this location
+	 */
+	private double valueAt(double sceneX, double sceneY)
+	{
+		return xAxis.getValueForDisplay(xAxis.sceneToLocal(sceneX, sceneY).getX()).doubleValue();
+	}
+
+	/**
+	 * Zoom around the mouse pointer
+	 * @param event the scroll event
+	 */
+	private void onScroll(ScrollEvent event)
+	{
+		double lower = xAxis.getLowerBound();
+		double upper = xAxis.getUpperBound();
+		double x = valueAt(event.getSceneX(), event.getSceneY());
+		double factor = Math.exp(-event.getDeltaY() * ZoomRate);
+		setRange(x - (x - lower) * factor, x + (upper - x) * factor);
+		event.consume();
+	}
+
+	/**
+	 * Start dragging
+	 * @param event the mouse event
+	 */
+	private void onMousePressed(MouseEvent event)
+	{
+		dragX = event.getButton() == MouseButton.PRIMARY
+		    ? valueAt(event.getSceneX(), event.getSceneY())
+		    : Double.NaN;
+	}
+
+	/**
+	 * Pan so that the abscissa where dragging started stays under the mouse
+	 * @param event the mouse event
+	 */
+	private void onMouseDragged(MouseEvent event)
+	{
+		if (Double.isNaN(dragX))
+		{
+			return;
+		}
+		double shift = dragX - valueAt(event.getSceneX(), event.getSceneY());
+		setRange(xAxis.getLowerBound() + shift, xAxis.getUpperBound() + shift);
+	}
+
+	/**
+	 * Reset the plotted range on double clicks
+	 * @param event the mouse event
+	 */
+	private void onMouseClicked(MouseEvent event)
+	{
+		dragX = Double.NaN;
+		if ((event.getButton() == MouseButton.PRIMARY) && (event.getClickCount() == 2))
+		{
+			setRange(from, to);
+		}
+	}
+}
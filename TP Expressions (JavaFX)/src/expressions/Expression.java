@@ -1,5 +1,7 @@
 package expressions;
 
+import expressions.visitors.NodeVisitor;
+
 /**
  * Base interface for arithmetic expressions.
  * Expressions needs to be evaluated, but sometimes they can't be evaluated
@@ -63,6 +65,16 @@ public interface Expression<E extends Number> extends ValueHolder<E>,
 	@Override
 	public abstract boolean contains(Expression<E> expr);
 
+	/**
+	 * Accept a visitor on this expression node
+	 * @param <R> The type of results produced by the visitor
+	 * @param visitor the visitor to dispatch on the concrete kind of this
+	 * expression
+	 * @return the result of the visitor on this expression
+	 * @throws NullPointerException if visitor is null
+	 */
+	public abstract <R> R accept(NodeVisitor<E, R> visitor) throws NullPointerException;
+
 	/**
 	 * Comparison with another object.
 	 * This method is abstract because: A default method cannot override a
@@ -38,30 +38,27 @@ public class AssignmentExpression<E extends Number> extends BinaryExpression<E>
 	}
 
 	/**
-	 * Numeric value of this expression.
-	 * This implementation uses the {@link BinaryExpression#value()} but also
-	 * ensures that if right side has a value it is copied to the left side.
-	 * @return the numeric value of this expression as computed by
-	 * {@link #operate(Number, Number)}
-	 * @throws IllegalStateException if a value can't be evaluated right now
+	 * Evaluate this assignment once its right side has been evaluated.
+	 * Ensures that the right side value is copied to the left side.
+	 * @param leftValue the value of the left side (unused)
+	 * @param rightValue the value of the right side
+	 * @return the assigned value
+	 * @implNote Within local values (see
+	 * {@link VariableExpression#setLocalValues(java.util.Map)}) the value is
+	 * only assigned in the current thread's values so shared (e.g. cached)
+	 * expressions can be evaluated concurrently.
 	 */
 	@Override
-	public E value() throws IllegalStateException
+	protected E evaluate(E leftValue, E rightValue)
 	{
-		if (!hasValue())
-		{
-			throw new IllegalStateException("Assignment don't have a value yet");
-		}
 		// DONE Replace with correct implementation
-		E value = right.value();
-		
 		// Assign value to left side variable
 		if (left instanceof VariableExpression<E> variable) {
-			variable.setValue(value);
+			variable.setValue(rightValue);
 		}
-		
+
 		// Return the assigned value
-		return value;
+		return rightValue;
 	}
 
 	/**
@@ -69,14 +66,15 @@ public class AssignmentExpression<E extends Number> extends BinaryExpression<E>
 	 * An assignement has a value when both sides are non null and the right
 	 * side can produce a value (which shall be copied to the left side during
 	 * evaluation).
-	 * @return true if expression can produce a value
-	 * and calling {@link #value()} is legal. False otherwise
+	 * @param leftHasValue whether left side has a value (unused)
+	 * @param rightHasValue whether right side has a value
+	 * @return true if right side has a value
 	 */
 	@Override
-	public boolean hasValue()
+	protected boolean hasValue(boolean leftHasValue, boolean rightHasValue)
 	{
 		// DONE Replace with correct implementation
-		return getLeft() != null && getRight() != null && getRight().hasValue();
+		return rightHasValue;
 	}
 
 	/**
@@ -123,8 +121,8 @@ public class AssignmentExpression<E extends Number> extends BinaryExpression<E>
 	 * Special case for {@link AssignmentExpression} since the left side must be
 	 * a {@link VariableExpression}.
 	 * @param left the left expression to set
-	 * @throws IllegalArgumentException if the provided left is not a
-	 * {@link VariableExpression}
+	 * @throws IllegalArgumentException if the provided left is non null and
+	 * is not a {@link VariableExpression}
 	 * @implSpec if provided left is non null and is a {@link VariableExpression}
 	 * then replace this left side with provided left
 	 * @implSpec if left side can be replaced by provided left and right side
@@ -134,7 +132,7 @@ public class AssignmentExpression<E extends Number> extends BinaryExpression<E>
 	public void setLeft(Expression<E> left) throws IllegalArgumentException
 	{
 		// DONE replace with correct implementation
-		if (!(left instanceof VariableExpression)) {
+		if ((left != null) && !(left instanceof VariableExpression)) {
 			throw new IllegalArgumentException("Left side of AssignmentExpression must be a VariableExpression");
 		}
 		super.setLeft(left);
@@ -1,8 +1,15 @@
 package expressions.binary;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+
 import expressions.AbstractExpression;
 import expressions.Expression;
 import expressions.terminal.TerminalExpression;
+import expressions.visitors.ExpressionVisitor;
+import expressions.visitors.ExpressionWalker;
+import expressions.visitors.NodeVisitor;
+import metrics.Metrics;
 
 /**
  * Binary expression to evaluate an operator between two expressions (i.e. a + b)
@@ -149,8 +156,11 @@ public abstract class BinaryExpression<E extends Number> extends AbstractExpress
 	/**
 	 * Numeric value of this expression
 	 * @return the numeric value of this expression as computed by
-	 * {@link #operate(Number, Number)}
+	 * {@link #evaluate(Number, Number)} on each operator
 	 * @throws IllegalStateException if a value can't be evaluated right now
+	 * @implNote evaluation is iterative (see {@link ExpressionWalker}) so
+	 * expressions of any depth can be evaluated, and is timed per operator
+	 * when {@link Metrics} are enabled
 	 * @see #operate(Number, Number)
 	 */
 	@Override
@@ -161,7 +171,7 @@ public abstract class BinaryExpression<E extends Number> extends AbstractExpress
 			throw new IllegalStateException("Both side don't have a value yet");
 		}
 
-		return operate(left.value(), right.value());
+		return ExpressionWalker.walk(this, new Evaluation<E>());
 	}
 
 	/**
@@ -169,15 +179,45 @@ public abstract class BinaryExpression<E extends Number> extends AbstractExpress
 	 * that the operation can produce a value
 	 * @return true if expression can produce a value
 	 * and calling {@link #value()} is legal. False otherwise
+	 * @implNote computed iteratively (see {@link ExpressionWalker}) using
+	 * {@link #hasValue(boolean, boolean)} on each operator
 	 */
 	@Override
 	public boolean hasValue()
 	{
-		if ((left != null) && (right != null))
-		{
-			return left.hasValue() && right.hasValue();
-		}
-		return false;
+		return ExpressionWalker.walk(this, new ValueAvailability<E>());
+	}
+
+	/**
+	 * Indicate if this operator can produce a value when both of its operands
+	 * are non null
+	 * @param leftHasValue whether left operand has a value
+	 * @param rightHasValue whether right operand has a value
+	 * @return true if both operands have a value
+	 * @implSpec subclasses which do not need both operands values should
+	 * override this method rather than {@link #hasValue()}
+	 */
+	protected boolean hasValue(boolean leftHasValue, boolean rightHasValue)
+	{
+		return leftHasValue && rightHasValue;
+	}
+
+	/**
+	 * Evaluate this operator once its operands have been evaluated
+	 * @param leftValue the value of the left operand (or null if left
+	 * operand is not required to have a value)
+	 * @param rightValue the value of the right operand (or null if right
+	 * operand is not required to have a value)
+	 * @return the value of this operator
+	 * @throws UnsupportedOperationException if the type E of the operands
+	 * is not one of {@link Integer}, {@link Float} or {@link Double}
+	 * @implSpec Default implementation uses {@link #operate(Number, Number)}:
+	 * subclasses with side effects should override this method rather than
+	 * {@link #value()}
+	 */
+	protected E evaluate(E leftValue, E rightValue) throws UnsupportedOperationException
+	{
+		return operate(leftValue, rightValue);
 	}
 
 	/**
@@ -202,6 +242,13 @@ public abstract class BinaryExpression<E extends Number> extends AbstractExpress
 	 * children.
 	 * @throws IllegalArgumentException if the provided new parent is contained
 	 * in this expression (which includes the case where the proposed parent is self)
+	 * @implNote containment of the new parent is checked by
+	 * {@link #isAncestorOf(Expression)} in O(min(depth of parent, size of this
+	 * expression)) so trees can be built in linear time both top-down
+	 * (attaching fresh operands) and bottom-up (attaching to fresh operators)
+	 * @implSpec If this expression is still an operand of its previous parent,
+	 * it is detached from it (the corresponding side is set to null) so that
+	 * an operator is an operand of at most one operator which is its parent.
 	 */
 	@Override
 	public void setParent(Expression<E> parent) throws IllegalArgumentException
@@ -210,13 +257,90 @@ public abstract class BinaryExpression<E extends Number> extends AbstractExpress
 		{
 			throw new IllegalArgumentException("parent can't be terminal expression");
 		}
-		if (contains(parent))
+		if (isAncestorOf(parent))
 		{
 			throw new IllegalArgumentException("parent can't be contained");
 		}
+		if ((this.parent != parent) && (this.parent instanceof BinaryExpression<E> previous))
+		{
+			if (previous.left == this)
+			{
+				previous.left = null;
+			}
+			if (previous.right == this)
+			{
+				previous.right = null;
+			}
+		}
 		this.parent = parent;
 	}
 
+	/**
+	 * Indicate if a non terminal expression is contained in this expression
+	 * (as {@link #contains(Expression)} does) by climbing the ancestors of
+	 * this expression and searching the operands of this expression in
+	 * lockstep, stopping as soon as either search is over.
+	 * @param expr the non terminal expression to search
+	 * @return true if expr is this expression or one of its descendants
+	 * @implNote Climbing only follows parent links confirmed by the operands
+	 * of the parent (links set by {@link #setParent(Expression)} alone are
+	 * not followed) and relies on non terminal expressions being operands of
+	 * at most one expression, their parent, which
+	 * {@link #setParent(Expression)} ensures by detaching them from their
+	 * previous parent. Terminal expressions (such as variables) may be
+	 * shared among expressions, so they must be searched with
+	 * {@link #contains(Expression)}.
+	 */
+	private boolean isAncestorOf(Expression<E> expr)
+	{
+		if (expr == null)
+		{
+			return false;
+		}
+		Deque<Expression<E>> pending = new ArrayDeque<>();
+		pending.push(this);
+		Expression<E> ancestor = expr;
+		boolean climbing = true;
+		while (!pending.isEmpty())
+		{
+			if (climbing)
+			{
+				if (ancestor == this)
+				{
+					return true;
+				}
+				Expression<E> next = ancestor.getParent();
+				if (next instanceof BinaryExpression<E> binary)
+				{
+					climbing = binary.left == ancestor || binary.right == ancestor;
+					ancestor = next;
+				}
+				else
+				{
+					// Reached a root (or a group) without meeting this
+					return false;
+				}
+			}
+			Expression<E> node = pending.pop();
+			if (node == expr)
+			{
+				return true;
+			}
+			if (node instanceof BinaryExpression<E> binary)
+			{
+				if (binary.right != null)
+				{
+					pending.push(binary.right);
+				}
+				if (binary.left != null)
+				{
+					pending.push(binary.left);
+				}
+			}
+		}
+		return false;
+	}
+
 	/**
 	 * Test containment of another expression
 	 * @param expr the expression to test
@@ -228,14 +352,22 @@ public abstract class BinaryExpression<E extends Number> extends AbstractExpress
 	@Override
 	public boolean contains(Expression<E> expr)
 	{
-		if (super.contains(expr))
-		{
-			return true;
-		}
+		// Searched iteratively so expressions of any depth can be searched
+		return ExpressionWalker.anyMatch(this, node -> node == expr);
+	}
 
-		boolean leftContained = (left != null ? left.contains(expr) : false);
-		boolean rightContained = (right != null ? right.contains(expr) : false);
-		return leftContained || rightContained;
+	/**
+	 * Accept a visitor on this binary expression
+	 * @param <R> The type of results produced by the visitor
+	 * @param visitor the visitor to dispatch
+	 * @return the result of {@link NodeVisitor#visitBinary(BinaryExpression)} on this
+	 * binary expression
+	 * @throws NullPointerException if visitor is null
+	 */
+	@Override
+	public <R> R accept(NodeVisitor<E, R> visitor) throws NullPointerException
+	{
+		return visitor.visitBinary(this);
 	}
 
 	/**
@@ -243,59 +375,291 @@ public abstract class BinaryExpression<E extends Number> extends AbstractExpress
 	 * left side expressions string + operation string + right side expression
 	 * string
 	 * @return a string representation of this binary operation
+	 * @implSpec operands are parenthesized when they have strictly lower
+	 * priority (left side) or lower or equal priority (right side) than their
+	 * operator, so the rendered string can be parsed back to the same
+	 * expression. Earlier versions only parenthesized right operands:
+	 * (1 + 2) * 3 was rendered as "1.0 + 2.0 * 3.0" and is now rendered as
+	 * "(1.0 + 2.0) * 3.0".
+	 * @implNote rendered iteratively (see {@link ExpressionWalker}) so
+	 * expressions of any depth can be rendered
 	 */
 	@Override
 	public String toString()
 	{
-		StringBuilder sb = new StringBuilder();
+		Rendering<E> rendering = new Rendering<>();
+		ExpressionWalker.walk(this, rendering);
+		return rendering.toString();
+	}
 
-		if (left != null)
+	/**
+	 * Method to determine if an operand has operators with lower priority
+	 * than the current operator
+	 * @param operand the operand to test for lower priority operators
+	 * @return true if the operand contains operators with lower priority than
+	 * the current operator
+	 * @see #toString()
+	 */
+	private boolean hasLowerPriority(Expression<E> operand)
+	{
+		if (operand instanceof BinaryExpression<?>)
 		{
-			sb.append(left.toString());
-			sb.append(' ');
+			BinaryExpression<E> binop  = (BinaryExpression<E>) operand;
+			return binop.rules.priority() <= rules.priority();
 		}
+		return false;
+	}
 
-		sb.append(rules.toString());
+	/**
+	 * Method to determine if an operand has operators with strictly lower
+	 * priority than the current operator (which requires parentheses around
+	 * left operands since operators are left associative)
+	 * @param operand the operand to test for lower priority operators
+	 * @return true if the operand contains operators with strictly lower
+	 * priority than the current operator
+	 * @see #toString()
+	 */
+	private boolean hasStrictlyLowerPriority(Expression<E> operand)
+	{
+		if (operand instanceof BinaryExpression<?>)
+		{
+			BinaryExpression<E> binop  = (BinaryExpression<E>) operand;
+			return binop.rules.priority() < rules.priority();
+		}
+		return false;
+	}
 
-		if (right != null)
+	/**
+	 * Visitor evaluating expressions
+	 * @param <E> The type of numbers in evaluated expressions
+	 */
+	private static class Evaluation<E extends Number> implements ExpressionVisitor<E, E>
+	{
+		/**
+		 * Whether evaluation of operators are timed
+		 */
+		private final boolean timed;
+
+		/**
+		 * Start times of operators being evaluated (when timed)
+		 */
+		private final Deque<Long> starts;
+
+		/**
+		 * Constructor
+		 */
+		Evaluation()
 		{
-			sb.append(' ');
-			/*
-			 * If right side has lower or equal priority then parentheses are
-			 * required
-			 */
-			boolean lowerPriority = hasLowerPriority(right);
-			if (lowerPriority)
+			timed = Metrics.isEnabled();
+			starts = new ArrayDeque<>();
+		}
+
+		/**
+		 * Value of a leaf
+		 * @param leaf the leaf to evaluate
+		 * @return the value of the leaf or null if it has no value (which
+		 * is only legal for operands whose value is not required, such as
+		 * the left side of assignments)
+		 */
+		@Override
+		public E visitLeaf(Expression<E> leaf)
+		{
+			return leaf.hasValue() ? leaf.value() : null;
+		}
+
+		/**
+		 * Starts timing an operator
+		 * @param binary the operator
+		 */
+		@Override
+		public void enter(BinaryExpression<E> binary)
+		{
+			if (timed)
 			{
-				sb.append("(");
+				starts.push(System.nanoTime());
 			}
+		}
 
-			sb.append(right.toString());
-
-			if (lowerPriority)
+		/**
+		 * Value of an operator
+		 * @param binary the operator
+		 * @param left the value of the left operand
+		 * @param right the value of the right operand
+		 * @return the value of the operator
+		 */
+		@Override
+		public E visitBinary(BinaryExpression<E> binary, E left, E right)
+		{
+			E result = binary.evaluate(left, right);
+			if (timed)
 			{
-				sb.append(")");
+				Metrics.recordEvaluation(binary, System.nanoTime() - starts.pop());
 			}
+			return result;
 		}
+	}
 
-		return sb.toString();
+	/**
+	 * Visitor checking if expressions have values
+	 * @param <E> The type of numbers in checked expressions
+	 */
+	private static class ValueAvailability<E extends Number>
+	    implements ExpressionVisitor<E, Boolean>
+	{
+		/**
+		 * Whether a leaf has a value
+		 * @param leaf the leaf to check
+		 * @return true if the leaf has a value
+		 */
+		@Override
+		public Boolean visitLeaf(Expression<E> leaf)
+		{
+			return leaf.hasValue();
+		}
+
+		/**
+		 * Whether an operator has a value
+		 * @param binary the operator to check
+		 * @param left whether the left operand has a value (or null if
+		 * there is no left operand)
+		 * @param right whether the right operand has a value (or null if
+		 * there is no right operand)
+		 * @return true if the operator has a value
+		 */
+		@Override
+		public Boolean visitBinary(BinaryExpression<E> binary, Boolean left, Boolean right)
+		{
+			return left != null && right != null && binary.hasValue(left, right);
+		}
 	}
 
 	/**
-	 * Method to determine if an operand has operators with lower priority
-	 * than the current operator
-	 * @param operand the operand to test for lower priority operators
-	 * @return true if the operand contains operators with lower priority than
-	 * the current operator
-	 * @see #toString()
+	 * Visitor rendering expressions
+	 * @param <E> The type of numbers in rendered expressions
 	 */
-	private boolean hasLowerPriority(Expression<E> operand)
+	private static class Rendering<E extends Number> implements ExpressionVisitor<E, Void>
 	{
-		if (operand instanceof BinaryExpression<?>)
+		/**
+		 * Operator being rendered
+		 * @param <E> The type of numbers in rendered expressions
+		 */
+		private static class Enclosing<E extends Number>
 		{
-			BinaryExpression<E> binop  = (BinaryExpression<E>) operand;
-			return binop.rules.priority() <= rules.priority();
+			/**
+			 * The operator
+			 */
+			final BinaryExpression<E> binary;
+
+			/**
+			 * Whether this operator is rendered between parentheses
+			 */
+			final boolean parenthesized;
+
+			/**
+			 * Whether right operand of this operator is being rendered
+			 */
+			boolean rightSide;
+
+			/**
+			 * Constructor
+			 * @param binary the operator
+			 * @param parenthesized whether this operator is rendered between
+			 * parentheses
+			 */
+			Enclosing(BinaryExpression<E> binary, boolean parenthesized)
+			{
+				this.binary = binary;
+				this.parenthesized = parenthesized;
+				rightSide = false;
+			}
+		}
+
+		/**
+		 * The rendered string
+		 */
+		private final StringBuilder sb = new StringBuilder();
+
+		/**
+		 * Operators enclosing the node being rendered (innermost first)
+		 */
+		private final Deque<Enclosing<E>> enclosing = new ArrayDeque<>();
+
+		/**
+		 * Render a leaf
+		 * @param leaf the leaf to render
+		 * @return null
+		 */
+		@Override
+		public Void visitLeaf(Expression<E> leaf)
+		{
+			sb.append(leaf.toString());
+			return null;
+		}
+
+		/**
+		 * Render the beginning of an operator : parentheses are required
+		 * if the operator has strictly lower priority than its parent
+		 * (left side) or lower or equal priority (right side)
+		 * @param binary the operator
+		 */
+		@Override
+		public void enter(BinaryExpression<E> binary)
+		{
+			Enclosing<E> parent = enclosing.peek();
+			boolean parenthesized = parent != null && (parent.rightSide
+			    ? parent.binary.hasLowerPriority(binary)
+			    : parent.binary.hasStrictlyLowerPriority(binary));
+			if (parenthesized)
+			{
+				sb.append("(");
+			}
+			enclosing.push(new Enclosing<>(binary, parenthesized));
+		}
+
+		/**
+		 * Render the operator itself
+		 * @param binary the operator
+		 */
+		@Override
+		public void between(BinaryExpression<E> binary)
+		{
+			if (binary.left != null)
+			{
+				sb.append(' ');
+			}
+			sb.append(binary.rules.toString());
+			if (binary.right != null)
+			{
+				sb.append(' ');
+			}
+			enclosing.peek().rightSide = true;
+		}
+
+		/**
+		 * Render the end of an operator
+		 * @param binary the operator
+		 * @param left unused
+		 * @param right unused
+		 * @return null
+		 */
+		@Override
+		public Void visitBinary(BinaryExpression<E> binary, Void left, Void right)
+		{
+			if (enclosing.pop().parenthesized)
+			{
+				sb.append(")");
+			}
+			return null;
+		}
+
+		/**
+		 * The rendered string
+		 * @return the rendered string
+		 */
+		@Override
+		public String toString()
+		{
+			return sb.toString();
 		}
-		return false;
 	}
 }
@@ -0,0 +1,177 @@
+package expressions.differentiation;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import expressions.Expression;
+import expressions.binary.AssignmentExpression;
+import expressions.binary.BinaryExpression;
+import expressions.terminal.ConstantExpression;
+import expressions.terminal.VariableExpression;
+
+/**
+ * Utility methods shared by differentiators
+ */
+final class Derivatives
+{
+	/**
+	 * Private constructor since this class only provides static methods
+	 */
+	private Derivatives()
+	{
+	}
+
+	/**
+	 * Collect variables of an expression in order of first appearance
+	 * @param expression the expression to search
+	 * @param indices the map of variables indices by name to complete
+	 * @param names the list of variables names to complete
+	 * @throws UnsupportedOperationException if expression contains
+	 * expressions which can't be differentiated
+	 * @implNote left sides of assignments are not variables of the expression
+	 */
+	static void collectVariables(Expression<?> expression,
+	                             Map<String, Integer> indices,
+	                             List<String> names)
+	    throws UnsupportedOperationException
+	{
+		if (expression instanceof VariableExpression<?> variable)
+		{
+			if (!indices.containsKey(variable.getName()))
+			{
+				indices.put(variable.getName(), names.size());
+				names.add(variable.getName());
+			}
+		}
+		else if (expression instanceof AssignmentExpression<?> assignment)
+		{
+			collectVariables(assignment.getRight(), indices, names);
+		}
+		else if (expression instanceof BinaryExpression<?> binary)
+		{
+			collectVariables(binary.getLeft(), indices, names);
+			collectVariables(binary.getRight(), indices, names);
+		}
+		else if (!(expression instanceof ConstantExpression<?>))
+		{
+			throw unsupported(expression);
+		}
+	}
+
+	/**
+	 * Current values of variables from the variables registry
+	 * @param names the names of variables
+	 * @return the values of variables (in the same order)
+	 * @throws IllegalStateException if a variable has no value yet
+	 */
+	static double[] currentValues(List<String> names) throws IllegalStateException
+	{
+		Map<String, Optional<? extends Number>> registry = VariableExpression.getValues();
+		double[] point = new double[names.size()];
+		for (int i = 0; i < point.length; i++)
+		{
+			Optional<? extends Number> value = registry.get(names.get(i));
+			if (value == null || value.isEmpty())
+			{
+				throw new IllegalStateException("No value yet for " + names.get(i));
+			}
+			point[i] = value.get().doubleValue();
+		}
+		return point;
+	}
+
+	/**
+	 * Evaluate an expression with double precision
+	 * @param expression the expression to evaluate
+	 * @param indices the map of variables indices by name
+	 * @param point the values of variables
+	 * @return the value of the expression
+	 * @throws UnsupportedOperationException if expression contains
+	 * expressions which can't be evaluated
+	 */
+	static double evaluate(Expression<?> expression,
+	                       Map<String, Integer> indices,
+	                       double[] point)
+	    throws UnsupportedOperationException
+	{
+		if (expression instanceof ConstantExpression<?> constant)
+		{
+			return constant.value().doubleValue();
+		}
+		if (expression instanceof VariableExpression<?> variable)
+		{
+			return point[indices.get(variable.getName())];
+		}
+		if (expression instanceof AssignmentExpression<?> assignment)
+		{
+			return evaluate(assignment.getRight(), indices, point);
+		}
+		if (expression instanceof BinaryExpression<?> binary)
+		{
+			double a = evaluate(binary.getLeft(), indices, point);
+			double b = evaluate(binary.getRight(), indices, point);
+			switch (binary.getRules())
+			{
+				case ADDITION:
+					return a + b;
+				case SUBTRACTION:
+					return a - b;
+				case MULTIPLICATION:
+					return a * b;
+				case DIVISION:
+					return a / b;
+				case POWER:
+					return Math.pow(a, b);
+				default:
+					break;
+			}
+		}
+		throw unsupported(expression);
+	}
+
+	/**
+	 * Partial derivative of a<sup>b</sup> with respect to a
+	 * @param a the base
+	 * @param b the exponent
+	 * @return b.a<sup>b-1</sup> (or 0 if b is 0)
+	 */
+	static double powerBase(double a, double b)
+	{
+		return b == 0.0 ? 0.0 : b * Math.pow(a, b - 1.0);
+	}
+
+	/**
+	 * Partial derivative of a<sup>b</sup> with respect to b
+	 * @param a the base
+	 * @param b the exponent
+	 * @param power a<sup>b</sup>
+	 * @return a<sup>b</sup>.ln(a) if a &gt; 0, 0 if a is 0 and b &gt; 0 (right
+	 * limit) and NaN otherwise
+	 * @implNote Should only be used when the exponent depends on variables
+	 * so that constant exponents with negative bases are still derivable
+	 */
+	static double powerExponent(double a, double b, double power)
+	{
+		if (a > 0.0)
+		{
+			return power * Math.log(a);
+		}
+		if (a == 0.0 && b > 0.0)
+		{
+			return 0.0;
+		}
+		return Double.NaN;
+	}
+
+	/**
+	 * Exception for expressions which can't be differentiated
+	 * @param expression the expression which can't be differentiated
+	 * @return a new exception to throw
+	 */
+	static UnsupportedOperationException unsupported(Expression<?> expression)
+	{
+		return new UnsupportedOperationException("Can't differentiate "
+		    + (expression == null ? "null" : expression.getClass().getSimpleName()));
+	}
+}
@@ -0,0 +1,147 @@
+package expressions.differentiation;
+
+import java.util.List;
+import java.util.StringJoiner;
+
+import expressions.Expression;
+import expressions.terminal.VariableExpression;
+import parser.ExpressionParser;
+import parser.exceptions.ParserException;
+
+/**
+ * Benchmark of differentiation methods on expressions with an increasing
+ * number of variables.
+ * Reports the time per gradient of forward mode, reverse mode (with and
+ * without recording the tape each time) and central finite differences along
+ * with the maximum error of each method compared to reverse mode.
+ * Usage: java expressions.differentiation.DifferentiationBenchmark
+ * [maxVariables] [iterations]
+ */
+public class DifferentiationBenchmark
+{
+	/**
+	 * Private constructor since this class only provides static methods
+	 */
+	private DifferentiationBenchmark()
+	{
+	}
+
+	/**
+	 * Name of the i<sup>th</sup> variable (variables names can only contain
+	 * letters)
+	 * @param index the index of the variable
+	 * @return the name of this variable
+	 */
+	private static String name(int index)
+	{
+		StringBuilder builder = new StringBuilder("v");
+		do
+		{
+			builder.append((char) ('a' + index % 26));
+			index /= 26;
+		}
+		while (index > 0);
+		return builder.toString();
+	}
+
+	/**
+	 * Source of an expression containing n variables and 14n - 1 nodes
+	 * mixing all operators
+	 * @param n the number of variables
+	 * @return the source of the expression
+	 */
+	private static String source(int n)
+	{
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < n; i++)
+		{
+			String x = name(i);
+			String y = name((i + 1) % n);
+			if (i > 0)
+			{
+				builder.append(i % 2 == 0 ? " + " : " - ");
+			}
+			builder.append("(" + x + " * " + y + " + " + x + " / (" + y + " + 3))"
+			    + " * " + y + " ^ 2");
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Average time of a differentiation method
+	 * @param differentiator the differentiation method
+	 * @param expression the expression to differentiate
+	 * @param iterations the number of gradients to compute
+	 * @return the average time (in microseconds) per gradient
+	 */
+	private static double time(Differentiator differentiator,
+	                           Expression<? extends Number> expression,
+	                           int iterations)
+	{
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++)
+		{
+			differentiator.differentiate(expression);
+		}
+		return (System.nanoTime() - start) / 1e3 / iterations;
+	}
+
+	/**
+	 * Benchmark entry point
+	 * @param args [maxVariables] [iterations]
+	 * @throws ParserException if benchmark expressions can't be parsed
+	 */
+	public static void main(String[] args) throws ParserException
+	{
+		int maxVariables = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+		int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+		ExpressionParser<Double> parser = new ExpressionParser<>(0.0);
+		Differentiator forward = new ForwardDifferentiator();
+		Differentiator reverse = new ReverseDifferentiator();
+		Differentiator finite = new FiniteDifferentiator();
+
+		System.out.printf("%9s %7s %12s %12s %12s %12s %10s %10s%n",
+		                  "variables",
+		                  "nodes",
+		                  "forward us",
+		                  "reverse us",
+		                  "tape us",
+		                  "finite us",
+		                  "fwd error",
+		                  "fd error");
+		for (int n = 4; n <= maxVariables; n *= 2)
+		{
+			VariableExpression.clearAll();
+			StringJoiner assignments = new StringJoiner(ExpressionParser.Separator);
+			for (int i = 0; i < n; i++)
+			{
+				assignments.add(name(i) + " = " + (1.0 + i % 7 / 4.0));
+			}
+			parser.parse(assignments.toString());
+			List<Expression<Double>> parsed = parser.parse(source(n));
+			Expression<Double> expression = parsed.get(0);
+			ReverseDifferentiator.Tape tape = ReverseDifferentiator.compile(expression);
+			double[] point = Derivatives.currentValues(tape.getVariables());
+			Differentiator taped = e -> tape.gradient(point);
+
+			// Warm up
+			int warmup = Math.max(1, iterations / 4);
+			time(forward, expression, warmup);
+			time(reverse, expression, warmup);
+			time(taped, expression, warmup);
+			time(finite, expression, warmup);
+
+			Gradient exact = reverse.differentiate(expression);
+			System.out.printf("%9d %7d %12.1f %12.1f %12.1f %12.1f %10.1e %10.1e%n",
+			                  n,
+			                  14 * n - 1,
+			                  time(forward, expression, iterations),
+			                  time(reverse, expression, iterations),
+			                  time(taped, expression, iterations),
+			                  time(finite, expression, iterations),
+			                  forward.differentiate(expression).distance(exact),
+			                  finite.differentiate(expression).distance(exact));
+		}
+		VariableExpression.clearAll();
+	}
+}
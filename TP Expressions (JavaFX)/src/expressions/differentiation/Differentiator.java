@@ -0,0 +1,34 @@
+package expressions.differentiation;
+
+import expressions.Expression;
+
+/**
+ * Interface of differentiation methods computing the value of an expression
+ * and its partial derivatives with respect to all of its variables.
+ * Variables values are taken from the variables registry of the current
+ * thread (see {@link expressions.terminal.VariableExpression#getValues()}).
+ * @implSpec Values and derivatives are computed with double precision
+ * regardless of the type of numbers in expressions, hence values may differ
+ * from {@link Expression#value()} with {@link Integer}s (e.g. integer
+ * divisions are not truncated).
+ * @implSpec Assignments are not performed: an assignment "a = f" is
+ * differentiated as its right side f.
+ */
+public interface Differentiator
+{
+	/**
+	 * Compute value and gradient of an expression
+	 * @param expression the expression to differentiate
+	 * @return the value and partial derivatives of this expression with
+	 * respect to each of its variables
+	 * @throws NullPointerException if provided expression is null
+	 * @throws IllegalStateException if a variable of this expression has no
+	 * value yet
+	 * @throws UnsupportedOperationException if expression contains
+	 * expressions which can't be differentiated (such as groups)
+	 */
+	public abstract Gradient differentiate(Expression<? extends Number> expression)
+	    throws NullPointerException,
+	    IllegalStateException,
+	    UnsupportedOperationException;
+}
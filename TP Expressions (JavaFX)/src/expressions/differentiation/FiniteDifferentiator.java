@@ -0,0 +1,92 @@
+package expressions.differentiation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import expressions.Expression;
+
+/**
+ * Numerical differentiation by central finite differences.
+ * Each partial derivative is approximated by
+ * (f(x + h) - f(x - h)) / 2h which requires two evaluations of the whole
+ * expression per variable.
+ * @implNote This differentiator is only provided as a baseline to check and
+ * benchmark {@link ForwardDifferentiator} and {@link ReverseDifferentiator}:
+ * it costs O(nodes x variables) and is only accurate to about h<sup>2</sup>
+ * (or to rounding errors for small steps).
+ */
+public class FiniteDifferentiator implements Differentiator
+{
+	/**
+	 * Default relative step
+	 */
+	public static final double DEFAULT_STEP = 1e-6;
+
+	/**
+	 * Relative step: each variable x is perturbed by step * max(1, |x|)
+	 */
+	private final double step;
+
+	/**
+	 * Default constructor with {@link #DEFAULT_STEP}
+	 */
+	public FiniteDifferentiator()
+	{
+		this(DEFAULT_STEP);
+	}
+
+	/**
+	 * Constructor
+	 * @param step the relative step
+	 * @throws IllegalArgumentException if step is not strictly positive
+	 */
+	public FiniteDifferentiator(double step) throws IllegalArgumentException
+	{
+		if (!(step > 0.0))
+		{
+			throw new IllegalArgumentException("step must be positive: " + step);
+		}
+		this.step = step;
+	}
+
+	/**
+	 * Approximate value and gradient of an expression
+	 * @param expression the expression to differentiate
+	 * @return the value and approximate partial derivatives of this
+	 * expression with respect to each of its variables
+	 * @throws NullPointerException if provided expression is null
+	 * @throws IllegalStateException if a variable of this expression has no
+	 * value yet
+	 * @throws UnsupportedOperationException if expression contains
+	 * expressions which can't be differentiated (such as groups)
+	 */
+	@Override
+	public Gradient differentiate(Expression<? extends Number> expression)
+	    throws NullPointerException,
+	    IllegalStateException,
+	    UnsupportedOperationException
+	{
+		Objects.requireNonNull(expression, "null expression");
+		Map<String, Integer> indices = new HashMap<>();
+		List<String> names = new ArrayList<>();
+		Derivatives.collectVariables(expression, indices, names);
+		double[] point = Derivatives.currentValues(names);
+		double value = Derivatives.evaluate(expression, indices, point);
+		double[] partials = new double[point.length];
+		for (int i = 0; i < point.length; i++)
+		{
+			double x = point[i];
+			double h = step * Math.max(1.0, Math.abs(x));
+			point[i] = x + h;
+			double above = Derivatives.evaluate(expression, indices, point);
+			point[i] = x - h;
+			double below = Derivatives.evaluate(expression, indices, point);
+			point[i] = x;
+			partials[i] = (above - below) / (2.0 * h);
+		}
+		return new Gradient(value, names, partials);
+	}
+}
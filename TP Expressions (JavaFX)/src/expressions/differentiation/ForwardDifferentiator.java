@@ -0,0 +1,202 @@
+package expressions.differentiation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import expressions.Expression;
+import expressions.binary.AssignmentExpression;
+import expressions.binary.BinaryExpression;
+import expressions.terminal.ConstantExpression;
+import expressions.terminal.VariableExpression;
+
+/**
+ * Forward mode automatic differentiation.
+ * Each node of the expression tree is evaluated once (in post-order) along
+ * with the partial derivatives of its value with respect to all variables of
+ * the expression (dual numbers with a vector of tangents).
+ * @implNote Forward mode costs O(nodes x variables): it is the mode of
+ * choice for expressions with few variables, otherwise see
+ * {@link ReverseDifferentiator}.
+ */
+public class ForwardDifferentiator implements Differentiator
+{
+	/**
+	 * Default constructor
+	 */
+	public ForwardDifferentiator()
+	{
+	}
+
+	/**
+	 * Compute value and gradient of an expression in a single post-order
+	 * traversal of the expression tree
+	 * @param expression the expression to differentiate
+	 * @return the value and partial derivatives of this expression with
+	 * respect to each of its variables
+	 * @throws NullPointerException if provided expression is null
+	 * @throws IllegalStateException if a variable of this expression has no
+	 * value yet
+	 * @throws UnsupportedOperationException if expression contains
+	 * expressions which can't be differentiated (such as groups)
+	 */
+	@Override
+	public Gradient differentiate(Expression<? extends Number> expression)
+	    throws NullPointerException,
+	    IllegalStateException,
+	    UnsupportedOperationException
+	{
+		Objects.requireNonNull(expression, "null expression");
+		Map<String, Integer> indices = new HashMap<>();
+		List<String> names = new ArrayList<>();
+		Derivatives.collectVariables(expression, indices, names);
+		Pass pass = new Pass(indices, Derivatives.currentValues(names));
+		double[] partials = new double[names.size()];
+		double value = pass.differentiate(expression, partials, 0);
+		return new Gradient(value, names, partials);
+	}
+
+	/**
+	 * A single differentiation pass
+	 */
+	private static class Pass
+	{
+		/**
+		 * Variables indices by name
+		 */
+		private final Map<String, Integer> indices;
+
+		/**
+		 * Variables values
+		 */
+		private final double[] point;
+
+		/**
+		 * Tangents of right operands by depth (reused across nodes of the same
+		 * depth so tangents vectors are only allocated once per depth)
+		 */
+		private final List<double[]> scratch;
+
+		/**
+		 * Constructor
+		 * @param indices variables indices by name
+		 * @param point variables values
+		 */
+		Pass(Map<String, Integer> indices, double[] point)
+		{
+			this.indices = indices;
+			this.point = point;
+			scratch = new ArrayList<>();
+		}
+
+		/**
+		 * Differentiate an expression
+		 * @param expression the expression to differentiate
+		 * @param tangent the (zero filled) vector to fill with partial
+		 * derivatives of this expression
+		 * @param depth the depth of the expression
+		 * @return the value of the expression
+		 * @throws UnsupportedOperationException if expression contains
+		 * expressions which can't be differentiated
+		 */
+		double differentiate(Expression<?> expression, double[] tangent, int depth)
+		    throws UnsupportedOperationException
+		{
+			if (expression instanceof ConstantExpression<?> constant)
+			{
+				return constant.value().doubleValue();
+			}
+			if (expression instanceof VariableExpression<?> variable)
+			{
+				int index = indices.get(variable.getName());
+				tangent[index] = 1.0;
+				return point[index];
+			}
+			if (expression instanceof AssignmentExpression<?> assignment)
+			{
+				return differentiate(assignment.getRight(), tangent, depth);
+			}
+			if (!(expression instanceof BinaryExpression<?> binary))
+			{
+				throw Derivatives.unsupported(expression);
+			}
+
+			double a = differentiate(binary.getLeft(), tangent, depth + 1);
+			double[] right = rightTangent(depth, tangent.length);
+			double b = differentiate(binary.getRight(), right, depth + 1);
+			double value;
+			switch (binary.getRules())
+			{
+				case ADDITION:
+					value = a + b;
+					for (int i = 0; i < tangent.length; i++)
+					{
+						tangent[i] += right[i];
+					}
+					break;
+				case SUBTRACTION:
+					value = a - b;
+					for (int i = 0; i < tangent.length; i++)
+					{
+						tangent[i] -= right[i];
+					}
+					break;
+				case MULTIPLICATION:
+					value = a * b;
+					for (int i = 0; i < tangent.length; i++)
+					{
+						tangent[i] = b * tangent[i] + a * right[i];
+					}
+					break;
+				case DIVISION:
+					value = a / b;
+					for (int i = 0; i < tangent.length; i++)
+					{
+						tangent[i] = (tangent[i] - value * right[i]) / b;
+					}
+					break;
+				case POWER:
+					value = Math.pow(a, b);
+					double base = Derivatives.powerBase(a, b);
+					double exponent = Double.NaN;
+					for (int i = 0; i < tangent.length; i++)
+					{
+						double d = tangent[i] == 0.0 ? 0.0 : base * tangent[i];
+						if (right[i] != 0.0)
+						{
+							if (Double.isNaN(exponent))
+							{
+								exponent = Derivatives.powerExponent(a, b, value);
+							}
+							d += exponent * right[i];
+						}
+						tangent[i] = d;
+					}
+					break;
+				default:
+					throw Derivatives.unsupported(expression);
+			}
+			return value;
+		}
+
+		/**
+		 * Zero filled tangent vector for right operands at some depth
+		 * @param depth the depth of the binary expression
+		 * @param size the number of variables
+		 * @return a zero filled tangent vector
+		 */
+		private double[] rightTangent(int depth, int size)
+		{
+			while (scratch.size() <= depth)
+			{
+				scratch.add(new double[size]);
+			}
+			double[] tangent = scratch.get(depth);
+			Arrays.fill(tangent, 0.0);
+			return tangent;
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package expressions.differentiation;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Value and partial derivatives of an expression with respect to its
+ * variables (in order of first appearance in the expression).
+ */
+public class Gradient
+{
+	/**
+	 * Value of the expression
+	 */
+	private final double value;
+
+	/**
+	 * Names of variables
+	 */
+	private final List<String> variables;
+
+	/**
+	 * Partial derivatives (in the same order as {@link #variables})
+	 */
+	private final double[] partials;
+
+	/**
+	 * Constructor
+	 * @param value the value of the expression
+	 * @param variables the names of variables
+	 * @param partials the partial derivatives with respect to each variable
+	 * (which is not copied)
+	 * @throws IllegalArgumentException if variables and partials have
+	 * different sizes
+	 */
+	public Gradient(double value, List<String> variables, double[] partials)
+	    throws IllegalArgumentException
+	{
+		if (variables.size() != partials.length)
+		{
+			throw new IllegalArgumentException("variables and partials sizes differ");
+		}
+		this.value = value;
+		this.variables = Collections.unmodifiableList(variables);
+		this.partials = partials;
+	}
+
+	/**
+	 * Value of the expression
+	 * @return the value of the expression
+	 */
+	public double value()
+	{
+		return value;
+	}
+
+	/**
+	 * Variables accessor
+	 * @return the (unmodifiable) list of variables names
+	 */
+	public List<String> getVariables()
+	{
+		return variables;
+	}
+
+	/**
+	 * Partial derivative with respect to a variable
+	 * @param name the name of the variable
+	 * @return the partial derivative with respect to this variable or 0 if the
+	 * expression does not depend on this variable
+	 */
+	public double partial(String name)
+	{
+		int index = variables.indexOf(name);
+		return index < 0 ? 0.0 : partials[index];
+	}
+
+	/**
+	 * Partial derivatives accessor
+	 * @return a copy of the partial derivatives (in the same order as
+	 * {@link #getVariables()})
+	 */
+	public double[] getPartials()
+	{
+		return partials.clone();
+	}
+
+	/**
+	 * Partial derivatives by variable name
+	 * @return a new map containing partial derivatives by variable name
+	 */
+	public Map<String, Double> toMap()
+	{
+		Map<String, Double> map = new LinkedHashMap<>();
+		for (int i = 0; i < partials.length; i++)
+		{
+			map.put(variables.get(i), partials[i]);
+		}
+		return map;
+	}
+
+	/**
+	 * Maximum absolute difference with another gradient
+	 * @param other the other gradient
+	 * @return the maximum absolute difference between values and partial
+	 * derivatives of both gradients (or +infinity if both gradients don't
+	 * have the same variables)
+	 */
+	public double distance(Gradient other)
+	{
+		if (!variables.equals(other.variables))
+		{
+			return Double.POSITIVE_INFINITY;
+		}
+		double distance = Math.abs(value - other.value);
+		for (int i = 0; i < partials.length; i++)
+		{
+			distance = Math.max(distance, Math.abs(partials[i] - other.partials[i]));
+		}
+		return distance;
+	}
+
+	/**
+	 * String representation of this gradient
+	 * @return a String containing value and partial derivatives
+	 */
+	@Override
+	public String toString()
+	{
+		return value + " " + toMap();
+	}
+}
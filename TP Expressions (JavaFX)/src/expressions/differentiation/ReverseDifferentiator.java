@@ -0,0 +1,420 @@
+package expressions.differentiation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import expressions.Expression;
+import expressions.binary.AssignmentExpression;
+import expressions.binary.BinaryExpression;
+import expressions.terminal.ConstantExpression;
+import expressions.terminal.VariableExpression;
+
+/**
+ * Reverse mode automatic differentiation.
+ * The expression tree is first recorded (once) into a {@link Tape} of nodes
+ * in post-order, then each gradient computation evaluates the tape forward
+ * and propagates adjoints backward so all partial derivatives are obtained
+ * in a single backward sweep.
+ * @implNote Reverse mode costs O(nodes) regardless of the number of
+ * variables: it is the mode of choice for expressions with many variables.
+ * When the same expression is differentiated at many points (e.g. in an
+ * optimization loop), {@link #compile(Expression)} it once and use
+ * {@link Tape#gradient(double[])}.
+ */
+public class ReverseDifferentiator implements Differentiator
+{
+	/**
+	 * Default constructor
+	 */
+	public ReverseDifferentiator()
+	{
+	}
+
+	/**
+	 * Compute value and gradient of an expression
+	 * @param expression the expression to differentiate
+	 * @return the value and partial derivatives of this expression with
+	 * respect to each of its variables
+	 * @throws NullPointerException if provided expression is null
+	 * @throws IllegalStateException if a variable of this expression has no
+	 * value yet
+	 * @throws UnsupportedOperationException if expression contains
+	 * expressions which can't be differentiated (such as groups)
+	 */
+	@Override
+	public Gradient differentiate(Expression<? extends Number> expression)
+	    throws NullPointerException,
+	    IllegalStateException,
+	    UnsupportedOperationException
+	{
+		return compile(expression).gradient();
+	}
+
+	/**
+	 * Record an expression into a tape which can be differentiated at
+	 * any point
+	 * @param expression the expression to record
+	 * @return a new tape of this expression
+	 * @throws NullPointerException if provided expression is null
+	 * @throws UnsupportedOperationException if expression contains
+	 * expressions which can't be differentiated (such as groups)
+	 */
+	public static Tape compile(Expression<? extends Number> expression)
+	    throws NullPointerException, UnsupportedOperationException
+	{
+		Objects.requireNonNull(expression, "null expression");
+		return new Tape(expression);
+	}
+
+	/**
+	 * Expression recorded as a flat array of nodes in post-order (operands
+	 * before operators, root last).
+	 * @implNote A tape holds working arrays and is therefore not thread safe:
+	 * use one tape per thread.
+	 */
+	public static class Tape
+	{
+		/**
+		 * Operation code of constants
+		 */
+		private static final byte CONSTANT = 0;
+
+		/**
+		 * Operation code of variables
+		 */
+		private static final byte VARIABLE = 1;
+
+		/**
+		 * Operation code of additions
+		 */
+		private static final byte ADD = 2;
+
+		/**
+		 * Operation code of subtractions
+		 */
+		private static final byte SUB = 3;
+
+		/**
+		 * Operation code of multiplications
+		 */
+		private static final byte MUL = 4;
+
+		/**
+		 * Operation code of divisions
+		 */
+		private static final byte DIV = 5;
+
+		/**
+		 * Operation code of powers
+		 */
+		private static final byte POW = 6;
+
+		/**
+		 * Operation codes of nodes
+		 */
+		private final byte[] operations;
+
+		/**
+		 * Index of left operands of operators or index of the variable for
+		 * variables nodes
+		 */
+		private final int[] lefts;
+
+		/**
+		 * Index of right operands of operators
+		 */
+		private final int[] rights;
+
+		/**
+		 * Values of nodes (constant for constant nodes, recomputed on each
+		 * evaluation otherwise)
+		 */
+		private final double[] values;
+
+		/**
+		 * Adjoints of nodes
+		 */
+		private final double[] adjoints;
+
+		/**
+		 * Whether nodes depend on at least one variable (adjoints are not
+		 * propagated to other nodes)
+		 */
+		private final boolean[] variable;
+
+		/**
+		 * Names of variables in order of first appearance
+		 */
+		private final List<String> variables;
+
+		/**
+		 * Constructor recording an expression
+		 * @param expression the expression to record
+		 * @throws UnsupportedOperationException if expression contains
+		 * expressions which can't be differentiated
+		 */
+		private Tape(Expression<? extends Number> expression)
+		    throws UnsupportedOperationException
+		{
+			List<Expression<?>> nodes = postOrder(expression);
+			int size = nodes.size();
+			operations = new byte[size];
+			lefts = new int[size];
+			rights = new int[size];
+			values = new double[size];
+			adjoints = new double[size];
+			variable = new boolean[size];
+			Map<String, Integer> indices = new HashMap<>();
+			List<String> names = new ArrayList<>();
+			// Expressions equality is structural hence identity map
+			Map<Expression<?>, Integer> positions = new IdentityHashMap<>(size);
+			for (int i = 0; i < size; i++)
+			{
+				Expression<?> node = nodes.get(i);
+				positions.put(node, i);
+				if (node instanceof ConstantExpression<?> constant)
+				{
+					operations[i] = CONSTANT;
+					values[i] = constant.value().doubleValue();
+				}
+				else if (node instanceof VariableExpression<?> variableNode)
+				{
+					Integer index = indices.get(variableNode.getName());
+					if (index == null)
+					{
+						index = names.size();
+						indices.put(variableNode.getName(), index);
+						names.add(variableNode.getName());
+					}
+					operations[i] = VARIABLE;
+					lefts[i] = index;
+					variable[i] = true;
+				}
+				else
+				{
+					BinaryExpression<?> binary = (BinaryExpression<?>) node;
+					operations[i] = operation(binary);
+					lefts[i] = positions.get(skipAssignments(binary.getLeft()));
+					rights[i] = positions.get(skipAssignments(binary.getRight()));
+					variable[i] = variable[lefts[i]] || variable[rights[i]];
+				}
+			}
+			variables = Collections.unmodifiableList(names);
+		}
+
+		/**
+		 * Variables accessor
+		 * @return the (unmodifiable) list of variables names in the order
+		 * expected by {@link #gradient(double[])}
+		 */
+		public List<String> getVariables()
+		{
+			return variables;
+		}
+
+		/**
+		 * Compute value and gradient with variables values taken from the
+		 * variables registry
+		 * @return the value and partial derivatives of the recorded expression
+		 * @throws IllegalStateException if a variable has no value yet
+		 */
+		public Gradient gradient() throws IllegalStateException
+		{
+			return gradient(Derivatives.currentValues(variables));
+		}
+
+		/**
+		 * Compute value and gradient at some point
+		 * @param point the values of variables (in the same order as
+		 * {@link #getVariables()})
+		 * @return the value and partial derivatives of the recorded expression
+		 * at this point
+		 * @throws IllegalArgumentException if point size does not match the
+		 * number of variables
+		 */
+		public Gradient gradient(double[] point) throws IllegalArgumentException
+		{
+			if (point.length != variables.size())
+			{
+				throw new IllegalArgumentException("expected "
+				    + variables.size() + " values but got " + point.length);
+			}
+			int root = operations.length - 1;
+			forward(point);
+			Arrays.fill(adjoints, 0.0);
+			adjoints[root] = 1.0;
+			double[] partials = new double[point.length];
+			for (int i = root; i >= 0; i--)
+			{
+				double adjoint = adjoints[i];
+				if (adjoint == 0.0 || !variable[i])
+				{
+					continue;
+				}
+				int l = lefts[i];
+				int r = rights[i];
+				switch (operations[i])
+				{
+					case VARIABLE:
+						partials[l] += adjoint;
+						break;
+					case ADD:
+						adjoints[l] += adjoint;
+						adjoints[r] += adjoint;
+						break;
+					case SUB:
+						adjoints[l] += adjoint;
+						adjoints[r] -= adjoint;
+						break;
+					case MUL:
+						adjoints[l] += adjoint * values[r];
+						adjoints[r] += adjoint * values[l];
+						break;
+					case DIV:
+						adjoints[l] += adjoint / values[r];
+						adjoints[r] -= adjoint * values[i] / values[r];
+						break;
+					case POW:
+						if (variable[l])
+						{
+							adjoints[l] += adjoint * Derivatives.powerBase(values[l], values[r]);
+						}
+						if (variable[r])
+						{
+							adjoints[r] += adjoint * Derivatives.powerExponent(values[l],
+							                                                   values[r],
+							                                                   values[i]);
+						}
+						break;
+					default:
+						break;
+				}
+			}
+			return new Gradient(values[root], variables, partials);
+		}
+
+		/**
+		 * Forward evaluation of all nodes
+		 * @param point the values of variables
+		 */
+		private void forward(double[] point)
+		{
+			for (int i = 0; i < operations.length; i++)
+			{
+				switch (operations[i])
+				{
+					case VARIABLE:
+						values[i] = point[lefts[i]];
+						break;
+					case ADD:
+						values[i] = values[lefts[i]] + values[rights[i]];
+						break;
+					case SUB:
+						values[i] = values[lefts[i]] - values[rights[i]];
+						break;
+					case MUL:
+						values[i] = values[lefts[i]] * values[rights[i]];
+						break;
+					case DIV:
+						values[i] = values[lefts[i]] / values[rights[i]];
+						break;
+					case POW:
+						values[i] = Math.pow(values[lefts[i]], values[rights[i]]);
+						break;
+					default: // CONSTANT
+						break;
+				}
+			}
+		}
+
+		/**
+		 * Operation code of an operator
+		 * @param binary the operator
+		 * @return the operation code of this operator
+		 * @throws UnsupportedOperationException if this operator can't be
+		 * differentiated
+		 */
+		private static byte operation(BinaryExpression<?> binary)
+		    throws UnsupportedOperationException
+		{
+			switch (binary.getRules())
+			{
+				case ADDITION:
+					return ADD;
+				case SUBTRACTION:
+					return SUB;
+				case MULTIPLICATION:
+					return MUL;
+				case DIVISION:
+					return DIV;
+				case POWER:
+					return POW;
+				default:
+					throw Derivatives.unsupported(binary);
+			}
+		}
+
+		/**
+		 * Iterative post-order listing of the nodes of an expression
+		 * (assignments are replaced by their right side)
+		 * @param expression the expression to list
+		 * @return the nodes of this expression in post-order
+		 * @throws UnsupportedOperationException if expression contains
+		 * expressions which can't be differentiated
+		 */
+		private static List<Expression<?>> postOrder(Expression<?> expression)
+		    throws UnsupportedOperationException
+		{
+			List<Expression<?>> nodes = new ArrayList<>();
+			Deque<Expression<?>> stack = new ArrayDeque<>();
+			stack.push(skipAssignments(expression));
+			// Reverse of a (node, right, left) pre-order is a post-order
+			while (!stack.isEmpty())
+			{
+				Expression<?> node = stack.pop();
+				nodes.add(node);
+				if (node instanceof BinaryExpression<?> binary)
+				{
+					stack.push(skipAssignments(binary.getLeft()));
+					stack.push(skipAssignments(binary.getRight()));
+				}
+				else if (!(node instanceof ConstantExpression<?>)
+				    && !(node instanceof VariableExpression<?>))
+				{
+					throw Derivatives.unsupported(node);
+				}
+			}
+			Collections.reverse(nodes);
+			return nodes;
+		}
+
+		/**
+		 * Replace assignments by their right side
+		 * @param expression the expression
+		 * @return the right side of (nested) assignments or the expression
+		 * itself
+		 * @throws UnsupportedOperationException if expression is null
+		 */
+		private static Expression<?> skipAssignments(Expression<?> expression)
+		    throws UnsupportedOperationException
+		{
+			while (expression instanceof AssignmentExpression<?> assignment)
+			{
+				expression = assignment.getRight();
+			}
+			if (expression == null)
+			{
+				throw Derivatives.unsupported(null);
+			}
+			return expression;
+		}
+	}
+}
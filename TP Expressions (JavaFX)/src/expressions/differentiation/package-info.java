@@ -0,0 +1,5 @@
+/**
+ * Package containing automatic differentiation of expressions trees
+ * (forward and reverse modes) and finite differences for comparison
+ */
+package expressions.differentiation;
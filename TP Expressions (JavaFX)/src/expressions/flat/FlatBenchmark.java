@@ -0,0 +1,104 @@
+package expressions.flat;
+
+import expressions.Expression;
+import expressions.terminal.VariableExpression;
+import parser.ExpressionParser;
+import parser.exceptions.ParserException;
+
+/**
+ * Benchmark of repeated evaluations of expressions of increasing sizes:
+ * reports the time per evaluation of expression trees
+ * ({@link Expression#value()}) and of their {@link FlatExpression}s.
+ * Usage: java expressions.flat.FlatBenchmark [maxTerms] [iterations]
+ */
+public class FlatBenchmark
+{
+	/**
+	 * Private constructor since this class only provides static methods
+	 */
+	private FlatBenchmark()
+	{
+	}
+
+	/**
+	 * Source of an expression of n terms (and 12n - 1 nodes) mixing all
+	 * operators on variables x and y
+	 * @param n the number of terms
+	 * @return the source of the expression
+	 */
+	private static String source(int n)
+	{
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < n; i++)
+		{
+			if (i > 0)
+			{
+				builder.append(i % 2 == 0 ? " + " : " - ");
+			}
+			builder.append("(x * " + (i % 5 + 1) + " + y / (x + 3)) * y ^ 2");
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Benchmark entry point
+	 * @param args [maxTerms] [iterations]
+	 * @throws ParserException if benchmark expressions can't be parsed
+	 */
+	public static void main(String[] args) throws ParserException
+	{
+		int maxTerms = args.length > 0 ? Integer.parseInt(args[0]) : 1024;
+		int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+		ExpressionParser<Double> parser = new ExpressionParser<>(0.0);
+		VariableExpression<Double> x = new VariableExpression<>("x");
+		VariableExpression<Double> y = new VariableExpression<>("y");
+
+		System.out.printf("%7s %7s %12s %12s %10s%n",
+		                  "terms",
+		                  "nodes",
+		                  "tree us",
+		                  "flat us",
+		                  "speedup");
+		for (int n = 4; n <= maxTerms; n *= 4)
+		{
+			Expression<Double> expression = parser.parse(source(n)).get(0);
+			FlatExpression flat = FlatExpression.compile(expression, 0.0);
+			double treeTime = 0.0;
+			double flatTime = 0.0;
+			// First round is a warm up
+			for (int round = 0; round < 2; round++)
+			{
+				long start = System.nanoTime();
+				for (int i = 0; i < iterations; i++)
+				{
+					x.setValue(1.0 + i % 7 / 4.0);
+					y.setValue(2.0 - i % 5 / 8.0);
+					expression.value();
+				}
+				treeTime = (System.nanoTime() - start) / 1e3 / iterations;
+				start = System.nanoTime();
+				for (int i = 0; i < iterations; i++)
+				{
+					flat.evaluate(1.0 + i % 7 / 4.0, 2.0 - i % 5 / 8.0);
+				}
+				flatTime = (System.nanoTime() - start) / 1e3 / iterations;
+			}
+			for (int i = 0; i < 35; i++)
+			{
+				x.setValue(1.0 + i % 7 / 4.0);
+				y.setValue(2.0 - i % 5 / 8.0);
+				if (expression.value() != flat.evaluate())
+				{
+					System.err.println("Tree and flat evaluations differ at " + i);
+				}
+			}
+			System.out.printf("%7d %7d %12.2f %12.2f %10.1f%n",
+			                  n,
+			                  flat.size(),
+			                  treeTime,
+			                  flatTime,
+			                  treeTime / flatTime);
+		}
+		VariableExpression.clearAll();
+	}
+}
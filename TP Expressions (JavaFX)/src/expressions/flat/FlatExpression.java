@@ -0,0 +1,696 @@
+package expressions.flat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import expressions.Expression;
+import expressions.binary.AssignmentExpression;
+import expressions.binary.BinaryExpression;
+import expressions.special.GroupExpression;
+import expressions.terminal.ConstantExpression;
+import expressions.terminal.VariableExpression;
+import expressions.visitors.ExpressionVisitor;
+import expressions.visitors.ExpressionWalker;
+import expressions.visitors.NodeVisitor;
+
+/**
+ * Expression flattened into parallel arrays of nodes in post-order (operands
+ * before operators, root last): an operation code, a left index and a right
+ * index per node in <code>int[]</code>s, and a pool of constants in a
+ * <code>double[]</code>.
+ * Evaluations and analyses run over these contiguous arrays in a single
+ * linear pass rather than chasing references through generic expression
+ * objects and boxed numbers, which makes repeated evaluations of the same
+ * expression (e.g. at many points) much cheaper.
+ * <ul>
+ * <li>{@link #CONSTANT} nodes: left is the index of the constant in the
+ * constants pool</li>
+ * <li>{@link #VARIABLE} nodes: left is the index of the variable in
+ * {@link #getVariables()}</li>
+ * <li>operator nodes (including {@link #ASSIGNMENT}s): left and right are the
+ * indices of the operand nodes</li>
+ * </ul>
+ * @implSpec Evaluations follow the arithmetic of the number type of the
+ * flattened expression ({@link Integer}, {@link Float} or {@link Double}), so
+ * they produce the same values as {@link Expression#value()}.
+ * @implNote A flat expression is a snapshot: later modifications of the
+ * original expression are not reflected. Flat expressions hold a working
+ * array and are therefore not thread safe: use one per thread.
+ */
+public final class FlatExpression
+{
+	/**
+	 * Operation code of constants
+	 */
+	public static final int CONSTANT = 0;
+
+	/**
+	 * Operation code of variables
+	 */
+	public static final int VARIABLE = 1;
+
+	/**
+	 * Operation code of additions
+	 */
+	public static final int ADDITION = 2;
+
+	/**
+	 * Operation code of subtractions
+	 */
+	public static final int SUBTRACTION = 3;
+
+	/**
+	 * Operation code of multiplications
+	 */
+	public static final int MULTIPLICATION = 4;
+
+	/**
+	 * Operation code of divisions
+	 */
+	public static final int DIVISION = 5;
+
+	/**
+	 * Operation code of powers
+	 */
+	public static final int POWER = 6;
+
+	/**
+	 * Operation code of assignments
+	 */
+	public static final int ASSIGNMENT = 7;
+
+	/**
+	 * Operation codes of nodes
+	 */
+	private final int[] opcodes;
+
+	/**
+	 * Left indices of nodes
+	 */
+	private final int[] lefts;
+
+	/**
+	 * Right indices of nodes
+	 */
+	private final int[] rights;
+
+	/**
+	 * Pool of constants
+	 */
+	private final double[] constants;
+
+	/**
+	 * Names of variables in order of first appearance
+	 */
+	private final List<String> variables;
+
+	/**
+	 * Number of times each variable is read (variables only assigned are not
+	 * read and don't need a value)
+	 */
+	private final int[] reads;
+
+	/**
+	 * The class of numbers in the flattened expression
+	 */
+	private final Class<? extends Number> numberClass;
+
+	/**
+	 * Depth of the flattened expression
+	 */
+	private final int depth;
+
+	/**
+	 * Values of nodes during evaluations
+	 */
+	private final double[] results;
+
+	/**
+	 * Flatten an expression
+	 * @param <E> The type of numbers in the expression
+	 * @param expression the expression to flatten
+	 * @param specimen A specimen to provide the Number class of the expression
+	 * @return a new flat expression
+	 * @throws NullPointerException if expression or specimen is null
+	 * @throws IllegalArgumentException if specimen is not one of
+	 * {@link Integer}, {@link Float} or {@link Double}
+	 * @throws UnsupportedOperationException if expression contains
+	 * expressions which can't be flattened (such as groups or incomplete
+	 * binary expressions)
+	 */
+	public static <E extends Number> FlatExpression compile(Expression<E> expression, E specimen)
+	    throws NullPointerException,
+	    IllegalArgumentException,
+	    UnsupportedOperationException
+	{
+		Objects.requireNonNull(expression, "null expression");
+		Objects.requireNonNull(specimen, "null specimen");
+		if (!(specimen instanceof Integer || specimen instanceof Float
+		    || specimen instanceof Double))
+		{
+			throw new IllegalArgumentException("Unsupported number type "
+			    + specimen.getClass().getSimpleName());
+		}
+		Compiler<E> compiler = new Compiler<>();
+		ExpressionWalker.walk(expression, compiler);
+		return new FlatExpression(compiler, specimen.getClass());
+	}
+
+	/**
+	 * Constructor from a compiler which visited an expression
+	 * @param compiler the compiler
+	 * @param numberClass the class of numbers in the expression
+	 */
+	private FlatExpression(Compiler<?> compiler, Class<? extends Number> numberClass)
+	{
+		int size = compiler.size;
+		opcodes = Arrays.copyOf(compiler.opcodes, size);
+		lefts = Arrays.copyOf(compiler.lefts, size);
+		rights = Arrays.copyOf(compiler.rights, size);
+		constants = Arrays.copyOf(compiler.constants, compiler.constantsSize);
+		variables = Collections.unmodifiableList(compiler.names);
+		reads = new int[variables.size()];
+		this.numberClass = numberClass;
+		results = new double[size];
+
+		// Depths and reads computed over arrays (operands before operators)
+		int[] depths = new int[size];
+		for (int i = 0; i < size; i++)
+		{
+			switch (opcodes[i])
+			{
+				case CONSTANT:
+					depths[i] = 1;
+					break;
+				case VARIABLE:
+					depths[i] = 1;
+					reads[lefts[i]]++;
+					break;
+				case ASSIGNMENT:
+					// Assigned variable is written, not read
+					reads[lefts[lefts[i]]]--;
+					depths[i] = operatorDepth(depths, i);
+					break;
+				default:
+					depths[i] = operatorDepth(depths, i);
+					break;
+			}
+		}
+		depth = size == 0 ? 0 : depths[size - 1];
+	}
+
+	/**
+	 * Depth of an operator node from the depths of its operands
+	 * @param depths the depths of the nodes (computed at least up to the
+	 * operands of this operator)
+	 * @param index the index of the operator node
+	 * @return the depth of the operator node
+	 */
+	private int operatorDepth(int[] depths, int index)
+	{
+		return 1 + Math.max(depths[lefts[index]], depths[rights[index]]);
+	}
+
+	/**
+	 * Copy constructor sharing the (immutable) nodes of another flat
+	 * expression
+	 * @param other the flat expression to copy
+	 */
+	private FlatExpression(FlatExpression other)
+	{
+		opcodes = other.opcodes;
+		lefts = other.lefts;
+		rights = other.rights;
+		constants = other.constants;
+		variables = other.variables;
+		reads = other.reads;
+		numberClass = other.numberClass;
+		depth = other.depth;
+		results = new double[opcodes.length];
+	}
+
+	/**
+	 * Copy of this flat expression for use by another thread
+	 * @return a new flat expression sharing the nodes of this one with its
+	 * own working array
+	 */
+	public FlatExpression copy()
+	{
+		return new FlatExpression(this);
+	}
+
+	/**
+	 * Number of nodes
+	 * @return the number of nodes of the flattened expression
+	 */
+	public int size()
+	{
+		return opcodes.length;
+	}
+
+	/**
+	 * Depth of the flattened expression
+	 * @return the maximum number of nodes from the root to a leaf
+	 */
+	public int depth()
+	{
+		return depth;
+	}
+
+	/**
+	 * Operation code of a node
+	 * @param node the index of the node
+	 * @return the operation code of this node
+	 * @throws ArrayIndexOutOfBoundsException if node is not a valid index
+	 */
+	public int opcode(int node) throws ArrayIndexOutOfBoundsException
+	{
+		return opcodes[node];
+	}
+
+	/**
+	 * Left index of a node
+	 * @param node the index of the node
+	 * @return the index of the left operand of an operator, of the constant
+	 * in the pool or of the variable in {@link #getVariables()}
+	 * @throws ArrayIndexOutOfBoundsException if node is not a valid index
+	 */
+	public int left(int node) throws ArrayIndexOutOfBoundsException
+	{
+		return lefts[node];
+	}
+
+	/**
+	 * Right index of a node
+	 * @param node the index of the node
+	 * @return the index of the right operand of an operator (0 for constants
+	 * and variables)
+	 * @throws ArrayIndexOutOfBoundsException if node is not a valid index
+	 */
+	public int right(int node) throws ArrayIndexOutOfBoundsException
+	{
+		return rights[node];
+	}
+
+	/**
+	 * Constant of the pool
+	 * @param index the index of the constant in the pool
+	 * @return the value of this constant
+	 * @throws ArrayIndexOutOfBoundsException if index is not a valid index
+	 */
+	public double constant(int index) throws ArrayIndexOutOfBoundsException
+	{
+		return constants[index];
+	}
+
+	/**
+	 * Names of variables
+	 * @return an unmodifiable list of the names of the variables of the
+	 * flattened expression in order of first appearance (including assigned
+	 * variables)
+	 */
+	public List<String> getVariables()
+	{
+		return variables;
+	}
+
+	/**
+	 * Number of nodes with an operation code
+	 * @param opcode the operation code to count
+	 * @return the number of nodes with this operation code
+	 */
+	public int count(int opcode)
+	{
+		int count = 0;
+		for (int code : opcodes)
+		{
+			if (code == opcode)
+			{
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Indicate if the value of a variable is used by the flattened expression
+	 * @param name the name of the variable
+	 * @return true if the value of this variable is read (assigned only
+	 * variables are not read)
+	 */
+	public boolean reads(String name)
+	{
+		int index = variables.indexOf(name);
+		return index >= 0 && reads[index] > 0;
+	}
+
+	/**
+	 * Evaluate the flattened expression with the current values of its
+	 * variables
+	 * @return the value of the expression
+	 * @throws IllegalStateException if a read variable has no value yet
+	 * @throws ArithmeticException if an {@link Integer} expression divides by
+	 * 0
+	 * @implNote Unlike {@link AssignmentExpression#value()} assignments don't
+	 * modify the values of their variables
+	 */
+	public double evaluate() throws IllegalStateException, ArithmeticException
+	{
+		Map<String, Optional<? extends Number>> registry = VariableExpression.getValues();
+		double[] values = new double[variables.size()];
+		for (int i = 0; i < values.length; i++)
+		{
+			Optional<? extends Number> value = registry.get(variables.get(i));
+			if (value != null && value.isPresent())
+			{
+				values[i] = value.get().doubleValue();
+			}
+			else if (reads[i] > 0)
+			{
+				throw new IllegalStateException("No value yet for " + variables.get(i));
+			}
+			else
+			{
+				values[i] = Double.NaN;
+			}
+		}
+		return evaluate(values);
+	}
+
+	/**
+	 * Evaluate the flattened expression at a point
+	 * @param values the values of variables (in the order of
+	 * {@link #getVariables()}) which are converted to the number type of the
+	 * expression when read
+	 * @return the value of the expression
+	 * @throws IllegalArgumentException if there are less values than
+	 * variables
+	 * @throws ArithmeticException if an {@link Integer} expression divides by
+	 * 0
+	 */
+	public double evaluate(double... values)
+	    throws IllegalArgumentException, ArithmeticException
+	{
+		if (values.length < variables.size())
+		{
+			throw new IllegalArgumentException("Expected " + variables.size()
+			    + " values but got " + values.length);
+		}
+		if (numberClass == Integer.class)
+		{
+			return evaluateIntegers(values);
+		}
+		boolean floats = numberClass == Float.class;
+		int size = opcodes.length;
+		for (int i = 0; i < size; i++)
+		{
+			double result;
+			switch (opcodes[i])
+			{
+				case CONSTANT:
+					result = constants[lefts[i]];
+					break;
+				case VARIABLE:
+					result = values[lefts[i]];
+					break;
+				case ADDITION:
+					result = results[lefts[i]] + results[rights[i]];
+					break;
+				case SUBTRACTION:
+					result = results[lefts[i]] - results[rights[i]];
+					break;
+				case MULTIPLICATION:
+					result = results[lefts[i]] * results[rights[i]];
+					break;
+				case DIVISION:
+					result = results[lefts[i]] / results[rights[i]];
+					break;
+				case POWER:
+					result = Math.pow(results[lefts[i]], results[rights[i]]);
+					break;
+				default: // ASSIGNMENT
+					result = results[rights[i]];
+					break;
+			}
+			// Operations on floats are exact when rounded to float
+			results[i] = floats ? (float) result : result;
+		}
+		return results[size - 1];
+	}
+
+	/**
+	 * Evaluate the flattened expression at a point with integer arithmetic
+	 * @param values the values of variables (truncated to ints)
+	 * @return the value of the expression
+	 * @throws ArithmeticException if expression divides by 0
+	 */
+	private double evaluateIntegers(double[] values) throws ArithmeticException
+	{
+		int size = opcodes.length;
+		for (int i = 0; i < size; i++)
+		{
+			int opcode = opcodes[i];
+			if (opcode == CONSTANT)
+			{
+				results[i] = constants[lefts[i]];
+				continue;
+			}
+			if (opcode == VARIABLE)
+			{
+				results[i] = (int) values[lefts[i]];
+				continue;
+			}
+			int left = (int) results[lefts[i]];
+			int right = (int) results[rights[i]];
+			switch (opcode)
+			{
+				case ADDITION:
+					results[i] = left + right;
+					break;
+				case SUBTRACTION:
+					results[i] = left - right;
+					break;
+				case MULTIPLICATION:
+					results[i] = left * right;
+					break;
+				case DIVISION:
+					results[i] = left / right;
+					break;
+				case POWER:
+					results[i] = (int) Math.pow(left, right);
+					break;
+				default: // ASSIGNMENT
+					results[i] = right;
+					break;
+			}
+		}
+		return results[size - 1];
+	}
+
+	/**
+	 * Visitor flattening expressions into growable arrays: each visited node
+	 * is appended after its operands and produces its index
+	 * @param <E> The type of numbers in flattened expressions
+	 */
+	private static class Compiler<E extends Number>
+	    implements ExpressionVisitor<E, Integer>, NodeVisitor<E, Integer>
+	{
+		/**
+		 * Operation codes of nodes
+		 */
+		int[] opcodes = new int[16];
+
+		/**
+		 * Left indices of nodes
+		 */
+		int[] lefts = new int[16];
+
+		/**
+		 * Right indices of nodes
+		 */
+		int[] rights = new int[16];
+
+		/**
+		 * Number of nodes
+		 */
+		int size = 0;
+
+		/**
+		 * Pool of constants
+		 */
+		double[] constants = new double[8];
+
+		/**
+		 * Number of constants
+		 */
+		int constantsSize = 0;
+
+		/**
+		 * Indices of constants in the pool by value
+		 */
+		final Map<Double, Integer> constantsIndices = new HashMap<>();
+
+		/**
+		 * Names of variables in order of first appearance
+		 */
+		final List<String> names = new ArrayList<>();
+
+		/**
+		 * Indices of variables by name
+		 */
+		final Map<String, Integer> namesIndices = new HashMap<>();
+
+		/**
+		 * Append a node
+		 * @param opcode the operation code of the node
+		 * @param left the left index of the node
+		 * @param right the right index of the node
+		 * @return the index of the node
+		 */
+		private int add(int opcode, int left, int right)
+		{
+			if (size == opcodes.length)
+			{
+				opcodes = Arrays.copyOf(opcodes, 2 * size);
+				lefts = Arrays.copyOf(lefts, 2 * size);
+				rights = Arrays.copyOf(rights, 2 * size);
+			}
+			opcodes[size] = opcode;
+			lefts[size] = left;
+			rights[size] = right;
+			return size++;
+		}
+
+		/**
+		 * Flatten a leaf according to its kind
+		 * @param leaf the visited leaf
+		 * @return the index of the node of this leaf
+		 * @throws UnsupportedOperationException if leaf is not a constant or
+		 * a variable
+		 */
+		@Override
+		public Integer visitLeaf(Expression<E> leaf) throws UnsupportedOperationException
+		{
+			return leaf.accept(this);
+		}
+
+		/**
+		 * Flatten an operator after its operands
+		 * @param binary the visited operator
+		 * @param left the index of the left operand node
+		 * @param right the index of the right operand node
+		 * @return the index of the node of this operator
+		 * @throws UnsupportedOperationException if an operand is missing
+		 */
+		@Override
+		public Integer visitBinary(BinaryExpression<E> binary, Integer left, Integer right)
+		    throws UnsupportedOperationException
+		{
+			if (left == null || right == null)
+			{
+				throw new UnsupportedOperationException("Can't flatten incomplete "
+				    + binary.getClass().getSimpleName());
+			}
+			int opcode;
+			switch (binary.getRules())
+			{
+				case ADDITION:
+					opcode = ADDITION;
+					break;
+				case SUBTRACTION:
+					opcode = SUBTRACTION;
+					break;
+				case MULTIPLICATION:
+					opcode = MULTIPLICATION;
+					break;
+				case DIVISION:
+					opcode = DIVISION;
+					break;
+				case POWER:
+					opcode = POWER;
+					break;
+				case ASSIGNMENT:
+					opcode = ASSIGNMENT;
+					break;
+				default:
+					throw new UnsupportedOperationException("Can't flatten "
+					    + binary.getRules());
+			}
+			return add(opcode, left, right);
+		}
+
+		/**
+		 * Flatten a constant (equal constants share the same pool entry)
+		 * @param constant the visited constant
+		 * @return the index of the node of this constant
+		 */
+		@Override
+		public Integer visitConstant(ConstantExpression<E> constant)
+		{
+			double value = constant.value().doubleValue();
+			Integer index = constantsIndices.get(value);
+			if (index == null)
+			{
+				if (constantsSize == constants.length)
+				{
+					constants = Arrays.copyOf(constants, 2 * constantsSize);
+				}
+				index = constantsSize;
+				constants[constantsSize++] = value;
+				constantsIndices.put(value, index);
+			}
+			return add(CONSTANT, index, 0);
+		}
+
+		/**
+		 * Flatten a variable
+		 * @param variable the visited variable
+		 * @return the index of the node of this variable
+		 */
+		@Override
+		public Integer visitVariable(VariableExpression<E> variable)
+		{
+			Integer index = namesIndices.get(variable.getName());
+			if (index == null)
+			{
+				index = names.size();
+				namesIndices.put(variable.getName(), index);
+				names.add(variable.getName());
+			}
+			return add(VARIABLE, index, 0);
+		}
+
+		/**
+		 * Never called since binary expressions are visited by the walker
+		 * @param binary the visited binary expression
+		 * @return nothing
+		 * @throws UnsupportedOperationException always
+		 */
+		@Override
+		public Integer visitBinary(BinaryExpression<E> binary)
+		    throws UnsupportedOperationException
+		{
+			throw new UnsupportedOperationException("Binary expressions are walked");
+		}
+
+		/**
+		 * Groups can't be flattened
+		 * @param group the visited group
+		 * @return nothing
+		 * @throws UnsupportedOperationException always
+		 */
+		@Override
+		public Integer visitGroup(GroupExpression<E> group)
+		    throws UnsupportedOperationException
+		{
+			throw new UnsupportedOperationException("Can't flatten "
+			    + group.getClass().getSimpleName());
+		}
+	}
+}
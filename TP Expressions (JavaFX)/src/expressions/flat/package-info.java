@@ -0,0 +1,5 @@
+/**
+ * Package containing expressions trees flattened into contiguous arrays for
+ * fast repeated evaluations and analyses
+ */
+package expressions.flat;
@@ -0,0 +1,591 @@
+package expressions.interval;
+
+/**
+ * Closed interval [lower, upper] of extended real numbers (bounds may be
+ * infinite) with outward rounded arithmetic: the result of an operation on
+ * two intervals contains the result of the same operation on any numbers
+ * of these intervals.
+ * @implNote Java has no rounding modes, so results of additions,
+ * subtractions, multiplications and divisions are computed with the default
+ * rounding and their exact rounding error (obtained with
+ * {@link Math#fma(double, double, double)} or Knuth's TwoSum) is used to move
+ * bounds one ulp outward only when the rounded bound is not a valid bound.
+ * Powers ({@link Math#pow(double, double)}) are only accurate to 1 ulp, hence
+ * inexact power bounds are moved 2 ulps outward.
+ * @implNote Undefined results (such as 0 / 0, or non integer powers of
+ * negative numbers) are not represented: operations which may produce such
+ * results return {@link #ENTIRE}.
+ */
+public final class Interval
+{
+	/**
+	 * The interval containing all extended real numbers
+	 */
+	public static final Interval ENTIRE =
+		new Interval(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+
+	/**
+	 * Lower bound
+	 */
+	private final double lower;
+
+	/**
+	 * Upper bound
+	 */
+	private final double upper;
+
+	/**
+	 * Magnitude under which products and quotients (or dividends) rounding
+	 * errors computed with {@link Math#fma(double, double, double)} may
+	 * underflow
+	 */
+	private static final double Tiny = Math.scalb(Double.MIN_NORMAL, 54);
+
+	/**
+	 * Greatest integer such that all integers below are exactly represented
+	 * as doubles
+	 */
+	private static final double ExactIntegers = Math.scalb(1.0, 53);
+
+	/**
+	 * Private constructor (use {@link #of(double, double)} or
+	 * {@link #point(double)})
+	 * @param lower the lower bound
+	 * @param upper the upper bound
+	 */
+	private Interval(double lower, double upper)
+	{
+		// Normalize -0.0 so that powers of zero bounds are not negative
+		this.lower = lower + 0.0;
+		this.upper = upper + 0.0;
+	}
+
+	/**
+	 * Interval factory
+	 * @param lower the lower bound
+	 * @param upper the upper bound
+	 * @return a new interval [lower, upper]
+	 * @throws IllegalArgumentException if a bound is NaN or if lower is
+	 * greater than upper
+	 */
+	public static Interval of(double lower, double upper) throws IllegalArgumentException
+	{
+		if (!(lower <= upper))
+		{
+			throw new IllegalArgumentException("Invalid interval [" + lower + ", "
+			    + upper + "]");
+		}
+		return new Interval(lower, upper);
+	}
+
+	/**
+	 * Singleton interval factory
+	 * @param value the single value of the interval
+	 * @return a new interval [value, value]
+	 * @throws IllegalArgumentException if value is NaN
+	 */
+	public static Interval point(double value) throws IllegalArgumentException
+	{
+		return of(value, value);
+	}
+
+	/**
+	 * Lower bound accessor
+	 * @return the lower bound of this interval
+	 */
+	public double lower()
+	{
+		return lower;
+	}
+
+	/**
+	 * Upper bound accessor
+	 * @return the upper bound of this interval
+	 */
+	public double upper()
+	{
+		return upper;
+	}
+
+	/**
+	 * Indicate if this interval contains a single value
+	 * @return true if lower and upper bounds are equal
+	 */
+	public boolean isPoint()
+	{
+		return lower == upper;
+	}
+
+	/**
+	 * Indicate if this interval contains a value
+	 * @param value the value to search
+	 * @return true if value is within bounds of this interval
+	 */
+	public boolean contains(double value)
+	{
+		return lower <= value && value <= upper;
+	}
+
+	/**
+	 * Indicate if this interval contains another interval
+	 * @param other the other interval
+	 * @return true if other interval is contained in this interval
+	 */
+	public boolean contains(Interval other)
+	{
+		return lower <= other.lower && other.upper <= upper;
+	}
+
+	/**
+	 * Indicate if this interval has values in common with another interval
+	 * @param other the other interval
+	 * @return true if both intervals intersect
+	 */
+	public boolean intersects(Interval other)
+	{
+		return lower <= other.upper && other.lower <= upper;
+	}
+
+	/**
+	 * Smallest interval containing this interval and another one
+	 * @param other the other interval
+	 * @return the hull of both intervals
+	 */
+	public Interval hull(Interval other)
+	{
+		return new Interval(Math.min(lower, other.lower), Math.max(upper, other.upper));
+	}
+
+	/**
+	 * Opposite interval
+	 * @return [-upper, -lower]
+	 */
+	public Interval negate()
+	{
+		return new Interval(-upper, -lower);
+	}
+
+	/**
+	 * Interval addition
+	 * @param other the interval to add
+	 * @return an interval containing x + y for all x in this and y in other
+	 */
+	public Interval add(Interval other)
+	{
+		return new Interval(sumDown(lower, other.lower), sumUp(upper, other.upper));
+	}
+
+	/**
+	 * Interval subtraction
+	 * @param other the interval to subtract
+	 * @return an interval containing x - y for all x in this and y in other
+	 */
+	public Interval subtract(Interval other)
+	{
+		return new Interval(sumDown(lower, -other.upper), sumUp(upper, -other.lower));
+	}
+
+	/**
+	 * Interval multiplication
+	 * @param other the interval to multiply by
+	 * @return an interval containing x * y for all x in this and y in other
+	 */
+	public Interval multiply(Interval other)
+	{
+		return new Interval(Math.min(Math.min(productDown(lower, other.lower),
+		                                      productDown(lower, other.upper)),
+		                             Math.min(productDown(upper, other.lower),
+		                                      productDown(upper, other.upper))),
+		                    Math.max(Math.max(productUp(lower, other.lower),
+		                                      productUp(lower, other.upper)),
+		                             Math.max(productUp(upper, other.lower),
+		                                      productUp(upper, other.upper))));
+	}
+
+	/**
+	 * Interval division
+	 * @param other the divisor interval
+	 * @return an interval containing x / y for all x in this and y in other.
+	 * When other contains zero, the result is the hull of the quotients by
+	 * the non zero values of other which is unbounded on at least one side
+	 * (or {@link #ENTIRE} when this interval contains values of both signs or
+	 * when other only contains zero).
+	 */
+	public Interval divide(Interval other)
+	{
+		if (other.lower > 0.0 || other.upper < 0.0)
+		{
+			return new Interval(Math.min(Math.min(quotientDown(lower, other.lower),
+			                                      quotientDown(lower, other.upper)),
+			                             Math.min(quotientDown(upper, other.lower),
+			                                      quotientDown(upper, other.upper))),
+			                    Math.max(Math.max(quotientUp(lower, other.lower),
+			                                      quotientUp(lower, other.upper)),
+			                             Math.max(quotientUp(upper, other.lower),
+			                                      quotientUp(upper, other.upper))));
+		}
+		if (other.isPoint() || (lower < 0.0 && upper > 0.0)
+		    || (other.lower < 0.0 && other.upper > 0.0))
+		{
+			return ENTIRE;
+		}
+		// other is [0, upper] or [lower, 0] and this does not straddle 0
+		if (other.lower == 0.0)
+		{
+			return lower >= 0.0
+			    ? new Interval(quotientDown(lower, other.upper), Double.POSITIVE_INFINITY)
+			    : new Interval(Double.NEGATIVE_INFINITY, quotientUp(upper, other.upper));
+		}
+		return lower >= 0.0
+		    ? new Interval(Double.NEGATIVE_INFINITY, quotientUp(lower, other.lower))
+		    : new Interval(quotientDown(upper, other.lower), Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Interval power (with {@link Math#pow(double, double)} semantics)
+	 * @param other the exponent interval
+	 * @return an interval containing x<sup>y</sup> for all x in this and y in
+	 * other (or {@link #ENTIRE} if some powers are undefined)
+	 */
+	public Interval pow(Interval other)
+	{
+		if (other.isPoint() && isInteger(other.lower))
+		{
+			return integerPow(other.lower);
+		}
+		if (lower < 0.0)
+		{
+			// Non integer powers of negative numbers are NaN
+			return ENTIRE;
+		}
+		// x^y is monotonic in x and in y for x >= 0 : extrema are on corners
+		double[] corners = new double[] {
+			Math.pow(lower, other.lower),
+			Math.pow(lower, other.upper),
+			Math.pow(upper, other.lower),
+			Math.pow(upper, other.upper)
+		};
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		for (double corner : corners)
+		{
+			if (Double.isNaN(corner))
+			{
+				return ENTIRE;
+			}
+			min = Math.min(min, corner);
+			max = Math.max(max, corner);
+		}
+		return new Interval(Math.max(0.0, widenDown(min)), widenUp(max));
+	}
+
+	/**
+	 * Interval power by an integer
+	 * @param n the integer exponent
+	 * @return an interval containing x<sup>n</sup> for all x in this
+	 */
+	private Interval integerPow(double n)
+	{
+		if (n == 0.0)
+		{
+			return point(1.0);
+		}
+		if (lower >= 0.0)
+		{
+			return n > 0.0
+			    ? new Interval(powDown(lower, n), powUp(upper, n))
+			    : new Interval(powDown(upper, n), powUp(lower, n));
+		}
+		if (upper <= 0.0)
+		{
+			// x^n = (-1)^n |x|^n
+			Interval magnitude = negate().integerPow(n);
+			return n % 2.0 == 0.0 ? magnitude : magnitude.negate();
+		}
+		return new Interval(lower, 0.0).integerPow(n)
+		    .hull(new Interval(0.0, upper).integerPow(n));
+	}
+
+	/**
+	 * Indicate if a number is a mathematical integer
+	 * @param x the number to test
+	 * @return true if x is finite and has no fractional part
+	 */
+	private static boolean isInteger(double x)
+	{
+		return x == Math.rint(x) && !Double.isInfinite(x);
+	}
+
+	/**
+	 * Lower bound of a sum
+	 * @param a the first operand
+	 * @param b the second operand
+	 * @return a lower bound of a + b
+	 */
+	private static double sumDown(double a, double b)
+	{
+		double s = a + b;
+		if (Double.isNaN(s))
+		{
+			return Double.NEGATIVE_INFINITY;
+		}
+		if (Double.isInfinite(s))
+		{
+			// Overflow of finite operands
+			return s > 0.0 && Double.isFinite(a) && Double.isFinite(b) ? Double.MAX_VALUE : s;
+		}
+		return sumError(a, b, s) < 0.0 ? Math.nextDown(s) : s;
+	}
+
+	/**
+	 * Upper bound of a sum
+	 * @param a the first operand
+	 * @param b the second operand
+	 * @return an upper bound of a + b
+	 */
+	private static double sumUp(double a, double b)
+	{
+		double s = a + b;
+		if (Double.isNaN(s))
+		{
+			return Double.POSITIVE_INFINITY;
+		}
+		if (Double.isInfinite(s))
+		{
+			return s < 0.0 && Double.isFinite(a) && Double.isFinite(b) ? -Double.MAX_VALUE : s;
+		}
+		return sumError(a, b, s) > 0.0 ? Math.nextUp(s) : s;
+	}
+
+	/**
+	 * Exact rounding error of a sum (Knuth's TwoSum)
+	 * @param a the first operand
+	 * @param b the second operand
+	 * @param s the rounded sum a + b
+	 * @return (a + b) - s computed exactly
+	 */
+	private static double sumError(double a, double b, double s)
+	{
+		double bb = s - a;
+		return (a - (s - bb)) + (b - bb);
+	}
+
+	/**
+	 * Lower bound of a product
+	 * @param a the first operand
+	 * @param b the second operand
+	 * @return a lower bound of a * b (with 0 * infinity = 0)
+	 */
+	private static double productDown(double a, double b)
+	{
+		if (a == 0.0 || b == 0.0)
+		{
+			return 0.0;
+		}
+		double p = a * b;
+		if (Double.isInfinite(p))
+		{
+			return p > 0.0 && Double.isFinite(a) && Double.isFinite(b) ? Double.MAX_VALUE : p;
+		}
+		if (Math.abs(p) < Tiny)
+		{
+			return Math.nextDown(p);
+		}
+		return Math.fma(a, b, -p) < 0.0 ? Math.nextDown(p) : p;
+	}
+
+	/**
+	 * Upper bound of a product
+	 * @param a the first operand
+	 * @param b the second operand
+	 * @return an upper bound of a * b (with 0 * infinity = 0)
+	 */
+	private static double productUp(double a, double b)
+	{
+		if (a == 0.0 || b == 0.0)
+		{
+			return 0.0;
+		}
+		double p = a * b;
+		if (Double.isInfinite(p))
+		{
+			return p < 0.0 && Double.isFinite(a) && Double.isFinite(b) ? -Double.MAX_VALUE : p;
+		}
+		if (Math.abs(p) < Tiny)
+		{
+			return Math.nextUp(p);
+		}
+		return Math.fma(a, b, -p) > 0.0 ? Math.nextUp(p) : p;
+	}
+
+	/**
+	 * Lower bound of a quotient by a non zero number
+	 * @param a the dividend
+	 * @param b the (non zero) divisor
+	 * @return a lower bound of a / b
+	 */
+	private static double quotientDown(double a, double b)
+	{
+		double q = a / b;
+		if (Double.isNaN(q))
+		{
+			return Double.NEGATIVE_INFINITY;
+		}
+		if (Double.isInfinite(q))
+		{
+			return q > 0.0 && Double.isFinite(a) ? Double.MAX_VALUE : q;
+		}
+		if (Double.isInfinite(a) || Double.isInfinite(b))
+		{
+			return q;
+		}
+		if (Math.abs(q) < Tiny || Math.abs(a) < Tiny)
+		{
+			return Math.nextDown(q);
+		}
+		// a / b - q = remainder / b with an exact remainder
+		double remainder = Math.fma(-q, b, a);
+		return remainder != 0.0 && (remainder < 0.0) == (b > 0.0) ? Math.nextDown(q) : q;
+	}
+
+	/**
+	 * Upper bound of a quotient by a non zero number
+	 * @param a the dividend
+	 * @param b the (non zero) divisor
+	 * @return an upper bound of a / b
+	 */
+	private static double quotientUp(double a, double b)
+	{
+		double q = a / b;
+		if (Double.isNaN(q))
+		{
+			return Double.POSITIVE_INFINITY;
+		}
+		if (Double.isInfinite(q))
+		{
+			return q < 0.0 && Double.isFinite(a) ? -Double.MAX_VALUE : q;
+		}
+		if (Double.isInfinite(a) || Double.isInfinite(b))
+		{
+			return q;
+		}
+		if (Math.abs(q) < Tiny || Math.abs(a) < Tiny)
+		{
+			return Math.nextUp(q);
+		}
+		double remainder = Math.fma(-q, b, a);
+		return remainder != 0.0 && (remainder > 0.0) == (b > 0.0) ? Math.nextUp(q) : q;
+	}
+
+	/**
+	 * Lower bound of an integer power
+	 * @param x the base
+	 * @param n the integer exponent
+	 * @return a lower bound of x<sup>n</sup>
+	 */
+	private static double powDown(double x, double n)
+	{
+		double p = Math.pow(x, n);
+		return isExactPow(x, n, p) ? p : widenDown(p);
+	}
+
+	/**
+	 * Upper bound of an integer power
+	 * @param x the base
+	 * @param n the integer exponent
+	 * @return an upper bound of x<sup>n</sup>
+	 */
+	private static double powUp(double x, double n)
+	{
+		double p = Math.pow(x, n);
+		return isExactPow(x, n, p) ? p : widenUp(p);
+	}
+
+	/**
+	 * Indicate if {@link Math#pow(double, double)} is exact
+	 * @param x the base
+	 * @param n the integer exponent
+	 * @param p the computed power
+	 * @return true if p is known to be exact : powers of 0, 1 and infinity
+	 * and representable powers of integers (as specified by
+	 * {@link Math#pow(double, double)}), that is positive powers below
+	 * 2<sup>53</sup> and normal negative powers of powers of 2
+	 */
+	private static boolean isExactPow(double x, double n, double p)
+	{
+		if (x == 0.0 || x == 1.0 || Double.isInfinite(x))
+		{
+			return true;
+		}
+		if (!isInteger(x))
+		{
+			return false;
+		}
+		if (n > 0.0)
+		{
+			return Math.abs(p) < ExactIntegers;
+		}
+		return Math.abs(x) == Math.scalb(1.0, Math.getExponent(x))
+		    && Math.abs(p) >= Double.MIN_NORMAL;
+	}
+
+	/**
+	 * Move a power lower bound 2 ulps downward
+	 * @param p the computed power
+	 * @return a lower bound of the exact power
+	 */
+	private static double widenDown(double p)
+	{
+		return Double.isInfinite(p) ? p : Math.nextDown(Math.nextDown(p));
+	}
+
+	/**
+	 * Move a power upper bound 2 ulps upward
+	 * @param p the computed power
+	 * @return an upper bound of the exact power
+	 */
+	private static double widenUp(double p)
+	{
+		return Double.isInfinite(p) ? p : Math.nextUp(Math.nextUp(p));
+	}
+
+	/**
+	 * Compare this interval to another object
+	 * @param obj the object to compare
+	 * @return true if obj is an interval with the same bounds
+	 */
+	@Override
+	public boolean equals(Object obj)
+	{
+		if (this == obj)
+		{
+			return true;
+		}
+		if (obj instanceof Interval other)
+		{
+			return Double.compare(lower, other.lower) == 0
+			    && Double.compare(upper, other.upper) == 0;
+		}
+		return false;
+	}
+
+	/**
+	 * Hash code of this interval
+	 * @return a hash code combining both bounds
+	 */
+	@Override
+	public int hashCode()
+	{
+		return 31 * Double.hashCode(lower) + Double.hashCode(upper);
+	}
+
+	/**
+	 * String representation of this interval
+	 * @return "[lower, upper]"
+	 */
+	@Override
+	public String toString()
+	{
+		return "[" + lower + ", " + upper + "]";
+	}
+}
@@ -0,0 +1,381 @@
+package expressions.interval;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import expressions.Expression;
+import expressions.binary.AssignmentExpression;
+import expressions.binary.BinaryExpression;
+import expressions.binary.BinaryOperatorRules;
+import expressions.terminal.ConstantExpression;
+import expressions.terminal.VariableExpression;
+
+/**
+ * Evaluates ranges of expressions when variables are bound to intervals
+ * rather than values: the range of an expression contains all the values
+ * this expression may evaluate to when each variable takes any value in its
+ * interval.
+ * Ranges are cached per subtree so filtering many expressions (or many
+ * ranges of the same expressions) never evaluates a subtree twice, and never
+ * requires pointwise evaluations.
+ * @implSpec Ranges follow the arithmetic of the number type of expressions:
+ * <ul>
+ * <li>{@link Double} ranges are computed with outward rounding
+ * ({@link Interval})</li>
+ * <li>{@link Float} ranges are additionally rounded outward to floats after
+ * each operation</li>
+ * <li>{@link Integer} ranges are truncated after divisions and powers and
+ * become the whole int range when an operation may overflow</li>
+ * </ul>
+ * @implNote Variables which are not bound to an interval are bound to their
+ * current value (or to {@link Interval#ENTIRE} when they don't have a
+ * value). Assignments "a = f" range as f. Cached ranges are invalidated when
+ * bindings change but not when expressions or unbound variables values are
+ * modified: call {@link #invalidate()} afterwards.
+ */
+public class IntervalEvaluator
+{
+	/**
+	 * All int values
+	 */
+	private static final Interval Integers =
+		Interval.of(Integer.MIN_VALUE, Integer.MAX_VALUE);
+
+	/**
+	 * The class of numbers in evaluated expressions
+	 */
+	private final Class<? extends Number> numberClass;
+
+	/**
+	 * Intervals bound to variables by name
+	 */
+	private final Map<String, Interval> bindings;
+
+	/**
+	 * Cached ranges of evaluated subtrees (expressions equality is
+	 * structural, hence an identity map)
+	 */
+	private final Map<Expression<?>, Interval> ranges;
+
+	/**
+	 * Constructor
+	 * @param specimen A specimen to provide the Number class of evaluated
+	 * expressions
+	 * @throws IllegalArgumentException if specimen is not one of
+	 * {@link Integer}, {@link Float} or {@link Double}
+	 */
+	public IntervalEvaluator(Number specimen) throws IllegalArgumentException
+	{
+		if (!(specimen instanceof Integer || specimen instanceof Float
+		    || specimen instanceof Double))
+		{
+			throw new IllegalArgumentException("Unsupported number type "
+			    + (specimen == null ? "null" : specimen.getClass().getSimpleName()));
+		}
+		numberClass = specimen.getClass();
+		bindings = new HashMap<>();
+		ranges = new IdentityHashMap<>();
+	}
+
+	/**
+	 * Bind a variable to an interval
+	 * @param name the name of the variable
+	 * @param interval the interval of values of this variable (or null to
+	 * unbind this variable)
+	 * @throws IllegalArgumentException if interval contains no value of the
+	 * number type of expressions (e.g. [0.2, 0.8] for Integer expressions)
+	 */
+	public void bind(String name, Interval interval) throws IllegalArgumentException
+	{
+		if (interval == null)
+		{
+			bindings.remove(name);
+		}
+		else
+		{
+			bindings.put(name, bounded(interval));
+		}
+		ranges.clear();
+	}
+
+	/**
+	 * Interval bound to a variable
+	 * @param name the name of the variable
+	 * @return the interval bound to this variable or null if this variable is
+	 * not bound
+	 */
+	public Interval getBinding(String name)
+	{
+		return bindings.get(name);
+	}
+
+	/**
+	 * Invalidate all cached ranges (after expressions or variables values
+	 * have been modified)
+	 */
+	public void invalidate()
+	{
+		ranges.clear();
+	}
+
+	/**
+	 * Number of cached ranges
+	 * @return the number of subtrees whose range is cached
+	 */
+	public int cacheSize()
+	{
+		return ranges.size();
+	}
+
+	/**
+	 * Range of an expression
+	 * @param expression the expression to evaluate
+	 * @return an interval containing all values of this expression when
+	 * variables take any value of their intervals
+	 * @throws NullPointerException if expression is null
+	 * @throws UnsupportedOperationException if expression contains
+	 * expressions which can't be evaluated (such as groups)
+	 */
+	public Interval range(Expression<?> expression)
+	    throws NullPointerException, UnsupportedOperationException
+	{
+		Interval range = ranges.get(expression);
+		if (range == null)
+		{
+			range = compute(expression);
+			ranges.put(expression, range);
+		}
+		return range;
+	}
+
+	/**
+	 * Indicate if an expression may have a value within an interval
+	 * @param expression the expression to evaluate
+	 * @param interval the interval to check
+	 * @return false if this expression can't have a value in this interval
+	 * (true does not imply that it has one)
+	 * @throws NullPointerException if expression is null
+	 * @throws UnsupportedOperationException if expression contains
+	 * expressions which can't be evaluated (such as groups)
+	 */
+	public boolean mayIntersect(Expression<?> expression, Interval interval)
+	    throws NullPointerException, UnsupportedOperationException
+	{
+		return range(expression).intersects(interval);
+	}
+
+	/**
+	 * Indicate if all values of an expression are within an interval
+	 * @param expression the expression to evaluate
+	 * @param interval the interval to check
+	 * @return true if all values of this expression are certainly in this
+	 * interval (false does not imply that some are not)
+	 * @throws NullPointerException if expression is null
+	 * @throws UnsupportedOperationException if expression contains
+	 * expressions which can't be evaluated (such as groups)
+	 */
+	public boolean isWithin(Expression<?> expression, Interval interval)
+	    throws NullPointerException, UnsupportedOperationException
+	{
+		return interval.contains(range(expression));
+	}
+
+	/**
+	 * Filter expressions which may have a value within an interval
+	 * @param <E> The type of numbers in expressions
+	 * @param expressions the expressions to filter
+	 * @param interval the interval of values to search
+	 * @return a new list of the expressions which may have a value in this
+	 * interval (all the other ones certainly don't)
+	 * @throws NullPointerException if an expression is null
+	 * @throws UnsupportedOperationException if an expression contains
+	 * expressions which can't be evaluated (such as groups)
+	 */
+	public <E extends Number> List<Expression<E>> filter(Collection<? extends Expression<E>> expressions,
+	                                                     Interval interval)
+	    throws NullPointerException, UnsupportedOperationException
+	{
+		List<Expression<E>> result = new ArrayList<>();
+		for (Expression<E> expression : expressions)
+		{
+			if (mayIntersect(expression, interval))
+			{
+				result.add(expression);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Compute the range of an expression (using cached ranges of its
+	 * operands)
+	 * @param expression the expression to evaluate
+	 * @return the range of this expression
+	 * @throws NullPointerException if expression is null
+	 * @throws UnsupportedOperationException if expression contains
+	 * expressions which can't be evaluated
+	 */
+	private Interval compute(Expression<?> expression)
+	    throws NullPointerException, UnsupportedOperationException
+	{
+		if (expression == null)
+		{
+			throw new NullPointerException("null expression");
+		}
+		if (expression instanceof ConstantExpression<?> constant)
+		{
+			return bounded(Interval.point(constant.value().doubleValue()));
+		}
+		if (expression instanceof VariableExpression<?> variable)
+		{
+			Interval binding = bindings.get(variable.getName());
+			if (binding != null)
+			{
+				return binding;
+			}
+			Optional<? extends Number> value =
+				VariableExpression.getValues().get(variable.getName());
+			return value == null || value.isEmpty()
+			    ? bounded(Interval.ENTIRE)
+			    : bounded(Interval.point(value.get().doubleValue()));
+		}
+		if (expression instanceof AssignmentExpression<?> assignment)
+		{
+			return range(assignment.getRight());
+		}
+		if (expression instanceof BinaryExpression<?> binary)
+		{
+			return operate(binary.getRules(),
+			               range(binary.getLeft()),
+			               range(binary.getRight()));
+		}
+		throw new UnsupportedOperationException("Can't evaluate range of "
+		    + expression.getClass().getSimpleName());
+	}
+
+	/**
+	 * Range of an operation
+	 * @param rules the rules of the operator
+	 * @param left the range of the left operand
+	 * @param right the range of the right operand
+	 * @return the range of the operation
+	 * @throws UnsupportedOperationException for unexpected rules
+	 */
+	private Interval operate(BinaryOperatorRules rules, Interval left, Interval right)
+	    throws UnsupportedOperationException
+	{
+		switch (rules)
+		{
+			case ADDITION:
+				return rounded(left.add(right), false);
+			case SUBTRACTION:
+				return rounded(left.subtract(right), false);
+			case MULTIPLICATION:
+				return rounded(left.multiply(right), false);
+			case DIVISION:
+				return numberClass == Integer.class
+				    ? integerDivide(left, right)
+				    : rounded(left.divide(right), false);
+			case POWER:
+				return rounded(left.pow(right), true);
+			default:
+				throw new UnsupportedOperationException("Can't evaluate range of "
+				    + rules);
+		}
+	}
+
+	/**
+	 * Integer division range (which throws {@link ArithmeticException} when
+	 * dividing by 0)
+	 * @param left the range of the dividend
+	 * @param right the range of the divisor
+	 * @return the range of left / right
+	 */
+	private Interval integerDivide(Interval left, Interval right)
+	{
+		Interval result = null;
+		if (right.lower() <= -1.0)
+		{
+			result = left.divide(Interval.of(right.lower(), Math.min(right.upper(), -1.0)));
+		}
+		if (right.upper() >= 1.0)
+		{
+			Interval positive = left.divide(Interval.of(Math.max(right.lower(), 1.0),
+			                                            right.upper()));
+			result = result == null ? positive : result.hull(positive);
+		}
+		// Division by [0, 0] has no value and MIN_VALUE / -1 wraps
+		return result == null || !Integers.contains(result)
+		    ? Integers
+		    : rounded(result, true);
+	}
+
+	/**
+	 * Round an exact range to the number type of expressions
+	 * @param interval the exact range
+	 * @param truncate whether Integer values are truncated (for divisions
+	 * and powers) rather than wrapped (for other operations)
+	 * @return the rounded range
+	 */
+	private Interval rounded(Interval interval, boolean truncate)
+	{
+		if (numberClass == Float.class)
+		{
+			return Interval.of(floatDown(interval.lower()), floatUp(interval.upper()));
+		}
+		if (numberClass == Integer.class)
+		{
+			if (truncate)
+			{
+				// Narrowing casts truncate and saturate : both are monotonic
+				return Interval.of((int) interval.lower(), (int) interval.upper());
+			}
+			return Integers.contains(interval) ? interval : Integers;
+		}
+		return interval;
+	}
+
+	/**
+	 * Restrict an interval to the values of the number type of expressions
+	 * @param interval the interval to restrict
+	 * @return an interval containing all the values of the number type of
+	 * expressions within the provided interval
+	 * @throws IllegalArgumentException if there are no such values
+	 */
+	private Interval bounded(Interval interval) throws IllegalArgumentException
+	{
+		if (numberClass == Integer.class)
+		{
+			return Interval.of(Math.max(Math.ceil(interval.lower()), Integer.MIN_VALUE),
+			                   Math.min(Math.floor(interval.upper()), Integer.MAX_VALUE));
+		}
+		return rounded(interval, false);
+	}
+
+	/**
+	 * Greatest float lower than or equal to a double
+	 * @param value the double value
+	 * @return a float lower bound of value
+	 */
+	private static double floatDown(double value)
+	{
+		float rounded = (float) value;
+		return rounded > value ? Math.nextDown(rounded) : rounded;
+	}
+
+	/**
+	 * Smallest float greater than or equal to a double
+	 * @param value the double value
+	 * @return a float upper bound of value
+	 */
+	private static double floatUp(double value)
+	{
+		float rounded = (float) value;
+		return rounded < value ? Math.nextUp(rounded) : rounded;
+	}
+}
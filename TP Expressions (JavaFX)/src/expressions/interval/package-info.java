@@ -0,0 +1,5 @@
+/**
+ * Package containing interval arithmetic and range evaluation of
+ * expressions trees
+ */
+package expressions.interval;
@@ -22,7 +22,18 @@ public class ExpressionDisplay<E extends Number> extends NamedDataDisplay<E>
 	 */
 	public ExpressionDisplay(Expression<E> expression)
 	{
-		super(expression.toString(), expression.hasValue() ? expression.value() : null);
+		this(expression, expression.hasValue() ? expression.value() : null);
+	}
+
+	/**
+	 * Constructor from an already evaluated expression
+	 * @param expression the expression to show
+	 * @param value the value of this expression (or null if it has no value)
+	 * @see ExpressionsModel#evaluate(java.util.List)
+	 */
+	public ExpressionDisplay(Expression<E> expression, E value)
+	{
+		super(expression.toString(), value);
 		this.expression = expression;
 	}
 
@@ -0,0 +1,54 @@
+package expressions.models;
+
+import expressions.Expression;
+import javafx.scene.control.TreeCell;
+import javafx.scene.control.TreeView;
+import javafx.scene.image.ImageView;
+
+/**
+ * A {@link TreeCell} for displaying {@link Expression}s in a {@link TreeView}.
+ * Each cell owns a single {@link ImageView} which is reused for every item
+ * displayed in this cell, so that scrolling or expanding large trees doesn't
+ * allocate graphic nodes per item.
+ * Icon images are shared among all cells through
+ * {@link ExpressionTreeItem#getIcon(Expression)}.
+ * @param <E> The type of numbers in {@link Expression}s
+ * @see application.Controller#initialize(java.net.URL, java.util.ResourceBundle)
+ */
+public class ExpressionTreeCell<E extends Number> extends TreeCell<Expression<E>>
+{
+	/**
+	 * The graphic node of this cell (reused across updates)
+	 */
+	private final ImageView icon;
+
+	/**
+	 * Default constructor
+	 */
+	public ExpressionTreeCell()
+	{
+		icon = new ImageView();
+	}
+
+	/**
+	 * Update this cell with a new expression.
+	 * @param item the new expression to display in this cell
+	 * @param empty whether or not this cell represents data from the tree
+	 */
+	@Override
+	protected void updateItem(Expression<E> item, boolean empty)
+	{
+		super.updateItem(item, empty);
+		if (empty || (item == null))
+		{
+			setText(null);
+			setGraphic(null);
+		}
+		else
+		{
+			setText(item.toString());
+			icon.setImage(ExpressionTreeItem.getIcon(item));
+			setGraphic(icon);
+		}
+	}
+}
@@ -3,6 +3,8 @@
  */
 package expressions.models;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 import expressions.Expression;
@@ -17,13 +19,15 @@ import expressions.special.GroupExpression;
 import expressions.terminal.ConstantExpression;
 import expressions.terminal.TerminalExpression;
 import expressions.terminal.VariableExpression;
+import expressions.visitors.NodeVisitor;
 import javafx.collections.FXCollections;
+import javafx.event.Event;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
-import javafx.scene.Node;
 import javafx.scene.control.TreeItem;
+import javafx.scene.control.TreeItem.TreeModificationEvent;
 import javafx.scene.control.TreeView;
 import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
 import utils.IconFactory;
 
 /**
@@ -59,7 +63,7 @@ public class ExpressionTreeItem<E extends Number> extends TreeItem<Expression<E>
 	 */
 	public ExpressionTreeItem(Expression<E> expression)
 	{
-		super(expression, getIcon(expression));
+		super(expression);
 		Objects.requireNonNull(expression);
 	}
 
@@ -106,37 +110,122 @@ public class ExpressionTreeItem<E extends Number> extends TreeItem<Expression<E>
 	 */
 	private ObservableList<ExpressionTreeItem<E>> buildChildren()
 	{
-		Expression<E> currentExpression = getValue();
-		if (currentExpression instanceof TerminalExpression<?>)
+		return getValue().accept(new NodeVisitor<E, ObservableList<ExpressionTreeItem<E>>>()
 		{
-			return FXCollections.emptyObservableList();
-		}
+			@Override
+			public ObservableList<ExpressionTreeItem<E>> visitConstant(ConstantExpression<E> constant)
+			{
+				return FXCollections.emptyObservableList();
+			}
+
+			@Override
+			public ObservableList<ExpressionTreeItem<E>> visitVariable(VariableExpression<E> variable)
+			{
+				return FXCollections.emptyObservableList();
+			}
+
+			@Override
+			public ObservableList<ExpressionTreeItem<E>> visitBinary(BinaryExpression<E> operator)
+			{
+				ObservableList<ExpressionTreeItem<E>> children = FXCollections.observableArrayList();
+				children.add(new ExpressionTreeItem<E>(operator.getLeft()));
+				children.add(new ExpressionTreeItem<E>(operator.getRight()));
+				return children;
+			}
+
+			@Override
+			public ObservableList<ExpressionTreeItem<E>> visitGroup(GroupExpression<E> group)
+			{
+				ObservableList<ExpressionTreeItem<E>> children = FXCollections.observableArrayList();
+				for (Expression<E> expression : group)
+				{
+					children.add(new ExpressionTreeItem<E>(expression));
+				}
+				return children;
+			}
+		});
+	}
 
-		ObservableList<ExpressionTreeItem<E>> children = FXCollections.observableArrayList();
-		if (currentExpression instanceof BinaryExpression<?>)
+	/**
+	 * Incrementally update children of this item according to changes
+	 * occurring in a list of expressions mirrored by this item (typically the
+	 * list of expressions contained in a {@link GroupExpression} root).
+	 * Only the items corresponding to removed or added expressions are
+	 * removed or created, so all other children (and their lazily built
+	 * sub-trees and expanded states) are left untouched. Items of updated
+	 * expressions (modified in place) are kept and only notify a value
+	 * change so their cells are rendered again.
+	 * @param change the change that occurred in the mirrored list
+	 * @implSpec If children have not been built yet, nothing is done since
+	 * they will be lazily built from {@link #getValue()} when first requested
+	 * by {@link #getChildren()}.
+	 * @implNote provided change is consumed by this method and then reset so
+	 * other listeners can still use it.
+	 * @see ExpressionsModel#ExpressionsModel(Number, java.util.logging.Logger)
+	 */
+	public void updateChildren(ListChangeListener.Change<? extends Expression<E>> change)
+	{
+		if (isFirstTimeChildren)
 		{
-			BinaryExpression<E> operator = (BinaryExpression<E>) currentExpression;
-			children.add(new ExpressionTreeItem<E>(operator.getLeft()));
-			children.add(new ExpressionTreeItem<E>(operator.getRight()));
+			return;
 		}
-		if (currentExpression instanceof GroupExpression<?>)
+		ObservableList<TreeItem<Expression<E>>> children = super.getChildren();
+		while (change.next())
 		{
-			GroupExpression<E> group = (GroupExpression<E>) currentExpression;
-			for (Expression<E> expression : group)
+			int from = change.getFrom();
+			if (change.wasPermutated())
+			{
+				int to = change.getTo();
+				List<TreeItem<Expression<E>>> permuted =
+				    new ArrayList<>(children.subList(from, to));
+				for (int i = from; i < to; i++)
+				{
+					permuted.set(change.getPermutation(i) - from, children.get(i));
+				}
+				children.subList(from, to).clear();
+				children.addAll(from, permuted);
+			}
+			else if (change.wasUpdated())
 			{
-				children.add(new ExpressionTreeItem<E>(expression));
+				for (int i = from; i < change.getTo(); i++)
+				{
+					TreeItem<Expression<E>> child = children.get(i);
+					Event.fireEvent(child,
+					                new TreeModificationEvent<>(TreeItem.valueChangedEvent(),
+					                                            child,
+					                                            child.getValue()));
+				}
+			}
+			else
+			{
+				if (change.wasRemoved())
+				{
+					children.remove(from, from + change.getRemovedSize());
+				}
+				if (change.wasAdded())
+				{
+					List<TreeItem<Expression<E>>> added = new ArrayList<>(change.getAddedSize());
+					for (Expression<E> expression : change.getAddedSubList())
+					{
+						added.add(new ExpressionTreeItem<E>(expression));
+					}
+					children.addAll(from, added);
+				}
 			}
 		}
-		return children;
+		change.reset();
 	}
 
 	/**
-	 * Icon factory method to provide a customized graphic node for this
-	 * expression. Depending on the type of expression.
+	 * Icon factory method to provide a customized image for an expression.
+	 * Depending on the type of expression.
 	 * @param expression the expression to illustrate with an image
-	 * @return an ImageView containing an image illustrating this expression
+	 * @return an image illustrating this expression
+	 * @implNote Images are shared through {@link IconFactory} and items do not
+	 * carry their own graphic node anymore: graphic nodes are provided (and
+	 * reused) by {@link ExpressionTreeCell}s
 	 */
-	private static Node getIcon(Expression<? extends Number> expression)
+	public static Image getIcon(Expression<? extends Number> expression)
 	{
 		Image icon = null;
 		if (expression != null)
@@ -186,7 +275,7 @@ public class ExpressionTreeItem<E extends Number> extends TreeItem<Expression<E>
 			icon = IconFactory.getSmallIcon("unknown");
 		}
 
-		return new ImageView(icon);
+		return icon;
 	}
 
 //	/**
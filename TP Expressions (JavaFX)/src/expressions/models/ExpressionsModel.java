@@ -6,13 +6,25 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.channels.AcceptPendingException;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -22,9 +34,15 @@ import expressions.binary.AssignmentExpression;
 import expressions.binary.BinaryExpression;
 import expressions.binary.BinaryOperatorRules;
 import expressions.special.GroupExpression;
+import expressions.sweep.Sweep;
+import expressions.sweep.SweepVariable;
+import expressions.terminal.ConstantExpression;
 import expressions.terminal.TerminalExpression;
 import expressions.terminal.TerminalType;
 import expressions.terminal.VariableExpression;
+import expressions.visitors.ExpressionWalker;
+import expressions.visitors.NodeVisitor;
+import javafx.beans.InvalidationListener;
 import javafx.beans.binding.BooleanExpression;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ReadOnlyBooleanProperty;
@@ -34,17 +52,25 @@ import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
-import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.MapChangeListener;
+import javafx.collections.ModifiableObservableListBase;
 import javafx.collections.ObservableList;
 import javafx.collections.ObservableMap;
 import javafx.collections.transformation.FilteredList;
-import javafx.event.Event;
 import javafx.scene.control.TreeItem;
 import javafx.scene.control.TreeView;
 import logger.LoggerFactory;
+import metrics.Metrics;
+import parser.CachingExpressionParser;
+import parser.Diagnostic;
 import parser.ExpressionParser;
 import parser.exceptions.ParserException;
 import parser.exceptions.UnsupportedNumberClassException;
+import utils.ListIndex;
+import utils.PersistentList;
+import utils.PersistentMap;
+import utils.SnapshotMap;
 
 /**
  * Data Model containing all expressions and used as the Model part
@@ -53,6 +79,18 @@ import parser.exceptions.UnsupportedNumberClassException;
  */
 public class ExpressionsModel<E extends Number>
 {
+	/**
+	 * Minimum number of expressions to evaluate before considering a
+	 * parallel evaluation in {@link #evaluate(List)}
+	 */
+	public static final int ParallelThreshold = 32;
+
+	/**
+	 * Maximum number of edits which can be undone
+	 * @see #undo()
+	 */
+	public static final int HistoryLimit = 256;
+
 	/**
 	 * Logger to log messages
 	 */
@@ -103,7 +141,17 @@ public class ExpressionsModel<E extends Number>
 	 * @see #save(File)
 	 * @see #toString()
 	 */
-	private ObservableList<Expression<E>> expressions;
+	private ExpressionsList<E> expressions;
+
+	/**
+	 * Hashed index of {@link #expressions} updated with each change of
+	 * {@link #expressions} so that membership tests and index lookups don't
+	 * need to scan (and render) all expressions
+	 * @see #merge(List)
+	 * @see #remove(Expression)
+	 * @see #reparse(Expression, String)
+	 */
+	private ListIndex<Expression<E>> expressionsIndex;
 
 	/**
 	 * Map relating variables names to {@link Optional} values.
@@ -116,13 +164,19 @@ public class ExpressionsModel<E extends Number>
 	 * @see #save(File)
 	 * @see #toString()
 	 */
-	private ObservableMap<String, Optional<? extends Number>> variablesMap;
+	private SnapshotMap<String, Optional<? extends Number>> variablesMap;
+
+	/**
+	 * Observable view of {@link #variablesMap} provided to UI components
+	 * @see #getVariables()
+	 */
+	private ObservableMap<String, Optional<? extends Number>> observableVariables;
 
 	/**
 	 * List of {@link #expressions} filtered with {@link #predicate}
 	 * @see #ExpressionsModel(Number, Logger)
 	 * @see #getExpressions()
-	 * @see #setPredicate(BinaryOperatorRules, TerminalType, String)
+	 * @see #setPredicate(BinaryOperatorRules, TerminalType, String, int)
 	 */
 	private FilteredList<Expression<E>> filteredExpressions;
 
@@ -130,10 +184,18 @@ public class ExpressionsModel<E extends Number>
 	 * Predicate to apply on {@link #expressions} to obtain
 	 * {@link #filteredExpressions}
 	 * @see #ExpressionsModel(Number, Logger)
-	 * @see #setPredicate(BinaryOperatorRules, TerminalType, String)
+	 * @see #setPredicate(BinaryOperatorRules, TerminalType, String, int)
 	 */
 	private Predicate<Expression<E>> predicate;
 
+	/**
+	 * Expressions matching {@link #predicate} while it is applied to
+	 * {@link #filteredExpressions} after a narrowing or widening change
+	 * (null otherwise), so that the filtered list only looks them up
+	 * @see #setPredicate(BinaryOperatorRules, TerminalType, String, int)
+	 */
+	private Set<Expression<E>> refiltered;
+
 	/**
 	 * Property used to filter {@link BinaryExpression}s based on
 	 * {@link BinaryOperatorRules}
@@ -171,6 +233,9 @@ public class ExpressionsModel<E extends Number>
 
 	/**
 	 * The parser used to parse expressions
+	 * @implNote a {@link CachingExpressionParser} is used so that contexts
+	 * which have already been parsed (e.g. when reverting to file or switching
+	 * number types back and forth) are served from cache
 	 * @see #ExpressionsModel(Number, Logger)
 	 * @see #parse(String)
 	 * @see #reparse(Expression, String)
@@ -211,6 +276,62 @@ public class ExpressionsModel<E extends Number>
 	 */
 	private ReadOnlyBooleanWrapper hasFile;
 
+	/**
+	 * Persistent copy of {@link #expressions} kept up to date with each change
+	 * of {@link #expressions}
+	 * @implNote Since successive versions of this list share all their
+	 * unmodified parts, recording it in the history costs nothing more than
+	 * the O(log n) nodes copied by each change.
+	 * @see #mirror(ListChangeListener.Change)
+	 * @see #checkpoint()
+	 */
+	private PersistentList<Expression<E>> expressionsState;
+
+	/**
+	 * The state of this model at the end of the last recorded edit
+	 * @see #checkpoint()
+	 * @see #undo()
+	 * @see #redo()
+	 */
+	private State<E> present;
+
+	/**
+	 * States preceding {@link #present} (most recent first, at most
+	 * {@link #HistoryLimit} states)
+	 * @see #undo()
+	 */
+	private Deque<State<E>> undoHistory;
+
+	/**
+	 * States which have been undone (most recently undone first)
+	 * @see #redo()
+	 */
+	private Deque<State<E>> redoHistory;
+
+	/**
+	 * Nesting level of the edits in progress: edits nested into another edit
+	 * (such as {@link #parse(String)} calls performed during
+	 * {@link #load(File, boolean)}) are recorded as a part of the outermost
+	 * edit.
+	 * @see #beginEdit()
+	 * @see #endEdit()
+	 */
+	private int edits;
+
+	/**
+	 * Property indicating there is an edit to undo
+	 * @see #canUndoProperty()
+	 * @see #undo()
+	 */
+	private ReadOnlyBooleanWrapper canUndo;
+
+	/**
+	 * Property indicating there is an undone edit to redo
+	 * @see #canRedoProperty()
+	 * @see #redo()
+	 */
+	private ReadOnlyBooleanWrapper canRedo;
+
 	/**
 	 * Constructor from number specimen and parent logger
 	 * @param specimen a number specimen
@@ -231,20 +352,66 @@ public class ExpressionsModel<E extends Number>
 		rootItem = new SimpleObjectProperty<>(rootItemElt);
 		rootItemElt.setExpanded(true);
 
-		expressions = FXCollections.<Expression<E>>observableArrayList();
+		expressions = new ExpressionsList<>();
+		expressionsIndex = new ListIndex<>();
+		/*
+		 * Index #expressions before any other listener may search them
+		 */
+		expressions.addListener((ListChangeListener.Change<? extends Expression<E>> change) -> {
+			while (change.next())
+			{
+				if (change.wasPermutated())
+				{
+					expressionsIndex.permuted(change.getFrom());
+				}
+				else if (!change.wasUpdated())
+				{
+					expressionsIndex.replaced(expressions,
+					                          change.getFrom(),
+					                          change.getRemoved(),
+					                          change.getAddedSize());
+				}
+			}
+		});
 		/*
-		 * Initialize variablesMap as an observable map upon
-		 * VariableExpression.getValues() using FXCollections
+		 * Mirror every change of #expressions in #rootExpression and in
+		 * #rootItem's children: only added/removed/replaced expressions
+		 * produce new/removed tree items, so other sub-trees are kept as is
 		 */
-		variablesMap = FXCollections.<String, Optional<? extends Number>>observableMap(VariableExpression.getValues());
+		expressions.addListener((ListChangeListener.Change<? extends Expression<E>> change) -> {
+			updateRoot(change);
+		});
+		/*
+		 * Initialize variablesMap as a snapshot map containing
+		 * VariableExpression.getValues() so that its values can be read from
+		 * any thread without locks while being assigned
+		 */
+		variablesMap = new SnapshotMap<>(VariableExpression.getValues());
 		/*
 		 * Replace the intial Map<String, Optional<? extends Number>>
-		 * with this ObservableMap<String, Optional<? extends Number>> which
-		 * will report any changes to its observers
+		 * with this map whose publications are reported to the observers of
+		 * observableVariables.
 		 * We just switched a map for an observable map for all
 		 * VariableExpressions
 		 */
 		VariableExpression.setValues(variablesMap);
+		observableVariables = new ObservableSnapshotMap<>(variablesMap);
+
+		/*
+		 * Keep a persistent copy of #expressions in sync (#variablesMap
+		 * content is already persistent) so that each edit can be recorded
+		 * in the history without copying the whole model
+		 */
+		expressionsState = PersistentList.empty();
+		expressions.addListener((ListChangeListener.Change<? extends Expression<E>> change) -> {
+			mirror(change);
+		});
+		present = new State<>(expressionsState, variablesMap.snapshot());
+		undoHistory = new ArrayDeque<>();
+		redoHistory = new ArrayDeque<>();
+		edits = 0;
+		canUndo = new ReadOnlyBooleanWrapper(false);
+		canRedo = new ReadOnlyBooleanWrapper(false);
 
 		/*
 		 * Set default #predicate to filter nothing
@@ -261,9 +428,10 @@ public class ExpressionsModel<E extends Number>
 		operatorFiltering = new SimpleObjectProperty<BinaryOperatorRules>(BinaryOperatorRules.ANY);
 		operandFiltering = new SimpleObjectProperty<TerminalType>(TerminalType.ALL);
 		nameFiltering = new SimpleStringProperty();
-		parser = new ExpressionParser<E>(specimen);
+		parser = new CachingExpressionParser<E>(specimen);
 		file = null;
 		hasFile = new ReadOnlyBooleanWrapper(false);
+		refiltered = null;
 		filteredExpressions = new FilteredList<>(expressions, predicate);
 
 		/*
@@ -283,7 +451,11 @@ public class ExpressionsModel<E extends Number>
 				 * - current value of nameFiltering
 				 */
 				if (newvalue != oldValue){
-					setPredicate(newvalue, getOperandFiltering(), getNameFiltering());
+					setPredicate(newvalue,
+					             getOperandFiltering(),
+					             getNameFiltering(),
+					             compareFilters(oldValue == BinaryOperatorRules.ANY,
+					                            newvalue == BinaryOperatorRules.ANY));
 				}
 				});
 				operandFiltering
@@ -297,7 +469,11 @@ public class ExpressionsModel<E extends Number>
 				 * - current value of nameFiltering
 				 */
 				if (newvalue != oldValue){
-					setPredicate(getOperatorFiltering(), newvalue, getNameFiltering());
+					setPredicate(getOperatorFiltering(),
+					             newvalue,
+					             getNameFiltering(),
+					             compareFilters(oldValue == TerminalType.ALL,
+					                            newvalue == TerminalType.ALL));
 				}
 				});
 				nameFiltering.addListener((ObservableValue<? extends String> observable,
@@ -310,7 +486,10 @@ public class ExpressionsModel<E extends Number>
 			 * - newvalue of nameFiltering
 			 */
 			if (newvalue != oldValue){
-				setPredicate(getOperatorFiltering(), getOperandFiltering(), newvalue);
+				setPredicate(getOperatorFiltering(),
+				             getOperandFiltering(),
+				             newvalue,
+				             compareSearches(oldValue, newvalue));
 			}
 			});
 	}
@@ -333,7 +512,219 @@ public class ExpressionsModel<E extends Number>
 	 */
 	public ObservableMap<String, Optional<? extends Number>> getVariables()
 	{
-		return variablesMap;
+		return observableVariables;
+	}
+
+	/**
+	 * Evaluate expressions in the order of the provided list.
+	 * Expressions are partitioned by their dependencies on assigned variables
+	 * (two expressions depend on each other when they both use a variable
+	 * assigned by one of the expressions) so that independent partitions can
+	 * be evaluated in parallel on the {@link ForkJoinPool#commonPool()}, each
+	 * one in order within its own copy of the variables values. Values of
+	 * assigned variables are then published to {@link #variablesMap} in a
+	 * single batch (readers see all of them at once) by the calling thread,
+	 * so that observers of
+	 * {@link #variablesMap} (typically UI components) are notified on the
+	 * calling thread only, and only for variables whose value changed.
+	 * @param expressions the expressions to evaluate
+	 * @return the values of the expressions (in the same order) or null for
+	 * expressions which don't have a value
+	 * @throws NullPointerException if expressions is null
+	 * @throws ArithmeticException if an expression can't be evaluated (such
+	 * as an Integer division by 0)
+	 * @implSpec Results and variables values are the same as evaluating
+	 * expressions one after the other on the calling thread, which is what
+	 * is done when there are less than {@link #ParallelThreshold} expressions
+	 * or when all expressions depend on each other.
+	 * @see application.Controller#initialize(java.net.URL, java.util.ResourceBundle)
+	 */
+	public List<E> evaluate(List<? extends Expression<E>> expressions)
+	    throws NullPointerException, ArithmeticException
+	{
+		Objects.requireNonNull(expressions, "null expressions");
+		List<E> values = new ArrayList<>(Collections.nCopies(expressions.size(), (E) null));
+		List<List<Integer>> partitions = expressions.size() < ParallelThreshold
+		    ? List.of()
+		    : partition(expressions);
+		if (partitions.size() < 2)
+		{
+			for (int i = 0; i < expressions.size(); i++)
+			{
+				Expression<E> expression = expressions.get(i);
+				values.set(i, expression.hasValue() ? expression.value() : null);
+			}
+			return values;
+		}
+
+		// Each partition evaluates within its own copy of variables values
+		Map<String, Optional<? extends Number>> snapshot = new HashMap<>(variablesMap);
+		List<Callable<Map<String, Optional<? extends Number>>>> tasks = new ArrayList<>();
+		for (List<Integer> partition : partitions)
+		{
+			tasks.add(() -> {
+				Map<String, Optional<? extends Number>> local = new HashMap<>(snapshot);
+				VariableExpression.setLocalValues(local);
+				try
+				{
+					for (int i : partition)
+					{
+						Expression<E> expression = expressions.get(i);
+						// Distinct indices of a pre-sized list
+						values.set(i, expression.hasValue() ? expression.value() : null);
+					}
+				}
+				finally
+				{
+					VariableExpression.setLocalValues(null);
+				}
+				return local;
+			});
+		}
+		List<Map<String, Optional<? extends Number>>> locals = new ArrayList<>();
+		for (Future<Map<String, Optional<? extends Number>>> future : ForkJoinPool.commonPool().invokeAll(tasks))
+		{
+			try
+			{
+				locals.add(future.get());
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted evaluation", e);
+			}
+			catch (ExecutionException e)
+			{
+				if (e.getCause() instanceof RuntimeException cause)
+				{
+					throw cause;
+				}
+				throw new IllegalStateException(e.getCause());
+			}
+		}
+
+		// Publish assigned values in one batch
+		Map<String, Optional<? extends Number>> assigned = new HashMap<>();
+		for (int p = 0; p < partitions.size(); p++)
+		{
+			Map<String, Optional<? extends Number>> local = locals.get(p);
+			for (int i : partitions.get(p))
+			{
+				if (expressions.get(i) instanceof AssignmentExpression<E> assignment)
+				{
+					String name = ((VariableExpression<E>) assignment.getLeft()).getName();
+					assigned.put(name, local.get(name));
+				}
+			}
+		}
+		variablesMap.putAll(assigned);
+		return values;
+	}
+
+	/**
+	 * Parameter study of all expressions of this model over some swept
+	 * variables, other variables keeping their current values
+	 * @param variables the swept variables
+	 * @return a new sweep of a snapshot of {@link #expressions} and
+	 * {@link #variablesMap} (which can be run on any thread)
+	 * @throws NullPointerException if variables is null
+	 * @throws IllegalArgumentException if a variable is swept twice
+	 * @throws UnsupportedOperationException if an expression can't be
+	 * flattened
+	 * @see Sweep#grid(expressions.sweep.SweepWriter)
+	 * @see Sweep#random(long, long, expressions.sweep.SweepWriter)
+	 */
+	public Sweep sweep(List<SweepVariable> variables)
+	    throws NullPointerException,
+	    IllegalArgumentException,
+	    UnsupportedOperationException
+	{
+		return new Sweep(expressions, getSpecimen(), new HashMap<>(variablesMap), variables);
+	}
+
+	/**
+	 * Partition expressions by their dependencies on assigned variables
+	 * @param expressions the expressions to partition
+	 * @return the partitions of indices of expressions (in increasing order
+	 * within each partition)
+	 * @implNote Partitions are built with a union-find on expressions
+	 * indices: all expressions using a variable assigned by one of the
+	 * expressions are merged into the same partition.
+	 */
+	private static <E extends Number> List<List<Integer>>
+	    partition(List<? extends Expression<E>> expressions)
+	{
+		int size = expressions.size();
+		List<Set<String>> names = new ArrayList<>(size);
+		Set<String> assigned = new HashSet<>();
+		for (Expression<E> expression : expressions)
+		{
+			Set<String> used = new HashSet<>();
+			ExpressionWalker.forEach(expression, node -> {
+				if (node instanceof VariableExpression<E> variable)
+				{
+					used.add(variable.getName());
+				}
+			});
+			names.add(used);
+			if (expression instanceof AssignmentExpression<E> assignment
+			    && assignment.getLeft() instanceof VariableExpression<E> variable)
+			{
+				assigned.add(variable.getName());
+			}
+		}
+
+		int[] roots = new int[size];
+		for (int i = 0; i < size; i++)
+		{
+			roots[i] = i;
+		}
+		Map<String, Integer> owners = new HashMap<>();
+		for (int i = 0; i < size; i++)
+		{
+			for (String name : names.get(i))
+			{
+				if (assigned.contains(name))
+				{
+					Integer owner = owners.putIfAbsent(name, i);
+					if (owner != null)
+					{
+						roots[find(roots, i)] = find(roots, owner);
+					}
+				}
+			}
+		}
+
+		Map<Integer, List<Integer>> partitions = new HashMap<>();
+		List<List<Integer>> result = new ArrayList<>();
+		for (int i = 0; i < size; i++)
+		{
+			List<Integer> partition = partitions.get(find(roots, i));
+			if (partition == null)
+			{
+				partition = new ArrayList<>();
+				partitions.put(find(roots, i), partition);
+				result.add(partition);
+			}
+			partition.add(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Root of an element in a union-find forest (with path halving)
+	 * @param roots the parents of elements in the forest
+	 * @param element the element
+	 * @return the root of the element's tree
+	 */
+	private static int find(int[] roots, int element)
+	{
+		while (roots[element] != element)
+		{
+			roots[element] = roots[roots[element]];
+			element = roots[element];
+		}
+		return element;
 	}
 
 	/**
@@ -412,23 +803,117 @@ public class ExpressionsModel<E extends Number>
 			logger.warning("Specimen is already bound");
 			return;
 		}
-		// create a new parser otherwise
-		/* if (specimen instanceof Integer)
+		/*
+		 * Expressions of the previous type can't be restored with the new
+		 * parser so history only starts from here
+		 */
+		if ((this.specimen.get() != null)
+		    && (this.specimen.get().getClass() != specimen.getClass()))
+		{
+			clearHistory();
+		}
+		// set new specimen and create a new parser otherwise
+		this.specimen.set((E) specimen);
+		//Creation of a parser like in the constructor
+		ExpressionParser<E> newparser = new CachingExpressionParser<E>(specimen);
+		this.parser = newparser;
+	}
+
+	/**
+	 * Change number type of all expressions and variables in place.
+	 * Sets new number type (see {@link #setNumberType(Number)}) then walks
+	 * all expressions trees once to convert their constants, converts
+	 * variables values and performs assignments again (in expressions order)
+	 * so that assigned variables are computed with the new number type.
+	 * Converted and assigned variables are published at once in
+	 * {@link #variablesMap} and retyped expressions are reported as updated
+	 * (rather than replaced) with a single change on {@link #expressions},
+	 * so their tree items (and expanded states) are kept.
+	 * @param specimen the specimen number of the new type
+	 * @return true if number type has changed, false if provided specimen has
+	 * the same type as the current one or if specimen is bound.
+	 * @throws NullPointerException if provided specimen is null
+	 * @throws IllegalArgumentException if specimen is neither an Integer,
+	 * a Float nor a Double
+	 * @implNote Unlike reparsing the model's text, this operation never fails
+	 * and keeps all expressions instances. Converting to Integers truncates
+	 * decimal values.
+	 * @see ConstantExpression#convert(Number, Number)
+	 * @see application.Controller#onSelectNumberType(javafx.event.ActionEvent)
+	 */
+	public boolean retype(Number specimen)
+	    throws NullPointerException, IllegalArgumentException
+	{
+		if (specimen == null)
+		{
+			throw new NullPointerException("Specimen can't be null ");
+		}
+		if ((this.specimen.get() != null)
+		    && (this.specimen.get().getClass() == specimen.getClass()))
+		{
+			return false;
+		}
+		if (this.specimen.isBound())
 		{
-			this.specimen.set((E)Integer.valueOf(specimen.intValue()));
+			logger.warning("Specimen is already bound");
+			return false;
 		}
-		else if (specimen instanceof Float)
+		if (!(specimen instanceof Integer) && !(specimen instanceof Float)
+		    && !(specimen instanceof Double))
 		{
-			this.specimen.set((E)Float.valueOf(specimen.floatValue()));
+			throw new IllegalArgumentException("Unsupported number type "
+			    + specimen.getClass().getSimpleName());
 		}
-		else if (specimen instanceof Double)
+		setNumberType(specimen);
+
+		List<AssignmentExpression<E>> assignments = new ArrayList<>();
+		Map<Number, Number> conversions = new HashMap<>();
+		List<Integer> updated = new ArrayList<>();
+		for (int i = 0; i < expressions.size(); i++)
 		{
-			this.specimen.set((E)Double.valueOf(specimen.doubleValue()));
-		} */
-		//Creation of a parser like in the constructor
-		ExpressionParser<E> newparser = new ExpressionParser<E>(specimen);
-		this.parser = newparser;
-		
+			if (retype(expressions.get(i), specimen, conversions, assignments))
+			{
+				updated.add(i);
+			}
+		}
+
+		/*
+		 * Variables are converted and assigned again within a local copy of
+		 * #variablesMap which is then published in a single batch
+		 */
+		Map<String, Optional<? extends Number>> retyped = new HashMap<>(variablesMap);
+		for (Map.Entry<String, Optional<? extends Number>> entry : retyped.entrySet())
+		{
+			Optional<? extends Number> value = entry.getValue();
+			if (value.isPresent())
+			{
+				entry.setValue(Optional.of(ConstantExpression.convert(value.get(), specimen)));
+			}
+		}
+		VariableExpression.setLocalValues(retyped);
+		try
+		{
+			for (AssignmentExpression<E> assignment : assignments)
+			{
+				if (assignment.hasValue())
+				{
+					assignment.value();
+				}
+				else if (assignment.getLeft() instanceof VariableExpression<E> variable)
+				{
+					variable.clearValue();
+				}
+			}
+		}
+		finally
+		{
+			VariableExpression.setLocalValues(null);
+		}
+		variablesMap.putAll(retyped);
+
+		expressions.updated(updated);
+		clearHistory();
+		return true;
 	}
 
 	/**
@@ -439,10 +924,61 @@ public class ExpressionsModel<E extends Number>
 	 */
 	public void clear()
 	{
-		expressions.clear();
-		variablesMap.clear();
-		rootExpression.clear();
-		rootItem.get().getChildren().clear();
+		beginEdit();
+		try
+		{
+			expressions.clear();
+			variablesMap.clear();
+		}
+		finally
+		{
+			endEdit();
+		}
+	}
+
+	/**
+	 * Undo the last recorded edit by restoring {@link #expressions} and
+	 * {@link #variablesMap} as they were before this edit.
+	 * Edits are recorded by {@link #clear()}, {@link #parse(String)},
+	 * {@link #reparse(Expression, String)}, {@link #remove(Expression)} and
+	 * {@link #load(File, boolean)} (as a single edit regardless of the number
+	 * of expressions loaded).
+	 * @return true if an edit has been undone, false if there was no edit to
+	 * undo.
+	 * @implNote The history holds persistent (structurally shared) states of
+	 * the model: recording an edit only costs the O(log n) nodes copied by
+	 * each change and up to {@link #HistoryLimit} edits are kept.
+	 * Changing the type of numbers clears the history.
+	 * @see #redo()
+	 * @see application.Controller#onUndoAction(javafx.event.ActionEvent)
+	 */
+	public boolean undo()
+	{
+		if ((edits > 0) || undoHistory.isEmpty())
+		{
+			return false;
+		}
+		redoHistory.push(present);
+		restore(undoHistory.pop());
+		return true;
+	}
+
+	/**
+	 * Redo the last undone edit
+	 * @return true if an edit has been redone, false if there was no undone
+	 * edit to redo (a new edit after undoing discards undone edits)
+	 * @see #undo()
+	 * @see application.Controller#onRedoAction(javafx.event.ActionEvent)
+	 */
+	public boolean redo()
+	{
+		if ((edits > 0) || redoHistory.isEmpty())
+		{
+			return false;
+		}
+		undoHistory.push(present);
+		restore(redoHistory.pop());
+		return true;
 	}
 
 	/**
@@ -462,15 +998,23 @@ public class ExpressionsModel<E extends Number>
 		/*
 		 * DONE Parse context using #parser and merge the resulting expressions
 		 */
-		List <Expression<E>> l = parser.parse(context);
+		beginEdit();
+		try
+		{
+			List <Expression<E>> l = parser.parse(context);
 
-		/*
-		 * DONE Merge parsed expressions with #expressions without doubles
-		 */
-		boolean change = false;
-		change = merge(l);
-		if(change){return true;}
-		else {return false;}
+			/*
+			 * DONE Merge parsed expressions with #expressions without doubles
+			 */
+			boolean change = false;
+			change = merge(l);
+			if(change){return true;}
+			else {return false;}
+		}
+		finally
+		{
+			endEdit();
+		}
 	}
 
 	/**
@@ -496,41 +1040,53 @@ public class ExpressionsModel<E extends Number>
 	    ParserException
 	{
 		Objects.requireNonNull(expression);
-		/*
-		 * DONE Search for expression's index in #expressions anf throw
-		 * IllegalArgumentException if not found
-		 */
-		int index = expressions.indexOf(expression);
-		if (index == -1)
+		beginEdit();
+		try
 		{
-			throw new IllegalArgumentException("Expression not found");
+			/*
+			 * DONE Search for expression's index in #expressions anf throw
+			 * IllegalArgumentException if not found
+			 */
+			int index = expressionsIndex.indexOf(expressions, expression);
+			if (index == -1)
+			{
+				throw new IllegalArgumentException("Expression not found");
+			}
+			/*
+			 * DONE If context is null or empty then remove expression
+			 */
+			if (context == null || context.isEmpty())
+			{
+				return remove(expression);
+			}
+			/*
+			 * DONE Parse context using #parser
+			 */
+			List<Expression<E>> parsed = parser.parse(context);
+			if (parsed.isEmpty())
+			{
+				return remove(expression);
+			}
+			/*
+			 * DONE Set the first parsed expression at index "index" in #expressions
+			 * (which replaces only the corresponding sub-tree of #rootItem)
+			 */
+			expressions.set(index, parsed.remove(0));
+			/*
+			 * DONE Remove the first expression from parsed expressions
+			 * and merge the rest of parsed expressions
+			 */
+			merge(parsed);
+			/*
+			 * DONE Cleanup #variablesMap (#rootItem is updated by #updateRoot)
+			 */
+			cleanupVariablesMap();
+			return true;
 		}
-		/*
-		 * DONE If context is null or empty then remove expression
-		 */
-		if (context == null || context.isEmpty())
+		finally
 		{
-			return remove(expression);
+			endEdit();
 		}
-		/*
-		 * DONE Parse context using #parser
-		 */
-		parser.parse(context);
-		/*
-		 * DONE Set the first parsed expression at index "index" in #expressions
-		 */
-		expressions.set(index, parser.parse(context).get(0));
-		/*
-		 * DONE Remove the first expression from parsed expressions
-		 * and merge the rest of parsed expressions
-		 */
-		expressions.remove(0);
-		/*
-		 * DONE Cleanup #variablesMap and refresh #rootItem
-		 */
-		this.cleanupVariablesMap();
-		this.refreshRoot();
-		return false;
 	}
 
 	/**
@@ -543,22 +1099,61 @@ public class ExpressionsModel<E extends Number>
 	 */
 	public boolean remove(Expression<? extends Number> expression)
 	{
-		/*
-		 * DONE Search for expression's index in #expressions and
-		 * return false if not found
-		 */
-		int index = expressions.indexOf(expression);
-		if (index == -1)
+		beginEdit();
+		try
 		{
-			return false;
+			/*
+			 * DONE Search for expression's index in #expressions and
+			 * return false if not found
+			 */
+			int index = expressionsIndex.indexOf(expressions, expression);
+			if (index == -1)
+			{
+				return false;
+			}
+			/*
+			 * DONE Remove expression from #expressions
+			 * cleanup #variablesMap (#rootItem is updated by #updateRoot)
+			 */
+			expressions.remove(index);
+			cleanupVariablesMap();
+			return true;
 		}
-		/*
-		 * DONE Remove expression from #expressions
-		 * cleanup #variablesMap and refresh #rootItem
-		 */
-		expressions.remove(index);
-		return false;
-	}
+		finally
+		{
+			endEdit();
+		}
+	}
+
+	/**
+	 * Remove all provided expressions from {@link #expressions} as a single
+	 * edit (see {@link #undo()})
+	 * @param expressions the expressions to remove
+	 * @return true if at least one of the provided expressions has been found
+	 * and removed from {@link #expressions}
+	 * @throws NullPointerException if provided collection is null
+	 * @see #remove(Expression)
+	 * @see application.Controller#onDeleteSelectedAction(javafx.event.ActionEvent)
+	 */
+	public boolean removeAll(Collection<? extends Expression<? extends Number>> expressions)
+	    throws NullPointerException
+	{
+		Objects.requireNonNull(expressions);
+		beginEdit();
+		try
+		{
+			boolean change = false;
+			for (Expression<? extends Number> expression : expressions)
+			{
+				change = remove(expression) || change;
+			}
+			return change;
+		}
+		finally
+		{
+			endEdit();
+		}
+	}
 
 	/**
 	 * Read all expressions from a file (with or without clearing expressions
@@ -587,64 +1182,122 @@ public class ExpressionsModel<E extends Number>
 	 * expressions and call {@link #setNumberType(Number)}: Valid number type
 	 * are int, float and double.
 	 * @see application.Controller#loadFile
+	 * @see #load(File, boolean, List)
 	 */
 	public boolean load(File file, boolean append)
 	    throws NullPointerException,
 	    IOException,
 	    ParserException
+	{
+		return load(file, append, null);
+	}
+
+	/**
+	 * Read all expressions from a file (with or without clearing expressions
+	 * first) either aborting on the first parser error or recovering from
+	 * parser errors
+	 * @param file the file to read
+	 * @param append Flag indicating expressions read from file shall be added
+	 * to the existing expressions
+	 * @param diagnostics the list to which positioned diagnostics of invalid
+	 * expressions are added while valid expressions are still loaded in the
+	 * same pass. If null, loading aborts on the first parser error.
+	 * @return true if {@link #expressions} or {@link #variablesMap} have
+	 * changed after parsing expressions from file.
+	 * @throws NullPointerException if provided file is null
+	 * @throws IOException if any file operation fails
+	 * @throws ParserException if parsing fails and diagnostics is null
+	 * @throws UnsupportedNumberClassException if the type of numbers read from
+	 * file is not supported and diagnostics is null
+	 * @implSpec Recovery resynchronises at each ";" and line boundary: a
+	 * single invalid expression only discards itself.
+	 * @see #load(File, boolean)
+	 * @see ExpressionParser#parse(String, int, int, List)
+	 */
+	public boolean load(File file, boolean append, List<Diagnostic> diagnostics)
+	    throws NullPointerException,
+	    IOException,
+	    ParserException
 	{
 		Objects.requireNonNull(file);
-		if (!append)
+		beginEdit();
+		try
 		{
-			clear();
-		}
-		// Checkpoint for later comparison
-		int expressionsHash = expressions.hashCode();
-		int variablesHash = variablesMap.hashCode();
+			if (!append)
+			{
+				clear();
+			}
+			// Checkpoint for later comparison
+			int expressionsHash = expressions.hashCode();
+			int variablesHash = variablesMap.hashCode();
 
-		/*
-		 * DONE Read text file lines to parse expressions
-		 * If a line starts with "type" then it shall end by either int, float
-		 * or double to indicate the type of numbers used in expressions.
-		 * Throw a UnsupportedNumberClassException in any other case
-		 * If a line does not start with "type" then it is a context to parse
-		 */
-		BufferedReader br = new BufferedReader(new FileReader(file));
-		String line;
-		while ((line = br.readLine())!=null) {
-			String[] parsedLined = line.split(";"); // Line by line parsing
-			for (String currentLine : parsedLined) {
-				if(currentLine.startsWith("type")){
-					if(currentLine.endsWith("int")){
-						setNumberType(0);
-					} else if (currentLine.endsWith("float")){
-						setNumberType(0.0f);
-					} else if (currentLine.endsWith("double")) {
-						setNumberType(0.0);
+			/*
+			 * DONE Read text file lines to parse expressions
+			 * If a line starts with "type" then it shall end by either int, float
+			 * or double to indicate the type of numbers used in expressions.
+			 * Throw a UnsupportedNumberClassException in any other case
+			 * If a line does not start with "type" then it is a context to parse
+			 */
+			BufferedReader br = new BufferedReader(new FileReader(file));
+			String line;
+			int lineNumber = 0;
+			while ((line = br.readLine())!=null) {
+				lineNumber++;
+				String[] parsedLined = line.split(";"); // Line by line parsing
+				int column = 1;
+				for (String currentLine : parsedLined) {
+					if(currentLine.startsWith("type")){
+						if(currentLine.endsWith("int")){
+							setNumberType(0);
+						} else if (currentLine.endsWith("float")){
+							setNumberType(0.0f);
+						} else if (currentLine.endsWith("double")) {
+							setNumberType(0.0);
+						} else if (diagnostics == null) {
+							br.close();
+							throw new UnsupportedNumberClassException(this.specimen.getClass());
+						} else {
+							diagnostics.add(new Diagnostic(lineNumber,
+							                               column,
+							                               currentLine,
+							                               new UnsupportedNumberClassException(this.specimen.getClass())));
+						}
+					} else if (diagnostics == null) {
+						try
+						{
+							this.parse(currentLine);
+						}
+						catch (ParserException e)
+						{
+							br.close();
+							throw e.shift(column - 1);
+						}
 					} else {
-						throw new UnsupportedNumberClassException(this.specimen.getClass());
+						merge(parser.parse(currentLine, lineNumber, column, diagnostics));
 					}
-				} else {
-					this.parse(currentLine);
+					column += currentLine.length() + 1;
 				}
+			} 
+			br.close();
 
+			/*
+			 * DONE If everything went fine, set file & hasFile attribute
+			 */
+			this.file = file;
+			hasFile.set(true); // set hasFile to true
+			/*
+			 * DONE Returns true if #expressions or #variables have changed
+			 * by comparing with checkpoint values
+			 */
+			if(expressions.hashCode() != expressionsHash || variablesHash != variablesMap.hashCode()){
+				return true;
 			}
-		} 
-		br.close();
-
-		/*
-		 * DONE If everything went fine, set file & hasFile attribute
-		 */
-		this.file = file;
-		hasFile.set(true); // set hasFile to true
-		/*
-		 * DONE Returns true if #expressions or #variables have changed
-		 * by comparing with checkpoint values
-		 */
-		if(expressions.hashCode() != expressionsHash || variablesHash != variablesMap.hashCode()){
-			return true;
+			else {return false;}
+		}
+		finally
+		{
+			endEdit();
 		}
-		else {return false;}
 	}
 
 	/**
@@ -966,21 +1619,273 @@ public class ExpressionsModel<E extends Number>
 	}
 
 	/**
-	 * Refresh root item
-	 * @see #merge(List)
-	 * @see #remove(Expression)
-	 * @see #reparse(Expression, String)
+	 * Accessor to the {@link #canUndo} property
+	 * @return the {@link #canUndo} property
+	 * @see application.Controller#initialize(java.net.URL, java.util.ResourceBundle)
+	 */
+	public final ReadOnlyBooleanProperty canUndoProperty()
+	{
+		return canUndo.getReadOnlyProperty();
+	}
+
+	/**
+	 * Accessor to the value of {@link #canUndo} property
+	 * @return true if there is an edit to undo
+	 */
+	public final boolean canUndo()
+	{
+		return canUndo.get();
+	}
+
+	/**
+	 * Accessor to the {@link #canRedo} property
+	 * @return the {@link #canRedo} property
+	 * @see application.Controller#initialize(java.net.URL, java.util.ResourceBundle)
+	 */
+	public final ReadOnlyBooleanProperty canRedoProperty()
+	{
+		return canRedo.getReadOnlyProperty();
+	}
+
+	/**
+	 * Accessor to the value of {@link #canRedo} property
+	 * @return true if there is an undone edit to redo
+	 */
+	public final boolean canRedo()
+	{
+		return canRedo.get();
+	}
+
+	/**
+	 * Refresh root item by rebuilding {@link #rootExpression} and all
+	 * {@link #rootItem}'s children from {@link #expressions}.
+	 * @implNote Changes in {@link #expressions} are already incrementally
+	 * mirrored by {@link #updateRoot(ListChangeListener.Change)}, so this
+	 * full rebuild (which discards all sub-trees and their expanded states)
+	 * is only required if {@link #rootItem} has been replaced.
+	 * @see #updateRoot(ListChangeListener.Change)
 	 */
 	public void refreshRoot()
 	{
 		rootExpression.clear();
+		rootExpression.addAll(expressions);
 		TreeItem<Expression<E>> rootNode = rootItem.get();
 		rootNode.getChildren().clear();
-		((ExpressionTreeItem<E>)rootNode).reset();
-		rootExpression.addAll(expressions);
+		if (rootNode instanceof ExpressionTreeItem<?>)
+		{
+			((ExpressionTreeItem<E>)rootNode).reset();
+		}
 		rootNode.setValue(rootExpression);
 		rootNode.setExpanded(true);
-		rootItem.set(rootNode);
+	}
+
+	/**
+	 * Incrementally mirror a change of {@link #expressions} in
+	 * {@link #rootExpression} and in {@link #rootItem}'s children.
+	 * @param change the change that occurred in {@link #expressions}
+	 * @implSpec each added (resp. removed) expression results in exactly one
+	 * added (resp. removed) child in {@link #rootExpression} and in
+	 * {@link #rootItem} at the same index so that other children sub-trees,
+	 * which are lazily built, are preserved.
+	 * @see ExpressionTreeItem#updateChildren(ListChangeListener.Change)
+	 */
+	private void updateRoot(ListChangeListener.Change<? extends Expression<E>> change)
+	{
+		long start = Metrics.isEnabled() ? System.nanoTime() : 0L;
+		while (change.next())
+		{
+			int from = change.getFrom();
+			if (change.wasPermutated())
+			{
+				for (int i = from; i < change.getTo(); i++)
+				{
+					rootExpression.remove(from);
+				}
+				for (int i = from; i < change.getTo(); i++)
+				{
+					rootExpression.add(i, expressions.get(i));
+				}
+			}
+			else
+			{
+				/*
+				 * Replaced expressions are set in place, then remaining
+				 * removed or added expressions are removed or inserted
+				 */
+				List<? extends Expression<E>> added = change.getAddedSubList();
+				int removedSize = change.getRemovedSize();
+				int replaced = Math.min(removedSize, added.size());
+				for (int i = 0; i < replaced; i++)
+				{
+					rootExpression.set(from + i, added.get(i));
+				}
+				for (int i = replaced; i < removedSize; i++)
+				{
+					rootExpression.remove(from + replaced);
+				}
+				for (int i = replaced; i < added.size(); i++)
+				{
+					rootExpression.add(from + i, added.get(i));
+				}
+			}
+		}
+		change.reset();
+
+		TreeItem<Expression<E>> rootNode = rootItem.get();
+		if ((rootNode instanceof ExpressionTreeItem<?>) &&
+		    (rootNode.getValue() == rootExpression))
+		{
+			((ExpressionTreeItem<E>) rootNode).updateChildren(change);
+		}
+		if (Metrics.isEnabled())
+		{
+			Metrics.recordModelUpdate(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Mirror a change of {@link #expressions} in {@link #expressionsState}
+	 * @param change the change that occurred in {@link #expressions}
+	 */
+	private void mirror(ListChangeListener.Change<? extends Expression<E>> change)
+	{
+		while (change.next())
+		{
+			int from = change.getFrom();
+			if (change.wasPermutated())
+			{
+				for (int i = from; i < change.getTo(); i++)
+				{
+					expressionsState = expressionsState.set(i, expressions.get(i));
+				}
+			}
+			else if (!change.wasUpdated())
+			{
+				expressionsState = expressionsState
+				    .removeRange(from, from + change.getRemovedSize())
+				    .addAll(from, change.getAddedSubList());
+			}
+		}
+	}
+
+	// ------------------------------------------------------------------------
+	// History methods
+	// ------------------------------------------------------------------------
+
+	/**
+	 * Begin an edit: all changes until the matching {@link #endEdit()} are
+	 * recorded as a single edit
+	 */
+	private void beginEdit()
+	{
+		edits++;
+	}
+
+	/**
+	 * End an edit and record it in the history when it is the outermost one
+	 * @see #checkpoint()
+	 */
+	private void endEdit()
+	{
+		edits--;
+		if (edits == 0)
+		{
+			checkpoint();
+		}
+	}
+
+	/**
+	 * Record the current state of this model as a new edit in the history if
+	 * it changed since the last recorded state.
+	 * @implNote Since persistent states are left untouched by changes, the
+	 * current state differs from {@link #present} if and only if they are
+	 * different instances.
+	 */
+	private void checkpoint()
+	{
+		if ((present.expressions == expressionsState)
+		    && (present.variables == variablesMap.snapshot()))
+		{
+			return;
+		}
+		undoHistory.push(present);
+		if (undoHistory.size() > HistoryLimit)
+		{
+			undoHistory.removeLast();
+		}
+		redoHistory.clear();
+		present = new State<>(expressionsState, variablesMap.snapshot());
+		updateHistoryProperties();
+	}
+
+	/**
+	 * Restore a state of this model from the history
+	 * @param state the state to restore
+	 * @implNote variables are restored before expressions so that listeners
+	 * of {@link #expressions} evaluate restored expressions with restored
+	 * values. Only changed variables are notified.
+	 * @implNote Only the range of expressions between the common prefix and
+	 * the common suffix of the current and restored states is replaced (with
+	 * a single change), so the tree items of other expressions are kept.
+	 * The restored persistent list then becomes {@link #expressionsState} so
+	 * that recorded states keep sharing their structure.
+	 */
+	private void restore(State<E> state)
+	{
+		variablesMap.publish(state.variables);
+		if (state.expressions != expressionsState)
+		{
+			PersistentList<Expression<E>> restored = state.expressions;
+			int size = expressions.size();
+			int restoredSize = restored.size();
+			int prefix = 0;
+			for (Expression<E> expression : restored)
+			{
+				if ((prefix == size) || (expressions.get(prefix) != expression))
+				{
+					break;
+				}
+				prefix++;
+			}
+			int suffix = 0;
+			int common = Math.min(size, restoredSize) - prefix;
+			while ((suffix < common)
+			    && (expressions.get(size - 1 - suffix) == restored.get(restoredSize - 1 - suffix)))
+			{
+				suffix++;
+			}
+			List<Expression<E>> replacing = new ArrayList<>(restoredSize - suffix - prefix);
+			for (int i = prefix; i < restoredSize - suffix; i++)
+			{
+				replacing.add(restored.get(i));
+			}
+			expressions.replace(prefix, size - suffix, replacing);
+			expressionsState = restored;
+		}
+		present = new State<>(expressionsState, variablesMap.snapshot());
+		updateHistoryProperties();
+	}
+
+	/**
+	 * Discard all recorded edits
+	 * @see #setNumberType(Number)
+	 * @see #retype(Number)
+	 */
+	private void clearHistory()
+	{
+		undoHistory.clear();
+		redoHistory.clear();
+		present = new State<>(expressionsState, variablesMap.snapshot());
+		updateHistoryProperties();
+	}
+
+	/**
+	 * Update {@link #canUndo} and {@link #canRedo} properties
+	 */
+	private void updateHistoryProperties()
+	{
+		canUndo.set(!undoHistory.isEmpty());
+		canRedo.set(!redoHistory.isEmpty());
 	}
 
 	// ------------------------------------------------------------------------
@@ -995,43 +1900,38 @@ public class ExpressionsModel<E extends Number>
 	 * been added to {@link #expressions}
 	 * @implNote Each expression from provided list is added only if it not
 	 * already contained in {@link #expressions}.
-	 * @implNote {@link #rootExpression} has been updated
-	 * @implNote {@link #rootItem} has been updated
+	 * @implNote Duplicates are searched with {@link #expressionsIndex} and a
+	 * hash set so that merging n expressions costs O(n) hash lookups instead
+	 * of O(n²) comparisons.
+	 * @implNote {@link #rootExpression} and {@link #rootItem} are updated by
+	 * {@link #updateRoot(ListChangeListener.Change)} with one new child per
+	 * added expression.
 	 * @see #parse(String)
 	 * @see #reparse(Expression, String)
 	 */
 	private boolean merge(List<Expression<E>> expressions)
 	{
-		boolean added = false;
-
 		/*
 		 * DONE Merge the provided expressions with #expressions
 		 * If an expression is already contained in #expressions then
 		 * it should not be added again.
 		 */
+		List<Expression<E>> toAdd = new ArrayList<>();
+		Set<Expression<E>> added = new HashSet<>();
 		for (Expression<E> expression : expressions)
 		{
-			if (!this.expressions.contains(expression))
+			if (!expressionsIndex.contains(expression) &&
+			    added.add(expression))
 			{
-				this.expressions.add(expression);
-				added = true;
+				toAdd.add(expression);
 			}
 		}
 
 		/*
-		 * DONE Update root if at least one expression has been added to
-		 * #expressions
+		 * DONE Add new expressions in a single change so that #rootItem is
+		 * updated once (see #updateRoot)
 		 */
-		if (added)
-		{
-			rootExpression.addAll(expressions);
-			TreeItem<Expression<E>> rootNode = rootItem.get();
-			((ExpressionTreeItem<E>)rootNode).reset();
-			rootNode.setValue(rootExpression);
-			rootNode.setExpanded(true);
-			Event.fireEvent(rootNode, new TreeItem.TreeModificationEvent<Expression<E>>(TreeItem.valueChangedEvent(), rootNode));
-		}
-		return added;
+		return this.expressions.addAll(toAdd);
 	}
 
 	/**
@@ -1108,37 +2008,13 @@ public class ExpressionsModel<E extends Number>
 	 * @param type the type of terminal expression to search for
 	 * @return true if the provided type of terminal expression has been
 	 * found in provided expression (including sub-expressions)
-	 * @see #setPredicate(BinaryOperatorRules, TerminalType, String)
+	 * @see #setPredicate(BinaryOperatorRules, TerminalType, String, int)
 	 */
 	private static <E extends Number> boolean
 	    searchFor(Expression<E> expression, TerminalType type)
 	{
-		/*
-		 * DONE if provided expression is null return false
-		 */
-		if (expression == null)
-		{
-			return false;
-		}
-		
-		/*
-		 * DONE if provided expression is a TerminalExpression
-		 * return true if the type of expression is the same as provided type
-		 * return false otherwise
-		 */
-		if(expression instanceof TerminalExpression<E>){
-			TerminalExpression<E> tmp = (VariableExpression<E>)expression;
-		}
-		
-
-
-		/*
-		 * DONE if provided expression is a GroupExpression
-		 * return true if at least one of the sub-expressions
-		 * contains the provided type of terminal expression
-		 * return false otherwise
-		 */
-		return false;
+		TerminalMatcher<E> matcher = new TerminalMatcher<>(type, null);
+		return ExpressionWalker.anyMatch(expression, node -> node.accept(matcher));
 	}
 
 	/**
@@ -1159,11 +2035,18 @@ public class ExpressionsModel<E extends Number>
 	 * the searchName criterium.
 	 * The {@link #predicate} examining {@link Expression}s set by this method
 	 * returns true when all 3 criteria are true.
+	 * @param narrowing positive if the new predicate matches a subset of the
+	 * expressions matched by the previous one, negative if it matches a
+	 * superset and 0 if unknown, so that only the expressions visible in (or
+	 * hidden from) {@link #filteredExpressions} are tested when possible.
 	 * @see #ExpressionsModel(Number, Logger)
+	 * @see #compareFilters(boolean, boolean)
+	 * @see #compareSearches(String, String)
 	 */
 	private void setPredicate(BinaryOperatorRules operatorFilter,
 	                          TerminalType operandFilter,
-	                          String searchName)
+	                          String searchName,
+	                          int narrowing)
 	{
 		predicate = new Predicate<Expression<E>>()
 		{
@@ -1231,8 +2114,135 @@ public class ExpressionsModel<E extends Number>
 
 		};
 
+		/*
+		 * When narrowing (resp. widening), hidden (resp. visible) expressions
+		 * keep their state so only visible (resp. hidden) ones are tested
+		 * beforehand. Identity sets avoid rendering expressions to hash them.
+		 */
+		final Predicate<Expression<E>> test = predicate;
+		if (narrowing != 0)
+		{
+			Set<Expression<E>> matching =
+			    Collections.newSetFromMap(new IdentityHashMap<>());
+			if (narrowing > 0)
+			{
+				for (Expression<E> expression : filteredExpressions)
+				{
+					if (test.test(expression))
+					{
+						matching.add(expression);
+					}
+				}
+			}
+			else
+			{
+				matching.addAll(filteredExpressions);
+				for (Expression<E> expression : expressions)
+				{
+					if (!matching.contains(expression) && test.test(expression))
+					{
+						matching.add(expression);
+					}
+				}
+			}
+			refiltered = matching;
+		}
+
 		// update the predicate on #filteredExpressions
-		filteredExpressions.setPredicate(predicate);
+		try
+		{
+			filteredExpressions.setPredicate((Expression<E> expression) -> {
+				Set<Expression<E>> matching = refiltered;
+				return matching != null ? matching.contains(expression) : test.test(expression);
+			});
+		}
+		finally
+		{
+			refiltered = null;
+		}
+	}
+
+	/**
+	 * Compare an operator or operand filter to its previous value
+	 * @param oldAll true if the previous filter accepted any expression
+	 * @param newAll true if the new filter accepts any expression
+	 * @return positive if the new filter is narrower, negative if it is wider
+	 * and 0 if both filters are unrelated
+	 * @see #setPredicate(BinaryOperatorRules, TerminalType, String, int)
+	 */
+	private static int compareFilters(boolean oldAll, boolean newAll)
+	{
+		return Boolean.compare(oldAll, newAll);
+	}
+
+	/**
+	 * Compare a searched name to its previous value
+	 * @param oldName the previous searched name (null or empty to search
+	 * any name)
+	 * @param newName the new searched name (null or empty to search any name)
+	 * @return positive if the new search is narrower (the new name contains
+	 * the old one), negative if it is wider (the old name contains the new one)
+	 * and 0 if both searches are unrelated or identical
+	 * @see #setPredicate(BinaryOperatorRules, TerminalType, String, int)
+	 */
+	private static int compareSearches(String oldName, String newName)
+	{
+		String oldSearch = oldName == null ? "" : oldName;
+		String newSearch = newName == null ? "" : newName;
+		if (oldSearch.equals(newSearch))
+		{
+			return 0;
+		}
+		if (newSearch.contains(oldSearch))
+		{
+			return 1;
+		}
+		if (oldSearch.contains(newSearch))
+		{
+			return -1;
+		}
+		return 0;
+	}
+
+	/**
+	 * Convert constants of an expression tree to a new number type and
+	 * collect its assignments
+	 * @param expression the expression to retype
+	 * @param specimen the specimen number of the new type
+	 * @param conversions the converted values by original value shared by all
+	 * retyped constants
+	 * @param assignments the list of assignments to complete (in evaluation
+	 * order)
+	 * @return true if the expression contains valued terminals (constants or
+	 * valued variables) so that its rendering or its value changes with the
+	 * number type, false otherwise.
+	 * @implNote Walked iteratively so expressions of any depth can be
+	 * retyped. Assignments are collected in pre-order, which is also their
+	 * evaluation order since an expression contains at most one assignment.
+	 * @see #retype(Number)
+	 */
+	private static <E extends Number> boolean retype(Expression<E> expression,
+	                                                 Number specimen,
+	                                                 Map<Number, Number> conversions,
+	                                                 List<AssignmentExpression<E>> assignments)
+	{
+		boolean[] valued = {false};
+		ExpressionWalker.forEach(expression, (Expression<E> node) -> {
+			if (node instanceof ConstantExpression<E> constant)
+			{
+				constant.retype(specimen, conversions);
+				valued[0] = true;
+			}
+			else if (node instanceof AssignmentExpression<E> assignment)
+			{
+				assignments.add(assignment);
+			}
+			else if ((node instanceof VariableExpression<E> variable) && variable.hasValue())
+			{
+				valued[0] = true;
+			}
+		});
+		return valued[0];
 	}
 
 	/**
@@ -1244,53 +2254,574 @@ public class ExpressionsModel<E extends Number>
 	 */
 	private static <E extends Number> boolean containsVariable(Expression<E> expression, String name)
 	{
-		/*
-		 * DONE if provided expression is null return false
+		TerminalMatcher<E> matcher = new TerminalMatcher<>(TerminalType.VARIABLES, name);
+		return ExpressionWalker.anyMatch(expression, node -> node.accept(matcher));
+	}
+
+	/**
+	 * Node visitor matching terminal expressions of a given type (and
+	 * optionally variables of a given name)
+	 * @param <E> The type of numbers in visited expressions
+	 * @see #searchFor(Expression, TerminalType)
+	 * @see #containsVariable(Expression, String)
+	 */
+	private static class TerminalMatcher<E extends Number> implements NodeVisitor<E, Boolean>
+	{
+		/**
+		 * The type of terminal expressions to match
+		 */
+		private final TerminalType type;
+
+		/**
+		 * The name of variables to match (or null to match any variable)
+		 */
+		private final String name;
+
+		/**
+		 * Constructor
+		 * @param type the type of terminal expressions to match
+		 * @param name the name of variables to match (or null to match any
+		 * variable)
 		 */
-		if (expression == null)
+		TerminalMatcher(TerminalType type, String name)
+		{
+			this.type = type;
+			this.name = name;
+		}
+
+		/**
+		 * Match constants
+		 * @param constant the visited constant
+		 * @return true if constants are matched
+		 */
+		@Override
+		public Boolean visitConstant(ConstantExpression<E> constant)
+		{
+			return type != TerminalType.VARIABLES;
+		}
+
+		/**
+		 * Match variables
+		 * @param variable the visited variable
+		 * @return true if variables are matched and variable has the
+		 * searched name (if any)
+		 */
+		@Override
+		public Boolean visitVariable(VariableExpression<E> variable)
+		{
+			return type != TerminalType.CONSTANTS
+			    && (name == null || name.equals(variable.getName()));
+		}
+
+		/**
+		 * Binary expressions are never matched (their operands are searched
+		 * instead)
+		 * @param binary the visited binary expression
+		 * @return false
+		 */
+		@Override
+		public Boolean visitBinary(BinaryExpression<E> binary)
 		{
 			return false;
 		}
 
-		/*
-		 * DONE if provided expression is a VariableExpression
-		 * return true if the name of the variable is the same as provided name
-		 * return false otherwise
+		/**
+		 * Groups are never matched (their expressions are searched instead)
+		 * @param group the visited group
+		 * @return false
+		 */
+		@Override
+		public Boolean visitGroup(GroupExpression<E> group)
+		{
+			return false;
+		}
+	}
+
+	/**
+	 * Recorded state of the model
+	 * @param <E> the type of numbers used in expressions
+	 * @see ExpressionsModel#undo()
+	 * @see ExpressionsModel#redo()
+	 */
+	private static final class State<E extends Number>
+	{
+		/**
+		 * The recorded expressions
+		 */
+		final PersistentList<Expression<E>> expressions;
+
+		/**
+		 * The recorded variables
 		 */
-		if (expression instanceof VariableExpression)
+		final PersistentMap<String, Optional<? extends Number>> variables;
+
+		/**
+		 * Constructor
+		 * @param expressions the recorded expressions
+		 * @param variables the recorded variables
+		 */
+		State(PersistentList<Expression<E>> expressions,
+		      PersistentMap<String, Optional<? extends Number>> variables)
 		{
-			VariableExpression<E> variable = (VariableExpression<E>)expression;
-			return variable.getName().equals(name);
+			this.expressions = expressions;
+			this.variables = variables;
 		}
+	}
 
-		/*
-		 * DONE if provided expression is BinaryExpression
-		 * return true if at least one of the sub-expressions
-		 * contains the provided named variable
+	/**
+	 * {@link ObservableMap} view of a {@link SnapshotMap} reporting each
+	 * publication of the adapted map (on the writing thread) to change
+	 * listeners once per modified key and to invalidation listeners once per
+	 * publication
+	 * @param <K> the type of keys
+	 * @param <V> the type of values
+	 * @see ExpressionsModel#getVariables()
+	 */
+	private static final class ObservableSnapshotMap<K extends Comparable<? super K>, V>
+	    extends AbstractMap<K, V> implements ObservableMap<K, V>
+	{
+		/**
+		 * The adapted map
+		 */
+		private final SnapshotMap<K, V> map;
+
+		/**
+		 * Listeners notified of each modified key
+		 */
+		private final List<MapChangeListener<? super K, ? super V>> changeListeners;
+
+		/**
+		 * Listeners notified of each publication
+		 */
+		private final List<InvalidationListener> invalidationListeners;
+
+		/**
+		 * Constructor
+		 * @param map the adapted map
+		 */
+		ObservableSnapshotMap(SnapshotMap<K, V> map)
+		{
+			this.map = map;
+			changeListeners = new CopyOnWriteArrayList<>();
+			invalidationListeners = new CopyOnWriteArrayList<>();
+			map.addListener(this::published);
+		}
+
+		/**
+		 * Number of entries
+		 * @return the number of entries of the adapted map
+		 */
+		@Override
+		public int size()
+		{
+			return map.size();
+		}
+
+		/**
+		 * Test if this map is empty
+		 * @return true if the adapted map is empty
+		 */
+		@Override
+		public boolean isEmpty()
+		{
+			return map.isEmpty();
+		}
+
+		/**
+		 * Test if this map contains a key
+		 * @param key the key to search
+		 * @return true if the adapted map contains this key
+		 */
+		@Override
+		public boolean containsKey(Object key)
+		{
+			return map.containsKey(key);
+		}
+
+		/**
+		 * Value accessor
+		 * @param key the key of the value
+		 * @return the value associated with this key in the adapted map or null
+		 */
+		@Override
+		public V get(Object key)
+		{
+			return map.get(key);
+		}
+
+		/**
+		 * Associate a value with a key in the adapted map
+		 * @param key the key
+		 * @param value the value
+		 * @return the previous value associated with the key (or null)
+		 */
+		@Override
+		public V put(K key, V value)
+		{
+			return map.put(key, value);
+		}
+
+		/**
+		 * Remove a key from the adapted map
+		 * @param key the key to remove
+		 * @return the value previously associated with the key (or null)
+		 */
+		@Override
+		public V remove(Object key)
+		{
+			return map.remove(key);
+		}
+
+		/**
+		 * Publish all provided entries at once in the adapted map
+		 * @param entries the entries to put in the adapted map
+		 */
+		@Override
+		public void putAll(Map<? extends K, ? extends V> entries)
+		{
+			map.putAll(entries);
+		}
+
+		/**
+		 * Remove all entries of the adapted map at once
+		 */
+		@Override
+		public void clear()
+		{
+			map.clear();
+		}
+
+		/**
+		 * Entries of this map
+		 * @return the entries of the adapted map
+		 */
+		@Override
+		public Set<Map.Entry<K, V>> entrySet()
+		{
+			return map.entrySet();
+		}
+
+		/**
+		 * Add a change listener
+		 * @param listener the listener to add
+		 */
+		@Override
+		public void addListener(MapChangeListener<? super K, ? super V> listener)
+		{
+			changeListeners.add(Objects.requireNonNull(listener));
+		}
+
+		/**
+		 * Remove a change listener
+		 * @param listener the listener to remove
+		 */
+		@Override
+		public void removeListener(MapChangeListener<? super K, ? super V> listener)
+		{
+			changeListeners.remove(listener);
+		}
+
+		/**
+		 * Add an invalidation listener
+		 * @param listener the listener to add
+		 */
+		@Override
+		public void addListener(InvalidationListener listener)
+		{
+			invalidationListeners.add(Objects.requireNonNull(listener));
+		}
+
+		/**
+		 * Remove an invalidation listener
+		 * @param listener the listener to remove
+		 */
+		@Override
+		public void removeListener(InvalidationListener listener)
+		{
+			invalidationListeners.remove(listener);
+		}
+
+		/**
+		 * Notify listeners of a publication of {@link #map}
+		 * @param previous the snapshot before the publication
+		 * @param current the published snapshot
+		 * @param keys the possibly modified keys
 		 */
-		if (expression instanceof BinaryExpression)
-		{
-			BinaryExpression<E> variable = (BinaryExpression<E>)expression;
-			if (variable.getLeft() instanceof VariableExpression) {
-			VariableExpression<E> tmp = (VariableExpression<E>)expression;
-			return tmp.getName().equals(name);
-			} else if (variable.getRight() instanceof VariableExpression) {
-				VariableExpression<E> tmp = (VariableExpression<E>)expression;
-				return tmp.getName().equals(name);
+		private void published(PersistentMap<K, V> previous,
+		                       PersistentMap<K, V> current,
+		                       List<K> keys)
+		{
+			boolean modified = false;
+			for (K key : keys)
+			{
+				boolean removed = previous.containsKey(key);
+				boolean added = current.containsKey(key);
+				V oldValue = previous.get(key);
+				V newValue = current.get(key);
+				if ((removed == added) && Objects.equals(oldValue, newValue))
+				{
+					continue;
+				}
+				modified = true;
+				if (changeListeners.isEmpty())
+				{
+					continue;
+				}
+				KeyChange change = new KeyChange(key, oldValue, newValue, added, removed);
+				for (MapChangeListener<? super K, ? super V> listener : changeListeners)
+				{
+					listener.onChanged(change);
+				}
+			}
+			if (modified)
+			{
+				for (InvalidationListener listener : invalidationListeners)
+				{
+					listener.invalidated(this);
+				}
 			}
 		}
-		else {
-			return false;
+
+		/**
+		 * Change of a single key reported to {@link MapChangeListener}s
+		 */
+		private final class KeyChange extends MapChangeListener.Change<K, V>
+		{
+			/**
+			 * The modified key
+			 */
+			private final K key;
+
+			/**
+			 * The previous value (if removed)
+			 */
+			private final V oldValue;
+
+			/**
+			 * The new value (if added)
+			 */
+			private final V newValue;
+
+			/**
+			 * Whether a value was added
+			 */
+			private final boolean added;
+
+			/**
+			 * Whether a value was removed
+			 */
+			private final boolean removed;
+
+			/**
+			 * Constructor
+			 * @param key the modified key
+			 * @param oldValue the previous value
+			 * @param newValue the new value
+			 * @param added whether a value was added
+			 * @param removed whether a value was removed
+			 */
+			KeyChange(K key, V oldValue, V newValue, boolean added, boolean removed)
+			{
+				super(ObservableSnapshotMap.this);
+				this.key = key;
+				this.oldValue = oldValue;
+				this.newValue = newValue;
+				this.added = added;
+				this.removed = removed;
+			}
+
+			/**
+			 * Whether a value was added
+			 * @return true if a value was added (or replaced) for the key
+			 */
+			@Override
+			public boolean wasAdded()
+			{
+				return added;
+			}
+
+			/**
+			 * Whether a value was removed
+			 * @return true if a value was removed (or replaced) for the key
+			 */
+			@Override
+			public boolean wasRemoved()
+			{
+				return removed;
+			}
+
+			/**
+			 * The modified key
+			 * @return the modified key
+			 */
+			@Override
+			public K getKey()
+			{
+				return key;
+			}
+
+			/**
+			 * The added value
+			 * @return the new value of the key (or null if removed)
+			 */
+			@Override
+			public V getValueAdded()
+			{
+				return added ? newValue : null;
+			}
+
+			/**
+			 * The removed value
+			 * @return the previous value of the key (or null if added)
+			 */
+			@Override
+			public V getValueRemoved()
+			{
+				return removed ? oldValue : null;
+			}
+
+			/**
+			 * String representation of this change
+			 * @return a String describing this change
+			 */
+			@Override
+			public String toString()
+			{
+				if (added && removed)
+				{
+					return "replaced " + oldValue + " by " + newValue + " at key " + key;
+				}
+				return (added ? "added " + newValue : "removed " + oldValue) + " at key " + key;
+			}
+		}
+	}
+
+	/**
+	 * Observable list of expressions which can also report expressions
+	 * modified in place (such as retyped expressions) as updated rather than
+	 * replaced, so that listeners may keep what they built from them
+	 * @param <E> The type of numbers in expressions
+	 * @see ExpressionTreeItem#updateChildren(ListChangeListener.Change)
+	 */
+	private static final class ExpressionsList<E extends Number>
+	    extends ModifiableObservableListBase<Expression<E>>
+	{
+		/**
+		 * The expressions of this list
+		 */
+		private final List<Expression<E>> list = new ArrayList<>();
+
+		/**
+		 * Expression accessor
+		 * @param index the index of the expression
+		 * @return the expression at this index
+		 * @throws IndexOutOfBoundsException if index is out of range
+		 */
+		@Override
+		public Expression<E> get(int index) throws IndexOutOfBoundsException
+		{
+			return list.get(index);
 		}
 
+		/**
+		 * Number of expressions
+		 * @return the number of expressions in this list
+		 */
+		@Override
+		public int size()
+		{
+			return list.size();
+		}
 
-		/*
-		 * DONE if provided expression is a GroupExpression
-		 * return true if at least one of the sub-expressions
-		 * contains the provided named variable
+		/**
+		 * Insert an expression without notification
+		 * @param index the index of the inserted expression
+		 * @param expression the expression to insert
+		 * @throws IndexOutOfBoundsException if index is out of range
+		 */
+		@Override
+		protected void doAdd(int index, Expression<E> expression) throws IndexOutOfBoundsException
+		{
+			list.add(index, expression);
+		}
+
+		/**
+		 * Replace an expression without notification
+		 * @param index the index of the replaced expression
+		 * @param expression the new expression
+		 * @return the replaced expression
+		 * @throws IndexOutOfBoundsException if index is out of range
+		 */
+		@Override
+		protected Expression<E> doSet(int index, Expression<E> expression)
+		    throws IndexOutOfBoundsException
+		{
+			return list.set(index, expression);
+		}
+
+		/**
+		 * Remove an expression without notification
+		 * @param index the index of the removed expression
+		 * @return the removed expression
+		 * @throws IndexOutOfBoundsException if index is out of range
 		 */
+		@Override
+		protected Expression<E> doRemove(int index) throws IndexOutOfBoundsException
+		{
+			return list.remove(index);
+		}
+
+		/**
+		 * Replace a range of expressions with a single change (and no change
+		 * at all if the range and the replacing expressions are empty)
+		 * @param from the index of the first replaced expression
+		 * @param to the index after the last replaced expression
+		 * @param replacing the expressions replacing this range
+		 * @throws IndexOutOfBoundsException if from and to are not such as
+		 * 0 &le; from &le; to &le; size()
+		 */
+		void replace(int from, int to, List<? extends Expression<E>> replacing)
+		    throws IndexOutOfBoundsException
+		{
+			Objects.checkFromToIndex(from, to, list.size());
+			beginChange();
+			try
+			{
+				removeRange(from, to);
+				addAll(from, replacing);
+			}
+			finally
+			{
+				endChange();
+			}
+		}
 
-		return false;
+		/**
+		 * Report expressions modified in place with a single update change
+		 * (and no change at all if there are no such expressions)
+		 * @param indices the increasing indices of the updated expressions
+		 * @throws IndexOutOfBoundsException if an index is out of range
+		 */
+		void updated(List<Integer> indices) throws IndexOutOfBoundsException
+		{
+			if (indices.isEmpty())
+			{
+				return;
+			}
+			beginChange();
+			try
+			{
+				for (int index : indices)
+				{
+					Objects.checkIndex(index, list.size());
+					nextUpdate(index);
+				}
+			}
+			finally
+			{
+				endChange();
+			}
+		}
 	}
 
 	/**
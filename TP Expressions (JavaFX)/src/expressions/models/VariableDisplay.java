@@ -1,5 +1,7 @@
 package expressions.models;
 
+import java.util.Optional;
+
 import expressions.terminal.VariableExpression;
 
 /**
@@ -17,9 +19,16 @@ public class VariableDisplay<E extends Number> extends NamedDataDisplay<E>
 	 */
 	public VariableDisplay(String name)
 	{
-		super(name,
-		      VariableExpression.getValues().get(name) == null ?
-		    	  null : VariableExpression.getValues().get(name).isEmpty() ?
-		    		  null : VariableExpression.getValues().get(name).get());
+		this(name, VariableExpression.getValues().get(name));
+	}
+
+	/**
+	 * Valued constructor from a (single) read of the variable's value
+	 * @param name the name of the variable to show
+	 * @param value the optional value of the variable (or null)
+	 */
+	private VariableDisplay(String name, Optional<? extends Number> value)
+	{
+		super(name, value == null || value.isEmpty() ? null : value.get());
 	}
 }
@@ -0,0 +1,247 @@
+package expressions.plot;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleUnaryOperator;
+
+import expressions.flat.FlatExpression;
+
+/**
+ * Adaptive sampling of functions of one variable.
+ * A function is first sampled on a regular grid, then each interval is
+ * recursively split in halves as long as the function is not flat enough on
+ * this interval (i.e. its value at the middle of the interval is too far from
+ * the chord between the ends of the interval). Hence samples are dense where
+ * the curvature of the function is high and sparse where the function is
+ * nearly linear.
+ * Intervals where the function is defined at one end and undefined (non
+ * finite) at the other are also refined so that the edges of the domain of
+ * the function (or its poles) are accurately located.
+ * @implNote Intervals are refined depth first from left to right with an
+ * explicit stack so that samples are produced in ascending order of abscissa
+ * directly into a {@link Curve} (without sorting nor recursion).
+ * @see Curve
+ */
+public final class AdaptiveSampler
+{
+	/**
+	 * Maximum number of halvings of an initial interval
+	 */
+	public static final int MaxDepth = 24;
+
+	/**
+	 * Private constructor (no instances)
+	 */
+	private AdaptiveSampler()
+	{
+	}
+
+	/**
+	 * Sample a function
+	 * @param function the function to sample
+	 * @param from the lower bound of the sampled range
+	 * @param to the upper bound of the sampled range
+	 * @param initial the number of initial regular intervals
+	 * @param maxSamples the maximum number of samples to produce (the
+	 * sampling is stopped when reached, leaving the last intervals less
+	 * refined)
+	 * @param tolerance the maximum relative deviation from linearity of a
+	 * refined interval (relative to the range of values of the function on
+	 * the initial grid) such as 1e-3
+	 * @param cancelled supplier indicating if sampling should be aborted
+	 * (checked periodically)
+	 * @return the curve of samples (possibly partial if cancelled)
+	 * @throws NullPointerException if function or cancelled is null
+	 * @throws IllegalArgumentException if from is not lower than to, if
+	 * initial is lower than 1, if maxSamples is lower than initial + 1 or if
+	 * tolerance is not positive
+	 * @implSpec {@link ArithmeticException}s thrown by the function (such as
+	 * integer divisions by 0) are considered as undefined values (NaN)
+	 */
+	public static Curve sample(DoubleUnaryOperator function,
+	                           double from,
+	                           double to,
+	                           int initial,
+	                           int maxSamples,
+	                           double tolerance,
+	                           BooleanSupplier cancelled)
+	    throws NullPointerException, IllegalArgumentException
+	{
+		Objects.requireNonNull(function);
+		Objects.requireNonNull(cancelled);
+		if (!(from < to) || !Double.isFinite(from) || !Double.isFinite(to))
+		{
+			throw new IllegalArgumentException("Invalid range [" + from + ", " + to + "]");
+		}
+		if ((initial < 1) || (maxSamples < initial + 1))
+		{
+			throw new IllegalArgumentException("Invalid number of samples "
+			    + initial + " / " + maxSamples);
+		}
+		if (!(tolerance > 0.0))
+		{
+			throw new IllegalArgumentException("Invalid tolerance " + tolerance);
+		}
+
+		// Initial regular grid
+		double step = (to - from) / initial;
+		double[] gridXs = new double[initial + 1];
+		double[] gridYs = new double[initial + 1];
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i <= initial; i++)
+		{
+			gridXs[i] = i == initial ? to : from + i * step;
+			gridYs[i] = apply(function, gridXs[i]);
+			if (Double.isFinite(gridYs[i]))
+			{
+				min = Math.min(min, gridYs[i]);
+				max = Math.max(max, gridYs[i]);
+			}
+		}
+		double scale = max > min ? max - min : (max == min ? Math.max(1.0, Math.abs(max)) : 1.0);
+		double threshold = tolerance * scale;
+		double minWidth = step / (1 << MaxDepth);
+
+		Curve curve = new Curve(Math.min(maxSamples, (initial + 1) * 8));
+		curve.add(gridXs[0], gridYs[0]);
+		int remaining = maxSamples - (initial + 1);
+
+		// Pending right ends of intervals (top is the next right end)
+		double[] stackXs = new double[MaxDepth + 2];
+		double[] stackYs = new double[MaxDepth + 2];
+		for (int i = 1; i <= initial; i++)
+		{
+			if (cancelled.getAsBoolean())
+			{
+				return curve;
+			}
+			double leftX = gridXs[i - 1];
+			double leftY = gridYs[i - 1];
+			int top = 0;
+			stackXs[0] = gridXs[i];
+			stackYs[0] = gridYs[i];
+			while (top >= 0)
+			{
+				double rightX = stackXs[top];
+				double rightY = stackYs[top];
+				double width = rightX - leftX;
+				if ((remaining > 0) && (top < MaxDepth) && (width > minWidth))
+				{
+					double middleX = leftX + width * 0.5;
+					double middleY = apply(function, middleX);
+					if (!flat(leftX, leftY, middleX, middleY, rightX, rightY, threshold))
+					{
+						// Refine left half first: push the middle as next right end
+						if (((--remaining & 0xFFF) == 0) && cancelled.getAsBoolean())
+						{
+							return curve;
+						}
+						stackXs[++top] = middleX;
+						stackYs[top] = middleY;
+						continue;
+					}
+				}
+				// Interval accepted: its right end is the next sample
+				curve.add(rightX, rightY);
+				leftX = rightX;
+				leftY = rightY;
+				top--;
+			}
+		}
+		return curve;
+	}
+
+	/**
+	 * Function evaluating a flattened expression with respect to one of its
+	 * variables, the other variables having fixed values
+	 * @param expression the flattened expression
+	 * @param variable the name of the variable of the function
+	 * @param values the values of all variables in the order of
+	 * {@link FlatExpression#getVariables()} (the value of the function's
+	 * variable is ignored). This array is copied.
+	 * @return a function evaluating the expression
+	 * @throws NullPointerException if any argument is null
+	 * @throws IllegalArgumentException if the variable is not a variable of
+	 * the expression or if there are less values than variables
+	 * @implNote The returned function uses the provided expression which is
+	 * not thread safe: it should only be used by a single thread at a time.
+	 */
+	public static DoubleUnaryOperator function(FlatExpression expression,
+	                                           String variable,
+	                                           double[] values)
+	    throws NullPointerException, IllegalArgumentException
+	{
+		List<String> variables = expression.getVariables();
+		int index = variables.indexOf(Objects.requireNonNull(variable));
+		if (index < 0)
+		{
+			throw new IllegalArgumentException("Unknown variable " + variable);
+		}
+		if (values.length < variables.size())
+		{
+			throw new IllegalArgumentException("Expected " + variables.size()
+			    + " values but got " + values.length);
+		}
+		double[] point = values.clone();
+		return (double x) -> {
+			point[index] = x;
+			return expression.evaluate(point);
+		};
+	}
+
+	/**
+	 * Evaluate a function
+	 * @param function the function
+	 * @param x the point of evaluation
+	 * @return the value of the function at x or NaN if it can't be evaluated
+	 */
+	private static double apply(DoubleUnaryOperator function, double x)
+	{
+		try
+		{
+			return function.applyAsDouble(x);
+		}
+		catch (ArithmeticException e)
+		{
+			return Double.NaN;
+		}
+	}
+
+	/**
+	 * Test if a function is flat enough on an interval
+	 * @param leftX the left end of the interval
+	 * @param leftY the value at the left end
+	 * @param middleX the middle of the interval
+	 * @param middleY the value at the middle
+	 * @param rightX the right end of the interval
+	 * @param rightY the value at the right end
+	 * @param threshold the maximum deviation of middleY from the chord
+	 * @return true if middleY is close enough to the chord between both ends
+	 * or if the function is undefined on the whole interval
+	 */
+	private static boolean flat(double leftX,
+	                            double leftY,
+	                            double middleX,
+	                            double middleY,
+	                            double rightX,
+	                            double rightY,
+	                            double threshold)
+	{
+		boolean leftFinite = Double.isFinite(leftY);
+		boolean middleFinite = Double.isFinite(middleY);
+		boolean rightFinite = Double.isFinite(rightY);
+		if (!leftFinite && !middleFinite && !rightFinite)
+		{
+			return true;
+		}
+		if (!leftFinite || !middleFinite || !rightFinite)
+		{
+			return false;
+		}
+		double t = (middleX - leftX) / (rightX - leftX);
+		double chord = leftY + t * (rightY - leftY);
+		return Math.abs(middleY - chord) <= threshold;
+	}
+}
@@ -0,0 +1,295 @@
+package expressions.plot;
+
+import java.util.Arrays;
+
+/**
+ * Samples of a function of one variable sorted by abscissa and stored in
+ * primitive arrays (so that millions of samples remain cheap to store and to
+ * scan).
+ * Curves can be {@link #downsample(double, double, int) downsampled} over any
+ * range of abscissa to a number of points suitable for display with the
+ * Largest-Triangle-Three-Buckets (LTTB) algorithm, which keeps the visual
+ * shape of the curve (peaks and valleys) far better than regular decimation.
+ * @implNote Non finite ordinates (where the function is undefined) are kept in
+ * curves but never selected by downsampling.
+ * @see AdaptiveSampler
+ */
+public final class Curve
+{
+	/**
+	 * Abscissa of samples (sorted in ascending order)
+	 */
+	private double[] xs;
+
+	/**
+	 * Ordinates of samples
+	 */
+	private double[] ys;
+
+	/**
+	 * Number of samples
+	 */
+	private int size;
+
+	/**
+	 * Constructor of an empty curve
+	 * @param capacity the initial capacity of this curve
+	 */
+	public Curve(int capacity)
+	{
+		xs = new double[Math.max(capacity, 2)];
+		ys = new double[xs.length];
+		size = 0;
+	}
+
+	/**
+	 * Append a sample
+	 * @param x the abscissa of the sample (which must not be lower than the
+	 * abscissa of the last sample)
+	 * @param y the ordinate of the sample
+	 * @throws IllegalArgumentException if x is lower than the abscissa of the
+	 * last sample or is not a number
+	 */
+	public void add(double x, double y) throws IllegalArgumentException
+	{
+		if (Double.isNaN(x) || ((size > 0) && (x < xs[size - 1])))
+		{
+			throw new IllegalArgumentException("Unsorted abscissa " + x);
+		}
+		if (size == xs.length)
+		{
+			xs = Arrays.copyOf(xs, size * 2);
+			ys = Arrays.copyOf(ys, size * 2);
+		}
+		xs[size] = x;
+		ys[size] = y;
+		size++;
+	}
+
+	/**
+	 * Number of samples
+	 * @return the number of samples in this curve
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Abscissa accessor
+	 * @param index the index of the sample
+	 * @return the abscissa of the sample
+	 * @throws IndexOutOfBoundsException if index is not within [0, size())
+	 */
+	public double x(int index) throws IndexOutOfBoundsException
+	{
+		return xs[checkIndex(index)];
+	}
+
+	/**
+	 * Ordinate accessor
+	 * @param index the index of the sample
+	 * @return the ordinate of the sample
+	 * @throws IndexOutOfBoundsException if index is not within [0, size())
+	 */
+	public double y(int index) throws IndexOutOfBoundsException
+	{
+		return ys[checkIndex(index)];
+	}
+
+	/**
+	 * Index of the first sample whose abscissa is not lower than x
+	 * @param x the searched abscissa
+	 * @return the index of the first sample whose abscissa is greater than or
+	 * equal to x (or {@link #size()} if there is no such sample)
+	 */
+	public int lowerBound(double x)
+	{
+		int low = 0;
+		int high = size;
+		while (low < high)
+		{
+			int middle = (low + high) >>> 1;
+			if (xs[middle] < x)
+			{
+				low = middle + 1;
+			}
+			else
+			{
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Number of samples within a range of abscissa
+	 * @param from the lower abscissa
+	 * @param to the upper abscissa
+	 * @return the number of samples whose abscissa lies within [from, to]
+	 */
+	public int count(double from, double to)
+	{
+		return Math.max(0, upperBound(to) - lowerBound(from));
+	}
+
+	/**
+	 * Downsample the samples within a range of abscissa with the
+	 * Largest-Triangle-Three-Buckets algorithm
+	 * @param from the lower abscissa of the range
+	 * @param to the upper abscissa of the range
+	 * @param threshold the maximum number of samples to keep (typically the
+	 * width of the plot in pixels)
+	 * @return a new curve containing at most threshold finite samples of this
+	 * curve, including the samples just outside the range (if any) so that
+	 * plotted lines reach the edges of the range.
+	 * @throws IllegalArgumentException if threshold is lower than 3
+	 * @implSpec Samples within the range are split into threshold - 2 buckets
+	 * (first and last samples are always kept) and the sample of each bucket
+	 * forming the largest triangle with the sample kept from the previous
+	 * bucket and the average of the next bucket is kept. This costs a single
+	 * pass over the samples within the range.
+	 */
+	public Curve downsample(double from, double to, int threshold)
+	    throws IllegalArgumentException
+	{
+		if (threshold < 3)
+		{
+			throw new IllegalArgumentException("Threshold should be at least 3");
+		}
+		int start = Math.max(0, lowerBound(from) - 1);
+		int end = Math.min(size, upperBound(to) + 1);
+		int count = end - start;
+		Curve result = new Curve(Math.min(count, threshold));
+		if (count <= threshold)
+		{
+			for (int i = start; i < end; i++)
+			{
+				if (Double.isFinite(ys[i]))
+				{
+					result.add(xs[i], ys[i]);
+				}
+			}
+			return result;
+		}
+
+		double bucketSize = (double) (count - 2) / (threshold - 2);
+		int selected = start;
+		if (Double.isFinite(ys[start]))
+		{
+			result.add(xs[start], ys[start]);
+		}
+		for (int bucket = 0; bucket < threshold - 2; bucket++)
+		{
+			int bucketStart = start + 1 + (int) (bucket * bucketSize);
+			int bucketEnd = start + 1 + (int) ((bucket + 1) * bucketSize);
+			int nextEnd = Math.min(end, start + 1 + (int) ((bucket + 2) * bucketSize));
+
+			// Average of the next bucket (or last sample)
+			double averageX = 0.0;
+			double averageY = 0.0;
+			int finite = 0;
+			for (int i = bucketEnd; i < nextEnd; i++)
+			{
+				if (Double.isFinite(ys[i]))
+				{
+					averageX += xs[i];
+					averageY += ys[i];
+					finite++;
+				}
+			}
+			if (finite > 0)
+			{
+				averageX /= finite;
+				averageY /= finite;
+			}
+			else
+			{
+				averageX = xs[end - 1];
+				averageY = Double.isFinite(ys[end - 1]) ? ys[end - 1] : ys[selected];
+			}
+
+			// Sample of this bucket forming the largest triangle
+			double selectedX = xs[selected];
+			double selectedY = Double.isFinite(ys[selected]) ? ys[selected] : averageY;
+			double maxArea = -1.0;
+			int next = -1;
+			for (int i = bucketStart; i < bucketEnd; i++)
+			{
+				if (!Double.isFinite(ys[i]))
+				{
+					continue;
+				}
+				double area = Math.abs((selectedX - averageX) * (ys[i] - selectedY)
+				    - (selectedX - xs[i]) * (averageY - selectedY));
+				if (area > maxArea)
+				{
+					maxArea = area;
+					next = i;
+				}
+			}
+			if (next >= 0)
+			{
+				result.add(xs[next], ys[next]);
+				selected = next;
+			}
+		}
+		if (Double.isFinite(ys[end - 1]))
+		{
+			result.add(xs[end - 1], ys[end - 1]);
+		}
+		return result;
+	}
+
+	/**
+	 * String representation of this curve
+	 * @return a String containing the number of samples and the range of
+	 * abscissa of this curve
+	 */
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + "[" + size + " samples"
+		    + (size > 0 ? " in [" + xs[0] + ", " + xs[size - 1] + "]" : "") + "]";
+	}
+
+	/**
+	 * Index of the first sample whose abscissa is greater than x
+	 * @param x the searched abscissa
+	 * @return the index of the first sample whose abscissa is greater than x
+	 * (or {@link #size()} if there is no such sample)
+	 */
+	private int upperBound(double x)
+	{
+		int low = 0;
+		int high = size;
+		while (low < high)
+		{
+			int middle = (low + high) >>> 1;
+			if (xs[middle] <= x)
+			{
+				low = middle + 1;
+			}
+			else
+			{
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Check index of a sample
+	 * @param index the index to check
+	 * @return the checked index
+	 * @throws IndexOutOfBoundsException if index is not within [0, size())
+	 */
+	private int checkIndex(int index) throws IndexOutOfBoundsException
+	{
+		if ((index < 0) || (index >= size))
+		{
+			throw new IndexOutOfBoundsException(index);
+		}
+		return index;
+	}
+}
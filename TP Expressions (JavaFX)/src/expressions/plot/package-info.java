@@ -0,0 +1,4 @@
+/**
+ * Package containing adaptive sampling and downsampling of expressions plots
+ */
+package expressions.plot;
@@ -3,10 +3,13 @@ package expressions.special;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 
 import expressions.AbstractExpression;
 import expressions.Expression;
+import expressions.visitors.NodeVisitor;
+import utils.ListIndex;
 
 /**
  * Group Expression containing other expressions.
@@ -16,6 +19,9 @@ import expressions.Expression;
  * @implNote Group expression's value has no sense and therefore the value
  * provided by {@link #value()} has no sense but whenever {@link #hasValue()} is
  * true indicates all expressions in this group have values.
+ * @implNote Children expressions are indexed (see {@link ListIndex}) so that
+ * {@link #contains(Object)} and {@link #remove(Object)} don't scan (nor
+ * render) all children expressions.
  */
 public class GroupExpression<E extends Number> extends AbstractExpression<E>
     implements Collection<Expression<E>>
@@ -23,7 +29,13 @@ public class GroupExpression<E extends Number> extends AbstractExpression<E>
 	/**
 	 * The collection of children expressions in this group
 	 */
-	Collection<Expression<E>> expressions;
+	List<Expression<E>> expressions;
+
+	/**
+	 * Hashed index of {@link #expressions} updated with each change of
+	 * {@link #expressions}
+	 */
+	private ListIndex<Expression<E>> index;
 
 	/**
 	 * Default constructor
@@ -31,6 +43,7 @@ public class GroupExpression<E extends Number> extends AbstractExpression<E>
 	public GroupExpression()
 	{
 		expressions = new ArrayList<>();
+		index = new ListIndex<>();
 	}
 
 	/**
@@ -136,6 +149,20 @@ public class GroupExpression<E extends Number> extends AbstractExpression<E>
 		return "Expressions";
 	}
 
+	/**
+	 * Accept a visitor on this group
+	 * @param <R> The type of results produced by the visitor
+	 * @param visitor the visitor to dispatch
+	 * @return the result of {@link NodeVisitor#visitGroup(GroupExpression)} on this
+	 * group
+	 * @throws NullPointerException if visitor is null
+	 */
+	@Override
+	public <R> R accept(NodeVisitor<E, R> visitor) throws NullPointerException
+	{
+		return visitor.visitGroup(this);
+	}
+
 	/**
 	 * Test for presence of provided expressions among children expressions
 	 * @param expr the expression to search among children expressions
@@ -145,7 +172,7 @@ public class GroupExpression<E extends Number> extends AbstractExpression<E>
 	@Override
 	public boolean contains(Expression<E> expr)
 	{
-		return expressions.contains(expr);
+		return index.contains(expr);
 	}
 
 	/**
@@ -157,7 +184,19 @@ public class GroupExpression<E extends Number> extends AbstractExpression<E>
 	@Override
 	public boolean contains(Object o)
 	{
-		return expressions.contains(o);
+		return index.contains(o);
+	}
+
+	/**
+	 * Index of the provided object among children expressions
+	 * @param o the object to search
+	 * @return the index of the provided expression instance among children
+	 * expressions, or else the index of the first child expression equal to
+	 * the provided object, or -1 if there is no such expression
+	 */
+	public int indexOf(Object o)
+	{
+		return index.indexOf(expressions, o);
 	}
 
 	/**
@@ -167,7 +206,55 @@ public class GroupExpression<E extends Number> extends AbstractExpression<E>
 	@Override
 	public Iterator<Expression<E>> iterator()
 	{
-		return expressions.iterator();
+		Iterator<Expression<E>> iterator = expressions.iterator();
+		return new Iterator<Expression<E>>()
+		{
+			/**
+			 * Index of the last returned expression
+			 */
+			private int last = -1;
+
+			/**
+			 * Test if there are remaining children expressions
+			 * @return true if there are remaining children expressions
+			 */
+			@Override
+			public boolean hasNext()
+			{
+				return iterator.hasNext();
+			}
+
+			/**
+			 * Next child expression
+			 * @return the next child expression
+			 */
+			@Override
+			public Expression<E> next()
+			{
+				Expression<E> next = iterator.next();
+				last++;
+				return next;
+			}
+
+			/**
+			 * Removes the last returned expression from children expressions
+			 * (and from {@link GroupExpression#index})
+			 * @throws IllegalStateException if next has not been called yet or
+			 * if the last returned expression has already been removed
+			 */
+			@Override
+			public void remove() throws IllegalStateException
+			{
+				if ((last < 0) || (last >= expressions.size()))
+				{
+					throw new IllegalStateException();
+				}
+				Expression<E> removed = expressions.get(last);
+				iterator.remove();
+				index.replaced(expressions, last, List.of(removed), 0);
+				last--;
+			}
+		};
 	}
 
 	/**
@@ -214,11 +301,90 @@ public class GroupExpression<E extends Number> extends AbstractExpression<E>
 		boolean added = expressions.add(e);
 		if (added)
 		{
+			index.replaced(expressions, expressions.size() - 1, List.of(), 1);
 			e.setParent(this);
 		}
 		return added;
 	}
 
+	/**
+	 * Insert an expression at the specified position in children expressions
+	 * @param index the index at which the provided expression is inserted
+	 * @param e the expression to insert
+	 * @throws NullPointerException if the provided expression is null since we
+	 * don't allow null expressions
+	 * @throws ClassCastException if the provided expression is also a
+	 * {@link GroupExpression}.
+	 * @throws IndexOutOfBoundsException if index is out of range
+	 * (index < 0 || index > size())
+	 * @implNote used to keep this group in the same order as an external list
+	 * of expressions
+	 */
+	public void add(int index, Expression<E> e)
+	    throws NullPointerException,
+	    ClassCastException,
+	    IndexOutOfBoundsException
+	{
+		Objects.requireNonNull(e);
+		if (e instanceof GroupExpression<?>)
+		{
+			throw new ClassCastException("child expression can't be group");
+		}
+		expressions.add(index, e);
+		this.index.replaced(expressions, index, List.of(), 1);
+		e.setParent(this);
+	}
+
+	/**
+	 * Replaces the expression at the specified position in children expressions
+	 * @param index the index of the expression to replace
+	 * @param e the expression to store at this position
+	 * @return the replaced expression
+	 * @throws NullPointerException if the provided expression is null since we
+	 * don't allow null expressions
+	 * @throws ClassCastException if the provided expression is also a
+	 * {@link GroupExpression}.
+	 * @throws IndexOutOfBoundsException if index is out of range
+	 * (index < 0 || index >= size())
+	 * @implNote Parents are left untouched if the provided expression is the
+	 * one already stored at this position (but this expression is indexed
+	 * again in case it has been modified in place)
+	 */
+	public Expression<E> set(int index, Expression<E> e)
+	    throws NullPointerException,
+	    ClassCastException,
+	    IndexOutOfBoundsException
+	{
+		Objects.requireNonNull(e);
+		if (e instanceof GroupExpression<?>)
+		{
+			throw new ClassCastException("child expression can't be group");
+		}
+		Expression<E> replaced = expressions.set(index, e);
+		this.index.replaced(expressions, index, List.of(replaced), 1);
+		if (replaced != e)
+		{
+			replaced.setParent(null);
+			e.setParent(this);
+		}
+		return replaced;
+	}
+
+	/**
+	 * Removes the expression at the specified position in children expressions
+	 * @param index the index of the expression to remove
+	 * @return the removed expression
+	 * @throws IndexOutOfBoundsException if index is out of range
+	 * (index < 0 || index >= size())
+	 */
+	public Expression<E> remove(int index) throws IndexOutOfBoundsException
+	{
+		Expression<E> removed = expressions.remove(index);
+		this.index.replaced(expressions, index, List.of(removed), 0);
+		removed.setParent(null);
+		return removed;
+	}
+
 	/**
 	 * Removes the provided object from children expressions
 	 * @para o the object to remove from children expressions
@@ -228,13 +394,13 @@ public class GroupExpression<E extends Number> extends AbstractExpression<E>
 	@Override
 	public boolean remove(Object o)
 	{
-		boolean removed = expressions.remove(o);
-		if (removed)
+		int position = indexOf(o);
+		if (position == -1)
 		{
-			Expression<?> expr = (Expression<?>) o;
-			expr.setParent(null);
+			return false;
 		}
-		return removed;
+		remove(position);
+		return true;
 	}
 
 	/**
@@ -246,7 +412,14 @@ public class GroupExpression<E extends Number> extends AbstractExpression<E>
 	@Override
 	public boolean containsAll(Collection<?> c)
 	{
-		return expressions.containsAll(c);
+		for (Object o : c)
+		{
+			if (!index.contains(o))
+			{
+				return false;
+			}
+		}
+		return true;
 	}
 
 	/**
@@ -297,7 +470,12 @@ public class GroupExpression<E extends Number> extends AbstractExpression<E>
 	@Override
 	public boolean retainAll(Collection<?> c)
 	{
-		return expressions.retainAll(c);
+		boolean modified = expressions.retainAll(c);
+		if (modified)
+		{
+			index.reset(expressions);
+		}
+		return modified;
 	}
 
 	/**
@@ -312,6 +490,7 @@ public class GroupExpression<E extends Number> extends AbstractExpression<E>
 			it.remove();
 			expr.setParent(null);
 		}
+		index.reset(expressions);
 	}
 
 
@@ -0,0 +1,103 @@
+package expressions.sweep;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * {@link SweepWriter} writing results in a compact binary format (through a
+ * {@link DataOutputStream}, hence big-endian):
+ * <ul>
+ * 	<li>the {@link #Magic} int</li>
+ * 	<li>the type of numbers as a single char: 'I', 'F' or 'D'</li>
+ * 	<li>the number of columns as an int followed by each column name in
+ * 	modified UTF-8 ({@link DataOutputStream#writeUTF(String)})</li>
+ * 	<li>then rows until the end of the stream, each row containing one
+ * 	double per column (undefined values are NaN)</li>
+ * </ul>
+ * Hence the number of rows is the number of remaining bytes after the header
+ * divided by 8 times the number of columns.
+ */
+public class BinarySweepWriter implements SweepWriter
+{
+	/**
+	 * Magic number starting the binary format ("SWP1")
+	 */
+	public static final int Magic = 0x53575031;
+
+	/**
+	 * Size of output buffer
+	 */
+	private static final int BufferSize = 1 << 16;
+
+	/**
+	 * The buffered output
+	 */
+	private final DataOutputStream out;
+
+	/**
+	 * Number of columns
+	 */
+	private int columns;
+
+	/**
+	 * Constructor
+	 * @param out the output to write to (which will be buffered and closed
+	 * by {@link #close()})
+	 * @throws NullPointerException if out is null
+	 */
+	public BinarySweepWriter(OutputStream out) throws NullPointerException
+	{
+		this.out = new DataOutputStream(new BufferedOutputStream(Objects.requireNonNull(out),
+		                                                         BufferSize));
+		columns = 0;
+	}
+
+	/**
+	 * Write the header
+	 * @param columns the names of the columns
+	 * @param numberClass the type of numbers of the expressions
+	 * @throws IOException if writing fails
+	 */
+	@Override
+	public void header(List<String> columns, Class<? extends Number> numberClass)
+	    throws IOException
+	{
+		this.columns = columns.size();
+		out.writeInt(Magic);
+		out.writeChar(numberClass.getSimpleName().charAt(0));
+		out.writeInt(this.columns);
+		for (String column : columns)
+		{
+			out.writeUTF(column);
+		}
+	}
+
+	/**
+	 * Write a row
+	 * @param values the array containing the row
+	 * @param offset the index of the first value of the row
+	 * @throws IOException if writing fails
+	 */
+	@Override
+	public void row(double[] values, int offset) throws IOException
+	{
+		for (int i = 0; i < columns; i++)
+		{
+			out.writeDouble(values[offset + i]);
+		}
+	}
+
+	/**
+	 * Flush and close the output
+	 * @throws IOException if closing fails
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		out.close();
+	}
+}
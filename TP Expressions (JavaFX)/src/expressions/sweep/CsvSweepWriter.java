@@ -0,0 +1,146 @@
+package expressions.sweep;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * {@link SweepWriter} writing results as CSV: a header line with columns
+ * names (quoted when needed) then one line per row where values are
+ * formatted according to the type of numbers of the expressions and
+ * undefined values are left empty.
+ */
+public class CsvSweepWriter implements SweepWriter
+{
+	/**
+	 * CSV values separator
+	 */
+	private static final char Separator = ',';
+
+	/**
+	 * Size of output buffer
+	 */
+	private static final int BufferSize = 1 << 16;
+
+	/**
+	 * The buffered output
+	 */
+	private final Writer out;
+
+	/**
+	 * Number of columns
+	 */
+	private int columns;
+
+	/**
+	 * Type of numbers of the expressions
+	 */
+	private Class<? extends Number> numberClass;
+
+	/**
+	 * Constructor
+	 * @param out the output to write to (which will be buffered and closed
+	 * by {@link #close()})
+	 * @throws NullPointerException if out is null
+	 */
+	public CsvSweepWriter(Writer out) throws NullPointerException
+	{
+		this.out = new BufferedWriter(Objects.requireNonNull(out), BufferSize);
+		columns = 0;
+		numberClass = Double.class;
+	}
+
+	/**
+	 * Write the header line
+	 * @param columns the names of the columns
+	 * @param numberClass the type of numbers of the expressions
+	 * @throws IOException if writing fails
+	 */
+	@Override
+	public void header(List<String> columns, Class<? extends Number> numberClass)
+	    throws IOException
+	{
+		this.columns = columns.size();
+		this.numberClass = numberClass;
+		for (int i = 0; i < this.columns; i++)
+		{
+			if (i > 0)
+			{
+				out.write(Separator);
+			}
+			out.write(quote(columns.get(i)));
+		}
+		out.write(System.lineSeparator());
+	}
+
+	/**
+	 * Write a row line
+	 * @param values the array containing the row
+	 * @param offset the index of the first value of the row
+	 * @throws IOException if writing fails
+	 */
+	@Override
+	public void row(double[] values, int offset) throws IOException
+	{
+		for (int i = 0; i < columns; i++)
+		{
+			if (i > 0)
+			{
+				out.write(Separator);
+			}
+			double value = values[offset + i];
+			if (!Double.isNaN(value))
+			{
+				out.write(format(value));
+			}
+		}
+		out.write(System.lineSeparator());
+	}
+
+	/**
+	 * Flush and close the output
+	 * @throws IOException if closing fails
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		out.close();
+	}
+
+	/**
+	 * Format a value according to the type of numbers
+	 * @param value the value to format
+	 * @return the formatted value
+	 */
+	private String format(double value)
+	{
+		if (numberClass == Integer.class)
+		{
+			return Long.toString((long) value);
+		}
+		if (numberClass == Float.class)
+		{
+			return Float.toString((float) value);
+		}
+		return Double.toString(value);
+	}
+
+	/**
+	 * Quote a CSV field if needed
+	 * @param field the field
+	 * @return the field surrounded by double quotes (with inner double
+	 * quotes doubled) if it contains separators, quotes or line breaks,
+	 * or the field itself otherwise
+	 */
+	private static String quote(String field)
+	{
+		if ((field.indexOf(Separator) < 0) && (field.indexOf('"') < 0)
+		    && (field.indexOf('\n') < 0) && (field.indexOf('\r') < 0))
+		{
+			return field;
+		}
+		return '"' + field.replace("\"", "\"\"") + '"';
+	}
+}
@@ -0,0 +1,474 @@
+package expressions.sweep;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+
+import expressions.Expression;
+import expressions.flat.FlatExpression;
+
+/**
+ * Parameter study of a list of expressions over the values of some swept
+ * variables: either all points of the Cartesian product of the variables
+ * grids ({@link #grid(SweepWriter)}) or random points within the variables
+ * ranges ({@link #random(long, long, SweepWriter)}).
+ * Each point produces a row containing the values of the swept variables
+ * followed by the values of each expression. Expressions are evaluated in
+ * order at each point so that {@link expressions.binary.AssignmentExpression}s
+ * assign their variables for the following expressions of the same point
+ * (assignment chains).
+ * Variables which are neither swept nor assigned keep the values they had
+ * when the sweep was created.
+ * <ul>
+ * 	<li>Points are enumerated lazily by chunks of {@link #ChunkSize} rows
+ * 	which are evaluated in parallel on the {@link ForkJoinPool#commonPool()}
+ * 	and written in order. At most two chunks per core are in flight so
+ * 	memory stays constant regardless of the number of points.</li>
+ * 	<li>Each chunk is evaluated with its own environment:
+ * 	{@link FlatExpression}s and variables values which are never shared
+ * 	between threads (and never touch {@link
+ * 	expressions.terminal.VariableExpression#getValues()}).</li>
+ * </ul>
+ * @implSpec Values which can't be evaluated (such as integer divisions by
+ * 0 or variables without values) are NaN.
+ * @implNote Only top level assignments assign variables for the following
+ * expressions: nested assignments evaluate their values without assigning
+ * them (as in {@link FlatExpression#evaluate(double...)}).
+ */
+public class Sweep
+{
+	/**
+	 * Number of rows per chunk of points evaluated by a single task
+	 */
+	public static final int ChunkSize = 1024;
+
+	/**
+	 * Number of chunks in flight per thread of the pool
+	 */
+	private static final int ChunksPerThread = 2;
+
+	/**
+	 * Multiplier spreading random seeds of successive chunks
+	 */
+	private static final long SeedSpreader = 0x9E3779B97F4A7C15L;
+
+	/**
+	 * Evaluation environment owned by a single task at a time
+	 */
+	private final class Environment
+	{
+		/**
+		 * Copies of {@link Sweep#flats} (in the order of the expressions)
+		 */
+		private final FlatExpression[] flats;
+
+		/**
+		 * Values of all variables (in the order of {@link Sweep#slots})
+		 */
+		private final double[] values;
+
+		/**
+		 * Values of variables of each flattened expression
+		 */
+		private final double[][] points;
+
+		/**
+		 * Constructor
+		 */
+		Environment()
+		{
+			flats = new FlatExpression[Sweep.this.flats.length];
+			for (int i = 0; i < flats.length; i++)
+			{
+				flats[i] = Sweep.this.flats[i].copy();
+			}
+			values = new double[initialValues.length];
+			points = new double[flats.length][];
+			for (int i = 0; i < flats.length; i++)
+			{
+				points[i] = new double[mappings[i].length];
+			}
+		}
+
+		/**
+		 * Evaluate all expressions at the current point
+		 * @param rows the rows array where the values of expressions are
+		 * stored
+		 * @param offset the index of the row in rows
+		 * @implSpec swept variables values should already be at the
+		 * beginning of the row
+		 */
+		void evaluate(double[] rows, int offset)
+		{
+			System.arraycopy(initialValues, 0, values, 0, values.length);
+			System.arraycopy(rows, offset, values, 0, variables.size());
+			for (int i = 0; i < flats.length; i++)
+			{
+				int[] mapping = mappings[i];
+				double[] point = points[i];
+				for (int j = 0; j < mapping.length; j++)
+				{
+					point[j] = values[mapping[j]];
+				}
+				double value;
+				try
+				{
+					value = flats[i].evaluate(point);
+				}
+				catch (ArithmeticException e)
+				{
+					value = Double.NaN;
+				}
+				rows[offset + variables.size() + i] = value;
+				if (targets[i] >= 0)
+				{
+					values[targets[i]] = value;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Swept variables
+	 */
+	private final List<SweepVariable> variables;
+
+	/**
+	 * Names of the columns of the results
+	 */
+	private final List<String> columns;
+
+	/**
+	 * Type of numbers of the expressions
+	 */
+	private final Class<? extends Number> numberClass;
+
+	/**
+	 * Flattened expressions copied by each {@link Environment}
+	 */
+	private final FlatExpression[] flats;
+
+	/**
+	 * Names of all variables of the expressions: swept variables first
+	 */
+	private final List<String> slots;
+
+	/**
+	 * Values of all variables before evaluating a point (NaN when unknown)
+	 */
+	private final double[] initialValues;
+
+	/**
+	 * For each expression the indices in {@link #slots} of its variables
+	 * (in the order of {@link FlatExpression#getVariables()})
+	 */
+	private final int[][] mappings;
+
+	/**
+	 * For each expression the index in {@link #slots} of its assigned
+	 * variable or -1 if it is not an assignment
+	 */
+	private final int[] targets;
+
+	/**
+	 * Environments not used by any task
+	 */
+	private final ConcurrentLinkedQueue<Environment> environments;
+
+	/**
+	 * Constructor
+	 * @param <E> The type of numbers in expressions
+	 * @param expressions the expressions to evaluate (copied: later
+	 * modifications of the list or of the expressions are not reflected)
+	 * @param specimen the number type of the expressions
+	 * @param values the values of variables which are not swept (copied)
+	 * @param variables the swept variables
+	 * @throws NullPointerException if any argument is null
+	 * @throws IllegalArgumentException if specimen is not an
+	 * {@link Integer}, a {@link Float} or a {@link Double} or if a variable
+	 * is swept twice
+	 * @throws UnsupportedOperationException if an expression can't be
+	 * flattened
+	 */
+	public <E extends Number> Sweep(List<? extends Expression<E>> expressions,
+	                                E specimen,
+	                                Map<String, Optional<? extends Number>> values,
+	                                List<SweepVariable> variables)
+	    throws NullPointerException,
+	    IllegalArgumentException,
+	    UnsupportedOperationException
+	{
+		List<Expression<E>> sources = List.copyOf(expressions);
+		Objects.requireNonNull(specimen, "null specimen");
+		this.variables = List.copyOf(variables);
+		numberClass = specimen.getClass();
+		flats = new FlatExpression[sources.size()];
+		for (int i = 0; i < flats.length; i++)
+		{
+			flats[i] = FlatExpression.compile(sources.get(i), specimen);
+		}
+
+		List<String> names = new ArrayList<>();
+		Set<String> swept = new HashSet<>();
+		for (SweepVariable variable : this.variables)
+		{
+			if (!swept.add(variable.getName()))
+			{
+				throw new IllegalArgumentException("Variable " + variable.getName()
+				    + " is swept twice");
+			}
+			names.add(variable.getName());
+		}
+		List<String> columnNames = new ArrayList<>(names);
+		mappings = new int[flats.length][];
+		targets = new int[flats.length];
+		for (int i = 0; i < flats.length; i++)
+		{
+			columnNames.add(sources.get(i).toString());
+			List<String> flatVariables = flats[i].getVariables();
+			mappings[i] = new int[flatVariables.size()];
+			for (int j = 0; j < mappings[i].length; j++)
+			{
+				int slot = names.indexOf(flatVariables.get(j));
+				if (slot < 0)
+				{
+					slot = names.size();
+					names.add(flatVariables.get(j));
+				}
+				mappings[i][j] = slot;
+			}
+			int root = flats[i].size() - 1;
+			targets[i] = (root >= 0) && (flats[i].opcode(root) == FlatExpression.ASSIGNMENT)
+			    ? mappings[i][flats[i].left(flats[i].left(root))]
+			    : -1;
+		}
+		slots = List.copyOf(names);
+		columns = List.copyOf(columnNames);
+		initialValues = new double[slots.size()];
+		for (int i = 0; i < initialValues.length; i++)
+		{
+			Optional<? extends Number> value = values.get(slots.get(i));
+			initialValues[i] = value != null && value.isPresent()
+			    ? value.get().doubleValue()
+			    : Double.NaN;
+		}
+		environments = new ConcurrentLinkedQueue<>();
+	}
+
+	/**
+	 * Names of the columns of the results
+	 * @return an unmodifiable list of the names of the swept variables
+	 * followed by the expressions
+	 */
+	public List<String> getColumns()
+	{
+		return columns;
+	}
+
+	/**
+	 * Number of points of the grid
+	 * @return the product of the counts of all swept variables
+	 * @throws ArithmeticException if the number of points overflows a long
+	 */
+	public long gridSize() throws ArithmeticException
+	{
+		long size = 1;
+		for (SweepVariable variable : variables)
+		{
+			size = Math.multiplyExact(size, variable.getCount());
+		}
+		return size;
+	}
+
+	/**
+	 * Evaluate expressions on all points of the grid of the swept variables
+	 * (the last swept variable varying the fastest)
+	 * @param writer the writer receiving the header and all rows (which is
+	 * not closed)
+	 * @return the number of written rows
+	 * @throws IOException if writing fails
+	 * @throws ArithmeticException if the number of points overflows a long
+	 */
+	public long grid(SweepWriter writer) throws IOException, ArithmeticException
+	{
+		return run(gridSize(), writer, (double[] rows, long first, int count) -> {
+			int[] indices = new int[variables.size()];
+			long rest = first;
+			for (int v = indices.length - 1; v >= 0; v--)
+			{
+				int size = variables.get(v).getCount();
+				indices[v] = (int) (rest % size);
+				rest /= size;
+			}
+			int width = columns.size();
+			for (int r = 0; r < count; r++)
+			{
+				for (int v = 0; v < indices.length; v++)
+				{
+					rows[r * width + v] = variables.get(v).value(indices[v]);
+				}
+				// Next point (odometer)
+				for (int v = indices.length - 1; v >= 0; v--)
+				{
+					if (++indices[v] < variables.get(v).getCount())
+					{
+						break;
+					}
+					indices[v] = 0;
+				}
+			}
+		});
+	}
+
+	/**
+	 * Evaluate expressions on random points within the ranges of the swept
+	 * variables
+	 * @param samples the number of random points
+	 * @param seed the seed of random points (the same seed produces the same
+	 * points regardless of the number of threads)
+	 * @param writer the writer receiving the header and all rows (which is
+	 * not closed)
+	 * @return the number of written rows
+	 * @throws IOException if writing fails
+	 * @throws IllegalArgumentException if samples is negative
+	 */
+	public long random(long samples, long seed, SweepWriter writer)
+	    throws IOException, IllegalArgumentException
+	{
+		if (samples < 0)
+		{
+			throw new IllegalArgumentException("Negative number of samples " + samples);
+		}
+		return run(samples, writer, (double[] rows, long first, int count) -> {
+			SplittableRandom random = new SplittableRandom(seed + (first / ChunkSize) * SeedSpreader);
+			int width = columns.size();
+			for (int r = 0; r < count; r++)
+			{
+				for (int v = 0; v < variables.size(); v++)
+				{
+					rows[r * width + v] = variables.get(v).value(random);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Generator of the swept variables values of a chunk of points
+	 */
+	@FunctionalInterface
+	private interface PointsGenerator
+	{
+		/**
+		 * Fill the swept variables values of a chunk of points
+		 * @param rows the rows of the chunk (swept variables values are
+		 * stored at the beginning of each row)
+		 * @param first the index of the first point of the chunk
+		 * @param count the number of points in the chunk
+		 */
+		void generate(double[] rows, long first, int count);
+	}
+
+	/**
+	 * Evaluate chunks of points in parallel and write them in order
+	 * @param points the number of points
+	 * @param writer the writer receiving the header and all rows
+	 * @param generator the generator of the points of each chunk
+	 * @return the number of written rows
+	 * @throws IOException if writing fails
+	 */
+	private long run(long points, SweepWriter writer, PointsGenerator generator)
+	    throws IOException
+	{
+		Objects.requireNonNull(writer);
+		writer.header(columns, numberClass);
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		int window = Math.max(1, pool.getParallelism()) * ChunksPerThread;
+		int width = columns.size();
+		Deque<CompletableFuture<double[]>> pending = new ArrayDeque<>(window);
+		Deque<Integer> counts = new ArrayDeque<>(window);
+		long submitted = 0;
+		long written = 0;
+		try
+		{
+			while (written < points)
+			{
+				while ((submitted < points) && (pending.size() < window))
+				{
+					long first = submitted;
+					int count = (int) Math.min(ChunkSize, points - first);
+					Environment environment = environments.poll();
+					Environment owned = environment != null
+					    ? environment
+					    : new Environment();
+					pending.add(CompletableFuture.supplyAsync(() -> {
+						try
+						{
+							double[] rows = new double[count * width];
+							generator.generate(rows, first, count);
+							for (int r = 0; r < count; r++)
+							{
+								owned.evaluate(rows, r * width);
+							}
+							return rows;
+						}
+						finally
+						{
+							environments.add(owned);
+						}
+					}, pool));
+					counts.add(count);
+					submitted += count;
+				}
+				double[] rows = join(pending.poll());
+				for (int offset = 0; offset < rows.length; offset += width)
+				{
+					writer.row(rows, offset);
+				}
+				written += counts.poll();
+			}
+		}
+		finally
+		{
+			for (CompletableFuture<double[]> future : pending)
+			{
+				future.cancel(false);
+			}
+		}
+		return written;
+	}
+
+	/**
+	 * Wait for the rows of a chunk
+	 * @param future the future rows
+	 * @return the rows of the chunk
+	 * @throws RuntimeException if evaluating the chunk failed
+	 */
+	private static double[] join(CompletableFuture<double[]> future)
+	    throws RuntimeException
+	{
+		try
+		{
+			return future.join();
+		}
+		catch (CompletionException e)
+		{
+			if (e.getCause() instanceof RuntimeException)
+			{
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package expressions.sweep;
+
+import java.util.Objects;
+import java.util.SplittableRandom;
+
+/**
+ * Range of values of a variable swept by a {@link Sweep}: either a regular
+ * grid of {@link #getCount()} values from {@link #getFrom()} to
+ * {@link #getTo()} (both included) or uniformly distributed random values
+ * within [{@link #getFrom()}, {@link #getTo()}).
+ */
+public final class SweepVariable
+{
+	/**
+	 * Name of the swept variable
+	 */
+	private final String name;
+
+	/**
+	 * Lower bound of the range
+	 */
+	private final double from;
+
+	/**
+	 * Upper bound of the range
+	 */
+	private final double to;
+
+	/**
+	 * Number of grid values
+	 */
+	private final int count;
+
+	/**
+	 * Constructor
+	 * @param name the name of the swept variable
+	 * @param from the lower bound of the range
+	 * @param to the upper bound of the range
+	 * @param count the number of grid values within the range (from only if
+	 * count is 1)
+	 * @throws NullPointerException if name is null
+	 * @throws IllegalArgumentException if bounds are not finite, if from is
+	 * greater than to or if count is lower than 1
+	 */
+	public SweepVariable(String name, double from, double to, int count)
+	    throws NullPointerException, IllegalArgumentException
+	{
+		this.name = Objects.requireNonNull(name, "null variable name");
+		if (!Double.isFinite(from) || !Double.isFinite(to) || (from > to))
+		{
+			throw new IllegalArgumentException("Invalid range [" + from + ", " + to
+			    + "] for " + name);
+		}
+		if (count < 1)
+		{
+			throw new IllegalArgumentException("Invalid count " + count + " for " + name);
+		}
+		this.from = from;
+		this.to = to;
+		this.count = count;
+	}
+
+	/**
+	 * Name accessor
+	 * @return the name of the swept variable
+	 */
+	public String getName()
+	{
+		return name;
+	}
+
+	/**
+	 * Lower bound accessor
+	 * @return the lower bound of the range
+	 */
+	public double getFrom()
+	{
+		return from;
+	}
+
+	/**
+	 * Upper bound accessor
+	 * @return the upper bound of the range
+	 */
+	public double getTo()
+	{
+		return to;
+	}
+
+	/**
+	 * Number of grid values accessor
+	 * @return the number of grid values within the range
+	 */
+	public int getCount()
+	{
+		return count;
+	}
+
+	/**
+	 * Grid value
+	 * @param index the index of the grid value
+	 * @return the grid value at index
+	 * @throws IndexOutOfBoundsException if index is not within [0, count)
+	 */
+	public double value(int index) throws IndexOutOfBoundsException
+	{
+		Objects.checkIndex(index, count);
+		if (count == 1)
+		{
+			return from;
+		}
+		return index == count - 1 ? to : from + (to - from) * index / (count - 1);
+	}
+
+	/**
+	 * Random value
+	 * @param random the random numbers generator
+	 * @return a uniformly distributed random value within the range
+	 */
+	public double value(SplittableRandom random)
+	{
+		return from + (to - from) * random.nextDouble();
+	}
+
+	/**
+	 * String representation of this swept variable
+	 * @return a String containing the name, range and count of this variable
+	 */
+	@Override
+	public String toString()
+	{
+		return name + " in [" + from + ", " + to + "] x " + count;
+	}
+}
@@ -0,0 +1,35 @@
+package expressions.sweep;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination of the rows produced by a {@link Sweep}.
+ * Rows are written in order from a single thread: first the
+ * {@link #header(List, Class)}, then each row with
+ * {@link #row(double[], int)} and finally {@link #close()}.
+ * @see CsvSweepWriter
+ * @see BinarySweepWriter
+ */
+public interface SweepWriter extends Closeable
+{
+	/**
+	 * Write the header of the results
+	 * @param columns the names of the columns: swept variables followed by
+	 * expressions
+	 * @param numberClass the type of numbers of the expressions
+	 * @throws IOException if writing fails
+	 */
+	void header(List<String> columns, Class<? extends Number> numberClass)
+	    throws IOException;
+
+	/**
+	 * Write a row of results
+	 * @param values the array containing the row (undefined values are NaN)
+	 * @param offset the index of the first value of the row in values (the
+	 * row contains as many values as there are columns in the header)
+	 * @throws IOException if writing fails
+	 */
+	void row(double[] values, int offset) throws IOException;
+}
@@ -0,0 +1,5 @@
+/**
+ * Package containing parameter studies of expressions over grids or random
+ * samples of variables values
+ */
+package expressions.sweep;
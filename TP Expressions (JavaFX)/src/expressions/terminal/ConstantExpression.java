@@ -1,5 +1,12 @@
 package expressions.terminal;
 
+import java.util.Map;
+import java.util.Optional;
+
+import expressions.visitors.NodeVisitor;
+import metrics.Metrics;
+import utils.FlyweightFactory;
+
 /**
  * Constant expression.
  * Constant expressions can always be evaluated since they are created directly
@@ -9,6 +16,23 @@ package expressions.terminal;
  */
 public class ConstantExpression<E extends Number> extends TerminalExpression<E>
 {
+	/**
+	 * Factory interning constants values so that equal values used in many
+	 * constants are shared.
+	 * @implNote values are weakly referenced so they are evicted as soon as
+	 * no constant use them anymore.
+	 * @implNote Only values are interned and not {@link ConstantExpression}s
+	 * themselves since expressions are linked to their parent expression and
+	 * therefore can't be shared among several expressions trees.
+	 */
+	private static final FlyweightFactory<Number> values =
+		new FlyweightFactory<>(FlyweightFactory.Policy.WEAK, 0, null);
+
+	static
+	{
+		Metrics.registerCache("constants", values);
+	}
+
 	/*
 	 * There is no default constructor to enforce the fact that all
 	 * constants must have a value.
@@ -23,11 +47,102 @@ public class ConstantExpression<E extends Number> extends TerminalExpression<E>
 	public ConstantExpression(E value) throws NullPointerException
 	{
 		// DONE Complete ...
-		super(value);
+		super(intern(value));
 		if(value == null){throw new NullPointerException("Trying to set null value");}
 
 	}
 
+	/**
+	 * Interns a constant value
+	 * @param <E> the type of number to intern
+	 * @param value the value to intern
+	 * @return a shared value equal to the provided value or null if provided
+	 * value is null
+	 */
+	@SuppressWarnings("unchecked") // interned value is equal hence of same type
+	private static <E extends Number> E intern(E value)
+	{
+		return (E) values.get(value);
+	}
+
+	/**
+	 * Convert the value of this constant to the type of numbers of the
+	 * provided specimen (in place)
+	 * @param specimen a number specimen of the new type
+	 * @param conversions converted (and interned) values by original value
+	 * which is used and completed by this method. Sharing such a map among
+	 * all constants being retyped avoids converting the same value many
+	 * times. Might be null.
+	 * @throws NullPointerException if provided specimen is null
+	 * @throws IllegalArgumentException if specimen is neither an Integer,
+	 * a Float nor a Double
+	 * @apiNote Caution: this constant's type parameter E is not changed so
+	 * this method should only be used to retype whole expression trees.
+	 * @see #convert(Number, Number)
+	 */
+	@SuppressWarnings("unchecked") // converted value has the specimen's type
+	public void retype(Number specimen, Map<Number, Number> conversions)
+	    throws NullPointerException, IllegalArgumentException
+	{
+		E current = value.get();
+		Number converted = conversions != null ? conversions.get(current) : null;
+		if (converted == null)
+		{
+			converted = intern((E) convert(current, specimen));
+			if (conversions != null)
+			{
+				conversions.put(current, converted);
+			}
+		}
+		value = Optional.of((E) converted);
+	}
+
+	/**
+	 * Convert a number to the type of numbers of the provided specimen
+	 * @param number the number to convert
+	 * @param specimen a number specimen of the new type
+	 * @return a number of the specimen's type whose value is equivalent to
+	 * the provided number: Integers conversions truncate decimal values and
+	 * Floats are converted to Doubles through their decimal representation
+	 * (just as if they had been printed and parsed again).
+	 * @throws NullPointerException if provided specimen is null
+	 * @throws IllegalArgumentException if specimen is neither an Integer,
+	 * a Float nor a Double
+	 */
+	public static Number convert(Number number, Number specimen)
+	    throws NullPointerException, IllegalArgumentException
+	{
+		if (specimen.getClass() == number.getClass())
+		{
+			return number;
+		}
+		if (specimen instanceof Integer)
+		{
+			return Integer.valueOf(number.intValue());
+		}
+		if (specimen instanceof Float)
+		{
+			return Float.valueOf(number.floatValue());
+		}
+		if (specimen instanceof Double)
+		{
+			return number instanceof Float ?
+			    Double.valueOf(number.toString()) :
+			    Double.valueOf(number.doubleValue());
+		}
+		throw new IllegalArgumentException("Unsupported number type "
+		    + specimen.getClass().getSimpleName());
+	}
+
+	/**
+	 * Interned constants values accessor (e.g. to collect its statistics)
+	 * @return the factory interning constants values
+	 */
+	public static FlyweightFactory<Number> getValues()
+	{
+		return values;
+	}
+
 	/**
 	 * Factory method to get a valued constant
 	 * @param <E> the type of number to use
@@ -48,6 +163,20 @@ public class ConstantExpression<E extends Number> extends TerminalExpression<E>
 	public String toString()
 	{
 		// DONE Replace with correct implementation
-		return value.toString();
+		return value.get().toString();
+	}
+
+	/**
+	 * Accept a visitor on this constant
+	 * @param <R> The type of results produced by the visitor
+	 * @param visitor the visitor to dispatch
+	 * @return the result of {@link NodeVisitor#visitConstant(ConstantExpression)} on this
+	 * constant
+	 * @throws NullPointerException if visitor is null
+	 */
+	@Override
+	public <R> R accept(NodeVisitor<E, R> visitor) throws NullPointerException
+	{
+		return visitor.visitConstant(this);
 	}
 }
@@ -4,7 +4,10 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
+
+import expressions.visitors.NodeVisitor;
+import utils.PersistentMap;
+import utils.SnapshotMap;
 
 /**
  * Variable expression.
@@ -26,8 +29,22 @@ public class VariableExpression<E extends Number> extends TerminalExpression<E>
 	 * already part of this map. In such cases the optional shall be retrived
 	 * from this map which allows sharing the same (optional) value for all
 	 * variables with the same name.
+	 * @implNote By default this map is a {@link SnapshotMap} so it can be
+	 * read from any thread (e.g. by UI components) while values are being
+	 * assigned.
+	 * @see #snapshot()
+	 */
+	private static Map<String, Optional<? extends Number>> values = new SnapshotMap<>();
+
+	/**
+	 * Per thread map overriding {@link #values} in the current thread (if set).
+	 * This allows several threads to evaluate the same expressions within
+	 * distinct variables environments (e.g. one environment per client
+	 * connection).
+	 * @see #setLocalValues(Map)
 	 */
-	private static Map<String, Optional<? extends Number>> values = new HashMap<>();
+	private static final ThreadLocal<Map<String, Optional<? extends Number>>> localValues =
+		new ThreadLocal<>();
 
 	/**
 	 * Variable's name.
@@ -83,6 +100,7 @@ public class VariableExpression<E extends Number> extends TerminalExpression<E>
 	private Optional<E> registeredValue(String name, E value)
 	    throws IllegalArgumentException
 	{
+		Map<String, Optional<? extends Number>> values = values();
 		Optional<E> registered = (Optional<E>) values.get(name);
 		if (registered == null)
 		{
@@ -190,8 +208,17 @@ public class VariableExpression<E extends Number> extends TerminalExpression<E>
 	@Override
 	public E value()
 	{
-		value = registeredValue(name);
-		return super.value();
+		/*
+		 * Registered value is kept in a local variable (and not written back
+		 * to this shared node) since this variable may be concurrently
+		 * evaluated by other threads within their own values maps
+		 */
+		Optional<E> registered = registeredValue(name);
+		if (registered.isEmpty())
+		{
+			throw new IllegalStateException("No value yet");
+		}
+		return registered.get();
 	}
 
 	/**
@@ -199,25 +226,43 @@ public class VariableExpression<E extends Number> extends TerminalExpression<E>
 	 * @param value the value to set to this variable
 	 * @throws NullPointerException if we try to set a null value
 	 * @see Optional#of(Object)
+	 * @implNote {@link TerminalExpression#value} is only updated when the
+	 * global {@link #values} map is used: values set within local values
+	 * (see {@link #setLocalValues(Map)}) only belong to the current thread's
+	 * evaluation and this (possibly shared) variable is left untouched.
 	 */
-	@SuppressWarnings("unchecked")
 	@Override
 	public void setValue(E value) throws NullPointerException
 	{
 		Objects.requireNonNull(value, "null value");
-		values.put(name, Optional.of(value));
-		this.value = (Optional<E>) values.get(name);
+		register(Optional.of(value));
 	}
 
 	/**
 	 * Reset current value to "no value"
+	 * @implNote {@link TerminalExpression#value} is only updated when the
+	 * global {@link #values} map is used (see {@link #setValue(Number)}).
 	 */
-	@SuppressWarnings("unchecked")
 	@Override
 	public void clearValue()
 	{
-		values.put(name, Optional.empty());
-		value = (Optional<E>) values.get(name);
+		register(Optional.empty());
+	}
+
+	/**
+	 * Register a new (optional) value for this variable's name in the values
+	 * map of the current thread
+	 * @param registered the value to register
+	 */
+	@SuppressWarnings("unchecked")
+	private void register(Optional<E> registered)
+	{
+		Map<String, Optional<? extends Number>> values = values();
+		values.put(name, registered);
+		if (localValues.get() == null)
+		{
+			value = (Optional<E>) values.get(name);
+		}
 	}
 
 	/**
@@ -233,17 +278,80 @@ public class VariableExpression<E extends Number> extends TerminalExpression<E>
 		return name;
 	}
 
+	/**
+	 * Accept a visitor on this variable
+	 * @param <R> The type of results produced by the visitor
+	 * @param visitor the visitor to dispatch
+	 * @return the result of {@link NodeVisitor#visitVariable(VariableExpression)} on this
+	 * variable
+	 * @throws NullPointerException if visitor is null
+	 */
+	@Override
+	public <R> R accept(NodeVisitor<E, R> visitor) throws NullPointerException
+	{
+		return visitor.visitVariable(this);
+	}
+
 	/**
 	 * Values map accessor: Get the map containing <name, value> pairs.
-	 * @return The map containing values for all registered variables
+	 * @return The map containing values for all registered variables in the
+	 * current thread: the local map set with {@link #setLocalValues(Map)} if
+	 * any or the global one otherwise.
 	 */
 	public static Map<String, Optional<? extends Number>> getValues()
 	{
-		return values;
+		return values();
+	}
+
+	/**
+	 * Consistent snapshot of the global values map
+	 * @return an immutable copy of the global values map: the snapshot
+	 * itself if the global map is a {@link SnapshotMap} (without copying nor
+	 * locking) or a copy otherwise.
+	 */
+	public static PersistentMap<String, Optional<? extends Number>> snapshot()
+	{
+		Map<String, Optional<? extends Number>> global = values;
+		if (global instanceof SnapshotMap<String, Optional<? extends Number>> snapshotMap)
+		{
+			return snapshotMap.snapshot();
+		}
+		return PersistentMap.of(global);
+	}
+
+	/**
+	 * Values map of the current thread
+	 * @return the local map set with {@link #setLocalValues(Map)} if any
+	 * or the global {@link #values} map otherwise.
+	 */
+	private static Map<String, Optional<? extends Number>> values()
+	{
+		Map<String, Optional<? extends Number>> local = localValues.get();
+		return local != null ? local : values;
+	}
+
+	/**
+	 * Changes the map containing <name, value> pairs for the current thread
+	 * only.
+	 * @param map The new map to use in the current thread or null to use
+	 * the global map again.
+	 * @implNote Such a map is typically not shared with other threads and
+	 * therefore does not need to be thread safe.
+	 */
+	public static void setLocalValues(Map<String, Optional<? extends Number>> map)
+	{
+		if (map == null)
+		{
+			localValues.remove();
+		}
+		else
+		{
+			localValues.set(map);
+		}
 	}
 
 	/**
-	 * Changes the map containing <name, value> pairs.
+	 * Changes the (global) map containing <name, value> pairs.
 	 * @param map The new map to set.
 	 * @implNote This situation can occur when expressions are replaced (during
 	 * an undo transaction for instance) or when a more sophisticated map is
@@ -260,20 +368,23 @@ public class VariableExpression<E extends Number> extends TerminalExpression<E>
 	 */
 	public static void clearAllValues()
 	{
-		Set<String> keys = values.keySet();
-		for (String key : keys)
+		Map<String, Optional<? extends Number>> values = values();
+		Map<String, Optional<? extends Number>> cleared = new HashMap<>();
+		for (String key : values.keySet())
 		{
-			values.put(key, Optional.empty());
+			cleared.put(key, Optional.empty());
 		}
+		// Single batch (published at once by SnapshotMaps)
+		values.putAll(cleared);
 	}
 
 	/**
 	 * Remove all elements from {@link #values} : keys and values
 	 * @implNote since {@link #clearAll()} can be called atr any time, calling
-	 * <code>values.get(name)</code> may not always provide a non null value.
+	 * <code>values().get(name)</code> may not always provide a non null value.
 	 */
 	public static void clearAll()
 	{
-		values.clear();
+		values().clear();
 	}
 }
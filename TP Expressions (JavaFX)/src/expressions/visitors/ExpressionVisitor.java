@@ -0,0 +1,60 @@
+package expressions.visitors;
+
+import expressions.Expression;
+import expressions.binary.BinaryExpression;
+
+/**
+ * Visitor of expressions trees driven by an {@link ExpressionWalker}.
+ * Each node of a tree is visited once in post-order (operands before
+ * operators) so that results of operands are folded into the result of their
+ * operator. Operators are additionally notified before their left operand
+ * ({@link #enter(BinaryExpression)}) and between their left and right
+ * operands ({@link #between(BinaryExpression)}) so that in-order operations
+ * (such as rendering) can be performed in the same walk.
+ * @param <E> The type of numbers in visited expressions
+ * @param <R> The type of results produced for each node (which may be
+ * {@link Void} for visitors only producing side effects)
+ * @implNote Visitors must not modify the structure of the visited tree.
+ */
+public interface ExpressionVisitor<E extends Number, R>
+{
+	/**
+	 * Visit an expression which is not a {@link BinaryExpression} (such as
+	 * constants and variables)
+	 * @param leaf the visited expression
+	 * @return the result of this expression
+	 */
+	public abstract R visitLeaf(Expression<E> leaf);
+
+	/**
+	 * Visit a binary expression after both of its operands
+	 * @param binary the visited expression
+	 * @param left the result of the left operand (or null if there is no
+	 * left operand)
+	 * @param right the result of the right operand (or null if there is no
+	 * right operand)
+	 * @return the result of this expression
+	 */
+	public abstract R visitBinary(BinaryExpression<E> binary, R left, R right);
+
+	/**
+	 * Notification before visiting the operands of a binary expression
+	 * @param binary the binary expression whose operands are about to be
+	 * visited
+	 * @implSpec Default implementation does nothing
+	 */
+	public default void enter(BinaryExpression<E> binary)
+	{
+	}
+
+	/**
+	 * Notification after visiting the left operand and before visiting the
+	 * right operand of a binary expression
+	 * @param binary the binary expression whose left operand has been
+	 * visited
+	 * @implSpec Default implementation does nothing
+	 */
+	public default void between(BinaryExpression<E> binary)
+	{
+	}
+}
@@ -0,0 +1,270 @@
+package expressions.visitors;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import expressions.Expression;
+import expressions.binary.BinaryExpression;
+import expressions.special.GroupExpression;
+import expressions.terminal.ConstantExpression;
+import expressions.terminal.VariableExpression;
+
+/**
+ * Iterative traversals of expressions trees.
+ * All traversals use an explicit stack allocated on the heap rather than the
+ * call stack, so trees of any depth (e.g. machine generated formulas with
+ * tens of thousands of chained operators) are traversed in linear time
+ * without {@link StackOverflowError}s.
+ */
+public final class ExpressionWalker
+{
+	/**
+	 * Private constructor since this class only provides static methods
+	 */
+	private ExpressionWalker()
+	{
+	}
+
+	/**
+	 * Progress of the visit of a node
+	 */
+	private enum Step
+	{
+		/**
+		 * Node has not been visited yet
+		 */
+		ENTER,
+		/**
+		 * Left operand has been visited
+		 */
+		BETWEEN,
+		/**
+		 * Both operands have been visited
+		 */
+		EXIT
+	}
+
+	/**
+	 * Node being visited
+	 * @param <E> The type of numbers in visited expressions
+	 */
+	private static class Frame<E extends Number>
+	{
+		/**
+		 * The visited node
+		 */
+		final Expression<E> node;
+
+		/**
+		 * The next step of the visit
+		 */
+		Step step;
+
+		/**
+		 * Constructor
+		 * @param node the visited node
+		 */
+		Frame(Expression<E> node)
+		{
+			this.node = node;
+			step = Step.ENTER;
+		}
+	}
+
+	/**
+	 * Node visitor pushing the operands of visited nodes on a stack of
+	 * pending nodes (so that they are popped in order)
+	 * @param <E> The type of numbers in visited expressions
+	 */
+	private static class Operands<E extends Number> implements NodeVisitor<E, Void>
+	{
+		/**
+		 * The stack of pending nodes
+		 */
+		private final Deque<Expression<E>> pending;
+
+		/**
+		 * Constructor
+		 * @param pending the stack of pending nodes
+		 */
+		Operands(Deque<Expression<E>> pending)
+		{
+			this.pending = pending;
+		}
+
+		/**
+		 * Constants have no operands
+		 * @param constant the visited constant
+		 * @return null
+		 */
+		@Override
+		public Void visitConstant(ConstantExpression<E> constant)
+		{
+			return null;
+		}
+
+		/**
+		 * Variables have no operands
+		 * @param variable the visited variable
+		 * @return null
+		 */
+		@Override
+		public Void visitVariable(VariableExpression<E> variable)
+		{
+			return null;
+		}
+
+		/**
+		 * Push the right then the left operand of a binary expression
+		 * @param binary the visited binary expression
+		 * @return null
+		 */
+		@Override
+		public Void visitBinary(BinaryExpression<E> binary)
+		{
+			if (binary.getRight() != null)
+			{
+				pending.push(binary.getRight());
+			}
+			if (binary.getLeft() != null)
+			{
+				pending.push(binary.getLeft());
+			}
+			return null;
+		}
+
+		/**
+		 * Push the expressions of a group in reverse order
+		 * @param group the visited group
+		 * @return null
+		 */
+		@Override
+		public Void visitGroup(GroupExpression<E> group)
+		{
+			Deque<Expression<E>> children = new ArrayDeque<>(group);
+			while (!children.isEmpty())
+			{
+				pending.push(children.removeLast());
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Visit all nodes of an expression in post-order
+	 * @param <E> The type of numbers in visited expressions
+	 * @param <R> The type of results produced by the visitor
+	 * @param root the root of the expression to visit
+	 * @param visitor the visitor to apply on each node
+	 * @return the result of the visitor on root
+	 * @throws NullPointerException if root or visitor is null
+	 */
+	public static <E extends Number, R> R walk(Expression<E> root,
+	                                           ExpressionVisitor<E, R> visitor)
+	    throws NullPointerException
+	{
+		Objects.requireNonNull(root, "null root");
+		Objects.requireNonNull(visitor, "null visitor");
+		Deque<Frame<E>> frames = new ArrayDeque<>();
+		// Results of visited operands (which may be null)
+		List<R> results = new ArrayList<>();
+		frames.push(new Frame<>(root));
+		while (!frames.isEmpty())
+		{
+			Frame<E> frame = frames.peek();
+			if (!(frame.node instanceof BinaryExpression<E> binary))
+			{
+				frames.pop();
+				results.add(visitor.visitLeaf(frame.node));
+				continue;
+			}
+			switch (frame.step)
+			{
+				case ENTER:
+					visitor.enter(binary);
+					frame.step = Step.BETWEEN;
+					if (binary.getLeft() != null)
+					{
+						frames.push(new Frame<>(binary.getLeft()));
+					}
+					break;
+				case BETWEEN:
+					visitor.between(binary);
+					frame.step = Step.EXIT;
+					if (binary.getRight() != null)
+					{
+						frames.push(new Frame<>(binary.getRight()));
+					}
+					break;
+				default: // EXIT
+					frames.pop();
+					R right = binary.getRight() != null ? results.remove(results.size() - 1) : null;
+					R left = binary.getLeft() != null ? results.remove(results.size() - 1) : null;
+					results.add(visitor.visitBinary(binary, left, right));
+					break;
+			}
+		}
+		return results.get(0);
+	}
+
+	/**
+	 * Search an expression for a node matching a predicate (in pre-order)
+	 * @param <E> The type of numbers in visited expressions
+	 * @param root the root of the expression to search (may be null)
+	 * @param predicate the predicate to test on each node
+	 * @return true as soon as a node of root matches the predicate, false if
+	 * no node matches (or if root is null)
+	 * @throws NullPointerException if predicate is null
+	 * @implNote Unlike {@link #walk(Expression, ExpressionVisitor)}, operands
+	 * of {@link GroupExpression}s are also searched
+	 */
+	public static <E extends Number> boolean anyMatch(Expression<E> root,
+	                                                  Predicate<? super Expression<E>> predicate)
+	    throws NullPointerException
+	{
+		Objects.requireNonNull(predicate, "null predicate");
+		Deque<Expression<E>> pending = new ArrayDeque<>();
+		Operands<E> operands = new Operands<>(pending);
+		if (root != null)
+		{
+			pending.push(root);
+		}
+		while (!pending.isEmpty())
+		{
+			Expression<E> node = pending.pop();
+			if (predicate.test(node))
+			{
+				return true;
+			}
+			node.accept(operands);
+		}
+		return false;
+	}
+
+	/**
+	 * Perform an action on each node of an expression (in pre-order)
+	 * @param <E> The type of numbers in visited expressions
+	 * @param root the root of the expression to visit (may be null)
+	 * @param action the action to perform on each node
+	 * @throws NullPointerException if action is null
+	 * @implNote Unlike {@link #walk(Expression, ExpressionVisitor)}, operands
+	 * of {@link GroupExpression}s are also visited. Action may replace the
+	 * operands of the node it is performed on since operands are retrieved
+	 * afterwards.
+	 */
+	public static <E extends Number> void forEach(Expression<E> root,
+	                                              Consumer<? super Expression<E>> action)
+	    throws NullPointerException
+	{
+		Objects.requireNonNull(action, "null action");
+		anyMatch(root, node -> {
+			action.accept(node);
+			return false;
+		});
+	}
+}
@@ -0,0 +1,50 @@
+package expressions.visitors;
+
+import expressions.Expression;
+import expressions.binary.BinaryExpression;
+import expressions.special.GroupExpression;
+import expressions.terminal.ConstantExpression;
+import expressions.terminal.VariableExpression;
+
+/**
+ * Visitor of a single expression node dispatched by
+ * {@link Expression#accept(NodeVisitor)} on the concrete kind of this node
+ * (double dispatch), so operations depending on the kind of nodes don't need
+ * chains of <code>instanceof</code> tests.
+ * Unlike {@link ExpressionVisitor}s, node visitors don't traverse operands by
+ * themselves: they only decide what to do with the visited node (which may
+ * include accepting them on some of its operands).
+ * @param <E> The type of numbers in visited expressions
+ * @param <R> The type of results produced by this visitor
+ * @see ExpressionVisitor
+ */
+public interface NodeVisitor<E extends Number, R>
+{
+	/**
+	 * Visit a constant
+	 * @param constant the visited constant
+	 * @return the result of this visitor on the constant
+	 */
+	public abstract R visitConstant(ConstantExpression<E> constant);
+
+	/**
+	 * Visit a variable
+	 * @param variable the visited variable
+	 * @return the result of this visitor on the variable
+	 */
+	public abstract R visitVariable(VariableExpression<E> variable);
+
+	/**
+	 * Visit a binary expression (including assignments)
+	 * @param binary the visited binary expression
+	 * @return the result of this visitor on the binary expression
+	 */
+	public abstract R visitBinary(BinaryExpression<E> binary);
+
+	/**
+	 * Visit a group of expressions
+	 * @param group the visited group
+	 * @return the result of this visitor on the group
+	 */
+	public abstract R visitGroup(GroupExpression<E> group);
+}
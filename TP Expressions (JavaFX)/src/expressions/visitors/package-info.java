@@ -0,0 +1,4 @@
+/**
+ * Package containing visitors and iterative traversals of expressions trees
+ */
+package expressions.visitors;
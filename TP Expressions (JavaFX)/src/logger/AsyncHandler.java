@@ -0,0 +1,382 @@
+package logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * Asynchronous {@link Handler} delegating the actual publication of
+ * {@link LogRecord}s to another handler (typically a
+ * {@link java.util.logging.FileHandler}) on a background writer thread.
+ * Records are exchanged through a bounded lock-free ring buffer so that
+ * logging threads (such as the JavaFX Application Thread) never wait for
+ * I/O operations. The writer thread publishes records by batches and flushes
+ * the target handler once per batch.
+ * @implNote Multiple threads may publish records concurrently but only the
+ * writer thread consumes them.
+ * @see LoggerFactory#getLogger(Class, boolean, String, boolean, java.util.logging.Logger, Level, boolean)
+ */
+public class AsyncHandler extends Handler
+{
+	/**
+	 * Policies applied when a record is published while the buffer is full
+	 */
+	public enum DropPolicy
+	{
+		/**
+		 * The new record is dropped (and counted as such)
+		 */
+		DROP,
+		/**
+		 * The publishing thread waits until there is room in the buffer
+		 */
+		BLOCK;
+	}
+
+	/**
+	 * Default ring buffer capacity
+	 */
+	public static final int DEFAULT_CAPACITY = 8192;
+
+	/**
+	 * Default maximum number of records published before flushing target
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 256;
+
+	/**
+	 * Maximum time (in nanoseconds) the writer thread sleeps when idle
+	 */
+	private static final long IDLE_NANOS = 100_000_000L;
+
+	/**
+	 * The handler actually publishing records
+	 */
+	private final Handler target;
+
+	/**
+	 * Ring buffer slots (null slots are either consumed or not yet published)
+	 */
+	private final AtomicReferenceArray<LogRecord> slots;
+
+	/**
+	 * Mask used to compute slot index from sequence number (capacity - 1)
+	 */
+	private final int mask;
+
+	/**
+	 * Next sequence number to claim by producers
+	 */
+	private final AtomicLong tail;
+
+	/**
+	 * Next sequence number to consume by writer thread
+	 */
+	private volatile long head;
+
+	/**
+	 * Number of records handed to target by writer thread (which lags behind
+	 * {@link #head} while a record is being published)
+	 * @see #flush()
+	 */
+	private volatile long published;
+
+	/**
+	 * Maximum number of records published before flushing target
+	 */
+	private final int batchSize;
+
+	/**
+	 * Policy applied when buffer is full
+	 */
+	private final DropPolicy dropPolicy;
+
+	/**
+	 * Number of dropped records not yet reported
+	 */
+	private final LongAdder dropped;
+
+	/**
+	 * Total number of dropped records
+	 */
+	private final LongAdder totalDropped;
+
+	/**
+	 * The background writer thread
+	 */
+	private final Thread writer;
+
+	/**
+	 * Flag indicating writer thread is parked waiting for records
+	 */
+	private volatile boolean idle;
+
+	/**
+	 * Flag indicating this handler has been closed
+	 */
+	private volatile boolean closed;
+
+	/**
+	 * Valued constructor
+	 * @param target the handler actually publishing records
+	 * @param capacity the ring buffer capacity (rounded up to the next power
+	 * of 2)
+	 * @param batchSize maximum number of records published before flushing
+	 * target
+	 * @param dropPolicy the policy to apply when buffer is full
+	 * @throws NullPointerException if target or dropPolicy is null
+	 * @throws IllegalArgumentException if capacity or batchSize are not
+	 * strictly positive
+	 */
+	public AsyncHandler(Handler target,
+	                    int capacity,
+	                    int batchSize,
+	                    DropPolicy dropPolicy)
+	    throws NullPointerException, IllegalArgumentException
+	{
+		if (target == null || dropPolicy == null)
+		{
+			throw new NullPointerException("null target or drop policy");
+		}
+		if (capacity <= 0 || batchSize <= 0)
+		{
+			throw new IllegalArgumentException("invalid capacity or batch size");
+		}
+		this.target = target;
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity)
+		{
+			size <<= 1;
+		}
+		slots = new AtomicReferenceArray<>(size);
+		mask = size - 1;
+		tail = new AtomicLong();
+		head = 0L;
+		published = 0L;
+		this.batchSize = batchSize;
+		this.dropPolicy = dropPolicy;
+		dropped = new LongAdder();
+		totalDropped = new LongAdder();
+		idle = false;
+		closed = false;
+		setLevel(Level.ALL);
+		writer = new Thread(this::drainLoop,
+		                    "AsyncHandler-" + target.getClass().getSimpleName());
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * Constructor with default capacity, batch size and {@link DropPolicy#DROP}
+	 * policy
+	 * @param target the handler actually publishing records
+	 * @throws NullPointerException if target is null
+	 */
+	public AsyncHandler(Handler target) throws NullPointerException
+	{
+		this(target, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE, DropPolicy.DROP);
+	}
+
+	/**
+	 * Enqueue a record to be published by the writer thread
+	 * @param record the record to publish
+	 */
+	@Override
+	public void publish(LogRecord record)
+	{
+		if (closed || !isLoggable(record))
+		{
+			return;
+		}
+		/*
+		 * Source class and method are lazily inferred from the current stack
+		 * so it has to be done before handing the record to another thread
+		 */
+		record.getSourceMethodName();
+
+		for (;;)
+		{
+			long t = tail.get();
+			if (t - head >= slots.length())
+			{
+				if (dropPolicy == DropPolicy.DROP || closed)
+				{
+					dropped.increment();
+					totalDropped.increment();
+					return;
+				}
+				wakeUpWriter();
+				Thread.onSpinWait();
+				continue;
+			}
+			if (tail.compareAndSet(t, t + 1))
+			{
+				slots.set((int) (t & mask), record);
+				break;
+			}
+		}
+		if (idle)
+		{
+			wakeUpWriter();
+		}
+	}
+
+	/**
+	 * Wait until all records published so far have been handed to target
+	 * then flush target
+	 */
+	@Override
+	public void flush()
+	{
+		long t = tail.get();
+		while (published < t && writer.isAlive())
+		{
+			wakeUpWriter();
+			LockSupport.parkNanos(100_000L);
+		}
+		target.flush();
+	}
+
+	/**
+	 * Publish all remaining records, stop writer thread and close target
+	 * @throws SecurityException if a security manager exists and if the
+	 * caller does not have LoggingPermission("control").
+	 */
+	@Override
+	public void close() throws SecurityException
+	{
+		if (closed)
+		{
+			return;
+		}
+		closed = true;
+		wakeUpWriter();
+		try
+		{
+			writer.join();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		target.close();
+	}
+
+	/**
+	 * Closed status accessor
+	 * @return true if this handler has been closed
+	 */
+	public boolean isClosed()
+	{
+		return closed;
+	}
+
+	/**
+	 * Total number of dropped records
+	 * @return the number of records dropped because buffer was full
+	 */
+	public long getDroppedCount()
+	{
+		return totalDropped.sum();
+	}
+
+	/**
+	 * Target handler accessor
+	 * @return the handler actually publishing records
+	 */
+	public Handler getTarget()
+	{
+		return target;
+	}
+
+	/**
+	 * Unpark writer thread
+	 */
+	private void wakeUpWriter()
+	{
+		LockSupport.unpark(writer);
+	}
+
+	/**
+	 * Writer thread main loop: publishes records by batches and flushes
+	 * target after each batch until this handler is closed.
+	 */
+	private void drainLoop()
+	{
+		for (;;)
+		{
+			int count = drainBatch();
+			if (count > 0)
+			{
+				target.flush();
+				continue;
+			}
+			if (closed && head == tail.get())
+			{
+				return;
+			}
+			idle = true;
+			if (head == tail.get() && !closed)
+			{
+				LockSupport.parkNanos(this, IDLE_NANOS);
+			}
+			idle = false;
+		}
+	}
+
+	/**
+	 * Publish at most {@link #batchSize} records to target
+	 * @return the number of records published to target
+	 */
+	private int drainBatch()
+	{
+		int count = 0;
+		long h = head;
+		long lost = dropped.sumThenReset();
+		if (lost > 0)
+		{
+			LogRecord report = new LogRecord(Level.WARNING,
+			                                 lost + " log records dropped");
+			report.setLoggerName(getClass().getName());
+			publishToTarget(report);
+			count++;
+		}
+		while (count < batchSize)
+		{
+			int index = (int) (h & mask);
+			LogRecord record = slots.get(index);
+			if (record == null)
+			{
+				// either empty or slot claimed but not published yet
+				break;
+			}
+			slots.set(index, null);
+			h++;
+			head = h;
+			publishToTarget(record);
+			published = h;
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Publish a record to target handler
+	 * @param record the record to publish
+	 */
+	private void publishToTarget(LogRecord record)
+	{
+		try
+		{
+			target.publish(record);
+		}
+		catch (RuntimeException e)
+		{
+			reportError("Async publication failed", e, ErrorManager.WRITE_FAILURE);
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package logger;
+
+import java.util.Objects;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * {@link Handler} publishing records to the handlers of a logger and of its
+ * ancestors, just as a child logger using its parent handlers would.
+ * Wrapped into an {@link AsyncHandler}, it moves the publication to the
+ * handlers of parent loggers (such as the root logger's console handler)
+ * off the logging thread.
+ * @see LoggerFactory#getLogger(Class, boolean, String, boolean, Logger, Level, boolean)
+ */
+public class ForwardingHandler extends Handler
+{
+	/**
+	 * The first logger whose handlers publish records
+	 */
+	private final Logger parent;
+
+	/**
+	 * Constructor
+	 * @param parent the first logger whose handlers publish records
+	 * @throws NullPointerException if parent is null
+	 */
+	public ForwardingHandler(Logger parent) throws NullPointerException
+	{
+		this.parent = Objects.requireNonNull(parent);
+		setLevel(Level.ALL);
+	}
+
+	/**
+	 * Publish a record to the handlers of {@link #parent} and of its
+	 * ancestors as long as they use their parent handlers
+	 * @param record the record to publish
+	 */
+	@Override
+	public void publish(LogRecord record)
+	{
+		if (!isLoggable(record))
+		{
+			return;
+		}
+		for (Logger logger = parent; logger != null; logger = logger.getParent())
+		{
+			for (Handler handler : logger.getHandlers())
+			{
+				handler.publish(record);
+			}
+			if (!logger.getUseParentHandlers())
+			{
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Flush the handlers of {@link #parent} and of its ancestors
+	 */
+	@Override
+	public void flush()
+	{
+		for (Logger logger = parent; logger != null; logger = logger.getParent())
+		{
+			for (Handler handler : logger.getHandlers())
+			{
+				handler.flush();
+			}
+			if (!logger.getUseParentHandlers())
+			{
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Nothing to close since parent handlers are owned by their loggers
+	 */
+	@Override
+	public void close()
+	{
+		// Parent handlers are closed by the LogManager
+	}
+}
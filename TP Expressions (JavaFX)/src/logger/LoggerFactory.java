@@ -1,6 +1,12 @@
 package logger;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.ConsoleHandler;
 import java.util.logging.FileHandler;
 import java.util.logging.Handler;
 import java.util.logging.Level;
@@ -13,6 +19,36 @@ import java.util.logging.SimpleFormatter;
  */
 public class LoggerFactory
 {
+	/**
+	 * Destination key of the shared asynchronous console handler
+	 * @see #asyncHandlers
+	 */
+	private static final Object ConsoleDestination = new Object();
+
+	/**
+	 * Asynchronous handlers shared by all loggers writing to the same
+	 * destination: the console ({@link #ConsoleDestination}), a parent
+	 * {@link Logger} or a log file name. Each {@link AsyncHandler} owns a
+	 * writer thread, so loggers share them instead of starting one thread
+	 * per logger.
+	 * @see #closeAsyncHandlers()
+	 */
+	private static final Map<Object, AsyncHandler> asyncHandlers = new HashMap<>();
+
+	/**
+	 * Creator of the target handler of a new shared asynchronous handler
+	 */
+	@FunctionalInterface
+	private interface TargetFactory
+	{
+		/**
+		 * Create a target handler
+		 * @return a new target handler
+		 * @throws IOException if the target handler could not be opened
+		 */
+		Handler create() throws IOException;
+	}
+
 	/**
 	 * Factory method for a console logger
 	 * @param <E> the type of client to get logger
@@ -104,6 +140,7 @@ public class LoggerFactory
 	 * @param level Min log level (e.g. FINE, INFO, WARNING, SEVERE)
 	 * @return A general logger
 	 * @throws IOException If the file could not be opened
+	 * @see #getLogger(Class, boolean, String, boolean, Logger, Level, boolean)
 	 */
 	public static <E> Logger getLogger(Class<E> client,
 	                                   boolean verbose,
@@ -112,6 +149,48 @@ public class LoggerFactory
 	                                   Logger parentLogger,
 	                                   Level level)
 	    throws IOException
+	{
+		return getLogger(client,
+		                 verbose,
+		                 logFileName,
+		                 xmlFormat,
+		                 parentLogger,
+		                 level,
+		                 false);
+	}
+
+	/**
+	 * Factory method for a general logger with optional asynchronous handlers
+	 * @param <E> The type of client to the logger
+	 * @param client The logger's client class, used to provide name to logger
+	 * @param verbose True to display messages in console
+	 * @param logFileName File name to log in (or null)
+	 * @param xmlFormat Flag to format output with XML
+	 * @param parentLogger The parent logger (if any)
+	 * @param level Min log level (e.g. FINE, INFO, WARNING, SEVERE)
+	 * @param async True to wrap handlers created by this factory into
+	 * {@link AsyncHandler}s so that log I/O is performed on a background
+	 * thread rather than on the logging thread.
+	 * @return A general logger
+	 * @throws IOException If the file could not be opened
+	 * @implNote When async is true and logger has no parent logger, console
+	 * messages are also handled by an asynchronous {@link ConsoleHandler}
+	 * instead of the root logger's handlers. When it has a parent logger,
+	 * records are handed to the parent handlers (such as the root logger's
+	 * console handler) by an asynchronous {@link ForwardingHandler}.
+	 * @implNote Asynchronous handlers are shared by all loggers writing to
+	 * the same destination (console, parent logger or file name) and are
+	 * added at most once to each logger. They are closed by
+	 * {@link #closeAsyncHandlers()}.
+	 */
+	public static <E> Logger getLogger(Class<E> client,
+	                                   boolean verbose,
+	                                   String logFileName,
+	                                   boolean xmlFormat,
+	                                   Logger parentLogger,
+	                                   Level level,
+	                                   boolean async)
+	    throws IOException
 	{
 		Logger logger = null;
 
@@ -125,6 +204,17 @@ public class LoggerFactory
 				if (parentLogger != null)
 				{
 					logger.setParent(parentLogger);
+					if (async)
+					{
+						/*
+						 * Parent handlers are used by our own asynchronous
+						 * handler rather than on the logging thread
+						 */
+						logger.setUseParentHandlers(false);
+						addHandler(logger,
+						           asyncHandler(parentLogger,
+						                        () -> new ForwardingHandler(parentLogger)));
+					}
 				}
 				else
 				{
@@ -135,6 +225,20 @@ public class LoggerFactory
 						 */
 						logger.setUseParentHandlers(false);
 					}
+					else if (async)
+					{
+						/*
+						 * Console messages are handled by our own
+						 * asynchronous console handler
+						 */
+						logger.setUseParentHandlers(false);
+						addHandler(logger,
+						           asyncHandler(ConsoleDestination, () -> {
+							           Handler console = new ConsoleHandler();
+							           console.setLevel(Level.ALL);
+							           return console;
+						           }));
+					}
 				}
 
 				if (logFileName != null)
@@ -151,18 +255,17 @@ public class LoggerFactory
 					// Add file handler to logger
 					try
 					{
-						Handler handler = new FileHandler(filename);
-						if (!xmlFormat)
+						// Adds file handler to logger
+						if (async)
 						{
-							/*
-							 * Default file formatting will be XML,
-							 * so we need to setup a simple formatter
-							 */
-							handler.setFormatter(new SimpleFormatter());
+							String file = filename;
+							addHandler(logger,
+							           asyncHandler(file, () -> fileHandler(file, xmlFormat)));
+						}
+						else
+						{
+							logger.addHandler(fileHandler(filename, xmlFormat));
 						}
-
-						// Adds file handler to logger
-						logger.addHandler(handler);
 						logger.info("log file created");
 					}
 					catch (IllegalArgumentException e)
@@ -206,4 +309,85 @@ public class LoggerFactory
 
 		return logger;
 	}
+
+	/**
+	 * Close all shared asynchronous handlers: publishes their pending
+	 * records and stops their writer threads.
+	 * @implNote Loggers still refer to closed handlers (which ignore new
+	 * records), so this method is meant to be called when the application
+	 * stops. Loggers requested afterwards get new shared handlers.
+	 * @see #getLogger(Class, boolean, String, boolean, Logger, Level, boolean)
+	 */
+	public static void closeAsyncHandlers()
+	{
+		List<AsyncHandler> handlers;
+		synchronized (asyncHandlers)
+		{
+			handlers = new ArrayList<>(asyncHandlers.values());
+			asyncHandlers.clear();
+		}
+		for (AsyncHandler handler : handlers)
+		{
+			handler.close();
+		}
+	}
+
+	/**
+	 * Create a file handler
+	 * @param filename the name of the file to log in
+	 * @param xmlFormat Flag to format output with XML
+	 * @return a new file handler
+	 * @throws IOException if the file could not be opened
+	 */
+	private static Handler fileHandler(String filename, boolean xmlFormat)
+	    throws IOException
+	{
+		Handler handler = new FileHandler(filename);
+		if (!xmlFormat)
+		{
+			/*
+			 * Default file formatting will be XML,
+			 * so we need to setup a simple formatter
+			 */
+			handler.setFormatter(new SimpleFormatter());
+		}
+		return handler;
+	}
+
+	/**
+	 * Shared asynchronous handler of a destination
+	 * @param destination the destination of records
+	 * @param target the factory of the target handler if there is no open
+	 * shared handler for this destination yet
+	 * @return the open asynchronous handler shared by all loggers writing to
+	 * this destination
+	 * @throws IOException if the target handler could not be opened
+	 */
+	private static AsyncHandler asyncHandler(Object destination, TargetFactory target)
+	    throws IOException
+	{
+		synchronized (asyncHandlers)
+		{
+			AsyncHandler handler = asyncHandlers.get(destination);
+			if ((handler == null) || handler.isClosed())
+			{
+				handler = new AsyncHandler(target.create());
+				asyncHandlers.put(destination, handler);
+			}
+			return handler;
+		}
+	}
+
+	/**
+	 * Add a handler to a logger unless the logger already uses it
+	 * @param logger the logger
+	 * @param handler the handler to add
+	 */
+	private static void addHandler(Logger logger, Handler handler)
+	{
+		if (!Arrays.asList(logger.getHandlers()).contains(handler))
+		{
+			logger.addHandler(handler);
+		}
+	}
 }
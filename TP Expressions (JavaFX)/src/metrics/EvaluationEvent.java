@@ -0,0 +1,37 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event recorded each time a root binary expression (i.e. a whole
+ * formula) is evaluated while {@link Metrics} are enabled
+ */
+@Name("expressions.Evaluation")
+@Label("Expression Evaluation")
+@Category("Expressions")
+@Description("Evaluation of a whole expression")
+class EvaluationEvent extends jdk.jfr.Event
+{
+	/**
+	 * The evaluated formula
+	 */
+	@Label("Formula")
+	String formula;
+
+	/**
+	 * The root operator of the formula
+	 */
+	@Label("Operator")
+	String operator;
+
+	/**
+	 * Evaluation duration
+	 */
+	@Label("Evaluation Time")
+	@Timespan(Timespan.NANOSECONDS)
+	long evaluationTime;
+}
@@ -0,0 +1,134 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread safe histogram of durations (in nanoseconds) using power of 2 buckets.
+ * Bucket i contains durations in [2<sup>i-1</sup>, 2<sup>i</sup>[ so that
+ * percentiles are estimated with a factor 2 precision, which is enough to
+ * spot slow operations, with a constant memory footprint.
+ */
+public class LatencyHistogram
+{
+	/**
+	 * Number of buckets (one per bit of a long)
+	 */
+	private static final int BUCKETS = Long.SIZE + 1;
+
+	/**
+	 * Count of recorded durations per bucket
+	 */
+	private final AtomicLongArray buckets;
+
+	/**
+	 * Number of recorded durations
+	 */
+	private final LongAdder count;
+
+	/**
+	 * Sum of recorded durations
+	 */
+	private final LongAdder total;
+
+	/**
+	 * Maximum recorded duration
+	 */
+	private final AtomicLong max;
+
+	/**
+	 * Default constructor
+	 */
+	public LatencyHistogram()
+	{
+		buckets = new AtomicLongArray(BUCKETS);
+		count = new LongAdder();
+		total = new LongAdder();
+		max = new AtomicLong();
+	}
+
+	/**
+	 * Record a new duration
+	 * @param nanos the duration to record in nanoseconds (negative durations
+	 * are recorded as 0)
+	 */
+	public void record(long nanos)
+	{
+		long duration = Math.max(0L, nanos);
+		buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(duration));
+		count.increment();
+		total.add(duration);
+		max.accumulateAndGet(duration, Math::max);
+	}
+
+	/**
+	 * Number of recorded durations
+	 * @return the number of recorded durations
+	 */
+	public long getCount()
+	{
+		return count.sum();
+	}
+
+	/**
+	 * Mean recorded duration
+	 * @return the mean recorded duration in nanoseconds or 0 if no durations
+	 * have been recorded
+	 */
+	public double getMean()
+	{
+		long n = count.sum();
+		return n == 0 ? 0.0 : (double) total.sum() / n;
+	}
+
+	/**
+	 * Maximum recorded duration
+	 * @return the maximum recorded duration in nanoseconds
+	 */
+	public long getMax()
+	{
+		return max.get();
+	}
+
+	/**
+	 * Estimated percentile of recorded durations
+	 * @param percentile the required percentile in [0..100]
+	 * @return the upper bound (in nanoseconds) of the bucket containing the
+	 * required percentile or 0 if no durations have been recorded
+	 */
+	public long getPercentile(double percentile)
+	{
+		long n = count.sum();
+		if (n == 0)
+		{
+			return 0L;
+		}
+		long rank = (long) Math.ceil((Math.min(100.0, Math.max(0.0, percentile)) / 100.0) * n);
+		long cumulated = 0L;
+		for (int i = 0; i < BUCKETS; i++)
+		{
+			cumulated += buckets.get(i);
+			if ((cumulated >= rank) && (cumulated > 0))
+			{
+				long upperBound = i >= (Long.SIZE - 1) ? Long.MAX_VALUE : (1L << i) - 1;
+				return Math.min(max.get(), upperBound);
+			}
+		}
+		return max.get();
+	}
+
+	/**
+	 * Clears all recorded durations
+	 */
+	public void reset()
+	{
+		for (int i = 0; i < BUCKETS; i++)
+		{
+			buckets.set(i, 0L);
+		}
+		count.reset();
+		total.reset();
+		max.set(0L);
+	}
+}
@@ -0,0 +1,325 @@
+package metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import expressions.Expression;
+import expressions.binary.BinaryExpression;
+import expressions.binary.BinaryOperatorRules;
+import expressions.visitors.ExpressionVisitor;
+import expressions.visitors.ExpressionWalker;
+import logger.LoggerFactory;
+import utils.FlyweightFactory;
+
+/**
+ * Opt-in instrumentation of parsing, evaluation and model updates.
+ * Collected data comprises:
+ * <ul>
+ * 	<li>parse time per context, number of nodes and depth of parsed expressions
+ * 	(see {@link parser.ExpressionParser#parse(String)})</li>
+ * 	<li>evaluations count and latency histograms per
+ * 	{@link BinaryOperatorRules} (see {@link BinaryExpression#value()})</li>
+ * 	<li>expressions tree update times (see
+ * 	{@link expressions.models.ExpressionsModel})</li>
+ * 	<li>hit ratios of registered caches</li>
+ * </ul>
+ * These data are exposed through a {@link MetricsMXBean} (see
+ * {@link #registerMBean()}) and JFR events ("expressions.Parse" and
+ * "expressions.Evaluation").
+ * @implSpec Metrics are disabled by default (unless the "expressions.metrics"
+ * system property is set to true) and can be enabled with
+ * {@link #setEnabled(boolean)} or through JMX. When disabled, instrumented
+ * code only reads {@link #enabled}.
+ * @implNote Evaluation latencies per operator are inclusive: they comprise
+ * evaluation time of sub-expressions.
+ */
+public class Metrics
+{
+	/**
+	 * JMX name of the {@link MetricsMXBean}
+	 */
+	public static final String MBEAN_NAME = "expressions:type=Metrics";
+
+	/**
+	 * Logger reporting metrics which can't be exposed
+	 */
+	private static final Logger logger =
+	    LoggerFactory.getParentLogger(Metrics.class, null, Level.INFO);
+
+	/**
+	 * Flag indicating metrics are collected
+	 */
+	private static volatile boolean enabled =
+		Boolean.getBoolean("expressions.metrics");
+
+	/**
+	 * Parse time per context
+	 */
+	private static final LatencyHistogram parseTimes = new LatencyHistogram();
+
+	/**
+	 * Total number of nodes in parsed expressions
+	 */
+	private static final LongAdder parsedNodes = new LongAdder();
+
+	/**
+	 * Maximum depth of parsed expressions
+	 */
+	private static final AtomicInteger maxParsedDepth = new AtomicInteger();
+
+	/**
+	 * Evaluation latencies per operator
+	 */
+	private static final Map<BinaryOperatorRules, LatencyHistogram> evaluations =
+		new EnumMap<>(BinaryOperatorRules.class);
+
+	/**
+	 * Expressions tree update times
+	 */
+	private static final LatencyHistogram modelUpdates = new LatencyHistogram();
+
+	/**
+	 * Registered caches by name
+	 */
+	private static final Map<String, FlyweightFactory<?>> caches =
+		new ConcurrentHashMap<>();
+
+	static
+	{
+		for (BinaryOperatorRules rules : BinaryOperatorRules.values())
+		{
+			evaluations.put(rules, new LatencyHistogram());
+		}
+	}
+
+	/**
+	 * Private constructor since this class only provides static methods
+	 */
+	private Metrics()
+	{
+	}
+
+	/**
+	 * Indicate if metrics are collected
+	 * @return true if metrics are collected
+	 */
+	public static boolean isEnabled()
+	{
+		return enabled;
+	}
+
+	/**
+	 * Enable or disable metrics collection
+	 * @param enabled the new collection state
+	 */
+	public static void setEnabled(boolean enabled)
+	{
+		Metrics.enabled = enabled;
+	}
+
+	/**
+	 * Register the {@link MetricsMXBean} in the platform MBean server (if not
+	 * already registered)
+	 * @return true if the MBean is registered
+	 */
+	public static boolean registerMBean()
+	{
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try
+		{
+			server.registerMBean(new MetricsBean(), new ObjectName(MBEAN_NAME));
+			return true;
+		}
+		catch (InstanceAlreadyExistsException e)
+		{
+			return true;
+		}
+		catch (JMException e)
+		{
+			logger.warning("could not register MBean: " + e.getLocalizedMessage());
+			return false;
+		}
+	}
+
+	/**
+	 * Register a cache whose statistics should be exposed
+	 * @param name the name of the cache
+	 * @param cache the cache to register
+	 */
+	public static void registerCache(String name, FlyweightFactory<?> cache)
+	{
+		caches.put(name, cache);
+	}
+
+	/**
+	 * Record the parsing of a single context
+	 * @param context the parsed context
+	 * @param nanos parsing duration in nanoseconds
+	 * @param expression the resulting expression
+	 */
+	public static void recordParse(String context, long nanos, Expression<?> expression)
+	{
+		int[] nodesAndDepth = measure(expression);
+		parseTimes.record(nanos);
+		parsedNodes.add(nodesAndDepth[0]);
+		maxParsedDepth.accumulateAndGet(nodesAndDepth[1], Math::max);
+
+		ParseEvent event = new ParseEvent();
+		if (event.isEnabled())
+		{
+			event.context = context;
+			event.nodes = nodesAndDepth[0];
+			event.depth = nodesAndDepth[1];
+			event.parseTime = nanos;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Record the evaluation of a binary expression
+	 * @param expression the evaluated expression
+	 * @param nanos evaluation duration in nanoseconds
+	 * @implNote if the evaluated expression is a root expression (a formula)
+	 * a JFR "expressions.Evaluation" event is also recorded
+	 */
+	public static void recordEvaluation(BinaryExpression<?> expression, long nanos)
+	{
+		evaluations.get(expression.getRules()).record(nanos);
+		if (!(expression.getParent() instanceof BinaryExpression<?>))
+		{
+			EvaluationEvent event = new EvaluationEvent();
+			if (event.isEnabled())
+			{
+				event.formula = expression.toString();
+				event.operator = expression.getRules().toString();
+				event.evaluationTime = nanos;
+				event.commit();
+			}
+		}
+	}
+
+	/**
+	 * Record an update of an expressions tree
+	 * @param nanos update duration in nanoseconds
+	 */
+	public static void recordModelUpdate(long nanos)
+	{
+		modelUpdates.record(nanos);
+	}
+
+	/**
+	 * Parse times histogram accessor
+	 * @return the histogram of parse time per context
+	 */
+	public static LatencyHistogram getParseTimes()
+	{
+		return parseTimes;
+	}
+
+	/**
+	 * Total number of nodes in parsed expressions
+	 * @return the total number of nodes in parsed expressions
+	 */
+	public static long getParsedNodes()
+	{
+		return parsedNodes.sum();
+	}
+
+	/**
+	 * Maximum depth of parsed expressions
+	 * @return the maximum depth of parsed expressions
+	 */
+	public static int getMaxParsedDepth()
+	{
+		return maxParsedDepth.get();
+	}
+
+	/**
+	 * Evaluation latencies histogram accessor
+	 * @param rules the operator
+	 * @return the histogram of evaluation latencies of this operator
+	 */
+	public static LatencyHistogram getEvaluations(BinaryOperatorRules rules)
+	{
+		return evaluations.get(rules);
+	}
+
+	/**
+	 * Expressions tree updates histogram accessor
+	 * @return the histogram of expressions tree update times
+	 */
+	public static LatencyHistogram getModelUpdates()
+	{
+		return modelUpdates;
+	}
+
+	/**
+	 * Registered caches accessor
+	 * @return an unmodifiable view of registered caches by name
+	 */
+	public static Map<String, FlyweightFactory<?>> getCaches()
+	{
+		return Collections.unmodifiableMap(caches);
+	}
+
+	/**
+	 * Clears all collected metrics (registered caches statistics are kept)
+	 */
+	public static void reset()
+	{
+		parseTimes.reset();
+		parsedNodes.reset();
+		maxParsedDepth.set(0);
+		for (LatencyHistogram histogram : evaluations.values())
+		{
+			histogram.reset();
+		}
+		modelUpdates.reset();
+	}
+
+	/**
+	 * Measure number of nodes and depth of an expression
+	 * @param <E> The type of numbers in expression
+	 * @param expression the expression to measure
+	 * @return an array containing number of nodes and max depth
+	 * @implNote measured iteratively so expressions of any depth can be
+	 * measured
+	 */
+	private static <E extends Number> int[] measure(Expression<E> expression)
+	{
+		int[] nodesAndDepth = new int[2];
+		if (expression == null)
+		{
+			return nodesAndDepth;
+		}
+		nodesAndDepth[1] = ExpressionWalker.walk(expression, new ExpressionVisitor<E, Integer>()
+		{
+			@Override
+			public Integer visitLeaf(Expression<E> leaf)
+			{
+				nodesAndDepth[0]++;
+				return 1;
+			}
+
+			@Override
+			public Integer visitBinary(BinaryExpression<E> binary, Integer left, Integer right)
+			{
+				nodesAndDepth[0]++;
+				return 1 + Math.max(left == null ? 0 : left, right == null ? 0 : right);
+			}
+		});
+		return nodesAndDepth;
+	}
+}
@@ -0,0 +1,124 @@
+package metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import expressions.binary.BinaryOperatorRules;
+import utils.FlyweightFactory;
+
+/**
+ * {@link MetricsMXBean} implementation delegating to {@link Metrics}
+ */
+class MetricsBean implements MetricsMXBean
+{
+	/**
+	 * Nanoseconds per microsecond
+	 */
+	private static final double NANOS_PER_MICRO = 1000.0;
+
+	@Override
+	public boolean isEnabled()
+	{
+		return Metrics.isEnabled();
+	}
+
+	@Override
+	public void setEnabled(boolean enabled)
+	{
+		Metrics.setEnabled(enabled);
+	}
+
+	@Override
+	public long getParseCount()
+	{
+		return Metrics.getParseTimes().getCount();
+	}
+
+	@Override
+	public double getMeanParseMicros()
+	{
+		return Metrics.getParseTimes().getMean() / NANOS_PER_MICRO;
+	}
+
+	@Override
+	public double getP99ParseMicros()
+	{
+		return Metrics.getParseTimes().getPercentile(99.0) / NANOS_PER_MICRO;
+	}
+
+	@Override
+	public long getParsedNodeCount()
+	{
+		return Metrics.getParsedNodes();
+	}
+
+	@Override
+	public int getMaxParsedDepth()
+	{
+		return Metrics.getMaxParsedDepth();
+	}
+
+	@Override
+	public Map<String, Long> getEvaluationCounts()
+	{
+		Map<String, Long> result = new TreeMap<>();
+		for (BinaryOperatorRules rules : BinaryOperatorRules.values())
+		{
+			result.put(rules.name(), Metrics.getEvaluations(rules).getCount());
+		}
+		return result;
+	}
+
+	@Override
+	public Map<String, Double> getMeanEvaluationMicros()
+	{
+		Map<String, Double> result = new TreeMap<>();
+		for (BinaryOperatorRules rules : BinaryOperatorRules.values())
+		{
+			result.put(rules.name(),
+			           Metrics.getEvaluations(rules).getMean() / NANOS_PER_MICRO);
+		}
+		return result;
+	}
+
+	@Override
+	public Map<String, Double> getP99EvaluationMicros()
+	{
+		Map<String, Double> result = new TreeMap<>();
+		for (BinaryOperatorRules rules : BinaryOperatorRules.values())
+		{
+			result.put(rules.name(),
+			           Metrics.getEvaluations(rules).getPercentile(99.0) / NANOS_PER_MICRO);
+		}
+		return result;
+	}
+
+	@Override
+	public long getModelUpdateCount()
+	{
+		return Metrics.getModelUpdates().getCount();
+	}
+
+	@Override
+	public double getMeanModelUpdateMicros()
+	{
+		return Metrics.getModelUpdates().getMean() / NANOS_PER_MICRO;
+	}
+
+	@Override
+	public Map<String, Double> getCacheHitRatios()
+	{
+		Map<String, Double> result = new TreeMap<>();
+		for (Map.Entry<String, FlyweightFactory<?>> entry : Metrics.getCaches().entrySet())
+		{
+			result.put(entry.getKey(), entry.getValue().getHitRatio());
+		}
+		return result;
+	}
+
+	@Override
+	public void reset()
+	{
+		Metrics.reset();
+	}
+}
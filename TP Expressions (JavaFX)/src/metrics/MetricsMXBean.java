@@ -0,0 +1,96 @@
+package metrics;
+
+import java.util.Map;
+
+/**
+ * JMX management interface exposing {@link Metrics}.
+ * Durations are expressed in microseconds.
+ * @see Metrics#registerMBean()
+ */
+public interface MetricsMXBean
+{
+	/**
+	 * Indicate if metrics are collected
+	 * @return true if metrics are collected
+	 */
+	public abstract boolean isEnabled();
+
+	/**
+	 * Enable or disable metrics collection
+	 * @param enabled the new collection state
+	 */
+	public abstract void setEnabled(boolean enabled);
+
+	/**
+	 * Number of parsed contexts
+	 * @return the number of parsed contexts
+	 */
+	public abstract long getParseCount();
+
+	/**
+	 * Mean parse time per context
+	 * @return the mean parse time per context in microseconds
+	 */
+	public abstract double getMeanParseMicros();
+
+	/**
+	 * 99th percentile of parse time per context
+	 * @return the estimated 99th percentile of parse time in microseconds
+	 */
+	public abstract double getP99ParseMicros();
+
+	/**
+	 * Total number of nodes in parsed expressions
+	 * @return the total number of nodes in parsed expressions
+	 */
+	public abstract long getParsedNodeCount();
+
+	/**
+	 * Maximum depth of parsed expressions
+	 * @return the maximum depth of parsed expressions
+	 */
+	public abstract int getMaxParsedDepth();
+
+	/**
+	 * Number of evaluations per operator
+	 * @return a map relating operators to their number of evaluations
+	 */
+	public abstract Map<String, Long> getEvaluationCounts();
+
+	/**
+	 * Mean evaluation latency per operator
+	 * @return a map relating operators to their mean evaluation latency
+	 * in microseconds
+	 */
+	public abstract Map<String, Double> getMeanEvaluationMicros();
+
+	/**
+	 * 99th percentile of evaluation latency per operator
+	 * @return a map relating operators to the estimated 99th percentile of
+	 * their evaluation latency in microseconds
+	 */
+	public abstract Map<String, Double> getP99EvaluationMicros();
+
+	/**
+	 * Number of expressions tree updates
+	 * @return the number of expressions tree updates
+	 */
+	public abstract long getModelUpdateCount();
+
+	/**
+	 * Mean expressions tree update time
+	 * @return the mean expressions tree update time in microseconds
+	 */
+	public abstract double getMeanModelUpdateMicros();
+
+	/**
+	 * Hit ratio of registered caches
+	 * @return a map relating caches names to their hit ratio
+	 */
+	public abstract Map<String, Double> getCacheHitRatios();
+
+	/**
+	 * Clears all collected metrics
+	 */
+	public abstract void reset();
+}
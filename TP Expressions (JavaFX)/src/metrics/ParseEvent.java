@@ -0,0 +1,43 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event recorded each time a single context (e.g. "a = b + 2") is parsed
+ * while {@link Metrics} are enabled
+ */
+@Name("expressions.Parse")
+@Label("Expression Parsing")
+@Category("Expressions")
+@Description("Parsing of a single context")
+class ParseEvent extends jdk.jfr.Event
+{
+	/**
+	 * The parsed context
+	 */
+	@Label("Context")
+	String context;
+
+	/**
+	 * Number of nodes in the resulting expression tree
+	 */
+	@Label("Nodes")
+	int nodes;
+
+	/**
+	 * Depth of the resulting expression tree
+	 */
+	@Label("Depth")
+	int depth;
+
+	/**
+	 * Parsing duration
+	 */
+	@Label("Parse Time")
+	@Timespan(Timespan.NANOSECONDS)
+	long parseTime;
+}
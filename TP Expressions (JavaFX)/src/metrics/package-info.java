@@ -0,0 +1,5 @@
+/**
+ * Package containing opt-in instrumentation of parsing and evaluation
+ * exposed through JMX and JFR
+ */
+package metrics;
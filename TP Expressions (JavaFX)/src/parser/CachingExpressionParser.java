@@ -0,0 +1,257 @@
+package parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import expressions.Expression;
+import expressions.binary.AdditionExpression;
+import expressions.binary.AssignmentExpression;
+import expressions.binary.BinaryExpression;
+import expressions.binary.BinaryOperatorRules;
+import expressions.binary.DivisionExpression;
+import expressions.binary.MultiplicationExpression;
+import expressions.binary.PowerExpression;
+import expressions.binary.SubtractionExpression;
+import expressions.terminal.ConstantExpression;
+import expressions.terminal.VariableExpression;
+import expressions.visitors.ExpressionVisitor;
+import expressions.visitors.ExpressionWalker;
+import metrics.Metrics;
+import parser.exceptions.ParserException;
+import utils.FlyweightFactory;
+
+/**
+ * {@link ExpressionParser} serving parsed expressions from a cache shared by
+ * all caching parsers.
+ * Each context is split into sub-contexts (separated by
+ * {@link ExpressionParser#Separator}) which are looked up in the cache by
+ * number class and (trimmed) source text. Only sub-contexts missing from the
+ * cache are actually parsed.
+ * @implSpec Since expressions are linked to their parents, cached expressions
+ * are never handed out: each lookup returns a fresh copy of the cached
+ * expression, built with the same constructors and setters as the parser
+ * (so variables are registered and assignments performed just as if the
+ * sub-context had been parsed).
+ * @implNote The cache is a size bounded LRU {@link FlyweightFactory} whose
+ * statistics are registered in {@link Metrics} as "parser". Sub-contexts
+ * which can't be parsed are not cached.
+ * @param <E> The type of numbers in parsed expressions
+ */
+public class CachingExpressionParser<E extends Number> extends ExpressionParser<E>
+{
+	/**
+	 * Default maximum number of cached sub-contexts
+	 */
+	public static final int DEFAULT_CACHE_SIZE = 4096;
+
+	/**
+	 * Key of parsed expressions in {@link #cache}
+	 * @param numberClass the class of numbers in parsed expression
+	 * @param source the trimmed source text of the sub-context
+	 */
+	private record Key(Class<? extends Number> numberClass, String source)
+	{
+	}
+
+	/**
+	 * Exception thrown by cache loader to carry a {@link ParserException}
+	 */
+	private static class ParseFailure extends RuntimeException
+	{
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Constructor
+		 * @param cause the parser exception
+		 */
+		ParseFailure(ParserException cause)
+		{
+			super(cause);
+		}
+	}
+
+	/**
+	 * Cache of parsed expressions shared by all caching parsers
+	 */
+	private static final FlyweightFactory<Expression<? extends Number>> cache =
+		new FlyweightFactory<>(FlyweightFactory.Policy.LRU,
+		                       DEFAULT_CACHE_SIZE,
+		                       null);
+
+	static
+	{
+		Metrics.registerCache("parser", cache);
+	}
+
+	/**
+	 * Constructor
+	 * @param specimen A specimen to provide the Number class for expressions
+	 * @apiNote Caution : the specimen's class must match the type parameter
+	 * E of this expression parser.
+	 */
+	public CachingExpressionParser(Number specimen)
+	{
+		super(specimen);
+	}
+
+	/**
+	 * Cache accessor
+	 * @return the cache shared by all caching parsers (e.g. to get its
+	 * statistics)
+	 */
+	public static FlyweightFactory<Expression<? extends Number>> getCache()
+	{
+		return cache;
+	}
+
+	/**
+	 * Parse multiple infix expressions from string
+	 * (e.g. "100 * b + 12 / 14; b = 13") into a list of
+	 * {@link Expression} using cached expressions whenever possible.
+	 * @param context the context string to interpret
+	 * @return a list of new expressions corresponding to each part of the
+	 * context
+	 * @throws ParserException One of the various sub-classes of
+	 * {@link ParserException} if there was a non recoverable parser error.
+	 * The {@link ParserException#getOffset()} of the thrown exception is
+	 * relative to the provided context.
+	 */
+	@Override
+	@SuppressWarnings("unchecked") // cached expressions are keyed by number class
+	public List<Expression<E>> parse(String context) throws ParserException
+	{
+		String[] subContexts = context.split(Separator);
+		List<Expression<E>> expressionList = new ArrayList<>(subContexts.length);
+		int offset = 0;
+		for (String subContext : subContexts)
+		{
+			String source = subContext.trim();
+			if (source.isEmpty())
+			{
+				try
+				{
+					expressionList.addAll(super.parse(subContext));
+				}
+				catch (ParserException e)
+				{
+					throw e.shift(offset);
+				}
+				offset += subContext.length() + Separator.length();
+				continue;
+			}
+			Expression<E> cached;
+			try
+			{
+				cached = (Expression<E>) cache.get(new Key(getNumberClass(), source),
+				                                   this::parseSingle);
+			}
+			catch (ParseFailure e)
+			{
+				// Source has been trimmed: locate error within the sub-context
+				throw ((ParserException) e.getCause()).shift(offset + subContext.indexOf(source));
+			}
+			expressionList.add(cached == null ? null : copy(cached));
+			offset += subContext.length() + Separator.length();
+		}
+		return expressionList;
+	}
+
+	/**
+	 * Parse a single sub-context on cache miss
+	 * @param key the key containing the sub-context to parse
+	 * @return the parsed expression
+	 * @throws ParseFailure if sub-context can't be parsed
+	 */
+	private Expression<E> parseSingle(Key key) throws ParseFailure
+	{
+		try
+		{
+			List<Expression<E>> parsed = super.parse(key.source());
+			return parsed.isEmpty() ? null : parsed.get(0);
+		}
+		catch (ParserException e)
+		{
+			throw new ParseFailure(e);
+		}
+	}
+
+	/**
+	 * Deep copy of a parsed expression
+	 * @param <E> The type of numbers in expression
+	 * @param expression the expression to copy
+	 * @return a new expression equal to the provided expression without parent
+	 * @throws UnsupportedOperationException if expression contains nodes which
+	 * can't be produced by a parser
+	 * @implNote Copied bottom-up with {@link ExpressionWalker#walk(Expression, ExpressionVisitor)}
+	 * so expressions of any depth can be copied. As with the parser, operands
+	 * are copied (and their assignments performed) from left to right before
+	 * their operator.
+	 */
+	private static <E extends Number> Expression<E> copy(Expression<E> expression)
+	    throws UnsupportedOperationException
+	{
+		if (expression == null)
+		{
+			return null;
+		}
+		return ExpressionWalker.walk(expression, new ExpressionVisitor<E, Expression<E>>()
+		{
+			@Override
+			public Expression<E> visitLeaf(Expression<E> leaf)
+			    throws UnsupportedOperationException
+			{
+				if (leaf instanceof ConstantExpression<E> constant)
+				{
+					return new ConstantExpression<E>(constant.value());
+				}
+				if (leaf instanceof VariableExpression<E> variable)
+				{
+					return new VariableExpression<E>(variable.getName());
+				}
+				throw new UnsupportedOperationException("Can't copy "
+				    + leaf.getClass().getSimpleName());
+			}
+
+			@Override
+			public Expression<E> visitBinary(BinaryExpression<E> binary,
+			                                 Expression<E> left,
+			                                 Expression<E> right)
+			{
+				BinaryExpression<E> operator = newOperator(binary.getRules());
+				// Same order as the parser so assignments behave the same
+				operator.setRight(right);
+				operator.setLeft(left);
+				return operator;
+			}
+		});
+	}
+
+	/**
+	 * Creates an operator without operands
+	 * @param <E> The type of numbers in operator
+	 * @param rules the rules of the operator to create
+	 * @return a new operator
+	 * @throws AssertionError for unexpected rules
+	 */
+	private static <E extends Number> BinaryExpression<E> newOperator(BinaryOperatorRules rules)
+	    throws AssertionError
+	{
+		switch (rules)
+		{
+			case ASSIGNMENT:
+				return new AssignmentExpression<E>();
+			case ADDITION:
+				return new AdditionExpression<E>();
+			case SUBTRACTION:
+				return new SubtractionExpression<E>();
+			case MULTIPLICATION:
+				return new MultiplicationExpression<E>();
+			case DIVISION:
+				return new DivisionExpression<E>();
+			case POWER:
+				return new PowerExpression<E>();
+			default:
+				throw new AssertionError("Unexpected operator rules " + rules);
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package parser;
+
+import java.util.Objects;
+
+import parser.exceptions.ParserException;
+
+/**
+ * Position-aware report of a {@link ParserException} raised while parsing a
+ * sub-context in error-recovering mode
+ * @see ExpressionParser#parse(String, int, int, java.util.List)
+ */
+public final class Diagnostic
+{
+	/**
+	 * The line of the error (1-based)
+	 */
+	private final int line;
+
+	/**
+	 * The column of the error (1-based)
+	 */
+	private final int column;
+
+	/**
+	 * The invalid sub-context which has been skipped
+	 */
+	private final String source;
+
+	/**
+	 * The exception raised while parsing {@link #source}
+	 */
+	private final ParserException exception;
+
+	/**
+	 * Constructor
+	 * @param line the line of the error (1-based)
+	 * @param column the column of the error (1-based)
+	 * @param source the invalid sub-context which has been skipped
+	 * @param exception the exception raised while parsing source
+	 * @throws NullPointerException if source or exception are null
+	 */
+	public Diagnostic(int line, int column, String source, ParserException exception)
+	    throws NullPointerException
+	{
+		this.line = line;
+		this.column = column;
+		this.source = Objects.requireNonNull(source);
+		this.exception = Objects.requireNonNull(exception);
+	}
+
+	/**
+	 * Line accessor
+	 * @return the line of the error (1-based)
+	 */
+	public int getLine()
+	{
+		return line;
+	}
+
+	/**
+	 * Column accessor
+	 * @return the column of the error (1-based)
+	 */
+	public int getColumn()
+	{
+		return column;
+	}
+
+	/**
+	 * Source accessor
+	 * @return the invalid sub-context which has been skipped
+	 */
+	public String getSource()
+	{
+		return source;
+	}
+
+	/**
+	 * Exception accessor
+	 * @return the exception raised while parsing {@link #getSource()}
+	 */
+	public ParserException getException()
+	{
+		return exception;
+	}
+
+	/**
+	 * String representation of this diagnostic
+	 * @return a string such as "12:5: message in "source""
+	 */
+	@Override
+	public String toString()
+	{
+		return line + ":" + column + ": " + exception.getLocalizedMessage()
+		    + " in \"" + source.trim() + "\"";
+	}
+}
@@ -2,6 +2,7 @@ package parser;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Stack;
 
 import expressions.Expression;
@@ -14,6 +15,8 @@ import expressions.binary.PowerExpression;
 import expressions.binary.SubtractionExpression;
 import expressions.terminal.ConstantExpression;
 import expressions.terminal.VariableExpression;
+import expressions.visitors.ExpressionWalker;
+import metrics.Metrics;
 import parser.exceptions.IllegalAssignmentException;
 import parser.exceptions.IllegalPostParsingStateException;
 import parser.exceptions.IndirectParserException;
@@ -81,6 +84,15 @@ public class ExpressionParser<E extends Number>
 		contexts = new Stack<Context<E>>();
 	}
 
+	/**
+	 * Number class accessor
+	 * @return the class of numbers in expressions produced by this parser
+	 */
+	public Class<? extends Number> getNumberClass()
+	{
+		return numberClass;
+	}
+
 	/**
 	 * Determine if a character is a digit
 	 * @param c the character to examine
@@ -253,7 +265,15 @@ public class ExpressionParser<E extends Number>
 			                                       (end - start - 1));
 			if (braceCount == 0) // We found a matching brace : subContext is ok
 			{
-				Expression<E> expression = parseSingleContext(subContext);
+				Expression<E> expression;
+				try
+				{
+					expression = parseSingleContext(subContext);
+				}
+				catch (ParserException e)
+				{
+					throw e.shift(start + 1);
+				}
 				if (currentContext != null)
 				{
 					currentContext.getOperandsStack().push(expression);
@@ -266,7 +286,7 @@ public class ExpressionParser<E extends Number>
 			}
 			else
 			{
-				throw new UnfinishedSubContextException(subContext);
+				throw new UnfinishedSubContextException(subContext).locate(start);
 			}
 		}
 		return start;
@@ -492,48 +512,16 @@ public class ExpressionParser<E extends Number>
 	private static <E extends Number> boolean findIn(Expression<E> expression,
 	                                                 VariableExpression<E> variable)
 	{
-		if (expression == null)
-		{
-			return false;
-		}
 		if (variable == null)
 		{
 			return false;
 		}
 
-		if (variable == expression)
-		{
-			return true;
-		}
-		else
-		{
-			if (expression instanceof VariableExpression<?>)
-			{
-				VariableExpression<E> var = (VariableExpression<E>) expression;
-				if (var.getName().equals(variable.getName()))
-				{
-					return true;
-				}
-			}
-			else
-			{
-				if (expression instanceof BinaryExpression<?>)
-				{
-					BinaryExpression<E> binop =
-					    (BinaryExpression<E>) expression;
-					Expression<E> left = binop.getLeft();
-					boolean found = false;
-					found = findIn(left, variable);
-					if (!found)
-					{
-						Expression<E> right = binop.getRight();
-						found = findIn(right, variable);
-					}
-					return found;
-				}
-			}
-		}
-		return false;
+		// Searched iteratively so expressions of any depth can be searched
+		return ExpressionWalker.anyMatch(expression,
+		                                 node -> node == variable
+		                                     || ((node instanceof VariableExpression<E> var)
+		                                         && var.getName().equals(variable.getName())));
 	}
 
 	/**
@@ -555,24 +543,37 @@ public class ExpressionParser<E extends Number>
 	 * @return a list of expressions corresponding to each part o the context
 	 * @throws ParserException One of the various sub-classes of
 	 * {@link ParserException} if there was a non recoverable parser error.
+	 * The {@link ParserException#getOffset()} of the thrown exception is
+	 * relative to the provided context.
+	 * @implNote parse time, number of nodes and depth of each context are
+	 * recorded when {@link Metrics} are enabled
 	 */
 	public List<Expression<E>> parse(String context) throws ParserException
 	{
 		List<Expression<E>> expressionList = new ArrayList<>();
 		String[] subContexts = context.split(Separator);
+		int offset = 0;
 
 		for (int s = 0; s < subContexts.length; s++)
 		{
 			try
 			{
+				long start = Metrics.isEnabled() ? System.nanoTime() : 0L;
 				Expression<E> expression = parseSingleContext(subContexts[s]);
+				if (Metrics.isEnabled())
+				{
+					Metrics.recordParse(subContexts[s],
+					                    System.nanoTime() - start,
+					                    expression);
+				}
 				expressionList.add(expression);
 			}
 			catch (ParserException pe)
 			{
 				clearContexts();
-				throw pe;
+				throw pe.shift(offset);
 			}
+			offset += subContexts[s].length() + Separator.length();
 		}
 
 		if (!contexts.isEmpty())
@@ -583,6 +584,57 @@ public class ExpressionParser<E extends Number>
 		return expressionList;
 	}
 
+	/**
+	 * Parse multiple infix expressions from string (e.g. one line of a file)
+	 * while recovering from errors: each sub-context separated by
+	 * {@link #Separator} is parsed independently so an invalid sub-context
+	 * is reported in diagnostics and skipped while parsing resumes with the
+	 * next one.
+	 * @param context the context string to interpret
+	 * @param line the line number of the context (1-based) used to report
+	 * diagnostics
+	 * @param column the column of the first character of the context
+	 * (1-based) used to report diagnostics
+	 * @param diagnostics the list to which diagnostics of invalid
+	 * sub-contexts are added
+	 * @return a list of expressions corresponding to each valid part of the
+	 * context
+	 * @throws NullPointerException if context or diagnostics are null
+	 * @implNote each sub-context is parsed with {@link #parse(String)} so
+	 * sub-classes overriding it (such as {@link CachingExpressionParser}) are
+	 * used in this mode too.
+	 */
+	public List<Expression<E>> parse(String context,
+	                                 int line,
+	                                 int column,
+	                                 List<Diagnostic> diagnostics)
+	    throws NullPointerException
+	{
+		Objects.requireNonNull(diagnostics);
+		List<Expression<E>> expressionList = new ArrayList<>();
+		String[] subContexts = context.split(Separator);
+		int offset = 0;
+
+		for (int s = 0; s < subContexts.length; s++)
+		{
+			try
+			{
+				expressionList.addAll(parse(subContexts[s]));
+			}
+			catch (ParserException pe)
+			{
+				int position = pe.getOffset() < 0 ? 0 : pe.getOffset();
+				diagnostics.add(new Diagnostic(line,
+				                               column + offset + position,
+				                               subContexts[s],
+				                               pe));
+			}
+			offset += subContexts[s].length() + Separator.length();
+		}
+
+		return expressionList;
+	}
+
 	/**
 	 * Parse an infix expression string (e.g. "100 * b + 12 / 14")
 	 * into an {@link Expression}
@@ -648,7 +700,7 @@ public class ExpressionParser<E extends Number>
 						}
 						else
 						{
-							throw new MultipleAssignmentsException();
+							throw new MultipleAssignmentsException().locate(i);
 						}
 						break;
 					case '+':
@@ -672,10 +724,17 @@ public class ExpressionParser<E extends Number>
 				// Pop operator top from operators stack and
 				// Pop 2 top operands from operands stack and apply them to operator
 				// Then push the composed operator to operands stack
-				while (!operators.empty() && (operators.peek().getRules()
-				    .priority() >= binop.getRules().priority()))
+				try
+				{
+					while (!operators.empty() && (operators.peek().getRules()
+					    .priority() >= binop.getRules().priority()))
+					{
+						popOperatorAndPush2Operands();
+					}
+				}
+				catch (ParserException e)
 				{
-					popOperatorAndPush2Operands();
+					throw e.locate(i);
 				}
 
 				// DONE Push newly created binop to operators.
@@ -694,14 +753,22 @@ public class ExpressionParser<E extends Number>
 			}
 
 			// If we reached that point something went wrong
-			throw new UnknownTokenException(tokens[i]);
+			throw new UnknownTokenException(tokens[i]).locate(i);
 		}
 
 		// Pops all remaining operators from operators stack and
 		// push assembled operators to operands stack
-		while (!operators.empty())
+		// (errors found from now on are located at the end of the context)
+		try
 		{
-			popOperatorAndPush2Operands();
+			while (!operators.empty())
+			{
+				popOperatorAndPush2Operands();
+			}
+		}
+		catch (ParserException e)
+		{
+			throw e.locate(tokens.length);
 		}
 
 		// There should be exactly 1 operand left in operands stack
@@ -710,11 +777,11 @@ public class ExpressionParser<E extends Number>
 		// then it means that we have a missing operator
 		if (operands.empty())
 		{
-			throw new MissingRightOperandException();
+			throw new MissingRightOperandException().locate(tokens.length);
 		}
 		if (operands.size() > 1)
 		{
-			throw new IllegalPostParsingStateException();
+			throw new IllegalPostParsingStateException().locate(tokens.length);
 		}
 		expression = operands.pop();
 
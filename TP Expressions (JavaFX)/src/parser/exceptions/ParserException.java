@@ -19,6 +19,11 @@ public class ParserException extends Exception
 //	 */
 //	protected String message;
 
+	/**
+	 * Offset of the faulty token within the parsed context or -1 if unknown
+	 */
+	private int offset = -1;
+
 	/**
 	 * Constructor with message
 	 * @param message the message to set for this exception
@@ -49,4 +54,44 @@ public class ParserException extends Exception
 	{
 		super(cause);
 	}
+
+	/**
+	 * Offset accessor
+	 * @return the offset of the faulty token within the parsed context or -1
+	 * if this exception has not been located
+	 */
+	public int getOffset()
+	{
+		return offset;
+	}
+
+	/**
+	 * Locate this exception at provided offset unless it has already been
+	 * located (by a nested sub-context for instance)
+	 * @param offset the offset of the faulty token within the parsed context
+	 * @return this exception
+	 */
+	public ParserException locate(int offset)
+	{
+		if (this.offset < 0)
+		{
+			this.offset = offset;
+		}
+		return this;
+	}
+
+	/**
+	 * Shift the offset of this exception when the context it has been located
+	 * in is part of a larger context
+	 * @param delta the offset of the inner context within the outer context
+	 * @return this exception
+	 */
+	public ParserException shift(int delta)
+	{
+		if (offset >= 0)
+		{
+			offset += delta;
+		}
+		return this;
+	}
 }
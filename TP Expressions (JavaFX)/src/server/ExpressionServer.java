@@ -0,0 +1,461 @@
+package server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import expressions.Expression;
+import expressions.terminal.VariableExpression;
+import logger.LoggerFactory;
+import metrics.Metrics;
+import parser.ExpressionParser;
+import parser.exceptions.ParserException;
+import utils.FlyweightFactory;
+
+/**
+ * Local (loopback) line protocol server parsing and evaluating expressions.
+ * Each client connection is handled by its own thread (a virtual thread
+ * when the runtime supports them) and owns its own variables environment
+ * (see {@link VariableExpression#setLocalValues(Map)}) so that clients don't
+ * interfere with each other.
+ * Compiled expressions are shared among all connections through a bounded
+ * LRU cache keyed by number type and source text.
+ * <p>Protocol (one UTF-8 line per request and one line per response):</p>
+ * <ul>
+ * 	<li>a context (e.g. "a = 2; a * 3") is parsed and evaluated and the
+ * 	response is "OK " followed by the values of each expression separated by
+ * 	";" (an empty value indicates an expression which can't be evaluated
+ * 	yet)</li>
+ * 	<li>":type int|float|double" changes the type of numbers of this
+ * 	connection (and clears its variables)</li>
+ * 	<li>":vars" lists the variables of this connection as "OK a=2;b=3"</li>
+ * 	<li>":clear" clears all variables of this connection</li>
+ * 	<li>":quit" closes the connection</li>
+ * 	<li>any error is reported as "ERR " followed by an error message</li>
+ * </ul>
+ * Usage: java server.ExpressionServer [port] [cacheSize]
+ * @see LoadGenerator
+ */
+public class ExpressionServer implements Closeable
+{
+	/**
+	 * Default size of compiled expressions cache
+	 */
+	public static final int DEFAULT_CACHE_SIZE = 1024;
+
+	/**
+	 * Expressions separator in requests and responses
+	 */
+	private static final String Separator = ";";
+
+	/**
+	 * Key of compiled expressions in {@link #cache}
+	 * @param type the type of numbers in expressions
+	 * @param source the source text of expressions
+	 */
+	private record CacheKey(Class<? extends Number> type, String source)
+	{
+	}
+
+	/**
+	 * Exception thrown by cache loader to carry a {@link ParserException}
+	 */
+	private static class ParseFailure extends RuntimeException
+	{
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Constructor
+		 * @param cause the parser exception
+		 */
+		ParseFailure(ParserException cause)
+		{
+			super(cause);
+		}
+	}
+
+	/**
+	 * Server socket bound to loopback address
+	 */
+	private final ServerSocket serverSocket;
+
+	/**
+	 * Executor running one task per connection
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * Bounded LRU cache of compiled expressions
+	 */
+	private final FlyweightFactory<List<? extends Expression<? extends Number>>> cache;
+
+	/**
+	 * Number of currently opened connections
+	 */
+	private final AtomicInteger connections;
+
+	/**
+	 * Logger
+	 */
+	private final Logger logger;
+
+	/**
+	 * Thread accepting connections
+	 */
+	private Thread acceptor;
+
+	/**
+	 * Constructor.
+	 * Binds the server to the loopback address (but does not accept
+	 * connections until {@link #start()} is called)
+	 * @param port the port to listen to (or 0 for any available port)
+	 * @param cacheSize the maximum number of compiled contexts in cache
+	 * @param parentLogger the parent logger (might be null)
+	 * @throws IOException if server socket can't be bound
+	 */
+	public ExpressionServer(int port, int cacheSize, Logger parentLogger)
+	    throws IOException
+	{
+		logger = LoggerFactory.getParentLogger(getClass(),
+		                                       parentLogger,
+		                                       parentLogger == null ?
+		                                    	   Level.INFO : null);
+		serverSocket = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+		executor = newPerTaskExecutor();
+		cache = new FlyweightFactory<>(FlyweightFactory.Policy.LRU,
+		                               cacheSize,
+		                               logger);
+		Metrics.registerCache("server", cache);
+		connections = new AtomicInteger();
+	}
+
+	/**
+	 * Creates an executor starting a new virtual thread per task if the
+	 * runtime supports virtual threads (Java 21+) or a cached thread pool of
+	 * daemon threads otherwise.
+	 * @return a new executor running each task in its own thread
+	 */
+	public static ExecutorService newPerTaskExecutor()
+	{
+		try
+		{
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		}
+		catch (ReflectiveOperationException e)
+		{
+			return Executors.newCachedThreadPool((Runnable r) -> {
+				Thread thread = new Thread(r);
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	/**
+	 * Actual port of this server
+	 * @return the port this server listens to
+	 */
+	public int getPort()
+	{
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Compiled expressions cache accessor
+	 * @return the cache of compiled expressions (e.g. to get its statistics)
+	 */
+	public FlyweightFactory<List<? extends Expression<? extends Number>>> getCache()
+	{
+		return cache;
+	}
+
+	/**
+	 * Start accepting connections in a background thread
+	 */
+	public synchronized void start()
+	{
+		if (acceptor != null)
+		{
+			return;
+		}
+		acceptor = new Thread(this::acceptLoop, "ExpressionServer-" + getPort());
+		acceptor.setDaemon(true);
+		acceptor.start();
+		logger.info("listening on " + serverSocket.getLocalSocketAddress());
+	}
+
+	/**
+	 * Stop accepting connections and close all connections
+	 * @throws IOException if server socket can't be closed
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		serverSocket.close();
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Accept connections until server socket is closed
+	 */
+	private void acceptLoop()
+	{
+		while (!serverSocket.isClosed())
+		{
+			try
+			{
+				Socket socket = serverSocket.accept();
+				executor.execute(() -> serve(socket));
+			}
+			catch (SocketException e)
+			{
+				// Server socket closed
+				break;
+			}
+			catch (IOException e)
+			{
+				logger.warning("accept failed: " + e.getLocalizedMessage());
+			}
+		}
+	}
+
+	/**
+	 * Serve requests of a single connection with its own variables environment
+	 * @param socket the connection socket
+	 */
+	private void serve(Socket socket)
+	{
+		connections.incrementAndGet();
+		Map<String, Optional<? extends Number>> environment = new HashMap<>();
+		VariableExpression.setLocalValues(environment);
+		Session session = new Session();
+		try (socket;
+		     BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+		                                                                  StandardCharsets.UTF_8));
+		     BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(),
+		                                                                    StandardCharsets.UTF_8)))
+		{
+			String request;
+			while ((request = in.readLine()) != null)
+			{
+				String response = session.handle(request, environment);
+				if (response == null)
+				{
+					break;
+				}
+				out.write(response);
+				out.write('\n');
+				/*
+				 * Pipelined requests are answered before flushing
+				 */
+				if (!in.ready())
+				{
+					out.flush();
+				}
+			}
+		}
+		catch (IOException e)
+		{
+			logger.fine("connection closed: " + e.getLocalizedMessage());
+		}
+		finally
+		{
+			VariableExpression.setLocalValues(null);
+			connections.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Number of currently opened connections
+	 * @return the number of currently opened connections
+	 */
+	public int getConnections()
+	{
+		return connections.get();
+	}
+
+	/**
+	 * State of a single connection
+	 */
+	private class Session
+	{
+		/**
+		 * Parser of this connection
+		 */
+		private ExpressionParser<? extends Number> parser = new ExpressionParser<Integer>(0);
+
+		/**
+		 * Type of numbers of this connection
+		 */
+		private Class<? extends Number> type = Integer.class;
+
+		/**
+		 * Handle a single request
+		 * @param request the request line
+		 * @param environment the variables environment of this connection
+		 * @return the response line or null if connection shall be closed
+		 */
+		String handle(String request, Map<String, Optional<? extends Number>> environment)
+		{
+			String trimmed = request.trim();
+			if (trimmed.startsWith(":"))
+			{
+				return command(trimmed, environment);
+			}
+			if (trimmed.isEmpty())
+			{
+				return "OK";
+			}
+
+			List<? extends Expression<? extends Number>> expressions;
+			try
+			{
+				expressions = cache.get(new CacheKey(type, trimmed), this::compile);
+			}
+			catch (ParseFailure e)
+			{
+				return "ERR " + e.getCause().getLocalizedMessage();
+			}
+
+			StringBuilder sb = new StringBuilder("OK ");
+			for (int i = 0; i < expressions.size(); i++)
+			{
+				if (i > 0)
+				{
+					sb.append(Separator);
+				}
+				Expression<? extends Number> expression = expressions.get(i);
+				try
+				{
+					if (expression.hasValue())
+					{
+						sb.append(expression.value());
+					}
+				}
+				catch (RuntimeException e)
+				{
+					return "ERR " + expression + ": " + e.getLocalizedMessage();
+				}
+			}
+			return sb.toString();
+		}
+
+		/**
+		 * Compile a context with this connection's parser
+		 * @param key the cache key containing the context to compile
+		 * @return the compiled expressions
+		 * @throws ParseFailure if context can't be parsed
+		 */
+		private List<? extends Expression<? extends Number>> compile(CacheKey key)
+		    throws ParseFailure
+		{
+			try
+			{
+				return List.copyOf(parser.parse(key.source()));
+			}
+			catch (ParserException e)
+			{
+				throw new ParseFailure(e);
+			}
+		}
+
+		/**
+		 * Handle a command
+		 * @param command the command (starting with ":")
+		 * @param environment the variables environment of this connection
+		 * @return the response line or null if connection shall be closed
+		 */
+		private String command(String command, Map<String, Optional<? extends Number>> environment)
+		{
+			String[] words = command.substring(1).trim().split("\\s+");
+			switch (words[0])
+			{
+				case "quit":
+					return null;
+				case "clear":
+					environment.clear();
+					return "OK";
+				case "vars":
+					StringBuilder sb = new StringBuilder("OK ");
+					boolean first = true;
+					for (Map.Entry<String, Optional<? extends Number>> entry : environment.entrySet())
+					{
+						if (entry.getValue().isPresent())
+						{
+							if (!first)
+							{
+								sb.append(Separator);
+							}
+							first = false;
+							sb.append(entry.getKey()).append('=').append(entry.getValue().get());
+						}
+					}
+					return sb.toString();
+				case "type":
+					if (words.length < 2)
+					{
+						return "ERR missing type";
+					}
+					switch (words[1])
+					{
+						case "int":
+							parser = new ExpressionParser<Integer>(0);
+							type = Integer.class;
+							break;
+						case "float":
+							parser = new ExpressionParser<Float>(0.0f);
+							type = Float.class;
+							break;
+						case "double":
+							parser = new ExpressionParser<Double>(0.0);
+							type = Double.class;
+							break;
+						default:
+							return "ERR unsupported type " + words[1];
+					}
+					environment.clear();
+					return "OK";
+				default:
+					return "ERR unknown command " + words[0];
+			}
+		}
+	}
+
+	/**
+	 * Server entry point
+	 * @param args [port] [cacheSize]
+	 * @throws IOException if server can't be started
+	 * @throws InterruptedException if interrupted while serving
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException
+	{
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+		int cacheSize = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_CACHE_SIZE;
+		Metrics.registerMBean();
+		try (ExpressionServer server = new ExpressionServer(port, cacheSize, null))
+		{
+			server.start();
+			System.out.println("ExpressionServer listening on port " + server.getPort());
+			Thread.currentThread().join();
+		}
+	}
+}
@@ -0,0 +1,226 @@
+package server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Loopback load generator for {@link ExpressionServer}.
+ * Opens a number of concurrent client connections, each sending a number of
+ * requests (one at a time) and measuring the latency of each request, then
+ * reports throughput and p50 / p99 / max latencies.
+ * Usage: java server.LoadGenerator [port] [clients] [requests]
+ * where a port of 0 (the default) starts an in-process server.
+ */
+public class LoadGenerator
+{
+	/**
+	 * Requests sent in turn by each client
+	 * @implNote variables assigned by one client are not visible from other
+	 * clients since each connection has its own environment
+	 */
+	private static final String[] Requests = new String[] {
+		"a = 3; b = 4",
+		"a * a + b * b",
+		"(a + b) * (a - b) / 7",
+		"c = a * b + 2; c - a",
+		"1 + 2 * 3 - 4 / 2",
+		"a * (b + c) - c / a"
+	};
+
+	/**
+	 * Server port
+	 */
+	private final int port;
+
+	/**
+	 * Number of concurrent clients
+	 */
+	private final int clients;
+
+	/**
+	 * Number of requests sent by each client
+	 */
+	private final int requests;
+
+	/**
+	 * Number of "ERR" responses
+	 */
+	private final LongAdder errors;
+
+	/**
+	 * Constructor
+	 * @param port the server port (on loopback address)
+	 * @param clients the number of concurrent clients
+	 * @param requests the number of requests sent by each client
+	 */
+	public LoadGenerator(int port, int clients, int requests)
+	{
+		this.port = port;
+		this.clients = clients;
+		this.requests = requests;
+		errors = new LongAdder();
+	}
+
+	/**
+	 * Run all clients and wait for their completion
+	 * @return the sorted latencies (in nanoseconds) of all requests
+	 * @throws IOException if a client fails
+	 * @throws InterruptedException if interrupted while waiting for clients
+	 */
+	public long[] run() throws IOException, InterruptedException
+	{
+		ExecutorService executor = ExpressionServer.newPerTaskExecutor();
+		List<Future<long[]>> futures = new ArrayList<>(clients);
+		for (int i = 0; i < clients; i++)
+		{
+			futures.add(executor.submit(this::client));
+		}
+		long[] latencies = new long[clients * requests];
+		int index = 0;
+		try
+		{
+			for (Future<long[]> future : futures)
+			{
+				long[] clientLatencies = future.get();
+				System.arraycopy(clientLatencies, 0, latencies, index, clientLatencies.length);
+				index += clientLatencies.length;
+			}
+		}
+		catch (ExecutionException e)
+		{
+			throw new IOException("client failed", e.getCause());
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+		Arrays.sort(latencies);
+		return latencies;
+	}
+
+	/**
+	 * Number of error responses received
+	 * @return the number of "ERR" responses received by all clients
+	 */
+	public long getErrors()
+	{
+		return errors.sum();
+	}
+
+	/**
+	 * A single client sending {@link #requests} requests
+	 * @return the latencies (in nanoseconds) of each request
+	 * @throws IOException if connection fails
+	 */
+	private long[] client() throws IOException
+	{
+		long[] latencies = new long[requests];
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+		     BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+		                                                                  StandardCharsets.UTF_8));
+		     BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(),
+		                                                                    StandardCharsets.UTF_8)))
+		{
+			socket.setTcpNoDelay(true);
+			for (int i = 0; i < requests; i++)
+			{
+				long start = System.nanoTime();
+				out.write(Requests[i % Requests.length]);
+				out.write('\n');
+				out.flush();
+				String response = in.readLine();
+				latencies[i] = System.nanoTime() - start;
+				if (response == null)
+				{
+					throw new IOException("connection closed by server");
+				}
+				if (response.startsWith("ERR"))
+				{
+					errors.increment();
+				}
+			}
+			out.write(":quit\n");
+			out.flush();
+		}
+		return latencies;
+	}
+
+	/**
+	 * Percentile of sorted latencies
+	 * @param sorted the sorted latencies
+	 * @param percentile the percentile to compute in [0..100]
+	 * @return the latency at this percentile or 0 if there are no latencies
+	 */
+	public static long percentile(long[] sorted, double percentile)
+	{
+		if (sorted.length == 0)
+		{
+			return 0L;
+		}
+		int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+		return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+	}
+
+	/**
+	 * Load generator entry point
+	 * @param args [port] [clients] [requests]
+	 * @throws IOException if server can't be started or a client fails
+	 * @throws InterruptedException if interrupted while waiting for clients
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException
+	{
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+		int clients = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+		int requests = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+
+		ExpressionServer server = null;
+		if (port == 0)
+		{
+			server = new ExpressionServer(0, ExpressionServer.DEFAULT_CACHE_SIZE, null);
+			server.start();
+			port = server.getPort();
+		}
+		try
+		{
+			LoadGenerator generator = new LoadGenerator(port, clients, requests);
+			long start = System.nanoTime();
+			long[] latencies = generator.run();
+			double seconds = (System.nanoTime() - start) / 1e9;
+			System.out.printf("%d clients x %d requests in %.3f s: %.0f requests/s, %d errors%n",
+			                  clients,
+			                  requests,
+			                  seconds,
+			                  latencies.length / seconds,
+			                  generator.getErrors());
+			System.out.printf("latency p50 = %d us, p99 = %d us, max = %d us%n",
+			                  TimeUnit.NANOSECONDS.toMicros(percentile(latencies, 50.0)),
+			                  TimeUnit.NANOSECONDS.toMicros(percentile(latencies, 99.0)),
+			                  TimeUnit.NANOSECONDS.toMicros(percentile(latencies, 100.0)));
+			if (server != null)
+			{
+				System.out.println("cache: " + server.getCache());
+			}
+		}
+		finally
+		{
+			if (server != null)
+			{
+				server.close();
+			}
+		}
+	}
+}
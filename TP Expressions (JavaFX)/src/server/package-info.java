@@ -0,0 +1,5 @@
+/**
+ * Package containing a local line protocol server evaluating expressions
+ * and its loopback load generator
+ */
+package server;
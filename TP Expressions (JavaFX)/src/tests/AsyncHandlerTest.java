@@ -0,0 +1,298 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import logger.AsyncHandler;
+import logger.AsyncHandler.DropPolicy;
+import logger.LoggerFactory;
+
+/**
+ * Test class for {@link AsyncHandler}
+ */
+@DisplayName("AsyncHandler")
+public class AsyncHandlerTest
+{
+	/**
+	 * Handler recording published messages and threads, which can be held
+	 * while publishing its first record to fill up the ring buffer
+	 */
+	private static class RecordingHandler extends Handler
+	{
+		/**
+		 * Published messages
+		 */
+		final List<String> messages = new ArrayList<>();
+
+		/**
+		 * Threads which published records
+		 */
+		final List<Thread> threads = new ArrayList<>();
+
+		/**
+		 * Counted down when the first record is being published
+		 */
+		final CountDownLatch entered = new CountDownLatch(1);
+
+		/**
+		 * Awaited before publishing the first record (if not null)
+		 */
+		final CountDownLatch gate;
+
+		/**
+		 * Flag set when this handler is closed
+		 */
+		volatile boolean closed = false;
+
+		/**
+		 * Constructor
+		 * @param gate latch awaited before publishing the first record or
+		 * null to never wait
+		 */
+		RecordingHandler(CountDownLatch gate)
+		{
+			this.gate = gate;
+		}
+
+		@Override
+		public void publish(LogRecord record)
+		{
+			entered.countDown();
+			if (gate != null)
+			{
+				try
+				{
+					gate.await();
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+			}
+			synchronized (this)
+			{
+				messages.add(record.getMessage());
+				threads.add(Thread.currentThread());
+			}
+		}
+
+		@Override
+		public void flush()
+		{
+		}
+
+		@Override
+		public void close()
+		{
+			closed = true;
+		}
+
+		/**
+		 * Published messages accessor
+		 * @return a copy of the published messages
+		 */
+		synchronized List<String> messages()
+		{
+			return new ArrayList<>(messages);
+		}
+	}
+
+	/**
+	 * Create a record
+	 * @param i the record number
+	 * @return a new info record with message "r" + i
+	 */
+	private static LogRecord record(int i)
+	{
+		return new LogRecord(Level.INFO, "r" + i);
+	}
+
+	/**
+	 * Test records keep their order while the ring buffer wraps around many
+	 * times and are all published once closed
+	 */
+	@Test
+	@DisplayName("ring wraparound & flush on close")
+	public final void testWrapAroundAndClose()
+	{
+		RecordingHandler target = new RecordingHandler(null);
+		AsyncHandler handler = new AsyncHandler(target, 4, 3, DropPolicy.BLOCK);
+		List<String> expected = new ArrayList<>();
+		for (int i = 0; i < 1000; i++)
+		{
+			handler.publish(record(i));
+			expected.add("r" + i);
+		}
+		handler.close();
+		assertEquals(expected, target.messages());
+		assertTrue(target.closed);
+		assertEquals(0, handler.getDroppedCount());
+		handler.publish(record(1000));
+		assertEquals(1000, target.messages().size());
+	}
+
+	/**
+	 * Test records published while the buffer is full are dropped and
+	 * reported with the {@link DropPolicy#DROP} policy
+	 * @throws InterruptedException if interrupted while waiting for writer
+	 */
+	@Test
+	@DisplayName("DropPolicy.DROP")
+	public final void testDrop() throws InterruptedException
+	{
+		CountDownLatch gate = new CountDownLatch(1);
+		RecordingHandler target = new RecordingHandler(gate);
+		AsyncHandler handler = new AsyncHandler(target, 2, 16, DropPolicy.DROP);
+		handler.publish(record(0));
+		assertTrue(target.entered.await(5, TimeUnit.SECONDS));
+		// writer is held in record 0 so only 2 of the next records fit
+		for (int i = 1; i <= 10; i++)
+		{
+			handler.publish(record(i));
+		}
+		assertEquals(8, handler.getDroppedCount());
+		gate.countDown();
+		handler.flush();
+		handler.close();
+		List<String> messages = target.messages();
+		assertEquals(List.of("r0", "r1", "r2", "8 log records dropped"), messages);
+	}
+
+	/**
+	 * Test publishing threads wait for room in the buffer with the
+	 * {@link DropPolicy#BLOCK} policy
+	 * @throws InterruptedException if interrupted while waiting for threads
+	 */
+	@Test
+	@DisplayName("DropPolicy.BLOCK")
+	public final void testBlock() throws InterruptedException
+	{
+		CountDownLatch gate = new CountDownLatch(1);
+		RecordingHandler target = new RecordingHandler(gate);
+		AsyncHandler handler = new AsyncHandler(target, 2, 16, DropPolicy.BLOCK);
+		handler.publish(record(0));
+		assertTrue(target.entered.await(5, TimeUnit.SECONDS));
+		handler.publish(record(1));
+		handler.publish(record(2));
+		Thread producer = new Thread(() -> handler.publish(record(3)));
+		producer.start();
+		producer.join(200);
+		assertTrue(producer.isAlive(), "producer should wait for room");
+		gate.countDown();
+		producer.join(5000);
+		assertFalse(producer.isAlive());
+		handler.close();
+		assertEquals(List.of("r0", "r1", "r2", "r3"), target.messages());
+		assertEquals(0, handler.getDroppedCount());
+	}
+
+	/**
+	 * Test asynchronous loggers with a parent logger hand records to the
+	 * parent handlers on the writer thread rather than on the logging thread
+	 * @throws IOException if logger creation fails
+	 */
+	@Test
+	@DisplayName("LoggerFactory#getLogger(..., async) with parent")
+	public final void testParentHandlers() throws IOException
+	{
+		RecordingHandler target = new RecordingHandler(null);
+		Logger parent = Logger.getAnonymousLogger();
+		parent.setUseParentHandlers(false);
+		parent.addHandler(target);
+		Logger logger = LoggerFactory.getLogger(AsyncHandlerTest.class,
+		                                        false,
+		                                        null,
+		                                        false,
+		                                        parent,
+		                                        Level.ALL,
+		                                        true);
+		logger.info("message");
+		for (Handler handler : logger.getHandlers())
+		{
+			handler.flush();
+		}
+		assertEquals(List.of("message"), target.messages());
+		assertNotSame(Thread.currentThread(), target.threads.get(0));
+		for (Handler handler : logger.getHandlers())
+		{
+			logger.removeHandler(handler);
+			handler.close();
+		}
+	}
+
+	/**
+	 * Count the handlers of a logger which are a given handler
+	 * @param logger the logger
+	 * @param handler the handler to count
+	 * @return the number of times handler has been added to logger
+	 */
+	private static long count(Logger logger, Handler handler)
+	{
+		return List.of(logger.getHandlers()).stream().filter(h -> h == handler).count();
+	}
+
+	/**
+	 * Test loggers writing to the same destination share a single
+	 * asynchronous handler which is added once to each logger and closed by
+	 * {@link LoggerFactory#closeAsyncHandlers()}
+	 * @throws IOException if the getLogger operation fails
+	 */
+	@Test
+	@DisplayName("LoggerFactory#getLogger(..., async) shared handlers")
+	public final void testSharedHandlers() throws IOException
+	{
+		RecordingHandler target = new RecordingHandler(null);
+		Logger parent = Logger.getAnonymousLogger();
+		parent.setUseParentHandlers(false);
+		parent.addHandler(target);
+		Logger first = LoggerFactory.getLogger(AsyncHandlerTest.class,
+		                                       false, null, false, parent, Level.ALL, true);
+		Logger second = LoggerFactory.getLogger(RecordingHandler.class,
+		                                        false, null, false, parent, Level.ALL, true);
+		assertEquals(1, first.getHandlers().length);
+		AsyncHandler shared = (AsyncHandler) first.getHandlers()[0];
+		assertEquals(1, count(second, shared));
+
+		// Requesting the same logger again does not add another handler
+		assertSame(first, LoggerFactory.getLogger(AsyncHandlerTest.class,
+		                                          false, null, false, parent, Level.ALL, true));
+		assertEquals(1, count(first, shared));
+
+		first.info("first");
+		second.info("second");
+		LoggerFactory.closeAsyncHandlers();
+		assertTrue(shared.isClosed());
+		assertEquals(List.of("first", "second"), target.messages());
+
+		// A closed handler is replaced by a new shared handler
+		LoggerFactory.getLogger(AsyncHandlerTest.class,
+		                        false, null, false, parent, Level.ALL, true);
+		AsyncHandler replaced = (AsyncHandler) first.getHandlers()[1];
+		assertNotSame(shared, replaced);
+		assertFalse(replaced.isClosed());
+		LoggerFactory.closeAsyncHandlers();
+		for (Logger logger : List.of(first, second))
+		{
+			for (Handler handler : logger.getHandlers())
+			{
+				logger.removeHandler(handler);
+			}
+		}
+	}
+}
@@ -0,0 +1,253 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import application.BatchEvaluator;
+import expressions.terminal.VariableExpression;
+import utils.SnapshotMap;
+
+/**
+ * Test class for {@link BatchEvaluator} (headless "--batch" mode)
+ */
+@DisplayName("BatchEvaluator")
+public class BatchEvaluatorTest
+{
+	/**
+	 * Directory containing expressions and bindings files
+	 */
+	@TempDir
+	Path directory;
+
+	/**
+	 * Results printed by the evaluator
+	 */
+	private ByteArrayOutputStream out;
+
+	/**
+	 * Errors and statistics printed by the evaluator
+	 */
+	private ByteArrayOutputStream err;
+
+	/**
+	 * Setup before each test
+	 */
+	@BeforeEach
+	public void setUp()
+	{
+		VariableExpression.setValues(new SnapshotMap<>());
+		out = new ByteArrayOutputStream();
+		err = new ByteArrayOutputStream();
+	}
+
+	/**
+	 * Tear down after each test
+	 */
+	@AfterEach
+	public void tearDown()
+	{
+		VariableExpression.clearAll();
+	}
+
+	/**
+	 * Write a file in {@link #directory}
+	 * @param name the name of the file
+	 * @param content the content of the file
+	 * @return the name of the written file
+	 * @throws IOException if writing fails
+	 */
+	private String write(String name, String content) throws IOException
+	{
+		return Files.writeString(directory.resolve(name), content).toString();
+	}
+
+	/**
+	 * Run a batch
+	 * @param numberType the type of numbers
+	 * @param expressions the expressions source
+	 * @param bindings the bindings source (or null)
+	 * @return the result of {@link BatchEvaluator#run(String, String)}
+	 * @throws IOException if reading or writing fails
+	 */
+	private boolean run(String numberType, String expressions, String bindings)
+	    throws IOException
+	{
+		BatchEvaluator evaluator =
+		    new BatchEvaluator(numberType,
+		                       new PrintStream(out, true, StandardCharsets.UTF_8),
+		                       new PrintStream(err, true, StandardCharsets.UTF_8));
+		return evaluator.run(expressions, bindings);
+	}
+
+	/**
+	 * Lines printed on a stream
+	 * @param stream the stream
+	 * @return the lines printed on the stream
+	 */
+	private static List<String> lines(ByteArrayOutputStream stream)
+	{
+		return stream.toString(StandardCharsets.UTF_8).lines().toList();
+	}
+
+	/**
+	 * Test expressions read from standard input are evaluated and printed
+	 * line by line
+	 * @throws IOException if reading or writing fails
+	 */
+	@Test
+	@DisplayName("run(\"-\", null)")
+	public final void testStdin() throws IOException
+	{
+		InputStream stdin = System.in;
+		try
+		{
+			System.setIn(new ByteArrayInputStream("type double\na = 1.5; a * 2\n# comment\nb + 1\n"
+			    .getBytes(StandardCharsets.UTF_8)));
+			assertTrue(run("int", BatchEvaluator.STDIN, null));
+		}
+		finally
+		{
+			System.setIn(stdin);
+		}
+		assertEquals(List.of("a = 1.5", "a * 2.0 = 3.0", "b + 1.0"), lines(out));
+		List<String> errors = lines(err);
+		assertEquals(1, errors.size());
+		assertTrue(errors.get(0).startsWith("batch: 3 contexts, 0 bindings rows, 2 evaluations, 0 errors"),
+		           errors.get(0));
+		assertThrows(IllegalArgumentException.class,
+		             () -> run("int", BatchEvaluator.STDIN, BatchEvaluator.STDIN));
+	}
+
+	/**
+	 * Test expressions are evaluated for each row of CSV bindings and
+	 * variables assigned by expressions are reset for each row
+	 * @throws IOException if reading or writing fails
+	 */
+	@Test
+	@DisplayName("run(expressions, bindings)")
+	public final void testBindings() throws IOException
+	{
+		String expressions = write("expressions.txt", "x + y; x * y\nz = x - y; z * 2\n");
+		String bindings = write("bindings.csv", "x, y\n1, 2\n\n3,4\n5,\n");
+		assertTrue(run("int", expressions, bindings), err.toString());
+		assertEquals(List.of("x,y,x + y,x * y,z = x - y,z * 2",
+		                     "1,2,3,2,-1,-2",
+		                     "3,4,7,12,-1,-2",
+		                     "5,,,,,"),
+		             lines(out));
+		String statistics = lines(err).get(0);
+		assertTrue(statistics.startsWith("batch: 4 contexts, 3 bindings rows, 8 evaluations, 0 errors"),
+		           statistics);
+	}
+
+	/**
+	 * Test parsing errors and invalid bindings are reported with their line
+	 * numbers without stopping the batch
+	 * @throws IOException if reading or writing fails
+	 */
+	@Test
+	@DisplayName("errors")
+	public final void testErrors() throws IOException
+	{
+		String expressions = write("expressions.txt", "x + 1\n2 * (x\ntype float\n");
+		String bindings = write("bindings.csv", "x\n1,2\nfoo\n4\n");
+		assertFalse(run("int", expressions, bindings));
+		assertEquals(List.of("x,x + 1", "4,5"), lines(out));
+		List<String> errors = lines(err);
+		assertEquals(5, errors.size(), errors.toString());
+		assertTrue(errors.get(0).startsWith("line 2: 2 * (x: "), errors.get(0));
+		assertEquals("line 3: number type can't be changed after expressions", errors.get(1));
+		assertEquals("bindings line 2: expected 1 values but found 2", errors.get(2));
+		assertEquals("bindings line 3: invalid value foo for x", errors.get(3));
+		assertTrue(errors.get(4).startsWith("batch: 1 contexts, 1 bindings rows, 1 evaluations, 4 errors"),
+		           errors.get(4));
+	}
+
+	/**
+	 * Test an unsupported initial number type is rejected before reading any
+	 * expression
+	 */
+	@Test
+	@DisplayName("BatchEvaluator(\"foo\", out, err)")
+	public final void testUnsupportedType()
+	{
+		IllegalArgumentException exception =
+		    assertThrows(IllegalArgumentException.class, () -> run("foo", BatchEvaluator.STDIN, null));
+		assertEquals("unsupported number type foo", exception.getMessage());
+		assertTrue(lines(out).isEmpty());
+	}
+
+	/**
+	 * Test batch mode runs with application classes only (without JavaFX)
+	 * by loading them in a class loader which can't see JavaFX.
+	 * @implNote Builtin class loaders delegate to each other for boot layer
+	 * modules, so JavaFX classes are explicitly hidden rather than relying on
+	 * JavaFX not being visible from the platform class loader.
+	 * @throws Exception if loading or running the evaluator fails
+	 */
+	@Test
+	@DisplayName("runs without JavaFX")
+	public final void testWithoutJavaFX() throws Exception
+	{
+		String expressions = write("expressions.txt", "a = 6; a * 7\n");
+		URL classes = BatchEvaluator.class.getProtectionDomain().getCodeSource().getLocation();
+		try (URLClassLoader loader =
+		    new URLClassLoader(new URL[] {classes}, ClassLoader.getPlatformClassLoader())
+		    {
+			    @Override
+			    protected Class<?> loadClass(String name, boolean resolve)
+			        throws ClassNotFoundException
+			    {
+				    if (name.startsWith("javafx."))
+				    {
+					    throw new ClassNotFoundException(name);
+				    }
+				    return super.loadClass(name, resolve);
+			    }
+		    })
+		{
+			assertThrows(ClassNotFoundException.class,
+			             () -> loader.loadClass("javafx.collections.ObservableMap"));
+			Class<?> evaluatorClass = loader.loadClass(BatchEvaluator.class.getName());
+			Constructor<?> constructor =
+			    evaluatorClass.getConstructor(String.class, PrintStream.class, PrintStream.class);
+			Object evaluator =
+			    constructor.newInstance("int",
+			                            new PrintStream(out, true, StandardCharsets.UTF_8),
+			                            new PrintStream(err, true, StandardCharsets.UTF_8));
+			Method run = evaluatorClass.getMethod("run", String.class, String.class);
+			try
+			{
+				assertEquals(Boolean.TRUE, run.invoke(evaluator, expressions, null));
+			}
+			catch (InvocationTargetException e)
+			{
+				throw new AssertionError("batch failed without JavaFX", e.getCause());
+			}
+		}
+		assertEquals(List.of("a = 6", "a * 7 = 42"), lines(out));
+	}
+}
@@ -22,6 +22,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
 import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInfo;
 import org.junit.jupiter.api.TestMethodOrder;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -1179,4 +1180,46 @@ class BinaryExpressionTest
 			assertNotEquals(copy, expression, testName + " unexpected inequality");
 		}
 	}
+
+	/**
+	 * Test method for {@link expressions.binary.BinaryExpression#toString()}
+	 * on nested operators: operands with strictly lower priority are
+	 * parenthesized on the left side and operands with lower or equal
+	 * priority on the right side, so that rendered expressions can be parsed
+	 * back to the same tree
+	 * @param testInfo Test info
+	 */
+	@Order(12)
+	@Test
+	@DisplayName("toString() with nested operators")
+	final void testToStringNested(TestInfo testInfo)
+	{
+		String testName = testInfo.getDisplayName();
+		System.out.println(testName);
+
+		// (1 + 2) * 3 used to be rendered as 1.0 + 2.0 * 3.0
+		BinaryExpression<Double> product =
+		    new MultiplicationExpression<>(new AdditionExpression<>(new ConstantExpression<>(1.0),
+		                                                            new ConstantExpression<>(2.0)),
+		                                   new ConstantExpression<>(3.0));
+		assertEquals("(1.0 + 2.0) * 3.0", product.toString(), testName + " unexpected string");
+		assertEquals(Double.valueOf(9.0), product.value(), testName + " unexpected value");
+
+		// Left operands with same priority don't need parentheses
+		BinaryExpression<Double> difference =
+		    new SubtractionExpression<>(new SubtractionExpression<>(new ConstantExpression<>(1.0),
+		                                                            new ConstantExpression<>(2.0)),
+		                                new ConstantExpression<>(3.0));
+		assertEquals("1.0 - 2.0 - 3.0", difference.toString(), testName + " unexpected string");
+
+		// Right operands with same or lower priority do
+		difference = new SubtractionExpression<>(new ConstantExpression<>(1.0),
+		                                         new SubtractionExpression<>(new ConstantExpression<>(2.0),
+		                                                                     new ConstantExpression<>(3.0)));
+		assertEquals("1.0 - (2.0 - 3.0)", difference.toString(), testName + " unexpected string");
+		product = new MultiplicationExpression<>(new ConstantExpression<>(3.0),
+		                                         new AdditionExpression<>(new ConstantExpression<>(1.0),
+		                                                                  new ConstantExpression<>(2.0)));
+		assertEquals("3.0 * (1.0 + 2.0)", product.toString(), testName + " unexpected string");
+	}
 }
@@ -0,0 +1,176 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import expressions.Expression;
+import expressions.binary.BinaryExpression;
+import expressions.terminal.VariableExpression;
+import parser.CachingExpressionParser;
+import parser.ExpressionParser;
+import parser.exceptions.ParserException;
+import utils.FlyweightFactory;
+
+/**
+ * Test class for {@link CachingExpressionParser}
+ */
+@DisplayName("CachingExpressionParser")
+public class CachingExpressionParserTest
+{
+	/**
+	 * Context used in tests
+	 */
+	private static final String context = "a = 2; b = a * (3 + a); -b / 2 ^ a";
+
+	/**
+	 * The cache shared by caching parsers
+	 */
+	private final FlyweightFactory<Expression<? extends Number>> cache =
+		CachingExpressionParser.getCache();
+
+	/**
+	 * Setup before each test
+	 */
+	@BeforeEach
+	public void setUp()
+	{
+		VariableExpression.clearAll();
+		cache.clear();
+	}
+
+	/**
+	 * Tear down after each test
+	 */
+	@AfterEach
+	public void tearDown()
+	{
+		VariableExpression.clearAll();
+		cache.clear();
+	}
+
+	/**
+	 * Test that cached expressions are equal to freshly parsed ones
+	 * @throws ParserException if parsing fails
+	 */
+	@Test
+	@DisplayName("parse(String) equals uncached parse")
+	public final void testParseEqualsUncached() throws ParserException
+	{
+		List<Expression<Integer>> expected =
+		    new ExpressionParser<Integer>(0).parse(context);
+		CachingExpressionParser<Integer> parser = new CachingExpressionParser<>(0);
+		long misses = cache.getMissCount();
+		long hits = cache.getHitCount();
+		List<Expression<Integer>> first = parser.parse(context);
+		List<Expression<Integer>> second = parser.parse(context);
+
+		assertEquals(expected, first);
+		assertEquals(expected, second);
+		assertEquals(misses + 3, cache.getMissCount());
+		assertEquals(hits + 3, cache.getHitCount());
+		assertEquals(Integer.valueOf(10), second.get(1).value());
+	}
+
+	/**
+	 * Test that each parse returns distinct expressions without parents
+	 * @throws ParserException if parsing fails
+	 */
+	@Test
+	@DisplayName("parse(String) returns fresh expressions")
+	public final void testParseReturnsCopies() throws ParserException
+	{
+		CachingExpressionParser<Double> parser = new CachingExpressionParser<>(0.0);
+		List<Expression<Double>> first = parser.parse(context);
+		List<Expression<Double>> second = parser.parse(context);
+		for (int i = 0; i < first.size(); i++)
+		{
+			assertNotSame(first.get(i), second.get(i));
+			assertNull(second.get(i).getParent());
+			BinaryExpression<Double> binary = (BinaryExpression<Double>) second.get(i);
+			assertEquals(binary, binary.getLeft().getParent());
+			assertEquals(binary, binary.getRight().getParent());
+		}
+	}
+
+	/**
+	 * Test that cache lookups are keyed by number class
+	 * @throws ParserException if parsing fails
+	 */
+	@Test
+	@DisplayName("parse(String) is keyed by number class")
+	public final void testKeyedByNumberClass() throws ParserException
+	{
+		long misses = cache.getMissCount();
+		new CachingExpressionParser<Integer>(0).parse("1 + 2");
+		Expression<Float> parsed = new CachingExpressionParser<Float>(0.0f)
+		    .parse("1 + 2").get(0);
+		assertEquals(misses + 2, cache.getMissCount());
+		assertTrue(parsed.value() instanceof Float);
+	}
+
+	/**
+	 * Test that cache hits register variables and perform assignments
+	 * @throws ParserException if parsing fails
+	 */
+	@Test
+	@DisplayName("parse(String) hit registers variables")
+	public final void testHitRegistersVariables() throws ParserException
+	{
+		CachingExpressionParser<Integer> parser = new CachingExpressionParser<>(0);
+		parser.parse("x = 5; y");
+		VariableExpression.clearAll();
+		long hits = cache.getHitCount();
+		parser.parse("x = 5; y");
+		assertEquals(hits + 2, cache.getHitCount());
+		assertTrue(VariableExpression.getValues().containsKey("y"));
+		assertEquals(Integer.valueOf(5), VariableExpression.getValues().get("x").get());
+	}
+
+	/**
+	 * Test that parsing errors are thrown and not cached
+	 */
+	@Test
+	@DisplayName("parse(String) errors are not cached")
+	public final void testErrorsNotCached()
+	{
+		CachingExpressionParser<Integer> parser = new CachingExpressionParser<>(0);
+		assertThrows(ParserException.class, () -> parser.parse("1 + (2"));
+		assertThrows(ParserException.class, () -> parser.parse("1 + (2"));
+		assertEquals(0, cache.size());
+	}
+
+	/**
+	 * Test that cache hits on deep expressions (far beyond what recursive
+	 * copies can handle with default stack sizes) are copied
+	 * @throws ParserException if parsing fails
+	 */
+	@Test
+	@DisplayName("parse(String) hit copies deep expressions")
+	public final void testDeepCopy() throws ParserException
+	{
+		int operators = 20_000;
+		StringBuilder source = new StringBuilder("x = 1; x");
+		for (int i = 0; i < operators; i++)
+		{
+			source.append(i % 2 == 0 ? " + 2" : " - 1");
+		}
+		CachingExpressionParser<Integer> parser = new CachingExpressionParser<>(0);
+		List<Expression<Integer>> first = parser.parse(source.toString());
+		long hits = cache.getHitCount();
+		VariableExpression.clearAll();
+		List<Expression<Integer>> second = parser.parse(source.toString());
+		assertEquals(hits + 2, cache.getHitCount());
+		assertNotSame(first.get(1), second.get(1));
+		assertEquals(Integer.valueOf(1 + operators / 2), second.get(1).value());
+	}
+}
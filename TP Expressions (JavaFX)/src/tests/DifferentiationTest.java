@@ -0,0 +1,197 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import expressions.Expression;
+import expressions.differentiation.Differentiator;
+import expressions.differentiation.FiniteDifferentiator;
+import expressions.differentiation.ForwardDifferentiator;
+import expressions.differentiation.Gradient;
+import expressions.differentiation.ReverseDifferentiator;
+import expressions.special.GroupExpression;
+import expressions.terminal.VariableExpression;
+import parser.ExpressionParser;
+import parser.exceptions.ParserException;
+
+/**
+ * Test class for {@link ForwardDifferentiator}, {@link ReverseDifferentiator}
+ * and {@link FiniteDifferentiator}
+ */
+@DisplayName("Differentiation")
+public class DifferentiationTest
+{
+	/**
+	 * Tolerance on exact derivatives
+	 */
+	private static final double epsilon = 1e-12;
+
+	/**
+	 * Variables values used in tests
+	 */
+	private static final String context = "x = 2; y = 3; z = 0.5";
+
+	/**
+	 * Parser used in tests
+	 */
+	private final ExpressionParser<Double> parser = new ExpressionParser<>(0.0);
+
+	/**
+	 * Setup before each test
+	 * @throws ParserException if context can't be parsed
+	 */
+	@BeforeEach
+	public void setUp() throws ParserException
+	{
+		VariableExpression.clearAll();
+		parser.parse(context);
+	}
+
+	/**
+	 * Tear down after each test
+	 */
+	@AfterEach
+	public void tearDown()
+	{
+		VariableExpression.clearAll();
+	}
+
+	/**
+	 * Exact differentiators
+	 * @return a stream of exact differentiators
+	 */
+	private static Stream<Differentiator> exactDifferentiators()
+	{
+		return Stream.of(new ForwardDifferentiator(), new ReverseDifferentiator());
+	}
+
+	/**
+	 * Expressions and their expected values and partial derivatives at
+	 * x = 2, y = 3, z = 0.5
+	 * @return a stream of (source, value, partials) arguments
+	 */
+	private static Stream<Arguments> expectedGradients()
+	{
+		double ln2 = Math.log(2.0);
+		return Stream.of(
+			Arguments.of("x + y - z", 4.5, new double[] {1.0, 1.0, -1.0}),
+			Arguments.of("x * y * x", 12.0, new double[] {12.0, 4.0}),
+			Arguments.of("x / y", 2.0 / 3.0, new double[] {1.0 / 3.0, -2.0 / 9.0}),
+			Arguments.of("x ^ 3", 8.0, new double[] {12.0}),
+			Arguments.of("2 ^ x", 4.0, new double[] {4.0 * ln2}),
+			Arguments.of("x ^ y", 8.0, new double[] {12.0, 8.0 * ln2}),
+			Arguments.of("(x - 2) ^ y", 0.0, new double[] {0.0, 0.0}),
+			Arguments.of("(y - 5) ^ 2", 4.0, new double[] {-4.0}),
+			Arguments.of("a = x * y + 1", 7.0, new double[] {3.0, 2.0}),
+			Arguments.of("(x + 1) / (x * z)", 3.0, new double[] {-0.5, -6.0}),
+			Arguments.of("7", 7.0, new double[0])
+		);
+	}
+
+	/**
+	 * Cartesian product of exact differentiators and expected gradients
+	 * @return a stream of (differentiator, source, value, partials) arguments
+	 */
+	private static Stream<Arguments> exactCases()
+	{
+		return exactDifferentiators().flatMap(d -> expectedGradients()
+		    .map(a -> Arguments.of(d, a.get()[0], a.get()[1], a.get()[2])));
+	}
+
+	/**
+	 * Test exact differentiation of all operators
+	 * @param differentiator the differentiator to test
+	 * @param source the expression source
+	 * @param value the expected value
+	 * @param partials the expected partial derivatives in order of first
+	 * appearance of variables
+	 * @throws ParserException if source can't be parsed
+	 */
+	@ParameterizedTest(name = "[{index}] {1}")
+	@MethodSource("exactCases")
+	@DisplayName("differentiate(Expression) is exact")
+	public final void testExact(Differentiator differentiator,
+	                            String source,
+	                            double value,
+	                            double[] partials) throws ParserException
+	{
+		Gradient gradient = differentiator.differentiate(parser.parse(source).get(0));
+		assertEquals(value, gradient.value(), epsilon);
+		assertEquals(partials.length, gradient.getVariables().size());
+		double[] actual = gradient.getPartials();
+		for (int i = 0; i < partials.length; i++)
+		{
+			assertEquals(partials[i], actual[i], epsilon, gradient.getVariables().get(i));
+		}
+	}
+
+	/**
+	 * Test that forward, reverse and finite differences agree on a larger
+	 * expression
+	 * @throws ParserException if source can't be parsed
+	 */
+	@Test
+	@DisplayName("forward == reverse ~= finite differences")
+	public final void testModesAgree() throws ParserException
+	{
+		Expression<Double> expression = parser.parse(
+		    "(x * y + x / (y + 3)) * z ^ 2 - (x - z) ^ y / (1 + x * x) + 2 ^ (y * z)")
+		    .get(0);
+		Gradient forward = new ForwardDifferentiator().differentiate(expression);
+		Gradient reverse = new ReverseDifferentiator().differentiate(expression);
+		Gradient finite = new FiniteDifferentiator().differentiate(expression);
+		assertEquals(List.of("x", "y", "z"), reverse.getVariables());
+		assertEquals(expression.value(), reverse.value(), epsilon);
+		assertTrue(forward.distance(reverse) < epsilon, () -> forward + " != " + reverse);
+		assertTrue(finite.distance(reverse) < 1e-6, () -> finite + " != " + reverse);
+	}
+
+	/**
+	 * Test that a compiled tape can be differentiated at other points
+	 * @throws ParserException if source can't be parsed
+	 */
+	@Test
+	@DisplayName("Tape.gradient(double[]) at any point")
+	public final void testTapeAtPoint() throws ParserException
+	{
+		ReverseDifferentiator.Tape tape =
+		    ReverseDifferentiator.compile(parser.parse("x * x * y").get(0));
+		Gradient gradient = tape.gradient(new double[] {3.0, -1.0});
+		assertEquals(-9.0, gradient.value(), epsilon);
+		assertEquals(-6.0, gradient.partial("x"), epsilon);
+		assertEquals(9.0, gradient.partial("y"), epsilon);
+		assertEquals(0.0, gradient.partial("z"), epsilon);
+		assertThrows(IllegalArgumentException.class, () -> tape.gradient(new double[1]));
+	}
+
+	/**
+	 * Test errors of all differentiators
+	 * @throws ParserException if source can't be parsed
+	 */
+	@Test
+	@DisplayName("differentiate(Expression) errors")
+	public final void testErrors() throws ParserException
+	{
+		Expression<Double> unknown = parser.parse("x + w").get(0);
+		Expression<Double> group = new GroupExpression<Double>();
+		Stream.concat(exactDifferentiators(), Stream.of(new FiniteDifferentiator()))
+		    .forEach(d -> {
+			    assertThrows(NullPointerException.class, () -> d.differentiate(null));
+			    assertThrows(IllegalStateException.class, () -> d.differentiate(unknown));
+			    assertThrows(UnsupportedOperationException.class,
+			                 () -> d.differentiate(group));
+		    });
+	}
+}
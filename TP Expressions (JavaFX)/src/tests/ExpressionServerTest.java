@@ -0,0 +1,232 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import server.ExpressionServer;
+
+/**
+ * Test class for {@link ExpressionServer}
+ */
+@DisplayName("ExpressionServer")
+public class ExpressionServerTest
+{
+	/**
+	 * Number of concurrent clients
+	 */
+	private static final int Clients = 8;
+
+	/**
+	 * Number of requests sent by each concurrent client
+	 */
+	private static final int Requests = 200;
+
+	/**
+	 * The server listening on any available port
+	 */
+	private ExpressionServer server;
+
+	/**
+	 * Client connection sending one request line and reading one response
+	 * line at a time
+	 */
+	private static class Client implements Closeable
+	{
+		/**
+		 * Connection socket
+		 */
+		private final Socket socket;
+
+		/**
+		 * Responses reader
+		 */
+		private final BufferedReader in;
+
+		/**
+		 * Requests writer
+		 */
+		private final PrintWriter out;
+
+		/**
+		 * Constructor
+		 * @param port the port of the server
+		 * @throws IOException if connection fails
+		 */
+		Client(int port) throws IOException
+		{
+			socket = new Socket(InetAddress.getLoopbackAddress(), port);
+			in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+			                                              StandardCharsets.UTF_8));
+			out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(),
+			                                             StandardCharsets.UTF_8),
+			                      true);
+		}
+
+		/**
+		 * Send a request
+		 * @param request the request line
+		 * @return the response line (or null if connection has been closed)
+		 * @throws IOException if reading response fails
+		 */
+		String send(String request) throws IOException
+		{
+			out.print(request + "\n");
+			out.flush();
+			return in.readLine();
+		}
+
+		/**
+		 * Close connection
+		 * @throws IOException if socket can't be closed
+		 */
+		@Override
+		public void close() throws IOException
+		{
+			socket.close();
+		}
+	}
+
+	/**
+	 * Setup before each test
+	 * @throws IOException if server can't be bound
+	 */
+	@BeforeEach
+	public void setUp() throws IOException
+	{
+		server = new ExpressionServer(0, ExpressionServer.DEFAULT_CACHE_SIZE, null);
+		server.start();
+	}
+
+	/**
+	 * Tear down after each test
+	 * @throws IOException if server can't be closed
+	 */
+	@AfterEach
+	public void tearDown() throws IOException
+	{
+		server.close();
+	}
+
+	/**
+	 * Test each connection evaluates expressions (including compiled
+	 * expressions shared through the cache) within its own variables
+	 * @throws IOException if communication fails
+	 */
+	@Test
+	@DisplayName("per connection variables")
+	public final void testIsolation() throws IOException
+	{
+		assertTrue(server.getPort() > 0);
+		try (Client first = new Client(server.getPort());
+		     Client second = new Client(server.getPort()))
+		{
+			assertEquals("OK 2;6", first.send("a = 2; a * 3"));
+			assertEquals("OK ", second.send("a * 3"));
+			assertEquals("OK 5", second.send("a = 5"));
+			// "a * 3" compiled by second connection is evaluated with a = 2
+			assertEquals("OK 6", first.send("a * 3"));
+			assertEquals("OK 15", second.send("a * 3"));
+			assertEquals("OK a=2", first.send(":vars"));
+			assertEquals("OK a=5", second.send(":vars"));
+			assertEquals("OK", second.send(":clear"));
+			assertEquals("OK ", second.send("a * 3"));
+			assertEquals("OK 6", first.send("a * 3"));
+			assertTrue(first.send("2 * (a").startsWith("ERR "));
+			assertEquals("ERR unknown command foo", first.send(":foo"));
+			assertNull(first.send(":quit"));
+		}
+	}
+
+	/**
+	 * Test ":type" changes the type of numbers (and clears variables) of a
+	 * single connection
+	 * @throws IOException if communication fails
+	 */
+	@Test
+	@DisplayName(":type")
+	public final void testType() throws IOException
+	{
+		try (Client first = new Client(server.getPort());
+		     Client second = new Client(server.getPort()))
+		{
+			assertEquals("OK 3;1", first.send("a = 3; a / 2"));
+			assertEquals("OK 3;1", second.send("a = 3; a / 2"));
+			assertEquals("OK", first.send(":type double"));
+			assertEquals("OK ", first.send("a / 2"));
+			assertEquals("OK 3.0;1.5", first.send("a = 3; a / 2"));
+			assertEquals("OK 1", second.send("a / 2"));
+			assertEquals("OK", second.send(":type float"));
+			assertEquals("OK 0.25", second.send("1 / 4"));
+			assertEquals("OK", first.send(":type int"));
+			assertEquals("OK 0", first.send("1 / 4"));
+			assertEquals("ERR unsupported type long", first.send(":type long"));
+			assertEquals("ERR missing type", first.send(":type"));
+		}
+	}
+
+	/**
+	 * Test concurrent connections evaluating the same cached expressions
+	 * with distinct values always get their own results
+	 * @throws Exception if communication fails
+	 */
+	@Test
+	@DisplayName("concurrent connections")
+	public final void testConcurrentConnections() throws Exception
+	{
+		ExecutorService executor = Executors.newFixedThreadPool(Clients);
+		try
+		{
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int c = 0; c < Clients; c++)
+			{
+				int value = c + 1;
+				results.add(executor.submit(() -> {
+					int errors = 0;
+					try (Client client = new Client(server.getPort()))
+					{
+						for (int i = 0; i < Requests; i++)
+						{
+							String assignment = client.send("a = " + (value + i));
+							String product = client.send("a * 3 + a");
+							if (!assignment.equals("OK " + (value + i))
+							    || !product.equals("OK " + (4 * (value + i))))
+							{
+								errors++;
+							}
+						}
+					}
+					return errors;
+				}));
+			}
+			for (Future<Integer> result : results)
+			{
+				assertEquals(0, result.get());
+			}
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+}
@@ -248,10 +248,14 @@ public class ExpressionTest
 	/**
 	 * Expression provider used in each Parameterized test
 	 * @return a stream of {@link Expression} to use in each @ParameterizedTest
+	 * @implNote Expressions are looked up when each test is about to run since
+	 * {@link #tearDown()} replaces them after each test: iterating over
+	 * {@link #expressionsMap} values while it is refilled could provide
+	 * replaced expressions (depending on the hash codes of classes).
 	 */
 	private static Stream<Expression<?>> expressionProvider()
 	{
-		return expressionsMap.values().stream();
+		return Stream.of(expressionClasses).map(type -> expressionsMap.get(type));
 	}
 
 	/**
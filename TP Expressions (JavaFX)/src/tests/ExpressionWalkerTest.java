@@ -0,0 +1,312 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import expressions.Expression;
+import expressions.binary.AdditionExpression;
+import expressions.binary.BinaryExpression;
+import expressions.binary.SubtractionExpression;
+import expressions.models.ExpressionsModel;
+import expressions.special.GroupExpression;
+import expressions.terminal.ConstantExpression;
+import expressions.terminal.VariableExpression;
+import expressions.visitors.ExpressionVisitor;
+import expressions.visitors.ExpressionWalker;
+import expressions.visitors.NodeVisitor;
+import parser.ExpressionParser;
+import parser.exceptions.ParserException;
+
+/**
+ * Test class for {@link ExpressionWalker} and iterative operations on deep
+ * expressions
+ */
+@DisplayName("ExpressionWalker")
+public class ExpressionWalkerTest
+{
+	/**
+	 * Depth of deep expressions (far beyond what recursive traversals can
+	 * handle with default stack sizes)
+	 */
+	private static final int Depth = 200_000;
+
+	/**
+	 * Setup before each test
+	 */
+	@BeforeEach
+	public void setUp()
+	{
+		VariableExpression.clearAll();
+	}
+
+	/**
+	 * Tear down after each test
+	 */
+	@AfterEach
+	public void tearDown()
+	{
+		VariableExpression.clearAll();
+	}
+
+	/**
+	 * Builds ((...((x - 1) + 1) - 1) ... + 1) with {@link #Depth} operators
+	 * (top-down so that each attachment only checks a single node)
+	 * @param last the deepest left operand
+	 * @return the root of the expression
+	 */
+	private static BinaryExpression<Integer> deepExpression(Expression<Integer> last)
+	{
+		BinaryExpression<Integer> root = new AdditionExpression<>();
+		BinaryExpression<Integer> current = root;
+		for (int i = 1; i < Depth; i++)
+		{
+			BinaryExpression<Integer> next = i % 2 == 0
+			    ? new AdditionExpression<>()
+			    : new SubtractionExpression<>();
+			current.setRight(new ConstantExpression<>(1));
+			current.setLeft(next);
+			current = next;
+		}
+		current.setRight(new ConstantExpression<>(1));
+		current.setLeft(last);
+		return root;
+	}
+
+	/**
+	 * Test walk order and operand results
+	 * @throws ParserException if expression can't be parsed
+	 */
+	@Test
+	@DisplayName("walk(Expression, ExpressionVisitor) order")
+	public final void testWalkOrder() throws ParserException
+	{
+		Expression<Integer> expression = new ExpressionParser<Integer>(0)
+		    .parse("(1 + 2) * 3 - 4 / 2").get(0);
+		List<String> events = new ArrayList<>();
+		String postfix = ExpressionWalker.walk(expression, new ExpressionVisitor<Integer, String>()
+		{
+			@Override
+			public String visitLeaf(Expression<Integer> leaf)
+			{
+				events.add(leaf.toString());
+				return leaf.toString();
+			}
+
+			@Override
+			public String visitBinary(BinaryExpression<Integer> binary, String left, String right)
+			{
+				events.add(")");
+				return left + " " + right + " " + binary.getRules();
+			}
+
+			@Override
+			public void enter(BinaryExpression<Integer> binary)
+			{
+				events.add("(");
+			}
+
+			@Override
+			public void between(BinaryExpression<Integer> binary)
+			{
+				events.add(binary.getRules().toString());
+			}
+		});
+		assertEquals("1 2 + 3 * 4 2 / -", postfix);
+		assertEquals("( ( ( 1 + 2 ) * 3 ) - ( 4 / 2 ) )", String.join(" ", events));
+	}
+
+	/**
+	 * Test search and iteration
+	 * @throws ParserException if expression can't be parsed
+	 */
+	@Test
+	@DisplayName("anyMatch(Expression, Predicate) & forEach(Expression, Consumer)")
+	public final void testAnyMatchForEach() throws ParserException
+	{
+		Expression<Integer> expression = new ExpressionParser<Integer>(0)
+		    .parse("a * (b + 2)").get(0);
+		List<String> nodes = new ArrayList<>();
+		ExpressionWalker.forEach(expression, node -> nodes.add(node.toString()));
+		assertEquals(List.of("a * (b + 2)", "a", "b + 2", "b", "2"), nodes);
+		assertTrue(ExpressionWalker.anyMatch(expression, node -> node.toString().equals("b")));
+		assertFalse(ExpressionWalker.anyMatch(expression, node -> node.toString().equals("c")));
+		assertFalse(ExpressionWalker.anyMatch(null, node -> true));
+		assertThrows(NullPointerException.class,
+		             () -> ExpressionWalker.walk(null, new ExpressionVisitor<Integer, Void>()
+		             {
+			             @Override
+			             public Void visitLeaf(Expression<Integer> leaf)
+			             {
+				             return null;
+			             }
+
+			             @Override
+			             public Void visitBinary(BinaryExpression<Integer> binary, Void left, Void right)
+			             {
+				             return null;
+			             }
+		             }));
+	}
+
+	/**
+	 * Test double dispatch of node visitors and search within groups
+	 * @throws ParserException if expressions can't be parsed
+	 */
+	@Test
+	@DisplayName("accept(NodeVisitor) & anyMatch(Expression, Predicate) in groups")
+	public final void testNodeVisitor() throws ParserException
+	{
+		List<Expression<Integer>> expressions = new ExpressionParser<Integer>(0)
+		    .parse("a = 2; b * (a + 3)");
+		GroupExpression<Integer> group = new GroupExpression<>(expressions);
+		NodeVisitor<Integer, String> kinds = new NodeVisitor<Integer, String>()
+		{
+			@Override
+			public String visitConstant(ConstantExpression<Integer> constant)
+			{
+				return "constant";
+			}
+
+			@Override
+			public String visitVariable(VariableExpression<Integer> variable)
+			{
+				return "variable";
+			}
+
+			@Override
+			public String visitBinary(BinaryExpression<Integer> binary)
+			{
+				return "binary";
+			}
+
+			@Override
+			public String visitGroup(GroupExpression<Integer> groupExpression)
+			{
+				return "group";
+			}
+		};
+		List<String> nodes = new ArrayList<>();
+		ExpressionWalker.forEach(group, node -> nodes.add(node.accept(kinds)));
+		assertEquals(List.of("group",
+		                     "binary", "variable", "constant",
+		                     "binary", "variable", "binary", "variable", "constant"),
+		             nodes);
+		assertTrue(ExpressionWalker.anyMatch(group, node -> node.toString().equals("b")));
+	}
+
+	/**
+	 * Test that deep expressions can be evaluated, rendered and searched
+	 */
+	@Test
+	@DisplayName("deep expressions value(), hasValue(), toString(), contains(...)")
+	public final void testDeepExpression()
+	{
+		VariableExpression<Integer> x = new VariableExpression<>("x");
+		BinaryExpression<Integer> root = deepExpression(x);
+		assertFalse(root.hasValue());
+		assertThrows(IllegalStateException.class, root::value);
+		x.setValue(7);
+		assertTrue(root.hasValue());
+		// As many "- 1" as "+ 1"
+		assertEquals(Integer.valueOf(7), root.value());
+		String rendered = root.toString();
+		assertTrue(rendered.startsWith("x - 1 + 1 - 1"), rendered.substring(0, 20));
+		assertEquals(1 + Depth * 4, rendered.length());
+		assertTrue(root.contains(x));
+		assertFalse(root.contains(new ConstantExpression<>(1)));
+	}
+
+	/**
+	 * Test that deep expressions can be built bottom-up (each new operator
+	 * checking that it is not contained in its operands) and that cycles are
+	 * still detected
+	 */
+	@Test
+	@DisplayName("deep expressions built bottom-up setParent(Expression)")
+	public final void testDeepBottomUp()
+	{
+		VariableExpression<Integer> x = new VariableExpression<>("x", 3);
+		BinaryExpression<Integer> deepest = new AdditionExpression<>(x, new ConstantExpression<>(1));
+		BinaryExpression<Integer> root = deepest;
+		for (int i = 1; i < Depth; i++)
+		{
+			root = new AdditionExpression<>(root, new ConstantExpression<>(1));
+		}
+		assertEquals(Integer.valueOf(3 + Depth), root.value());
+		BinaryExpression<Integer> top = root;
+		assertThrows(IllegalArgumentException.class, () -> top.setParent(deepest));
+		assertThrows(IllegalArgumentException.class, () -> top.setParent(top));
+		// A parent set without attaching is not a containment
+		BinaryExpression<Integer> detached = new AdditionExpression<>();
+		top.setParent(detached);
+		detached.setParent(deepest);
+		assertSame(deepest, detached.getParent());
+	}
+
+	/**
+	 * Test that an operator attached to another operator is detached from its
+	 * previous operator, so that cycles are still detected by climbing parents
+	 */
+	@Test
+	@DisplayName("setParent(Expression) on reattached operators")
+	public final void testReattachedOperators()
+	{
+		BinaryExpression<Integer> a = new AdditionExpression<>();
+		BinaryExpression<Integer> b = new AdditionExpression<>();
+		BinaryExpression<Integer> x = new AdditionExpression<>();
+		b.setLeft(x);
+		a.setLeft(x);
+		assertSame(a, x.getParent());
+		assertNull(b.getLeft());
+		// b doesn't contain x anymore so this is not a cycle
+		x.setLeft(b);
+		assertSame(x, b.getParent());
+		assertFalse(b.contains(x));
+		assertThrows(IllegalArgumentException.class, () -> x.setRight(a));
+
+		// Operand moved to another operator replacing it (as the parser does)
+		BinaryExpression<Integer> sum = new AdditionExpression<>();
+		BinaryExpression<Integer> y = new AdditionExpression<>();
+		BinaryExpression<Integer> product = new AdditionExpression<>();
+		sum.setRight(y);
+		product.setLeft(y);
+		sum.setRight(product);
+		assertSame(product, y.getParent());
+		assertThrows(IllegalArgumentException.class, () -> y.setLeft(sum));
+	}
+
+	/**
+	 * Test that models containing deep expressions can change their number
+	 * type
+	 * @throws ParserException if parsing fails
+	 */
+	@Test
+	@DisplayName("deep expressions ExpressionsModel#retype(Number)")
+	public final void testDeepRetype() throws ParserException
+	{
+		int operators = 20_000;
+		StringBuilder context = new StringBuilder("x = 1");
+		for (int i = 0; i < operators; i++)
+		{
+			context.append(i % 2 == 0 ? " + 2" : " - 1");
+		}
+		ExpressionsModel<Integer> model = new ExpressionsModel<>(0, null);
+		model.parse(context.toString());
+		assertEquals(Integer.valueOf(1 + operators / 2), model.getExpressions().get(0).value());
+		assertTrue(model.retype(0.0));
+		assertEquals(Double.valueOf(1 + operators / 2), model.getExpressions().get(0).value());
+		assertEquals(Double.valueOf(1 + operators / 2), model.getVariables().get("x").get());
+	}
+}
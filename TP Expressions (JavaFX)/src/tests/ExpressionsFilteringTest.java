@@ -0,0 +1,118 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import expressions.Expression;
+import expressions.binary.BinaryOperatorRules;
+import expressions.models.ExpressionsModel;
+import expressions.terminal.TerminalType;
+import expressions.terminal.VariableExpression;
+import parser.CachingExpressionParser;
+import parser.exceptions.ParserException;
+
+/**
+ * Test class for narrowing and widening filters of {@link ExpressionsModel}
+ * which only test visible or hidden expressions
+ */
+@DisplayName("ExpressionsModel filtering")
+public class ExpressionsFilteringTest
+{
+	/**
+	 * Setup before each test
+	 */
+	@BeforeEach
+	public void setUp()
+	{
+		VariableExpression.clearAll();
+		CachingExpressionParser.getCache().clear();
+	}
+
+	/**
+	 * Tear down after each test
+	 */
+	@AfterEach
+	public void tearDown()
+	{
+		VariableExpression.clearAll();
+		CachingExpressionParser.getCache().clear();
+	}
+
+	/**
+	 * Expressions containing a name
+	 * @param all all the expressions of the model
+	 * @param name the name to search
+	 * @return the expressions of all whose rendering contains name
+	 */
+	private static List<Expression<Integer>> containing(List<Expression<Integer>> all,
+	                                                   String name)
+	{
+		List<Expression<Integer>> result = new ArrayList<>();
+		for (Expression<Integer> expression : all)
+		{
+			if (name == null || expression.toString().contains(name))
+			{
+				result.add(expression);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Test successive narrowing, widening and unrelated searches produce the
+	 * same expressions as a full filtering
+	 * @throws ParserException if parsing expressions fails
+	 */
+	@Test
+	@DisplayName("setNameFiltering(String)")
+	public final void testNameFiltering() throws ParserException
+	{
+		ExpressionsModel<Integer> model = new ExpressionsModel<>(0, null);
+		model.parse("ab = 1; abc = 2; b = 3; ab + b; abc * 2; bc - 1");
+		List<Expression<Integer>> all = new ArrayList<>(model.getExpressions());
+		assertEquals(6, all.size());
+
+		for (String name : new String[] {"a", "ab", "abc", "ab", "", "b", "bc", "c", null, "abc"})
+		{
+			model.setNameFiltering(name);
+			assertEquals(containing(all, name), model.getExpressions(), name);
+		}
+
+		// Expressions added after a narrowing are tested as usual
+		model.parse("abc + ab; b * 4");
+		assertEquals(3, model.getExpressions().size());
+		model.setNameFiltering("ab");
+		assertEquals(5, model.getExpressions().size());
+	}
+
+	/**
+	 * Test operator and operand filters combined with a name filter
+	 * @throws ParserException if parsing expressions fails
+	 */
+	@Test
+	@DisplayName("setOperatorFiltering & setOperandFiltering")
+	public final void testCombinedFiltering() throws ParserException
+	{
+		ExpressionsModel<Integer> model = new ExpressionsModel<>(0, null);
+		model.parse("a = 1; a + 2; a * 3; b + 4; 5 + 6");
+		model.setNameFiltering("a");
+		assertEquals(3, model.getExpressions().size());
+		model.setOperatorFiltering(BinaryOperatorRules.ADDITION);
+		assertEquals(1, model.getExpressions().size());
+		model.setOperandFiltering(TerminalType.CONSTANTS);
+		assertEquals(1, model.getExpressions().size());
+		model.setNameFiltering(null);
+		assertEquals(3, model.getExpressions().size());
+		model.setOperatorFiltering(BinaryOperatorRules.ANY);
+		assertEquals(5, model.getExpressions().size());
+		model.setOperandFiltering(TerminalType.ALL);
+		assertEquals(5, model.getExpressions().size());
+	}
+}
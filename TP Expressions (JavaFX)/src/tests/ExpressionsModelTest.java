@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertIterableEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -49,11 +50,13 @@ import expressions.terminal.ConstantExpression;
 import expressions.terminal.TerminalType;
 import expressions.terminal.VariableExpression;
 import javafx.application.Platform;
+import javafx.beans.Observable;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ReadOnlyBooleanProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.scene.control.TreeItem;
 import logger.LoggerFactory;
@@ -2672,4 +2675,208 @@ class ExpressionsModelTest
 			             testName + " unexpected root item children size");
 		}
 	}
+
+	/**
+	 * Test method for {@link ExpressionsModel#evaluate(List)}
+	 * @param info Test infos
+	 * @throws ParserException if parsing fails
+	 */
+	@Test
+	@DisplayName("evaluate(List)")
+	@Order(32)
+	final void testEvaluate(TestInfo info) throws ParserException
+	{
+		String testName = info.getDisplayName();
+		testModel = new ExpressionsModel<>(specimen.get(), parentLogger);
+		int nbPairs = ExpressionsModel.ParallelThreshold;
+		for (int i = 0; i < nbPairs; i++)
+		{
+			String name = "v" + (char) ('a' + i % 26) + (char) ('a' + i / 26);
+			testModel.parse(name + " = " + i);
+			testModel.parse(name + " * 2 + y");
+		}
+		testModel.parse("z + 1");
+		Map<String, Optional<? extends Number>> variables = testModel.getVariables();
+		variables.put("y", Optional.of(Float.valueOf(0.5f)));
+		for (String name : new ArrayList<>(variables.keySet()))
+		{
+			if (name.startsWith("v"))
+			{
+				variables.put(name, Optional.of(Float.valueOf(-1.0f)));
+			}
+		}
+
+		List<Expression<Number>> expressions = testModel.getExpressions();
+		List<Number> values = testModel.evaluate(expressions);
+		assertEquals(expressions.size(), values.size(), testName + " unexpected values count");
+		for (int i = 0; i < nbPairs; i++)
+		{
+			assertEquals(Float.valueOf(i), values.get(2 * i),
+			             testName + " unexpected assignment value of " + expressions.get(2 * i));
+			assertEquals(Float.valueOf(2.0f * i + 0.5f), values.get(2 * i + 1),
+			             testName + " unexpected value of " + expressions.get(2 * i + 1));
+			String name = "v" + (char) ('a' + i % 26) + (char) ('a' + i / 26);
+			assertEquals(Optional.of(Float.valueOf(i)), variables.get(name),
+			             testName + " unexpected published value of " + name);
+		}
+		assertNull(values.get(values.size() - 1), testName + " unexpected value");
+	}
+
+	/**
+	 * Test method for {@link ExpressionsModel#undo()} and
+	 * {@link ExpressionsModel#redo()}
+	 * @param info Test infos
+	 * @throws ParserException if parsing fails
+	 */
+	@Test
+	@DisplayName("undo() & redo()")
+	@Order(33)
+	final void testUndoRedo(TestInfo info) throws ParserException
+	{
+		String testName = info.getDisplayName();
+		testModel = new ExpressionsModel<>(specimen.get(), parentLogger);
+		List<Expression<Number>> expressions = testModel.getExpressions();
+		Map<String, Optional<? extends Number>> variables = testModel.getVariables();
+		assertFalse(testModel.canUndo(), testName + " unexpected undo status");
+		assertFalse(testModel.undo(), testName + " unexpected undo");
+
+		testModel.parse("a = 2; a + b");
+		List<Expression<Number>> parsed = new ArrayList<>(expressions);
+		testModel.parse("c = 3");
+		assertTrue(testModel.canUndoProperty().get(), testName + " unexpected undo status");
+		assertTrue(testModel.undo(), testName + " undo failed");
+		assertEquals(parsed, expressions, testName + " unexpected undone expressions");
+		assertFalse(variables.containsKey("c"), testName + " unexpected undone variable");
+		assertTrue(testModel.canRedo(), testName + " unexpected redo status");
+		assertTrue(testModel.redo(), testName + " redo failed");
+		assertEquals(3, expressions.size(), testName + " unexpected redone expressions");
+		assertTrue(variables.containsKey("c"), testName + " unexpected redone variable");
+		assertFalse(testModel.canRedo(), testName + " unexpected redo status");
+
+		// Removing several expressions is a single edit
+		testModel.removeAll(List.of(expressions.get(0), expressions.get(2)));
+		assertEquals(1, expressions.size(), testName + " unexpected remaining expressions");
+		assertTrue(testModel.undo(), testName + " undo failed");
+		assertEquals(3, expressions.size(), testName + " unexpected restored expressions");
+		assertSame(parsed.get(0), expressions.get(0), testName + " unexpected restored instance");
+
+		// A new edit discards undone edits
+		assertTrue(testModel.undo(), testName + " undo failed");
+		testModel.parse("d");
+		assertFalse(testModel.canRedo(), testName + " unexpected redo status");
+		assertTrue(testModel.undo(), testName + " undo failed");
+		assertTrue(testModel.undo(), testName + " undo failed");
+		assertTrue(expressions.isEmpty(), testName + " unexpected initial expressions");
+		assertFalse(testModel.canUndo(), testName + " unexpected undo status");
+
+		// Changing number type clears history
+		testModel.redo();
+		testModel.retype(specimen.get() instanceof Integer ? Double.valueOf(0.0) : Integer.valueOf(0));
+		assertFalse(testModel.canUndo(), testName + " unexpected undo status");
+		assertFalse(testModel.canRedo(), testName + " unexpected redo status");
+	}
+
+	/**
+	 * Test method for {@link ExpressionsModel#retype(Number)}: only
+	 * expressions whose rendering or value depends on the number type are
+	 * reported (as updated) and variables are published at once
+	 * @param info Test infos
+	 * @throws ParserException if parsing fails
+	 */
+	@Test
+	@DisplayName("retype(Number)")
+	@Order(34)
+	final void testRetype(TestInfo info) throws ParserException
+	{
+		String testName = info.getDisplayName();
+		testModel = new ExpressionsModel<>(specimen.get(), parentLogger);
+		testModel.parse("a = 2.5; a + b; c; 3 * a");
+		ObservableList<Expression<Number>> expressions = testModel.getExpressions();
+		TreeItem<Expression<Number>> rootItem = testModel.getRootItem();
+		List<TreeItem<Expression<Number>>> items = new ArrayList<>(rootItem.getChildren());
+		TreeItem<Expression<Number>> assignmentItem = items.get(0);
+		assignmentItem.setExpanded(true);
+		List<TreeItem<Expression<Number>>> assignmentChildren =
+		    new ArrayList<>(assignmentItem.getChildren());
+
+		List<Integer> updated = new ArrayList<>();
+		int[] counts = {0, 0};
+		expressions.addListener((ListChangeListener.Change<? extends Expression<Number>> change) -> {
+			counts[0]++;
+			while (change.next())
+			{
+				assertTrue(change.wasUpdated(), testName + " unexpected change " + change);
+				for (int i = change.getFrom(); i < change.getTo(); i++)
+				{
+					updated.add(i);
+				}
+			}
+		});
+		testModel.getVariables().addListener((Observable observable) -> counts[1]++);
+
+		assertFalse(testModel.retype(Float.valueOf(0.0f)), testName + " unexpected retype");
+		assertTrue(testModel.retype(Integer.valueOf(0)), testName + " retype failed");
+		assertEquals(1, counts[0], testName + " unexpected expressions changes count");
+		assertEquals(List.of(0, 1, 3), updated, testName + " unexpected updated expressions");
+		assertEquals(1, counts[1], testName + " unexpected variables publications count");
+		assertEquals(Optional.of(Integer.valueOf(2)), testModel.getVariables().get("a"),
+		             testName + " unexpected retyped variable");
+		assertEquals(Integer.valueOf(6), expressions.get(3).value(),
+		             testName + " unexpected retyped value");
+
+		assertIterableEquals(items, rootItem.getChildren(), testName + " unexpected rebuilt items");
+		assertTrue(assignmentItem.isExpanded(), testName + " unexpected collapsed item");
+		assertIterableEquals(assignmentChildren, assignmentItem.getChildren(),
+		                     testName + " unexpected rebuilt sub-items");
+	}
+
+	/**
+	 * Test that {@link ExpressionsModel#undo()} and
+	 * {@link ExpressionsModel#redo()} only replace the expressions which
+	 * differ between states, so the tree items of other expressions survive
+	 * @param info Test infos
+	 * @throws ParserException if parsing fails
+	 */
+	@Test
+	@DisplayName("undo() & redo() tree items")
+	@Order(35)
+	final void testUndoRedoItems(TestInfo info) throws ParserException
+	{
+		String testName = info.getDisplayName();
+		testModel = new ExpressionsModel<>(specimen.get(), parentLogger);
+		testModel.parse("a = 1; a + 2; a * 3");
+		ObservableList<Expression<Number>> expressions = testModel.getExpressions();
+		TreeItem<Expression<Number>> rootItem = testModel.getRootItem();
+		List<TreeItem<Expression<Number>>> items = new ArrayList<>(rootItem.getChildren());
+		items.get(2).setExpanded(true);
+		testModel.reparse(expressions.get(1), "a - 2");
+		TreeItem<Expression<Number>> reparsedItem = rootItem.getChildren().get(1);
+
+		List<String> changes = new ArrayList<>();
+		expressions.addListener((ListChangeListener.Change<? extends Expression<Number>> change) -> {
+			while (change.next())
+			{
+				changes.add(change.getFrom() + ":-" + change.getRemovedSize() + "+" + change.getAddedSize());
+			}
+		});
+		assertTrue(testModel.undo(), testName + " undo failed");
+		assertEquals(List.of("1:-1+1"), changes, testName + " unexpected undo changes");
+		assertEquals("a + 2.0", expressions.get(1).toString(), testName + " unexpected undone expression");
+		assertSame(items.get(0), rootItem.getChildren().get(0), testName + " unexpected rebuilt item");
+		assertSame(items.get(2), rootItem.getChildren().get(2), testName + " unexpected rebuilt item");
+		assertTrue(items.get(2).isExpanded(), testName + " unexpected collapsed item");
+
+		changes.clear();
+		assertTrue(testModel.redo(), testName + " redo failed");
+		assertEquals(List.of("1:-1+1"), changes, testName + " unexpected redo changes");
+		assertNotSame(reparsedItem, rootItem.getChildren().get(1), testName + " unexpected reused item");
+		assertSame(items.get(2), rootItem.getChildren().get(2), testName + " unexpected rebuilt item");
+
+		// Removing expressions at both ends is undone by a single change
+		testModel.removeAll(List.of(expressions.get(0), expressions.get(2)));
+		changes.clear();
+		assertTrue(testModel.undo(), testName + " undo failed");
+		assertEquals(List.of("0:-1+3"), changes, testName + " unexpected undo changes");
+		assertEquals(3, rootItem.getChildren().size(), testName + " unexpected items count");
+	}
 }
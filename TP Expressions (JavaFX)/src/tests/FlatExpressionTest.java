@@ -0,0 +1,158 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import expressions.Expression;
+import expressions.flat.FlatExpression;
+import expressions.special.GroupExpression;
+import expressions.terminal.VariableExpression;
+import parser.ExpressionParser;
+import parser.exceptions.ParserException;
+
+/**
+ * Test class for {@link FlatExpression}
+ */
+@DisplayName("FlatExpression")
+public class FlatExpressionTest
+{
+	/**
+	 * Source of the expression evaluated at random points
+	 */
+	private static final String Source = "x * y - x / (y + 3) + x ^ 2 - 2 ^ y * (x - y)";
+
+	/**
+	 * Setup before each test
+	 */
+	@BeforeEach
+	public void setUp()
+	{
+		VariableExpression.clearAll();
+	}
+
+	/**
+	 * Tear down after each test
+	 */
+	@AfterEach
+	public void tearDown()
+	{
+		VariableExpression.clearAll();
+	}
+
+	/**
+	 * Test flat evaluations of Double expressions are the same as trees ones
+	 * @throws ParserException if expression can't be parsed
+	 */
+	@Test
+	@DisplayName("evaluate() with Doubles")
+	public final void testDoubles() throws ParserException
+	{
+		Expression<Double> expression = new ExpressionParser<Double>(0.0).parse(Source).get(0);
+		FlatExpression flat = FlatExpression.compile(expression, 0.0);
+		VariableExpression<Double> x = new VariableExpression<>("x");
+		VariableExpression<Double> y = new VariableExpression<>("y");
+		Random random = new Random(42);
+		for (int i = 0; i < 1000; i++)
+		{
+			x.setValue(-5.0 + 10.0 * random.nextDouble());
+			y.setValue(-2.0 + 4.0 * random.nextDouble());
+			assertEquals(expression.value(), flat.evaluate());
+			assertEquals(expression.value(), flat.evaluate(x.value(), y.value()));
+		}
+	}
+
+	/**
+	 * Test flat evaluations of Float expressions are the same as trees ones
+	 * @throws ParserException if expression can't be parsed
+	 */
+	@Test
+	@DisplayName("evaluate() with Floats")
+	public final void testFloats() throws ParserException
+	{
+		Expression<Float> expression = new ExpressionParser<Float>(0.0f).parse(Source).get(0);
+		FlatExpression flat = FlatExpression.compile(expression, 0.0f);
+		VariableExpression<Float> x = new VariableExpression<>("x");
+		VariableExpression<Float> y = new VariableExpression<>("y");
+		Random random = new Random(42);
+		for (int i = 0; i < 1000; i++)
+		{
+			x.setValue(-5.0f + 10.0f * random.nextFloat());
+			y.setValue(-2.0f + 4.0f * random.nextFloat());
+			assertEquals(expression.value().doubleValue(), flat.evaluate());
+		}
+	}
+
+	/**
+	 * Test flat evaluations of Integer expressions are the same as trees ones
+	 * @throws ParserException if expression can't be parsed
+	 */
+	@Test
+	@DisplayName("evaluate() with Integers")
+	public final void testIntegers() throws ParserException
+	{
+		Expression<Integer> expression = new ExpressionParser<Integer>(0).parse(Source).get(0);
+		FlatExpression flat = FlatExpression.compile(expression, 0);
+		VariableExpression<Integer> x = new VariableExpression<>("x");
+		VariableExpression<Integer> y = new VariableExpression<>("y");
+		Random random = new Random(42);
+		for (int i = 0; i < 1000; i++)
+		{
+			x.setValue(random.nextInt(2000) - 1000);
+			y.setValue(random.nextInt(40) - 2);
+			assertEquals(expression.value().doubleValue(), flat.evaluate());
+		}
+		// Overflows wrap as ints do
+		Expression<Integer> product = new ExpressionParser<Integer>(0).parse("x * x").get(0);
+		x.setValue(100000);
+		assertEquals(product.value().doubleValue(),
+		             FlatExpression.compile(product, 0).evaluate());
+		assertThrows(ArithmeticException.class,
+		             () -> FlatExpression.compile(new ExpressionParser<Integer>(0)
+		                 .parse("1 / (x - x)").get(0), 0).evaluate());
+	}
+
+	/**
+	 * Test analyses of flat expressions
+	 * @throws ParserException if expression can't be parsed
+	 */
+	@Test
+	@DisplayName("size(), depth(), count(int), reads(String), getVariables()")
+	public final void testAnalyses() throws ParserException
+	{
+		Expression<Double> expression = new ExpressionParser<Double>(0.0)
+		    .parse("a = (b + 2) * (b - 2) / c").get(0);
+		FlatExpression flat = FlatExpression.compile(expression, 0.0);
+		assertEquals(11, flat.size());
+		assertEquals(5, flat.depth());
+		assertEquals(List.of("a", "b", "c"), flat.getVariables());
+		assertEquals(4, flat.count(FlatExpression.VARIABLE));
+		assertEquals(2, flat.count(FlatExpression.CONSTANT));
+		assertEquals(FlatExpression.ASSIGNMENT, flat.opcode(flat.size() - 1));
+		// Equal constants share the pool
+		assertEquals(flat.left(2), flat.left(5));
+		assertEquals(2.0, flat.constant(flat.left(2)));
+		assertFalse(flat.reads("a"));
+		assertTrue(flat.reads("b"));
+		assertFalse(flat.reads("d"));
+		assertThrows(IllegalStateException.class, flat::evaluate);
+		new VariableExpression<>("b", 4.0);
+		new VariableExpression<>("c", 2.0);
+		// Assigned variables don't need a value
+		assertEquals(6.0, flat.evaluate());
+		assertThrows(IllegalArgumentException.class, () -> flat.evaluate(1.0));
+		assertThrows(UnsupportedOperationException.class,
+		             () -> FlatExpression.compile(new GroupExpression<>(List.of(expression)), 0.0));
+		assertThrows(NullPointerException.class,
+		             () -> FlatExpression.compile(expression, null));
+	}
+}
@@ -0,0 +1,264 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import utils.FlyweightFactory;
+import utils.FlyweightFactory.Policy;
+
+/**
+ * Test class for {@link FlyweightFactory} retention policies and statistics
+ */
+@DisplayName("FlyweightFactory<T>")
+public class FlyweightFactoryTest
+{
+	/**
+	 * Maximum time to wait for the garbage collector (in ms)
+	 */
+	private static final long CollectionTimeout = 10_000;
+
+	/**
+	 * A new instance equal to other instances with the same content
+	 * @param content the content of the instance
+	 * @return a new String instance
+	 */
+	private static String instance(String content)
+	{
+		return new String(content);
+	}
+
+	/**
+	 * Wait until the garbage collector has emptied a factory
+	 * @param factory the factory whose elements are not referenced anymore
+	 * @return true if the factory has been emptied before
+	 * {@link #CollectionTimeout}
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	private static boolean awaitCollection(FlyweightFactory<?> factory)
+	    throws InterruptedException
+	{
+		long deadline = System.currentTimeMillis() + CollectionTimeout;
+		while (factory.size() > 0)
+		{
+			if (System.currentTimeMillis() > deadline)
+			{
+				return false;
+			}
+			System.gc();
+			Thread.sleep(10);
+		}
+		return true;
+	}
+
+	/**
+	 * Test equal elements are shared and statistics are counted for each
+	 * policy
+	 * @param policy the policy of the tested factory
+	 */
+	@ParameterizedTest(name = "[{index}] {0}")
+	@EnumSource(Policy.class)
+	@DisplayName("get(T) & statistics")
+	public final void testGet(Policy policy)
+	{
+		FlyweightFactory<String> factory = new FlyweightFactory<>(policy, 16, null);
+		assertSame(policy, factory.getPolicy());
+		assertEquals(0.0, factory.getHitRatio());
+		String first = instance("a");
+		assertSame(first, factory.get(first));
+		assertSame(first, factory.get(instance("a")));
+		assertSame(first, factory.get(instance("a")));
+		String other = factory.get(instance("b"));
+		assertNotSame(first, other);
+		assertNull(factory.get((String) null));
+		assertEquals(2, factory.size());
+		assertEquals(2, factory.getHitCount());
+		assertEquals(2, factory.getMissCount());
+		assertEquals(0.5, factory.getHitRatio());
+		assertEquals(0, factory.getEvictionCount());
+
+		// Statistics survive clearing
+		factory.clear();
+		assertEquals(0, factory.size());
+		assertNotSame(first, factory.get(instance("a")));
+		assertEquals(3, factory.getMissCount());
+		assertTrue(factory.toString().contains(policy.toString()), factory.toString());
+	}
+
+	/**
+	 * Test elements created from explicit keys
+	 * @param policy the policy of the tested factory
+	 */
+	@ParameterizedTest(name = "[{index}] {0}")
+	@EnumSource(Policy.class)
+	@DisplayName("get(K, Function)")
+	public final void testGetFromKey(Policy policy)
+	{
+		FlyweightFactory<StringBuilder> factory = new FlyweightFactory<>(policy, 16, null);
+		int[] created = {0};
+		StringBuilder element = factory.get(42, (Integer key) -> {
+			created[0]++;
+			return new StringBuilder(key.toString());
+		});
+		assertSame(element, factory.get(42, (Integer key) -> new StringBuilder()));
+		assertEquals(1, created[0]);
+		assertNull(factory.get(null, (Object key) -> new StringBuilder()));
+		assertNull(factory.get(43, (Integer key) -> null));
+		assertEquals(1, factory.size());
+		assertThrows(NullPointerException.class, () -> factory.get(44, null));
+	}
+
+	/**
+	 * Test invalid constructor arguments
+	 */
+	@Test
+	@DisplayName("FlyweightFactory(Policy, int, Logger)")
+	public final void testConstructor()
+	{
+		assertThrows(NullPointerException.class, () -> new FlyweightFactory<String>(null, 0, null));
+		assertThrows(IllegalArgumentException.class,
+		             () -> new FlyweightFactory<String>(Policy.LRU, 0, null));
+		assertSame(Policy.STRONG, new FlyweightFactory<String>().getPolicy());
+	}
+
+	/**
+	 * Test least recently used elements are evicted from LRU factories
+	 */
+	@Test
+	@DisplayName("LRU eviction")
+	public final void testLRUEviction()
+	{
+		FlyweightFactory<String> factory = new FlyweightFactory<>(Policy.LRU, 2, null);
+		String a = factory.get(instance("a"));
+		factory.get(instance("b"));
+		assertSame(a, factory.get(instance("a")));	// b is now the eldest
+		factory.get(instance("c"));
+		assertEquals(2, factory.size());
+		assertEquals(1, factory.getEvictionCount());
+		assertSame(a, factory.get(instance("a")));
+		long misses = factory.getMissCount();
+		factory.get(instance("b"));
+		assertEquals(misses + 1, factory.getMissCount());
+		assertEquals(2, factory.getEvictionCount());
+	}
+
+	/**
+	 * Test elements of weak factories are reclaimed once they are not used
+	 * anymore while used elements are kept
+	 * @throws InterruptedException if interrupted while waiting for the
+	 * garbage collector
+	 */
+	@Test
+	@DisplayName("WEAK reclamation")
+	public final void testWeakReclamation() throws InterruptedException
+	{
+		FlyweightFactory<String> factory = new FlyweightFactory<>(Policy.WEAK, 0, null);
+		String kept = factory.get(instance("kept"));
+		for (int i = 0; i < 100; i++)
+		{
+			factory.get(instance(Integer.toString(i)));
+			factory.get(i, (Integer key) -> instance("key " + key));
+		}
+		assertEquals(201, factory.size());
+		long deadline = System.currentTimeMillis() + CollectionTimeout;
+		while ((factory.size() > 1) && (System.currentTimeMillis() < deadline))
+		{
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertEquals(1, factory.size());
+		assertEquals(200, factory.getEvictionCount());
+		assertSame(kept, factory.get(instance("kept")));
+
+		// A reclaimed element is created again
+		kept = null;
+		assertTrue(awaitCollection(factory));
+		assertEquals(201, factory.getEvictionCount());
+		assertEquals(201, factory.getMissCount());
+		factory.get(instance("kept"));
+		assertEquals(202, factory.getMissCount());
+	}
+
+	/**
+	 * Test elements of soft factories survive garbage collections while
+	 * memory is available
+	 * @implNote Soft references are only cleared under memory pressure,
+	 * which can't be triggered reliably by a test.
+	 */
+	@Test
+	@DisplayName("SOFT retention")
+	public final void testSoftRetention()
+	{
+		FlyweightFactory<String> factory = new FlyweightFactory<>(Policy.SOFT, 0, null);
+		int hash = System.identityHashCode(factory.get(instance("soft")));
+		System.gc();
+		assertEquals(1, factory.size());
+		assertEquals(hash, System.identityHashCode(factory.get(instance("soft"))));
+		assertEquals(1, factory.getHitCount());
+		assertEquals(0, factory.getEvictionCount());
+	}
+
+	/**
+	 * Test concurrent requests share a single element and count every
+	 * request
+	 * @throws Exception if a request fails
+	 */
+	@Test
+	@DisplayName("concurrent get(T)")
+	public final void testConcurrentGet() throws Exception
+	{
+		FlyweightFactory<String> factory = new FlyweightFactory<>(Policy.WEAK, 0, null);
+		int threads = 4;
+		int requests = 1000;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try
+		{
+			List<Callable<List<String>>> tasks = new ArrayList<>();
+			for (int t = 0; t < threads; t++)
+			{
+				tasks.add(() -> {
+					List<String> results = new ArrayList<>(requests);
+					for (int i = 0; i < requests; i++)
+					{
+						results.add(factory.get(instance("shared")));
+					}
+					return results;
+				});
+			}
+			String shared = null;
+			for (Future<List<String>> future : executor.invokeAll(tasks))
+			{
+				for (String result : future.get())
+				{
+					if (shared == null)
+					{
+						shared = result;
+					}
+					assertSame(shared, result);
+				}
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+		assertEquals(threads * requests, factory.getHitCount() + factory.getMissCount());
+		assertTrue(factory.getMissCount() >= 1);
+		assertEquals(1, factory.size());
+	}
+}
@@ -0,0 +1,216 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import expressions.Expression;
+import expressions.interval.Interval;
+import expressions.interval.IntervalEvaluator;
+import expressions.terminal.VariableExpression;
+import parser.ExpressionParser;
+import parser.exceptions.ParserException;
+
+/**
+ * Test class for {@link Interval} and {@link IntervalEvaluator}
+ */
+@DisplayName("Interval")
+public class IntervalTest
+{
+	/**
+	 * Setup before each test
+	 */
+	@BeforeEach
+	public void setUp()
+	{
+		VariableExpression.clearAll();
+	}
+
+	/**
+	 * Tear down after each test
+	 */
+	@AfterEach
+	public void tearDown()
+	{
+		VariableExpression.clearAll();
+	}
+
+	/**
+	 * Assert an interval contains an exact value
+	 * @param interval the interval
+	 * @param exact the exact value
+	 */
+	private static void assertEncloses(Interval interval, BigDecimal exact)
+	{
+		assertTrue(new BigDecimal(interval.lower()).compareTo(exact) <= 0
+		    && exact.compareTo(new BigDecimal(interval.upper())) <= 0,
+		           () -> interval + " does not contain " + exact);
+	}
+
+	/**
+	 * Test outward rounding of arithmetic operations
+	 */
+	@Test
+	@DisplayName("add, subtract, multiply, divide round outward")
+	public final void testOutwardRounding()
+	{
+		BigDecimal a = new BigDecimal(0.1);
+		BigDecimal b = new BigDecimal(0.2);
+		Interval x = Interval.point(0.1);
+		Interval y = Interval.point(0.2);
+		assertEncloses(x.add(y), a.add(b));
+		assertEncloses(x.subtract(y), a.subtract(b));
+		assertEncloses(x.multiply(y), a.multiply(b));
+		assertEncloses(x.divide(y), a.divide(b, MathContext.DECIMAL128));
+		assertEncloses(Interval.point(1.0).divide(Interval.point(3.0)),
+		               BigDecimal.ONE.divide(new BigDecimal(3), MathContext.DECIMAL128));
+		assertTrue(x.add(y).upper() - x.add(y).lower() <= Math.ulp(0.3));
+		// Exact results are not widened
+		assertEquals(Interval.point(5.0), Interval.point(2.0).add(Interval.point(3.0)));
+		assertEquals(Interval.point(6.0), Interval.point(2.0).multiply(Interval.point(3.0)));
+		assertEquals(Interval.point(0.5), Interval.point(1.0).divide(Interval.point(2.0)));
+		assertEquals(Interval.of(-6.0, 9.0),
+		             Interval.of(-2.0, 3.0).multiply(Interval.of(-1.0, 3.0)));
+	}
+
+	/**
+	 * Test division by intervals containing zero
+	 */
+	@Test
+	@DisplayName("divide(Interval) by intervals containing 0")
+	public final void testDivideByZero()
+	{
+		assertEquals(Interval.of(0.25, Double.POSITIVE_INFINITY),
+		             Interval.of(1.0, 2.0).divide(Interval.of(0.0, 4.0)));
+		assertEquals(Interval.of(Double.NEGATIVE_INFINITY, -0.25),
+		             Interval.of(1.0, 2.0).divide(Interval.of(-4.0, 0.0)));
+		assertEquals(Interval.of(0.25, Double.POSITIVE_INFINITY),
+		             Interval.of(-2.0, -1.0).divide(Interval.of(-4.0, 0.0)));
+		assertEquals(Interval.ENTIRE, Interval.of(1.0, 2.0).divide(Interval.of(-1.0, 1.0)));
+		assertEquals(Interval.ENTIRE, Interval.of(-1.0, 2.0).divide(Interval.of(0.0, 1.0)));
+		assertEquals(Interval.ENTIRE, Interval.of(1.0, 2.0).divide(Interval.point(0.0)));
+	}
+
+	/**
+	 * Test power of intervals
+	 */
+	@Test
+	@DisplayName("pow(Interval)")
+	public final void testPow()
+	{
+		assertEquals(Interval.of(0.0, 9.0), Interval.of(-2.0, 3.0).pow(Interval.point(2.0)));
+		assertEquals(Interval.of(-8.0, -1.0), Interval.of(-2.0, -1.0).pow(Interval.point(3.0)));
+		assertEquals(Interval.of(1.0, 4.0), Interval.of(-2.0, -1.0).pow(Interval.point(2.0)));
+		assertEquals(Interval.of(0.5, Double.POSITIVE_INFINITY),
+		             Interval.of(0.0, 2.0).pow(Interval.point(-1.0)));
+		assertEquals(Interval.ENTIRE, Interval.of(-1.0, 2.0).pow(Interval.point(-1.0)));
+		assertEquals(Interval.point(1.0), Interval.ENTIRE.pow(Interval.point(0.0)));
+		Interval root = Interval.of(1.0, 4.0).pow(Interval.point(0.5));
+		assertTrue(root.contains(Interval.of(1.0, 2.0)), root::toString);
+		assertTrue(root.lower() >= Math.nextDown(Math.nextDown(1.0)));
+		Interval corners = Interval.of(0.5, 2.0).pow(Interval.of(-1.0, 3.0));
+		assertTrue(corners.contains(Interval.of(0.125, 8.0)), corners::toString);
+		assertEquals(Interval.ENTIRE, Interval.of(-1.0, 2.0).pow(Interval.of(0.5, 1.0)));
+	}
+
+	/**
+	 * Test that ranges contain values of Double expressions at random points
+	 * @throws ParserException if expression can't be parsed
+	 */
+	@Test
+	@DisplayName("range(Expression) contains all values")
+	public final void testRangeContainsValues() throws ParserException
+	{
+		Expression<Double> expression = new ExpressionParser<Double>(0.0)
+		    .parse("x * y - x / (y + 3) + x ^ 2 - 2 ^ y").get(0);
+		IntervalEvaluator evaluator = new IntervalEvaluator(0.0);
+		evaluator.bind("x", Interval.of(-2.0, 3.0));
+		evaluator.bind("y", Interval.of(0.5, 4.0));
+		Interval range = evaluator.range(expression);
+		VariableExpression<Double> x = new VariableExpression<>("x");
+		VariableExpression<Double> y = new VariableExpression<>("y");
+		Random random = new Random(42);
+		for (int i = 0; i < 1000; i++)
+		{
+			x.setValue(-2.0 + 5.0 * random.nextDouble());
+			y.setValue(0.5 + 3.5 * random.nextDouble());
+			assertTrue(range.contains(expression.value()),
+			           () -> range + " does not contain " + expression.value());
+		}
+	}
+
+	/**
+	 * Test ranges of Integer expressions
+	 * @throws ParserException if expressions can't be parsed
+	 */
+	@Test
+	@DisplayName("range(Expression) with Integers")
+	public final void testIntegerRanges() throws ParserException
+	{
+		ExpressionParser<Integer> parser = new ExpressionParser<>(0);
+		IntervalEvaluator evaluator = new IntervalEvaluator(0);
+		evaluator.bind("x", Interval.of(5.0, 7.0));
+		evaluator.bind("y", Interval.of(-2.0, 2.0));
+		assertEquals(Interval.of(2.0, 3.0), evaluator.range(parser.parse("x / 2").get(0)));
+		assertEquals(Interval.of(-7.0, 7.0), evaluator.range(parser.parse("x / y").get(0)));
+		assertEquals(Interval.of(0.0, 0.0), evaluator.range(parser.parse("x ^ (0 - 1)").get(0)));
+		evaluator.bind("x", Interval.of(0.0, 100000.0));
+		assertEquals(Interval.of(Integer.MIN_VALUE, Integer.MAX_VALUE),
+		             evaluator.range(parser.parse("x * x").get(0)));
+		assertThrows(IllegalArgumentException.class,
+		             () -> evaluator.bind("x", Interval.of(0.2, 0.8)));
+	}
+
+	/**
+	 * Test ranges of Float expressions contain float results
+	 * @throws ParserException if expression can't be parsed
+	 */
+	@Test
+	@DisplayName("range(Expression) with Floats")
+	public final void testFloatRanges() throws ParserException
+	{
+		IntervalEvaluator evaluator = new IntervalEvaluator(0.0f);
+		evaluator.bind("x", Interval.point(1.0));
+		Interval range = evaluator.range(new ExpressionParser<Float>(0.0f)
+		    .parse("x / 3").get(0));
+		assertTrue(range.contains(1.0f / 3.0f), range::toString);
+		assertEquals((float) range.lower(), range.lower());
+		assertEquals((float) range.upper(), range.upper());
+	}
+
+	/**
+	 * Test filtering and caching of ranges
+	 * @throws ParserException if expressions can't be parsed
+	 */
+	@Test
+	@DisplayName("filter(Collection, Interval) uses cached ranges")
+	public final void testFilter() throws ParserException
+	{
+		List<Expression<Double>> expressions = new ExpressionParser<Double>(0.0)
+		    .parse("x + 1; x * x; 10 - x; x - 100");
+		IntervalEvaluator evaluator = new IntervalEvaluator(0.0);
+		evaluator.bind("x", Interval.of(0.0, 2.0));
+		List<Expression<Double>> selected = evaluator.filter(expressions, Interval.of(5.0, 9.0));
+		assertEquals(List.of(expressions.get(2)), selected);
+		int cached = evaluator.cacheSize();
+		assertEquals(12, cached);
+		evaluator.filter(expressions, Interval.of(-200.0, 0.0));
+		assertEquals(cached, evaluator.cacheSize());
+		assertTrue(evaluator.isWithin(expressions.get(1), Interval.of(0.0, 4.0)));
+		assertFalse(evaluator.mayIntersect(expressions.get(3), Interval.of(0.0, 4.0)));
+		evaluator.bind("x", Interval.of(8.0, 9.0));
+		assertEquals(0, evaluator.cacheSize());
+		assertEquals(List.of(expressions.get(0)), evaluator.filter(expressions, Interval.of(9.0, 9.5)));
+	}
+}
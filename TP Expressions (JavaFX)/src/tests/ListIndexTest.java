@@ -0,0 +1,241 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import expressions.Expression;
+import expressions.special.GroupExpression;
+import expressions.terminal.ConstantExpression;
+import expressions.terminal.VariableExpression;
+import utils.ListIndex;
+
+/**
+ * Test class for {@link ListIndex}, directly and through
+ * {@link GroupExpression}s
+ */
+@DisplayName("ListIndex")
+public class ListIndexTest
+{
+	/**
+	 * Setup before each test
+	 */
+	@BeforeEach
+	public void setUp()
+	{
+		VariableExpression.clearAll();
+	}
+
+	/**
+	 * Tear down after each test
+	 */
+	@AfterEach
+	public void tearDown()
+	{
+		VariableExpression.clearAll();
+	}
+
+	/**
+	 * Index of an instance in a list
+	 * @param list the list to search
+	 * @param element the instance to search
+	 * @return the index of the instance in the list or -1
+	 */
+	private static int identityIndexOf(List<?> list, Object element)
+	{
+		for (int i = 0; i < list.size(); i++)
+		{
+			if (list.get(i) == element)
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Test random modifications of a group against an {@link ArrayList}
+	 */
+	@Test
+	@DisplayName("contains(Object), indexOf(Object) & remove(Object) after random modifications")
+	public final void testRandomModifications()
+	{
+		Random random = new Random(42);
+		GroupExpression<Integer> group = new GroupExpression<>();
+		List<Expression<Integer>> expected = new ArrayList<>();
+		for (int i = 0; i < 2000; i++)
+		{
+			int operation = expected.isEmpty() ? 0 : random.nextInt(4);
+			switch (operation)
+			{
+				case 0:
+				{
+					Expression<Integer> expression = new ConstantExpression<>(random.nextInt(100));
+					int index = random.nextInt(expected.size() + 1);
+					group.add(index, expression);
+					expected.add(index, expression);
+					break;
+				}
+				case 1:
+				{
+					int index = random.nextInt(expected.size());
+					group.remove(index);
+					expected.remove(index);
+					break;
+				}
+				case 2:
+				{
+					Expression<Integer> expression = new ConstantExpression<>(random.nextInt(100));
+					int index = random.nextInt(expected.size());
+					group.set(index, expression);
+					expected.set(index, expression);
+					break;
+				}
+				default:
+				{
+					Expression<Integer> expression = new ConstantExpression<>(random.nextInt(100));
+					group.add(expression);
+					expected.add(expression);
+					break;
+				}
+			}
+			if (expected.isEmpty())
+			{
+				continue;
+			}
+			// Instance lookup
+			Expression<Integer> member = expected.get(random.nextInt(expected.size()));
+			assertTrue(group.contains(member));
+			assertEquals(identityIndexOf(expected, member), group.indexOf(member));
+			// Equality lookup
+			Expression<Integer> probe = new ConstantExpression<>(random.nextInt(100));
+			assertEquals(expected.contains(probe), group.contains(probe));
+			assertEquals(expected.indexOf(probe), group.indexOf(probe));
+		}
+		Expression<Integer> first = expected.get(0);
+		assertTrue(group.remove((Object) first));
+		expected.remove(0);
+		assertEquals(expected.contains(first), group.contains(first));
+		assertEquals(expected, new ArrayList<>(group));
+	}
+
+	/**
+	 * Test removals through iterators and in place modifications
+	 */
+	@Test
+	@DisplayName("iterator().remove() & in place modifications")
+	public final void testIteratorAndMutations()
+	{
+		VariableExpression<Integer> a = new VariableExpression<>("a");
+		ConstantExpression<Integer> two = new ConstantExpression<>(2);
+		GroupExpression<Integer> group = new GroupExpression<>(List.of(a, two));
+		Iterator<Expression<Integer>> iterator = group.iterator();
+		assertThrows(IllegalStateException.class, iterator::remove);
+		iterator.next();
+		iterator.remove();
+		assertFalse(group.contains(a));
+		assertTrue(group.contains(two));
+		assertEquals(0, group.indexOf(two));
+
+		// Constants converted in place are indexed again when set in place
+		two.retype(0.0, new HashMap<>());
+		group.set(0, two);
+		ConstantExpression<Double> converted = new ConstantExpression<>(2.0);
+		assertTrue(group.contains(converted));
+		assertEquals(0, group.indexOf(converted));
+		group.clear();
+		assertFalse(group.contains(two));
+		assertEquals(-1, group.indexOf(two));
+	}
+
+	/**
+	 * Test {@link ListIndex} operations directly on a list whose changes are
+	 * reported by hand: insertions and removals shifting positions,
+	 * replacements, permutations, duplicates and equal but distinct elements
+	 */
+	@Test
+	@DisplayName("replaced(List, int, List, int), permuted(int) & reset(List)")
+	public final void testDirectOperations()
+	{
+		ListIndex<String> index = new ListIndex<>();
+		List<String> list = new ArrayList<>();
+		String a = new String("a");
+		String b = new String("b");
+		String c = new String("c");
+		String otherA = new String("a");
+
+		// Appending
+		list.addAll(List.of(a, b, c));
+		index.replaced(list, 0, List.of(), 3);
+		assertTrue(index.contains(b));
+		assertTrue(index.contains(otherA));
+		assertFalse(index.contains("d"));
+		assertFalse(index.contains(null));
+		assertEquals(2, index.indexOf(list, c));
+		assertEquals(0, index.indexOf(list, otherA));
+		assertEquals(-1, index.indexOf(list, "d"));
+
+		// Inserting at front shifts all positions
+		list.add(0, otherA);
+		index.replaced(list, 0, List.of(), 1);
+		assertEquals(0, index.indexOf(list, otherA));
+		assertEquals(1, index.indexOf(list, a));
+		assertEquals(3, index.indexOf(list, c));
+
+		// Replacing keeps other positions
+		list.set(2, "d");
+		index.replaced(list, 2, List.of(b), 1);
+		assertFalse(index.contains(b));
+		assertEquals(2, index.indexOf(list, "d"));
+		assertEquals(3, index.indexOf(list, c));
+
+		// Removing shifts following positions
+		list.remove(0);
+		index.replaced(list, 0, List.of(otherA), 0);
+		assertTrue(index.contains(otherA));
+		assertEquals(0, index.indexOf(list, a));
+		assertEquals(2, index.indexOf(list, c));
+
+		// Duplicated instances remain indexed until all are removed
+		list.add(c);
+		index.replaced(list, 3, List.of(), 1);
+		int found = index.indexOf(list, c);
+		assertTrue((found == 2) || (found == 3), "unexpected index " + found);
+		list.remove(3);
+		index.replaced(list, 3, List.of(c), 0);
+		assertEquals(2, index.indexOf(list, c));
+		list.remove(2);
+		index.replaced(list, 2, List.of(c), 0);
+		assertFalse(index.contains(c));
+		assertEquals(-1, index.indexOf(list, c));
+
+		// Permutations invalidate positions
+		list.add(c);
+		index.replaced(list, 2, List.of(), 1);
+		list.sort((String s1, String s2) -> s2.compareTo(s1));
+		index.permuted(0);
+		for (String element : List.of(a, c, "d"))
+		{
+			assertEquals(identityIndexOf(list, element), index.indexOf(list, element));
+		}
+
+		// Reset
+		list.clear();
+		list.add(b);
+		index.reset(list);
+		assertFalse(index.contains(a));
+		assertEquals(0, index.indexOf(list, b));
+	}
+}
@@ -0,0 +1,133 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.Attribute;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import expressions.Expression;
+import expressions.binary.BinaryOperatorRules;
+import expressions.terminal.VariableExpression;
+import metrics.LatencyHistogram;
+import metrics.Metrics;
+import parser.ExpressionParser;
+import parser.exceptions.ParserException;
+
+/**
+ * Test class for {@link Metrics} and {@link LatencyHistogram}
+ */
+@DisplayName("Metrics")
+public class MetricsTest
+{
+	/**
+	 * Metrics state before each test
+	 */
+	private boolean wasEnabled;
+
+	/**
+	 * Setup before each test
+	 */
+	@BeforeEach
+	public void setUp()
+	{
+		wasEnabled = Metrics.isEnabled();
+		Metrics.setEnabled(false);
+		Metrics.reset();
+		VariableExpression.clearAll();
+	}
+
+	/**
+	 * Tear down after each test
+	 */
+	@AfterEach
+	public void tearDown()
+	{
+		Metrics.setEnabled(wasEnabled);
+		Metrics.reset();
+		VariableExpression.clearAll();
+	}
+
+	/**
+	 * Test percentiles are the upper bound of the power of 2 bucket
+	 * containing the required rank (bounded by the maximum)
+	 */
+	@Test
+	@DisplayName("LatencyHistogram#getPercentile(double)")
+	public final void testPercentiles()
+	{
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0L, histogram.getPercentile(50));
+		assertEquals(0.0, histogram.getMean());
+
+		for (int i = 0; i < 100; i++)
+		{
+			histogram.record(10L);
+		}
+		histogram.record(1000L);
+		assertEquals(101, histogram.getCount());
+		assertEquals(2000.0 / 101, histogram.getMean(), 1e-9);
+		assertEquals(1000L, histogram.getMax());
+		// 10 is in bucket [8, 16[ and 1000 in bucket [512, 1024[
+		assertEquals(15L, histogram.getPercentile(0));
+		assertEquals(15L, histogram.getPercentile(50));
+		assertEquals(15L, histogram.getPercentile(99));
+		assertEquals(1000L, histogram.getPercentile(100));
+		assertEquals(1000L, histogram.getPercentile(250));
+
+		histogram.reset();
+		histogram.record(-5L);
+		assertEquals(1, histogram.getCount());
+		assertEquals(0L, histogram.getPercentile(100));
+		assertEquals(0L, histogram.getMax());
+	}
+
+	/**
+	 * Test metrics are only collected when enabled, either directly or
+	 * through JMX
+	 * @throws ParserException if parsing fails
+	 * @throws JMException if JMX operations fail
+	 */
+	@Test
+	@DisplayName("setEnabled(boolean)")
+	public final void testEnabled() throws ParserException, JMException
+	{
+		ExpressionParser<Integer> parser = new ExpressionParser<>(0);
+		Expression<Integer> expression = parser.parse("1 + 2 * 3").get(0);
+		assertEquals(7, expression.value());
+		assertEquals(0, Metrics.getParseTimes().getCount());
+		assertEquals(0, Metrics.getEvaluations(BinaryOperatorRules.ADDITION).getCount());
+
+		Metrics.setEnabled(true);
+		expression = parser.parse("1 + 2 * 3; (1 + 2) * 3").get(1);
+		assertEquals(9, expression.value());
+		assertEquals(2, Metrics.getParseTimes().getCount());
+		assertEquals(10, Metrics.getParsedNodes());
+		assertEquals(3, Metrics.getMaxParsedDepth());
+		assertEquals(1, Metrics.getEvaluations(BinaryOperatorRules.ADDITION).getCount());
+		assertEquals(1, Metrics.getEvaluations(BinaryOperatorRules.MULTIPLICATION).getCount());
+
+		assertTrue(Metrics.registerMBean());
+		assertTrue(Metrics.registerMBean());
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName(Metrics.MBEAN_NAME);
+		assertEquals(2L, server.getAttribute(name, "ParseCount"));
+		server.setAttribute(name, new Attribute("Enabled", false));
+		assertEquals(false, Metrics.isEnabled());
+		parser.parse("4 - 1");
+		assertEquals(2, Metrics.getParseTimes().getCount());
+
+		Metrics.reset();
+		assertEquals(0, Metrics.getParseTimes().getCount());
+		assertEquals(0, Metrics.getParsedNodes());
+	}
+}
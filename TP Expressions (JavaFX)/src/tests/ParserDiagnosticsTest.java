@@ -0,0 +1,151 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import expressions.Expression;
+import expressions.models.ExpressionsModel;
+import expressions.terminal.VariableExpression;
+import parser.CachingExpressionParser;
+import parser.Diagnostic;
+import parser.ExpressionParser;
+import parser.exceptions.MissingRightOperandException;
+import parser.exceptions.ParserException;
+import parser.exceptions.UnfinishedSubContextException;
+import parser.exceptions.UnknownTokenException;
+import parser.exceptions.UnsupportedUnaryOperatorException;
+
+/**
+ * Test class for positioned {@link ParserException}s and error-recovering
+ * parsing with {@link Diagnostic}s
+ */
+@DisplayName("Parser diagnostics")
+public class ParserDiagnosticsTest
+{
+	/**
+	 * Temporary directory for loaded files
+	 */
+	@TempDir
+	File directory;
+
+	/**
+	 * Setup before each test
+	 */
+	@BeforeEach
+	public void setUp()
+	{
+		VariableExpression.clearAll();
+		CachingExpressionParser.getCache().clear();
+	}
+
+	/**
+	 * Tear down after each test
+	 */
+	@AfterEach
+	public void tearDown()
+	{
+		VariableExpression.clearAll();
+		CachingExpressionParser.getCache().clear();
+	}
+
+	/**
+	 * Assert parsing a context fails at the expected offset
+	 * @param parser the parser to use
+	 * @param context the context to parse
+	 * @param type the expected type of exception
+	 * @param offset the expected offset of the exception
+	 */
+	private static void assertFailsAt(ExpressionParser<Integer> parser,
+	                                  String context,
+	                                  Class<? extends ParserException> type,
+	                                  int offset)
+	{
+		ParserException e = assertThrows(type, () -> parser.parse(context), context);
+		assertEquals(offset, e.getOffset(), context);
+	}
+
+	/**
+	 * Test exceptions are located within the whole context including
+	 * sub-contexts and sub-contexts separated by ";"
+	 */
+	@Test
+	@DisplayName("ParserException#getOffset()")
+	public final void testOffsets()
+	{
+		for (ExpressionParser<Integer> parser : List.of(new ExpressionParser<Integer>(0),
+		                                               new CachingExpressionParser<Integer>(0)))
+		{
+			String context = "a + b ;  c ! d";
+			assertFailsAt(parser, context, UnknownTokenException.class, context.indexOf('!'));
+			context = "a = 1; b + (c * (d * ))";
+			assertFailsAt(parser, context, UnsupportedUnaryOperatorException.class,
+			              context.indexOf("))"));
+			assertFailsAt(parser, "a+((b-c)*d", UnfinishedSubContextException.class, 2);
+			assertFailsAt(parser, "a; ", MissingRightOperandException.class, 3);
+		}
+	}
+
+	/**
+	 * Test recovering parse skips invalid sub-contexts and reports them with
+	 * their line and column
+	 */
+	@Test
+	@DisplayName("parse(String, int, int, List)")
+	public final void testRecovery()
+	{
+		String context = "a = 2; b ! 3; c = a * 2;; d";
+		List<Diagnostic> diagnostics = new ArrayList<>();
+		List<Expression<Integer>> expressions =
+		    new CachingExpressionParser<Integer>(0).parse(context, 7, 3, diagnostics);
+		assertEquals(3, expressions.size());
+		assertEquals(2, diagnostics.size());
+		assertEquals(7, diagnostics.get(0).getLine());
+		assertEquals(context.indexOf('!') + 3, diagnostics.get(0).getColumn());
+		assertInstanceOf(UnknownTokenException.class, diagnostics.get(0).getException());
+		assertEquals(context.indexOf(";;") + 4, diagnostics.get(1).getColumn());
+		assertTrue(diagnostics.get(0).toString().startsWith("7:" + (context.indexOf('!') + 3) + ": "));
+	}
+
+	/**
+	 * Test loading a file with invalid expressions still loads valid ones
+	 * @throws IOException if file operations fail
+	 * @throws ParserException if loading aborts
+	 */
+	@Test
+	@DisplayName("ExpressionsModel#load(File, boolean, List)")
+	public final void testLoad() throws IOException, ParserException
+	{
+		File file = new File(directory, "errors.txt");
+		Files.writeString(file.toPath(),
+		                  String.join(System.lineSeparator(),
+		                              "type int",
+		                              "a = 2; b = ! 3",
+		                              "c = a * 2",
+		                              "d = (a + 1"));
+		ExpressionsModel<Integer> model = new ExpressionsModel<>(0, null);
+		assertThrows(UnknownTokenException.class, () -> model.load(file, false));
+
+		List<Diagnostic> diagnostics = new ArrayList<>();
+		assertTrue(model.load(file, false, diagnostics));
+		assertEquals(2, model.getExpressions().size());
+		assertEquals(2, diagnostics.size());
+		assertEquals(2, diagnostics.get(0).getLine());
+		assertEquals(12, diagnostics.get(0).getColumn());
+		assertEquals(4, diagnostics.get(1).getLine());
+		assertEquals(5, diagnostics.get(1).getColumn());
+	}
+}
@@ -0,0 +1,154 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import utils.PersistentList;
+import utils.PersistentMap;
+
+/**
+ * Test class for {@link PersistentList} and {@link PersistentMap}
+ */
+@DisplayName("PersistentList & PersistentMap")
+public class PersistentCollectionsTest
+{
+	/**
+	 * Number of random modifications
+	 */
+	private static final int Modifications = 5000;
+
+	/**
+	 * Test random modifications of a persistent list against an
+	 * {@link ArrayList} and that previous versions are left untouched
+	 */
+	@Test
+	@DisplayName("PersistentList modifications & versions")
+	public final void testList()
+	{
+		Random random = new Random(42);
+		List<Integer> expected = new ArrayList<>();
+		PersistentList<Integer> list = PersistentList.empty();
+		List<PersistentList<Integer>> versions = new ArrayList<>();
+		List<List<Integer>> versionsContents = new ArrayList<>();
+		for (int i = 0; i < Modifications; i++)
+		{
+			int operation = expected.isEmpty() ? 0 : random.nextInt(4);
+			switch (operation)
+			{
+				case 0:
+				{
+					int index = random.nextInt(expected.size() + 1);
+					expected.add(index, i);
+					list = list.add(index, i);
+					break;
+				}
+				case 1:
+				{
+					int index = random.nextInt(expected.size());
+					expected.remove(index);
+					list = list.remove(index);
+					break;
+				}
+				case 2:
+				{
+					int index = random.nextInt(expected.size());
+					expected.set(index, -i);
+					list = list.set(index, -i);
+					break;
+				}
+				default:
+				{
+					int from = random.nextInt(expected.size());
+					int to = from + random.nextInt(Math.min(3, expected.size() - from) + 1);
+					expected.subList(from, to).clear();
+					list = list.removeRange(from, to).addAll(from, List.of(i, i + 1));
+					expected.addAll(from, List.of(i, i + 1));
+					break;
+				}
+			}
+			assertEquals(expected.size(), list.size());
+			if (i % 500 == 0)
+			{
+				versions.add(list);
+				versionsContents.add(new ArrayList<>(expected));
+			}
+		}
+		assertEquals(expected, list.toList());
+		for (int i = 0; i < expected.size(); i++)
+		{
+			assertEquals(expected.get(i), list.get(i));
+		}
+		for (int i = 0; i < versions.size(); i++)
+		{
+			assertEquals(versionsContents.get(i), versions.get(i).toList());
+		}
+		assertSame(list, list.set(0, list.get(0)));
+		assertEquals(expected, PersistentList.of(expected).toList());
+		assertThrows(IndexOutOfBoundsException.class, () -> PersistentList.empty().get(0));
+		assertThrows(IndexOutOfBoundsException.class, () -> PersistentList.empty().add(1, null));
+	}
+
+	/**
+	 * Test random modifications of a persistent map against a {@link TreeMap}
+	 * and that previous versions are left untouched
+	 */
+	@Test
+	@DisplayName("PersistentMap modifications & versions")
+	public final void testMap()
+	{
+		Random random = new Random(42);
+		Map<String, Integer> expected = new TreeMap<>();
+		PersistentMap<String, Integer> map = PersistentMap.empty();
+		PersistentMap<String, Integer> version = null;
+		Map<String, Integer> versionContent = null;
+		for (int i = 0; i < Modifications; i++)
+		{
+			String key = "k" + random.nextInt(200);
+			if (random.nextInt(3) == 0)
+			{
+				expected.remove(key);
+				map = map.remove(key);
+			}
+			else
+			{
+				expected.put(key, i);
+				map = map.put(key, i);
+			}
+			assertEquals(expected.size(), map.size());
+			assertEquals(expected.get(key), map.get(key));
+			if (i == Modifications / 2)
+			{
+				version = map;
+				versionContent = new TreeMap<>(expected);
+			}
+		}
+		Map<String, Integer> content = new TreeMap<>();
+		List<String> keys = new ArrayList<>();
+		map.forEach((String key, Integer value) -> {
+			content.put(key, value);
+			keys.add(key);
+		});
+		assertEquals(expected, content);
+		assertEquals(new ArrayList<>(expected.keySet()), keys);
+		Map<String, Integer> previousContent = new TreeMap<>();
+		version.forEach(previousContent::put);
+		assertEquals(versionContent, previousContent);
+		String first = keys.get(0);
+		assertSame(map, map.put(first, map.get(first)));
+		assertSame(map, map.remove("absent"));
+		assertTrue(map.containsKey(first));
+		assertEquals(expected.size(), PersistentMap.of(expected).size());
+		assertThrows(NullPointerException.class, () -> PersistentMap.<String, Integer>empty().put(null, 0));
+	}
+}
@@ -0,0 +1,158 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.function.DoubleUnaryOperator;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import expressions.Expression;
+import expressions.flat.FlatExpression;
+import expressions.plot.AdaptiveSampler;
+import expressions.plot.Curve;
+import expressions.terminal.VariableExpression;
+import parser.ExpressionParser;
+import parser.exceptions.ParserException;
+
+/**
+ * Test class for {@link AdaptiveSampler} and {@link Curve}
+ */
+@DisplayName("AdaptiveSampler & Curve")
+public class PlotTest
+{
+	/**
+	 * Setup before each test
+	 */
+	@BeforeEach
+	public void setUp()
+	{
+		VariableExpression.clearAll();
+	}
+
+	/**
+	 * Tear down after each test
+	 */
+	@AfterEach
+	public void tearDown()
+	{
+		VariableExpression.clearAll();
+	}
+
+	/**
+	 * Count samples within a range of abscissa
+	 * @param curve the curve
+	 * @param from the lower abscissa
+	 * @param to the upper abscissa
+	 * @return the number of samples of the curve in [from, to)
+	 */
+	private static int count(Curve curve, double from, double to)
+	{
+		return curve.lowerBound(to) - curve.lowerBound(from);
+	}
+
+	/**
+	 * Test samples are sorted, dense where curvature is high and sparse where
+	 * the function is linear
+	 * @throws ParserException if expression can't be parsed
+	 */
+	@Test
+	@DisplayName("sample(...) adapts density to curvature")
+	public final void testSample() throws ParserException
+	{
+		// Linear for x < 0, quickly varying for x > 0
+		Expression<Double> expression = new ExpressionParser<Double>(0.0)
+		    .parse("x + (x + x ^ 2) ^ 4 / 1000").get(0);
+		FlatExpression flat = FlatExpression.compile(expression, 0.0);
+		DoubleUnaryOperator function = AdaptiveSampler.function(flat, "x", new double[1]);
+		Curve curve = AdaptiveSampler.sample(function, -10.0, 10.0, 64, 1 << 16, 1e-4, () -> false);
+		assertEquals(-10.0, curve.x(0));
+		assertEquals(10.0, curve.x(curve.size() - 1));
+		for (int i = 1; i < curve.size(); i++)
+		{
+			assertTrue(curve.x(i - 1) < curve.x(i));
+			assertEquals(function.applyAsDouble(curve.x(i)), curve.y(i), 1e-9);
+		}
+		assertTrue(curve.size() > 65);
+		assertTrue(count(curve, 5.0, 10.0) > 2 * count(curve, -5.0, 0.0));
+
+		// Budget and cancellation
+		assertTrue(AdaptiveSampler.sample(function, -10.0, 10.0, 64, 100, 1e-9, () -> false).size() <= 100);
+		assertEquals(1, AdaptiveSampler.sample(function, -10.0, 10.0, 64, 100, 1e-4, () -> true).size());
+		assertThrows(IllegalArgumentException.class,
+		             () -> AdaptiveSampler.sample(function, 1.0, 1.0, 64, 100, 1e-4, () -> false));
+		assertThrows(IllegalArgumentException.class,
+		             () -> AdaptiveSampler.function(flat, "y", new double[1]));
+	}
+
+	/**
+	 * Test edges of the domain of a function are refined and integer
+	 * divisions by zero are undefined values
+	 * @throws ParserException if expression can't be parsed
+	 */
+	@Test
+	@DisplayName("sample(...) with undefined values")
+	public final void testUndefined() throws ParserException
+	{
+		Expression<Integer> expression = new ExpressionParser<Integer>(0).parse("100 / x").get(0);
+		FlatExpression flat = FlatExpression.compile(expression, 0);
+		DoubleUnaryOperator function = AdaptiveSampler.function(flat, "x", new double[1]);
+		Curve curve = AdaptiveSampler.sample(function, -1.0, 1.0, 4, 1000, 1e-3, () -> false);
+		int undefined = 0;
+		for (int i = 0; i < curve.size(); i++)
+		{
+			if (Double.isNaN(curve.y(i)))
+			{
+				undefined++;
+			}
+		}
+		assertTrue(undefined > 0);
+		assertTrue(curve.size() > 5);
+
+		Curve downsampled = curve.downsample(-1.0, 1.0, 3);
+		for (int i = 0; i < downsampled.size(); i++)
+		{
+			assertTrue(Double.isFinite(downsampled.y(i)));
+		}
+	}
+
+	/**
+	 * Test LTTB downsampling keeps ends and extrema within the requested
+	 * number of samples
+	 */
+	@Test
+	@DisplayName("downsample(...)")
+	public final void testDownsample()
+	{
+		Curve curve = new Curve(16);
+		int size = 100001;
+		for (int i = 0; i < size; i++)
+		{
+			double x = i / 1000.0;
+			curve.add(x, i == 54321 ? 1000.0 : Math.sin(x));
+		}
+		assertThrows(IllegalArgumentException.class, () -> curve.add(0.0, 0.0));
+
+		Curve downsampled = curve.downsample(0.0, 100.0, 500);
+		assertEquals(500, downsampled.size());
+		assertEquals(0.0, downsampled.x(0));
+		assertEquals(100.0, downsampled.x(downsampled.size() - 1));
+		boolean spike = false;
+		for (int i = 0; i < downsampled.size(); i++)
+		{
+			spike |= downsampled.y(i) == 1000.0;
+		}
+		assertTrue(spike);
+
+		// Visible window includes one sample beyond each edge
+		Curve window = curve.downsample(10.0, 10.01, 500);
+		assertEquals(13, window.size());
+		assertEquals(9.999, window.x(0));
+		assertEquals(10.011, window.x(window.size() - 1));
+		assertEquals(11, curve.count(10.0, 10.01));
+	}
+}
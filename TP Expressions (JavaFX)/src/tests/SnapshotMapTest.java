@@ -0,0 +1,183 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import expressions.models.ExpressionsModel;
+import expressions.terminal.VariableExpression;
+import javafx.beans.Observable;
+import javafx.collections.MapChangeListener;
+import javafx.collections.ObservableMap;
+import parser.exceptions.ParserException;
+import utils.PersistentMap;
+import utils.SnapshotMap;
+
+/**
+ * Test class for {@link SnapshotMap}
+ */
+@DisplayName("SnapshotMap")
+public class SnapshotMapTest
+{
+	/**
+	 * Number of keys published in each batch
+	 */
+	private static final int BatchSize = 50;
+
+	/**
+	 * Tear down after each test
+	 */
+	@AfterEach
+	public void tearDown()
+	{
+		VariableExpression.setValues(new SnapshotMap<>());
+	}
+
+	/**
+	 * Test modifications are reported to listeners once per publication
+	 * and snapshots are left untouched by modifications
+	 */
+	@Test
+	@DisplayName("modifications, publications & snapshots")
+	public final void testModifications()
+	{
+		SnapshotMap<String, Integer> map = new SnapshotMap<>();
+		List<PersistentMap<String, Integer>> published = new ArrayList<>();
+		List<List<String>> changes = new ArrayList<>();
+		map.addListener((PersistentMap<String, Integer> previous,
+		                 PersistentMap<String, Integer> current,
+		                 List<String> keys) -> {
+			assertSame(current, map.snapshot());
+			published.add(previous);
+			changes.add(keys);
+		});
+
+		assertNull(map.put("a", 1));
+		assertEquals(1, map.put("a", 1));
+		assertEquals(1, map.put("a", 2));
+		PersistentMap<String, Integer> snapshot = map.snapshot();
+		map.putAll(Map.of("b", 3, "c", 4, "a", 2));
+		assertEquals(List.of(List.of("a"), List.of("a")), changes.subList(0, 2));
+		assertEquals(3, changes.size());
+		assertSame(snapshot, published.get(2));
+		assertEquals(3, changes.get(2).size());
+		assertEquals(1, snapshot.size());
+		assertEquals(3, map.size());
+		assertNull(map.get("d"));
+		assertFalse(map.containsKey(null));
+
+		// Iterations run over a snapshot while the map changes
+		for (String key : map.keySet())
+		{
+			map.remove(key);
+			map.put(key + key, 0);
+		}
+		assertEquals(Map.of("aa", 0, "bb", 0, "cc", 0), new HashMap<>(map));
+		PersistentMap<String, Integer> before = map.snapshot();
+		map.clear();
+		assertTrue(map.isEmpty());
+		changes.clear();
+		map.publish(before);
+		map.publish(before);
+		assertEquals(List.of(List.of("aa", "bb", "cc")), changes);
+		assertSame(before, map.snapshot());
+	}
+
+	/**
+	 * Test the observable variables of a model report each modified key to
+	 * change listeners and each publication to invalidation listeners
+	 * @throws ParserException if parsing expressions fails
+	 */
+	@Test
+	@DisplayName("ExpressionsModel#getVariables() events")
+	public final void testObservableVariables() throws ParserException
+	{
+		ExpressionsModel<Integer> model = new ExpressionsModel<>(0, null);
+		ObservableMap<String, Optional<? extends Number>> map = model.getVariables();
+		List<String> changes = new ArrayList<>();
+		AtomicInteger invalidations = new AtomicInteger();
+		map.addListener((MapChangeListener.Change<? extends String, ? extends Optional<? extends Number>> change) -> {
+			assertSame(map, change.getMap());
+			changes.add(change.getKey() + ":" + change.getValueRemoved() + "->" + change.getValueAdded());
+		});
+		map.addListener((Observable observable) -> invalidations.incrementAndGet());
+
+		assertNull(map.put("a", Optional.of(1)));
+		assertEquals(Optional.of(1), map.put("a", Optional.of(1)));
+		assertEquals(Optional.of(1), map.put("a", Optional.of(2)));
+		map.putAll(Map.of("b", Optional.of(3), "c", Optional.of(4), "a", Optional.of(2)));
+		assertEquals(List.of("a:null->Optional[1]", "a:Optional[1]->Optional[2]"),
+		             changes.subList(0, 2));
+		assertEquals(4, changes.size());
+		assertEquals(3, invalidations.get());
+
+		// Assignments through variables are reported as well
+		changes.clear();
+		model.parse("b = 5");
+		assertEquals(List.of("b:Optional[3]->Optional[5]"), changes);
+		assertEquals(Optional.of(5), map.get("b"));
+		map.clear();
+		assertTrue(map.isEmpty());
+		assertEquals(5, invalidations.get());
+	}
+
+	/**
+	 * Test readers never see partially published batches
+	 * @throws InterruptedException if interrupted while waiting for the
+	 * writer
+	 */
+	@Test
+	@DisplayName("putAll(Map) published at once")
+	public final void testBatches() throws InterruptedException
+	{
+		SnapshotMap<String, Integer> map = new SnapshotMap<>();
+		AtomicBoolean done = new AtomicBoolean(false);
+		Thread writer = new Thread(() -> {
+			for (int round = 0; round < 2000; round++)
+			{
+				Map<String, Integer> batch = new HashMap<>();
+				for (int i = 0; i < BatchSize; i++)
+				{
+					batch.put("k" + i, round);
+				}
+				map.putAll(batch);
+			}
+			done.set(true);
+		});
+		writer.start();
+		int checks = 0;
+		while (!done.get() || (checks == 0))
+		{
+			PersistentMap<String, Integer> snapshot = map.snapshot();
+			if (snapshot.isEmpty())
+			{
+				continue;
+			}
+			Integer round = snapshot.get("k0");
+			List<Integer> rounds = new ArrayList<>();
+			snapshot.forEach((String key, Integer value) -> rounds.add(value));
+			assertEquals(BatchSize, rounds.size());
+			for (Integer value : rounds)
+			{
+				assertEquals(round, value);
+			}
+			checks++;
+		}
+		writer.join();
+		assertEquals(1999, map.get("k7"));
+	}
+}
@@ -0,0 +1,166 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import expressions.Expression;
+import expressions.sweep.BinarySweepWriter;
+import expressions.sweep.CsvSweepWriter;
+import expressions.sweep.Sweep;
+import expressions.sweep.SweepVariable;
+import expressions.terminal.VariableExpression;
+import parser.ExpressionParser;
+import parser.exceptions.ParserException;
+
+/**
+ * Test class for {@link Sweep}
+ */
+@DisplayName("Sweep")
+public class SweepTest
+{
+	/**
+	 * Setup before each test
+	 */
+	@BeforeEach
+	public void setUp()
+	{
+		VariableExpression.clearAll();
+	}
+
+	/**
+	 * Tear down after each test
+	 */
+	@AfterEach
+	public void tearDown()
+	{
+		VariableExpression.clearAll();
+	}
+
+	/**
+	 * Parse expressions
+	 * @param <E> The type of numbers in expressions
+	 * @param specimen the number type
+	 * @param sources the sources of expressions
+	 * @return the parsed expressions
+	 * @throws ParserException if an expression can't be parsed
+	 */
+	private static <E extends Number> List<Expression<E>> parse(E specimen, String... sources)
+	    throws ParserException
+	{
+		ExpressionParser<E> parser = new ExpressionParser<>(specimen);
+		List<Expression<E>> expressions = new ArrayList<>();
+		for (String source : sources)
+		{
+			expressions.addAll(parser.parse(source));
+		}
+		return expressions;
+	}
+
+	/**
+	 * Test grid sweeps with assignment chains, fixed and undefined values
+	 * written as CSV
+	 * @throws ParserException if an expression can't be parsed
+	 * @throws IOException if writing fails
+	 */
+	@Test
+	@DisplayName("grid(...) as CSV")
+	public final void testGridCsv() throws ParserException, IOException
+	{
+		List<Expression<Integer>> expressions = parse(0, "a = x + y * k", "a * 2", "x / y");
+		Sweep sweep = new Sweep(expressions,
+		                        0,
+		                        Map.of("k", Optional.of(10)),
+		                        List.of(new SweepVariable("x", 0, 2, 3),
+		                                new SweepVariable("y", 0, 1, 2)));
+		assertEquals(6, sweep.gridSize());
+		StringWriter out = new StringWriter();
+		try (CsvSweepWriter writer = new CsvSweepWriter(out))
+		{
+			assertEquals(6, sweep.grid(writer));
+		}
+		String[] lines = out.toString().split(System.lineSeparator());
+		assertEquals(7, lines.length);
+		assertEquals("x,y," + String.join(",", sweep.getColumns().subList(2, 5)), lines[0]);
+		assertEquals("0,0,0,0,", lines[1]);
+		assertEquals("0,1,10,20,0", lines[2]);
+		assertEquals("1,0,1,2,", lines[3]);
+		assertEquals("2,1,12,24,2", lines[6]);
+
+		assertThrows(IllegalArgumentException.class,
+		             () -> new Sweep(expressions, 0, Map.of(),
+		                             List.of(new SweepVariable("x", 0, 1, 2),
+		                                     new SweepVariable("x", 0, 1, 2))));
+	}
+
+	/**
+	 * Test parallel sweeps over many chunks produce rows in order and random
+	 * sweeps are reproducible
+	 * @throws ParserException if an expression can't be parsed
+	 * @throws IOException if writing fails
+	 */
+	@Test
+	@DisplayName("grid(...) & random(...) as binary")
+	public final void testBinary() throws ParserException, IOException
+	{
+		List<Expression<Double>> expressions = parse(0.0, "z = x * y", "z - x");
+		List<SweepVariable> variables = List.of(new SweepVariable("x", -1.0, 1.0, 101),
+		                                        new SweepVariable("y", 0.0, 100.0, 201));
+		Sweep sweep = new Sweep(expressions, 0.0, Map.of(), variables);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (BinarySweepWriter writer = new BinarySweepWriter(bytes))
+		{
+			assertEquals(101 * 201, sweep.grid(writer));
+		}
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())))
+		{
+			assertEquals(BinarySweepWriter.Magic, in.readInt());
+			assertEquals('D', in.readChar());
+			assertEquals(4, in.readInt());
+			for (int i = 0; i < 4; i++)
+			{
+				assertEquals(sweep.getColumns().get(i), in.readUTF());
+			}
+			for (int i = 0; i < 101; i++)
+			{
+				for (int j = 0; j < 201; j++)
+				{
+					double x = variables.get(0).value(i);
+					double y = variables.get(1).value(j);
+					assertEquals(x, in.readDouble());
+					assertEquals(y, in.readDouble());
+					assertEquals(x * y, in.readDouble());
+					assertEquals(x * y - x, in.readDouble());
+				}
+			}
+			assertEquals(-1, in.read());
+		}
+
+		ByteArrayOutputStream first = new ByteArrayOutputStream();
+		ByteArrayOutputStream second = new ByteArrayOutputStream();
+		try (BinarySweepWriter writer = new BinarySweepWriter(first))
+		{
+			assertEquals(5000, sweep.random(5000, 42, writer));
+		}
+		try (BinarySweepWriter writer = new BinarySweepWriter(second))
+		{
+			sweep.random(5000, 42, writer);
+		}
+		assertArrayEquals(first.toByteArray(), second.toByteArray());
+	}
+}
@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -12,8 +13,10 @@ import static org.junit.jupiter.api.Assertions.fail;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Vector;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
@@ -23,9 +26,12 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import expressions.binary.AssignmentExpression;
+import expressions.terminal.ConstantExpression;
 import expressions.terminal.TerminalExpression;
 import expressions.terminal.VariableExpression;
 
@@ -1156,4 +1162,46 @@ public class VariableExpressionTest
 		             testName + " failed with different hashcode");
 	}
 
+	/**
+	 * Test assignments within local values (such as concurrent evaluations
+	 * of shared expressions) never write the value held by the variable
+	 * itself
+	 */
+	@Test
+	@DisplayName("void setValue(Number) within local values")
+	final void testSetValueWithinLocalValues()
+	{
+		var variable = new VariableExpression<Integer>("local", 1)
+		{
+			/**
+			 * Value held by this variable
+			 * @return the value held by this variable
+			 */
+			Optional<Integer> held()
+			{
+				return value;
+			}
+		};
+		Optional<Integer> global = variable.held();
+		Map<String, Optional<? extends Number>> local = new HashMap<>(VariableExpression.getValues());
+		VariableExpression.setLocalValues(local);
+		try
+		{
+			AssignmentExpression<Integer> assignment =
+			    new AssignmentExpression<>(variable, new ConstantExpression<>(2));
+			assertEquals(Integer.valueOf(2), assignment.value());
+			assertEquals(Optional.of(2), local.get("local"));
+			variable.clearValue();
+		}
+		finally
+		{
+			VariableExpression.setLocalValues(null);
+		}
+		assertSame(global, variable.held());
+		assertEquals(Optional.empty(), local.get("local"));
+		assertEquals(Optional.of(1), VariableExpression.getValues().get("local"));
+
+		variable.setValue(3);
+		assertEquals(Optional.of(3), variable.held());
+	}
 }
@@ -1,6 +1,17 @@
 package utils;
 
-import java.util.HashMap;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -10,20 +21,263 @@ import logger.LoggerFactory;
  * Flyweight factory to manage frequently used elements such as
  * {@link javafx.scene.paint.Color}s
  * or {@link javafx.scene.image.Image}s.
- * Elements are stored in a {@link HashMap}&lt;Integer, T&gt; where the
- * {@link Integer} key is the hashCode of stored element.
+ * Elements are stored in a {@link #map} where keys are compared with
+ * {@link Object#equals(Object)} (and not only with {@link Object#hashCode()})
+ * so that distinct elements with equal hash codes never alias each other.
  * When an element is requested from this factory, a search is performed within
  * {@link #map} to find such element. If not present, the element is first added
  * to {@link #map} then returned from {@link #map}.
+ * Elements can also be stored with an explicit key and created on demand
+ * (see {@link #get(Object, Function)}).
+ * @implSpec This factory is thread safe.
+ * @implNote Depending on the {@link Policy} of this factory, elements are
+ * kept with strong, weak or soft references, or with strong references in a
+ * size bounded LRU cache. Entries whose elements have been garbage collected
+ * are removed on the next access to this factory: their references are
+ * enqueued in a {@link ReferenceQueue} which is drained by each request
+ * (as in {@link java.util.WeakHashMap}), so no extra cleaning action nor
+ * thread is required per element.
  * @author davidroussel
  * @param <T> The type of elements stored in this factory
  */
 public class FlyweightFactory<T>
 {
 	/**
-	 * {@link HashMap} storing elements
+	 * Retention policies of elements stored in a {@link FlyweightFactory}
 	 */
-	protected HashMap<Integer, T> map;
+	public enum Policy
+	{
+		/**
+		 * Elements are strongly referenced and never evicted
+		 */
+		STRONG,
+		/**
+		 * Elements are weakly referenced and evicted as soon as they are not
+		 * used anymore outside of this factory
+		 */
+		WEAK,
+		/**
+		 * Elements are softly referenced and evicted only when memory is
+		 * needed
+		 */
+		SOFT,
+		/**
+		 * Elements are strongly referenced but the least recently used
+		 * elements are evicted when the factory exceeds its maximum size
+		 */
+		LRU;
+	}
+
+	/**
+	 * Key of elements in {@link #map}.
+	 * Holds either a strong reference or a {@link Reference} to the key
+	 * object, and compares keys objects with {@link Object#equals(Object)}.
+	 * Once a referenced key object has been collected this key is only equal
+	 * to itself so it can still be removed from {@link #map}.
+	 */
+	private static final class Key
+	{
+		/**
+		 * Cached hash code of the key object
+		 */
+		private final int hash;
+
+		/**
+		 * Strongly referenced key object (or null if {@link #reference} is used)
+		 */
+		private final Object strong;
+
+		/**
+		 * Reference to key object (or null if {@link #strong} is used)
+		 */
+		private final Reference<?> reference;
+
+		/**
+		 * Constructor from strongly referenced key object
+		 * @param object the key object
+		 */
+		Key(Object object)
+		{
+			hash = object.hashCode();
+			strong = object;
+			reference = null;
+		}
+
+		/**
+		 * Constructor from a reference to the key object
+		 * @param reference the reference to the key object
+		 * @param hash the hash code of the referenced key object
+		 */
+		Key(Reference<?> reference, int hash)
+		{
+			this.hash = hash;
+			strong = null;
+			this.reference = reference;
+		}
+
+		/**
+		 * Key object accessor
+		 * @return the key object or null if it has been collected
+		 */
+		Object get()
+		{
+			return strong != null ? strong : reference.get();
+		}
+
+		/**
+		 * Hash code of the key object
+		 * @return the hash code of the key object
+		 */
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+
+		/**
+		 * Compares key objects
+		 * @param obj the object to compare
+		 * @return true if obj is the same key or if obj is a key whose key
+		 * object is equal to this key object.
+		 */
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+			{
+				return true;
+			}
+			if (!(obj instanceof Key))
+			{
+				return false;
+			}
+			Key other = (Key) obj;
+			if (hash != other.hash)
+			{
+				return false;
+			}
+			Object object = get();
+			return (object != null) && object.equals(other.get());
+		}
+	}
+
+	/**
+	 * Reference held by {@link #map} to a weakly or softly referenced element
+	 * which also knows its key so its entry can be removed once the element
+	 * has been collected
+	 * @param <T> The type of elements
+	 */
+	private interface Holder<T> extends Supplier<T>
+	{
+		/**
+		 * Key of this holder in {@link #map}
+		 * @return the key of this holder
+		 */
+		Key key();
+	}
+
+	/**
+	 * Holder of a weakly referenced element
+	 * @param <T> The type of elements
+	 */
+	private static final class WeakHolder<T> extends WeakReference<T> implements Holder<T>
+	{
+		/**
+		 * Key of this holder in {@link #map}
+		 */
+		private Key key;
+
+		/**
+		 * Constructor
+		 * @param element the referenced element
+		 * @param queue the queue where this holder is enqueued once the
+		 * element has been collected
+		 */
+		WeakHolder(T element, ReferenceQueue<? super T> queue)
+		{
+			super(element, queue);
+		}
+
+		/**
+		 * Key accessor
+		 * @return the key of this holder in {@link #map}
+		 */
+		@Override
+		public Key key()
+		{
+			return key;
+		}
+	}
+
+	/**
+	 * Holder of a softly referenced element
+	 * @param <T> The type of elements
+	 */
+	private static final class SoftHolder<T> extends SoftReference<T> implements Holder<T>
+	{
+		/**
+		 * Key of this holder in {@link #map}
+		 */
+		private Key key;
+
+		/**
+		 * Constructor
+		 * @param element the referenced element
+		 * @param queue the queue where this holder is enqueued once the
+		 * element has been collected
+		 */
+		SoftHolder(T element, ReferenceQueue<? super T> queue)
+		{
+			super(element, queue);
+		}
+
+		/**
+		 * Key accessor
+		 * @return the key of this holder in {@link #map}
+		 */
+		@Override
+		public Key key()
+		{
+			return key;
+		}
+	}
+
+	/**
+	 * Map storing elements (or references to elements depending on
+	 * {@link #policy})
+	 */
+	private final Map<Key, Supplier<T>> map;
+
+	/**
+	 * Retention policy of elements
+	 */
+	private final Policy policy;
+
+	/**
+	 * Maximum number of elements (only used with {@link Policy#LRU})
+	 */
+	private final int maximumSize;
+
+	/**
+	 * Queue of holders whose elements have been collected (only used with
+	 * {@link Policy#WEAK} and {@link Policy#SOFT})
+	 */
+	private final ReferenceQueue<T> collected;
+
+	/**
+	 * Number of requests satisfied by an already stored element
+	 */
+	private final LongAdder hits;
+
+	/**
+	 * Number of requests which required to store a new element
+	 */
+	private final LongAdder misses;
+
+	/**
+	 * Number of elements evicted (either collected or LRU evicted)
+	 */
+	private final LongAdder evictions;
 
 	/**
 	 * Logger to display messages (might be null)
@@ -31,22 +285,70 @@ public class FlyweightFactory<T>
 	Logger logger;
 
 	/**
-	 * Constructor with parentLogger.
+	 * Constructor with policy, maximum size and parentLogger.
 	 * Allocates the {@link #map}
+	 * @param policy The retention policy of elements
+	 * @param maximumSize The maximum number of elements when policy is
+	 * {@link Policy#LRU} (ignored otherwise)
 	 * @param parentLogger The parent logger
+	 * @throws NullPointerException if provided policy is null
+	 * @throws IllegalArgumentException if policy is {@link Policy#LRU} and
+	 * maximum size is not strictly positive
 	 */
-	public FlyweightFactory(Logger parentLogger)
+	public FlyweightFactory(Policy policy, int maximumSize, Logger parentLogger)
+	    throws NullPointerException, IllegalArgumentException
 	{
-		map = new HashMap<Integer, T>();
+		this.policy = Objects.requireNonNull(policy);
+		this.maximumSize = maximumSize;
+		hits = new LongAdder();
+		misses = new LongAdder();
+		evictions = new LongAdder();
+		collected = new ReferenceQueue<>();
+		if (policy == Policy.LRU)
+		{
+			if (maximumSize <= 0)
+			{
+				throw new IllegalArgumentException("Invalid LRU size " + maximumSize);
+			}
+			map = Collections.synchronizedMap(new LinkedHashMap<Key, Supplier<T>>(16, 0.75f, true)
+			{
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Key, Supplier<T>> eldest)
+				{
+					boolean evict = size() > FlyweightFactory.this.maximumSize;
+					if (evict)
+					{
+						evictions.increment();
+					}
+					return evict;
+				}
+			});
+		}
+		else
+		{
+			map = new ConcurrentHashMap<>();
+		}
 		logger = LoggerFactory.getParentLogger(getClass(),
 		                                       parentLogger,
 		                                       (parentLogger == null ?
 		                                    	Level.INFO : null)); // null level to inherit parent logger's level
 	}
 
+	/**
+	 * Constructor with parentLogger.
+	 * Allocates the {@link #map} with {@link Policy#STRONG} policy
+	 * @param parentLogger The parent logger
+	 */
+	public FlyweightFactory(Logger parentLogger)
+	{
+		this(Policy.STRONG, 0, parentLogger);
+	}
+
 	/**
 	 * Default Constructor
-	 * Allocates the {@link #map}
+	 * Allocates the {@link #map} with {@link Policy#STRONG} policy
 	 */
 	public FlyweightFactory()
 	{
@@ -54,73 +356,202 @@ public class FlyweightFactory<T>
 	}
 
 	/**
-	 * Element accessor from hash code rather than element itself
-	 * @param hash The hash code of the requested element
-	 * @return The element corresponding to the provided hash code or null if
-	 * there is no such element in this factory.
-	 * @apiNote This method is required for storing elements that do not provide
-	 * a valid hash code. In such cases we should provide the missing hash code.
+	 * Element accessor from element prototype
+	 * @param element The searched element
+	 * @return The required element from the {@link #map}, which might be
+	 * a different instance from element but with the same content (according
+	 * to {@link Object#equals(Object)}).
 	 */
-	protected T get(int hash)
+	public T get(T element)
 	{
-		Integer key = Integer.valueOf(hash);
-		if (map.containsKey(key))
+		if (element == null)
 		{
-			return map.get(key);
+			return null;
 		}
+		return get(element, element, (Object o) -> element);
+	}
 
-		return null;
+	/**
+	 * Element accessor from key.
+	 * If there is no element associated with the provided key, an element is
+	 * created with provided factory and stored in {@link #map}.
+	 * @param <K> the type of key
+	 * @param key the key of the required element (compared with
+	 * {@link Object#equals(Object)}). Caution: keys are strongly referenced
+	 * regardless of {@link #getPolicy()}.
+	 * @param factory the function creating a new element from key
+	 * @return The element associated with this key or null if either key is
+	 * null or factory returned null.
+	 */
+	public <K> T get(K key, Function<? super K, ? extends T> factory)
+	{
+		if (key == null)
+		{
+			return null;
+		}
+		Objects.requireNonNull(factory);
+		return get(key, null, factory);
 	}
 
 	/**
-	 * Adds a new element pair &lt;Hash, Value&gt; to {@link #map}
-	 * @param hash The hash code of the element to add
-	 * @param element The element to add
-	 * @return True if such element was not already present in the {@link #map}
-	 * and has been added to the {@link #map}, false otherwise.
+	 * Common implementation of {@link #get(Object)} and
+	 * {@link #get(Object, Function)}
+	 * @param <K> the type of key
+	 * @param key the key of the required element
+	 * @param element the element used as key or null if key is distinct from
+	 * the element
+	 * @param factory the function creating a new element from key
+	 * @return the element associated with this key
 	 */
-	protected boolean put(int hash, T element)
+	private <K> T get(K key, T element, Function<? super K, ? extends T> factory)
 	{
-		Integer key = Integer.valueOf(hash);
-		if (!map.containsKey(key))
+		expunge();
+		Key probe = new Key(key);
+		Supplier<T> holder = map.get(probe);
+		T result = holder != null ? holder.get() : null;
+		if (result != null)
 		{
-			if (element != null)
+			hits.increment();
+			return result;
+		}
+
+		misses.increment();
+		T created = factory.apply(key);
+		if (created == null)
+		{
+			logger.severe("null element");
+			return null;
+		}
+
+		Key newKey = probe;
+		Supplier<T> newHolder;
+		switch (policy)
+		{
+			case WEAK:
 			{
-				map.put(key, element);
-				return true;
+				WeakHolder<T> weak = new WeakHolder<>(created, collected);
+				if (element != null)
+				{
+					// key is the element itself so it must not be strongly held
+					newKey = new Key(weak, probe.hashCode());
+				}
+				weak.key = newKey;
+				newHolder = weak;
+				break;
+			}
+			case SOFT:
+			{
+				SoftHolder<T> soft = new SoftHolder<>(created, collected);
+				if (element != null)
+				{
+					// key is the element itself so it must not be strongly held
+					newKey = new Key(soft, probe.hashCode());
+				}
+				soft.key = newKey;
+				newHolder = soft;
+				break;
 			}
-			else
+			default:
+				newHolder = () -> created;
+				break;
+		}
+
+		for (;;)
+		{
+			Supplier<T> previous = map.putIfAbsent(newKey, newHolder);
+			if (previous == null)
+			{
+				return created;
+			}
+			T existing = previous.get();
+			if (existing != null)
 			{
-				logger.severe("null element");
+				// Another thread stored an equal element in the meantime
+				return existing;
 			}
+			map.remove(newKey, previous);
 		}
-		return false;
 	}
 
 	/**
-	 * Element accessor from element prototype
-	 * @param element The searched element
-	 * @return The required element from the {@link HashMap}, which might be
-	 * a different instance from element but with the same content.
+	 * Remove the entries of collected elements from {@link #map}
 	 */
-	public T get(T element)
+	private void expunge()
 	{
-		if (element != null)
+		for (Reference<? extends T> reference = collected.poll();
+		     reference != null;
+		     reference = collected.poll())
 		{
-			int hash = element.hashCode();
-			T result = get(hash);
-			if (result == null)
+			Holder<?> holder = (Holder<?>) reference;
+			if (map.remove(holder.key(), holder))
 			{
-				put(hash, element);
-				result = get(hash);
+				evictions.increment();
 			}
-			return result;
 		}
-		return null;
 	}
 
 	/**
-	 * Content cleanup
+	 * Number of elements currently stored in this factory
+	 * @return the number of elements stored in this factory (which may
+	 * include elements being collected)
+	 */
+	public int size()
+	{
+		expunge();
+		return map.size();
+	}
+
+	/**
+	 * Retention policy accessor
+	 * @return the retention policy of this factory
+	 */
+	public Policy getPolicy()
+	{
+		return policy;
+	}
+
+	/**
+	 * Number of requests satisfied by an already stored element
+	 * @return the number of hits
+	 */
+	public long getHitCount()
+	{
+		return hits.sum();
+	}
+
+	/**
+	 * Number of requests which stored a new element
+	 * @return the number of misses
+	 */
+	public long getMissCount()
+	{
+		return misses.sum();
+	}
+
+	/**
+	 * Number of elements evicted from this factory
+	 * @return the number of elements collected or evicted by LRU policy
+	 */
+	public long getEvictionCount()
+	{
+		expunge();
+		return evictions.sum();
+	}
+
+	/**
+	 * Ratio of requests satisfied by an already stored element
+	 * @return the ratio of hits among all requests or 0 if there was no
+	 * requests yet
+	 */
+	public double getHitRatio()
+	{
+		long h = hits.sum();
+		long total = h + misses.sum();
+		return total == 0 ? 0.0 : (double) h / total;
+	}
+
+	/**
+	 * Content cleanup (statistics are kept)
 	 */
 	public void clear()
 	{
@@ -137,11 +568,14 @@ public class FlyweightFactory<T>
 	}
 
 	/**
-	 * Cleanup before destruction
+	 * String representation of this factory
+	 * @return a String containing policy, size and statistics of this factory
 	 */
 	@Override
-	protected void finalize()
+	public String toString()
 	{
-		clear();
+		return getClass().getSimpleName() + "[" + policy + ", size = " + size()
+		    + ", hits = " + getHitCount() + ", misses = " + getMissCount()
+		    + ", evictions = " + getEvictionCount() + "]";
 	}
 }
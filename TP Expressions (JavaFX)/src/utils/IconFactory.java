@@ -1,13 +1,17 @@
 package utils;
 
+import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javafx.scene.image.Image;
 import logger.LoggerFactory;
+import metrics.Metrics;
 
 /**
  * Factory providing {@link Image} icons in order to reuse frequently used images
+ * @implNote Icons are cached by name and {@link IconSize} so that each image
+ * file is decoded at most once (including image files that failed to load).
  * @author davidroussel
  */
 public class IconFactory
@@ -65,10 +69,22 @@ public class IconFactory
 	private final static String ImagePostfix = ".png";
 
 	/**
-	 * La factory stockant et fournissant les icônes
+	 * Key of icons in {@link #iconFactory}
+	 * @param name the name of the icon
+	 * @param size the size of the icon
 	 */
-	static private FlyweightFactory<Image> iconFactory =
-		new FlyweightFactory<Image>();
+	private record IconKey(String name, IconSize size)
+	{
+	}
+
+	/**
+	 * La factory stockant et fournissant les icônes, indexées par nom et
+	 * taille.
+	 * @implNote An empty {@link Optional} is stored for images which could
+	 * not be loaded so they are not loaded again on each request.
+	 */
+	static private FlyweightFactory<Optional<Image>> iconFactory =
+		new FlyweightFactory<Optional<Image>>();
 
 	/**
 	 * Logger from {@link #iconFactory}
@@ -79,6 +95,11 @@ public class IconFactory
 	                     (iconFactory .getLogger() == null ?
 	                      Level.INFO : null)); // null level to inherit parent logger's level
 
+	static
+	{
+		Metrics.registerCache("icons", iconFactory);
+	}
+
 	/**
 	 * Factory method retrieving an small Image icon (16x16) based on a provided
 	 * icon name
@@ -134,34 +155,60 @@ public class IconFactory
 			return null;
 		}
 
-		int hash = name.hashCode() + (31 * size.hashCode());
-		Image icon = iconFactory.get(hash);
+		return iconFactory
+		    .get(new IconKey(name, size),
+		         (IconKey key) -> loadIcon(key.name(), key.size()))
+		    .orElse(null);
+	}
 
-		if (icon == null)
+	/**
+	 * Loads (and decodes) an image icon file
+	 * @param name The name of the icon to load
+	 * @param size The required image size
+	 * @return an {@link Optional} containing the loaded image or an empty
+	 * {@link Optional} if the image file could not be loaded.
+	 */
+	private static Optional<Image> loadIcon(String name, IconSize size)
+	{
+		StringBuilder sb = new StringBuilder();
+		sb.append(ImagePrefix);
+		sb.append(name);
+		sb.append('-');
+		sb.append(size.size());
+		sb.append(ImagePostfix);
+		String fileName = sb.toString();
+		Image icon = null;
+		try
 		{
-			StringBuilder sb = new StringBuilder();
-			sb.append(ImagePrefix);
-			sb.append(name);
-			sb.append('-');
-			sb.append(size.size());
-			sb.append(ImagePostfix);
-			String fileName = new String(sb.toString());
-			try
-			{
-				icon = new Image(fileName);
-			}
-			catch (IllegalArgumentException iae)
-			{
-				logger.severe(name + ": couldn't load file " + fileName);
-			}
+			icon = new Image(fileName);
+		}
+		catch (IllegalArgumentException iae)
+		{
+			logger.severe(name + ": couldn't load file " + fileName);
+		}
 
-			if ((icon != null) && !icon.isError())
-			{
-				iconFactory.put(hash, icon);
-			}
-			icon = iconFactory.get(hash);
+		if ((icon == null) || icon.isError())
+		{
+			return Optional.empty();
 		}
-		return icon;
+		return Optional.of(icon);
+	}
+
+	/**
+	 * Clears all cached icons
+	 */
+	public static void clear()
+	{
+		iconFactory.clear();
+	}
+
+	/**
+	 * Icons cache accessor (e.g. to collect its statistics)
+	 * @return the factory storing icons
+	 */
+	public static FlyweightFactory<Optional<Image>> getFactory()
+	{
+		return iconFactory;
 	}
 
 	/**
@@ -0,0 +1,308 @@
+package utils;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed index of the elements of a list maintained alongside this list, so
+ * that membership tests and index lookups don't need to scan the list.
+ * Elements are indexed both by identity (to find the index of an element
+ * instance) and by structure (to test if the list contains an element equal
+ * to a provided one according to {@link Object#equals(Object)}).
+ * The owner of the list reports each change of the list to this index with
+ * {@link #replaced(List, int, List, int)} (or {@link #reset(List)}).
+ * @implNote Structural keys capture the hash code of elements when they are
+ * added, so elements mutated in place (changing their hash code) can still
+ * be removed from this index: such elements should be reported as replaced
+ * by themselves to be indexed with their new hash code.
+ * @implNote Positions of elements are computed lazily: changes shifting
+ * elements (insertions or removals which are not replacements) only
+ * invalidate the positions after the change, which are recomputed (with
+ * identity hashing only) at the next lookup of a shifted element. Hence
+ * appending to the list or replacing elements keeps lookups O(1).
+ * @param <T> The type of elements in the list
+ */
+public class ListIndex<T>
+{
+	/**
+	 * Structural key of an element: hash code captured when the element was
+	 * indexed and comparison with {@link Object#equals(Object)}
+	 */
+	private static final class Key
+	{
+		/**
+		 * The element
+		 */
+		private final Object element;
+
+		/**
+		 * The hash code of the element when it was indexed
+		 */
+		private final int hash;
+
+		/**
+		 * Constructor
+		 * @param element the element
+		 */
+		Key(Object element)
+		{
+			this.element = element;
+			hash = element.hashCode();
+		}
+
+		/**
+		 * Hash code of this key
+		 * @return the hash code of the element when it was indexed
+		 */
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+
+		/**
+		 * Compare keys
+		 * @param obj the object to compare
+		 * @return true if obj is a key whose element is equal to this key's
+		 * element
+		 */
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+			{
+				return true;
+			}
+			if (!(obj instanceof Key))
+			{
+				return false;
+			}
+			Key other = (Key) obj;
+			return (hash == other.hash)
+			    && ((element == other.element) || element.equals(other.element));
+		}
+	}
+
+	/**
+	 * Index entry of an element instance
+	 */
+	private static final class Entry
+	{
+		/**
+		 * Structural key of the element
+		 */
+		final Key key;
+
+		/**
+		 * Number of occurrences of this instance in the list
+		 */
+		int count;
+
+		/**
+		 * Position of an occurrence of this instance (only reliable when lower
+		 * than {@link ListIndex#validPositions})
+		 */
+		int position;
+
+		/**
+		 * Constructor
+		 * @param key the structural key of the element
+		 * @param position the position of the element
+		 */
+		Entry(Key key, int position)
+		{
+			this.key = key;
+			this.position = position;
+			count = 0;
+		}
+	}
+
+	/**
+	 * Entries of element instances
+	 */
+	private final Map<T, Entry> entries;
+
+	/**
+	 * Number of indexed elements equal to each structural key
+	 */
+	private final Map<Key, Integer> counts;
+
+	/**
+	 * Number of leading positions known to be valid in {@link #entries}
+	 */
+	private int validPositions;
+
+	/**
+	 * Constructor of an empty index
+	 */
+	public ListIndex()
+	{
+		entries = new IdentityHashMap<>();
+		counts = new HashMap<>();
+		validPositions = 0;
+	}
+
+	/**
+	 * Test if the list contains an element equal to the provided object
+	 * @param o the object to search
+	 * @return true if an element equal to the provided object is indexed
+	 */
+	public boolean contains(Object o)
+	{
+		if (o == null)
+		{
+			return false;
+		}
+		if (entries.containsKey(o))
+		{
+			return true;
+		}
+		return counts.containsKey(new Key(o));
+	}
+
+	/**
+	 * Index of the provided object in the list
+	 * @param list the indexed list
+	 * @param o the object to search
+	 * @return the index of the provided instance in the list (if the list
+	 * contains this instance several times, this is the index of one of its
+	 * occurrences) or else the index of the first element equal to the
+	 * provided object, or -1 if there is no such element.
+	 * @implNote Searching an element which is equal to some elements of the
+	 * list without being one of them requires to scan the list.
+	 */
+	public int indexOf(List<? extends T> list, Object o)
+	{
+		if (o == null)
+		{
+			return -1;
+		}
+		Entry entry = entries.get(o);
+		if (entry == null)
+		{
+			if (!counts.containsKey(new Key(o)))
+			{
+				return -1;
+			}
+			for (int i = 0; i < list.size(); i++)
+			{
+				if (list.get(i).equals(o))
+				{
+					return i;
+				}
+			}
+			return -1;
+		}
+		if ((entry.position >= validPositions) || (list.get(entry.position) != o))
+		{
+			for (int i = validPositions; i < list.size(); i++)
+			{
+				T element = list.get(i);
+				Entry shifted = entries.get(element);
+				// Keeps the first occurrence of elements found in this pass
+				if ((shifted.position < validPositions)
+				    || (shifted.position >= i)
+				    || (list.get(shifted.position) != element))
+				{
+					shifted.position = i;
+				}
+			}
+			validPositions = list.size();
+		}
+		return entry.position;
+	}
+
+	/**
+	 * Report a change of the indexed list: removedElements which were at
+	 * index from have been replaced by addedSize elements.
+	 * @param list the indexed list (after the change)
+	 * @param from the index of the change
+	 * @param removedElements the removed elements (might be empty)
+	 * @param addedSize the number of added elements (might be 0) now in
+	 * list at index from
+	 */
+	public void replaced(List<? extends T> list,
+	                     int from,
+	                     List<? extends T> removedElements,
+	                     int addedSize)
+	{
+		for (T element : removedElements)
+		{
+			unregister(element);
+		}
+		int to = from + addedSize;
+		for (int i = from; i < to; i++)
+		{
+			register(list.get(i), i);
+		}
+		if (validPositions >= from)
+		{
+			validPositions = removedElements.size() == addedSize
+			    ? Math.max(validPositions, to)
+			    : to;
+		}
+	}
+
+	/**
+	 * Report elements of the indexed list have been permuted
+	 * @param from the index of the first permuted element
+	 */
+	public void permuted(int from)
+	{
+		validPositions = Math.min(validPositions, from);
+	}
+
+	/**
+	 * Rebuild this index from the indexed list
+	 * @param list the indexed list
+	 */
+	public void reset(List<? extends T> list)
+	{
+		entries.clear();
+		counts.clear();
+		validPositions = 0;
+		replaced(list, 0, List.of(), list.size());
+	}
+
+	/**
+	 * Index an element
+	 * @param element the element to index
+	 * @param position the position of the element in the list
+	 */
+	private void register(T element, int position)
+	{
+		Entry entry = entries.get(element);
+		if (entry == null)
+		{
+			entry = new Entry(new Key(element), position);
+			entries.put(element, entry);
+		}
+		else if ((entry.position >= validPositions) || (entry.position > position))
+		{
+			entry.position = position;
+		}
+		entry.count++;
+		counts.merge(entry.key, 1, Integer::sum);
+	}
+
+	/**
+	 * Remove an element from this index
+	 * @param element the element to remove
+	 */
+	private void unregister(T element)
+	{
+		Entry entry = entries.get(element);
+		if (entry == null)
+		{
+			return;
+		}
+		entry.count--;
+		if (entry.count == 0)
+		{
+			entries.remove(element);
+		}
+		counts.computeIfPresent(entry.key, (Key key, Integer count) -> count > 1 ? count - 1 : null);
+	}
+}
@@ -0,0 +1,436 @@
+package utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Immutable (persistent) list of elements.
+ * Each modification ({@link #set(int, Object)}, {@link #add(int, Object)},
+ * {@link #remove(int)}, ...) leaves this list untouched and returns a new list
+ * sharing all unmodified parts of this one, so that keeping many successive
+ * versions of a large list only costs the modified parts of each version.
+ * @implNote Elements are stored in an implicit treap (a binary tree ordered by
+ * positions and balanced by random priorities) where modifications only copy
+ * the nodes on the path from the root to the modified positions: accessing,
+ * replacing, inserting or removing a single element costs O(log n) (expected).
+ * @param <T> The type of elements in this list
+ * @see PersistentMap
+ */
+public final class PersistentList<T> implements Iterable<T>
+{
+	/**
+	 * Immutable node of the treap
+	 * @param <T> The type of elements
+	 */
+	private static final class Node<T>
+	{
+		/**
+		 * The element of this node
+		 */
+		final T value;
+
+		/**
+		 * Random priority of this node (greater than its children's ones)
+		 */
+		final int priority;
+
+		/**
+		 * Number of nodes in the sub-tree rooted at this node
+		 */
+		final int size;
+
+		/**
+		 * Elements before this element (or null)
+		 */
+		final Node<T> left;
+
+		/**
+		 * Elements after this element (or null)
+		 */
+		final Node<T> right;
+
+		/**
+		 * Constructor
+		 * @param value the element
+		 * @param priority the priority of this node
+		 * @param left elements before this element (or null)
+		 * @param right elements after this element (or null)
+		 */
+		Node(T value, int priority, Node<T> left, Node<T> right)
+		{
+			this.value = value;
+			this.priority = priority;
+			this.left = left;
+			this.right = right;
+			size = 1 + size(left) + size(right);
+		}
+	}
+
+	/**
+	 * The empty list shared by all element types
+	 */
+	private static final PersistentList<?> Empty = new PersistentList<>(null);
+
+	/**
+	 * The root of the treap (or null if this list is empty)
+	 */
+	private final Node<T> root;
+
+	/**
+	 * Private constructor from root node
+	 * @param root the root of the treap
+	 */
+	private PersistentList(Node<T> root)
+	{
+		this.root = root;
+	}
+
+	/**
+	 * The empty list
+	 * @param <T> The type of elements in the list
+	 * @return the empty list
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> PersistentList<T> empty()
+	{
+		return (PersistentList<T>) Empty;
+	}
+
+	/**
+	 * List containing all provided elements in the same order
+	 * @param <T> The type of elements in the list
+	 * @param elements the elements to put in the list
+	 * @return a new list containing the provided elements
+	 * @throws NullPointerException if provided elements list is null
+	 */
+	public static <T> PersistentList<T> of(List<? extends T> elements)
+	    throws NullPointerException
+	{
+		return PersistentList.<T>empty().addAll(0, elements);
+	}
+
+	/**
+	 * Number of elements in this list
+	 * @return the number of elements in this list
+	 */
+	public int size()
+	{
+		return size(root);
+	}
+
+	/**
+	 * Test if this list is empty
+	 * @return true if this list contains no elements
+	 */
+	public boolean isEmpty()
+	{
+		return root == null;
+	}
+
+	/**
+	 * Element accessor
+	 * @param index the index of the element
+	 * @return the element at the provided index
+	 * @throws IndexOutOfBoundsException if index is not within [0, size())
+	 */
+	public T get(int index) throws IndexOutOfBoundsException
+	{
+		Objects.checkIndex(index, size());
+		Node<T> node = root;
+		for (;;)
+		{
+			int leftSize = size(node.left);
+			if (index < leftSize)
+			{
+				node = node.left;
+			}
+			else if (index > leftSize)
+			{
+				index -= leftSize + 1;
+				node = node.right;
+			}
+			else
+			{
+				return node.value;
+			}
+		}
+	}
+
+	/**
+	 * Replace an element
+	 * @param index the index of the element to replace
+	 * @param element the new element
+	 * @return a new list where the element at the provided index is replaced
+	 * (or this list if the same element was already there)
+	 * @throws IndexOutOfBoundsException if index is not within [0, size())
+	 */
+	public PersistentList<T> set(int index, T element)
+	    throws IndexOutOfBoundsException
+	{
+		Objects.checkIndex(index, size());
+		if (get(index) == element)
+		{
+			return this;
+		}
+		return new PersistentList<>(set(root, index, element));
+	}
+
+	/**
+	 * Insert an element
+	 * @param index the index where to insert the element
+	 * @param element the element to insert
+	 * @return a new list where the element has been inserted
+	 * @throws IndexOutOfBoundsException if index is not within [0, size()]
+	 */
+	public PersistentList<T> add(int index, T element)
+	    throws IndexOutOfBoundsException
+	{
+		return addAll(index, Collections.singletonList(element));
+	}
+
+	/**
+	 * Append an element
+	 * @param element the element to append
+	 * @return a new list where the element has been appended
+	 */
+	public PersistentList<T> add(T element)
+	{
+		return add(size(), element);
+	}
+
+	/**
+	 * Insert elements
+	 * @param index the index where to insert the elements
+	 * @param elements the elements to insert
+	 * @return a new list where the elements have been inserted (or this list
+	 * if there was no elements to insert)
+	 * @throws NullPointerException if provided elements list is null
+	 * @throws IndexOutOfBoundsException if index is not within [0, size()]
+	 */
+	public PersistentList<T> addAll(int index, List<? extends T> elements)
+	    throws NullPointerException, IndexOutOfBoundsException
+	{
+		Objects.requireNonNull(elements);
+		Objects.checkIndex(index, size() + 1);
+		if (elements.isEmpty())
+		{
+			return this;
+		}
+		Node<T> inserted = null;
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		for (T element : elements)
+		{
+			inserted = merge(inserted, new Node<>(element, random.nextInt(), null, null));
+		}
+		List<Node<T>> parts = split(root, index);
+		return new PersistentList<>(merge(merge(parts.get(0), inserted), parts.get(1)));
+	}
+
+	/**
+	 * Remove an element
+	 * @param index the index of the element to remove
+	 * @return a new list where the element has been removed
+	 * @throws IndexOutOfBoundsException if index is not within [0, size())
+	 */
+	public PersistentList<T> remove(int index) throws IndexOutOfBoundsException
+	{
+		Objects.checkIndex(index, size());
+		return removeRange(index, index + 1);
+	}
+
+	/**
+	 * Remove a range of elements
+	 * @param from the index of the first element to remove
+	 * @param to the index after the last element to remove
+	 * @return a new list where elements within [from, to) have been removed
+	 * (or this list if the range is empty)
+	 * @throws IndexOutOfBoundsException if from and to are not such as
+	 * 0 &le; from &le; to &le; size()
+	 */
+	public PersistentList<T> removeRange(int from, int to)
+	    throws IndexOutOfBoundsException
+	{
+		Objects.checkFromToIndex(from, to, size());
+		if (from == to)
+		{
+			return this;
+		}
+		List<Node<T>> head = split(root, from);
+		List<Node<T>> tail = split(head.get(1), to - from);
+		return new PersistentList<>(merge(head.get(0), tail.get(1)));
+	}
+
+	/**
+	 * Copy of the elements of this list
+	 * @return a new mutable list containing all the elements of this list
+	 */
+	public List<T> toList()
+	{
+		List<T> list = new ArrayList<>(size());
+		for (T element : this)
+		{
+			list.add(element);
+		}
+		return list;
+	}
+
+	/**
+	 * Iterator on the elements of this list in order
+	 * @return a new iterator on the elements of this list
+	 */
+	@Override
+	public Iterator<T> iterator()
+	{
+		return new Iterator<T>()
+		{
+			/**
+			 * Nodes whose element and right elements remain to iterate
+			 */
+			private final Deque<Node<T>> stack = new ArrayDeque<>();
+
+			{
+				pushLefts(root);
+			}
+
+			/**
+			 * Push a node and its left descendants
+			 * @param node the node to push
+			 */
+			private void pushLefts(Node<T> node)
+			{
+				for (; node != null; node = node.left)
+				{
+					stack.push(node);
+				}
+			}
+
+			/**
+			 * Test if there are remaining elements
+			 * @return true if there are remaining elements
+			 */
+			@Override
+			public boolean hasNext()
+			{
+				return !stack.isEmpty();
+			}
+
+			/**
+			 * Next element
+			 * @return the next element
+			 * @throws NoSuchElementException if there are no more elements
+			 */
+			@Override
+			public T next() throws NoSuchElementException
+			{
+				if (stack.isEmpty())
+				{
+					throw new NoSuchElementException();
+				}
+				Node<T> node = stack.pop();
+				pushLefts(node.right);
+				return node.value;
+			}
+		};
+	}
+
+	/**
+	 * String representation of this list
+	 * @return a String containing all elements of this list
+	 */
+	@Override
+	public String toString()
+	{
+		return toList().toString();
+	}
+
+	/**
+	 * Size of a (possibly null) sub-tree
+	 * @param <T> The type of elements
+	 * @param node the root of the sub-tree
+	 * @return the number of nodes in the sub-tree
+	 */
+	private static <T> int size(Node<T> node)
+	{
+		return node == null ? 0 : node.size;
+	}
+
+	/**
+	 * Replace an element in a sub-tree
+	 * @param <T> The type of elements
+	 * @param node the root of the sub-tree
+	 * @param index the index of the element to replace within the sub-tree
+	 * @param element the new element
+	 * @return the root of a new sub-tree where the element is replaced
+	 */
+	private static <T> Node<T> set(Node<T> node, int index, T element)
+	{
+		int leftSize = size(node.left);
+		if (index < leftSize)
+		{
+			return new Node<>(node.value, node.priority, set(node.left, index, element), node.right);
+		}
+		if (index > leftSize)
+		{
+			return new Node<>(node.value, node.priority, node.left, set(node.right, index - leftSize - 1, element));
+		}
+		return new Node<>(element, node.priority, node.left, node.right);
+	}
+
+	/**
+	 * Split a sub-tree in two
+	 * @param <T> The type of elements
+	 * @param node the root of the sub-tree
+	 * @param index the number of elements in the first part
+	 * @return the roots of the first index elements and of the remaining
+	 * elements
+	 */
+	private static <T> List<Node<T>> split(Node<T> node, int index)
+	{
+		if (node == null)
+		{
+			return Arrays.asList(null, null);
+		}
+		int leftSize = size(node.left);
+		if (index <= leftSize)
+		{
+			List<Node<T>> parts = split(node.left, index);
+			parts.set(1, new Node<>(node.value, node.priority, parts.get(1), node.right));
+			return parts;
+		}
+		List<Node<T>> parts = split(node.right, index - leftSize - 1);
+		parts.set(0, new Node<>(node.value, node.priority, node.left, parts.get(0)));
+		return parts;
+	}
+
+	/**
+	 * Concatenate two sub-trees
+	 * @param <T> The type of elements
+	 * @param first the root of the first elements
+	 * @param second the root of the following elements
+	 * @return the root of the concatenated sub-trees
+	 */
+	private static <T> Node<T> merge(Node<T> first, Node<T> second)
+	{
+		if (first == null)
+		{
+			return second;
+		}
+		if (second == null)
+		{
+			return first;
+		}
+		if (first.priority >= second.priority)
+		{
+			return new Node<>(first.value, first.priority, first.left, merge(first.right, second));
+		}
+		return new Node<>(second.value, second.priority, merge(first, second.left), second.right);
+	}
+}
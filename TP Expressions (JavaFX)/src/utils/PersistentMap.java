@@ -0,0 +1,416 @@
+package utils;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable (persistent) map of keys to values.
+ * Each modification ({@link #put(Comparable, Object)},
+ * {@link #remove(Comparable)}) leaves this map untouched and returns a new map
+ * sharing all unmodified parts of this one, so that keeping many successive
+ * versions of a large map only costs the modified parts of each version.
+ * @implNote Entries are stored in a treap (a binary search tree on keys
+ * balanced by priorities) where modifications only copy the nodes on the path
+ * from the root to the modified key: searching, putting or removing a key
+ * costs O(log n) (expected). Priorities are derived from keys hash codes so
+ * that maps containing the same keys have the same shape regardless of the
+ * order in which keys were added.
+ * @param <K> The type of keys (which must be mutually comparable)
+ * @param <V> The type of values
+ * @see PersistentList
+ */
+public final class PersistentMap<K extends Comparable<? super K>, V>
+{
+	/**
+	 * Immutable node of the treap
+	 * @param <K> The type of keys
+	 * @param <V> The type of values
+	 */
+	private static final class Node<K, V>
+	{
+		/**
+		 * The key of this node
+		 */
+		final K key;
+
+		/**
+		 * The value associated with {@link #key}
+		 */
+		final V value;
+
+		/**
+		 * Priority of this node (greater than its children's ones)
+		 */
+		final int priority;
+
+		/**
+		 * Number of nodes in the sub-tree rooted at this node
+		 */
+		final int size;
+
+		/**
+		 * Entries with lower keys (or null)
+		 */
+		final Node<K, V> left;
+
+		/**
+		 * Entries with greater keys (or null)
+		 */
+		final Node<K, V> right;
+
+		/**
+		 * Constructor
+		 * @param key the key
+		 * @param value the value
+		 * @param priority the priority of this node
+		 * @param left entries with lower keys (or null)
+		 * @param right entries with greater keys (or null)
+		 */
+		Node(K key, V value, int priority, Node<K, V> left, Node<K, V> right)
+		{
+			this.key = key;
+			this.value = value;
+			this.priority = priority;
+			this.left = left;
+			this.right = right;
+			size = 1 + size(left) + size(right);
+		}
+
+		/**
+		 * Copy of this node with other children
+		 * @param newLeft the new left child
+		 * @param newRight the new right child
+		 * @return a new node with the same entry and priority as this node
+		 */
+		Node<K, V> with(Node<K, V> newLeft, Node<K, V> newRight)
+		{
+			return new Node<>(key, value, priority, newLeft, newRight);
+		}
+	}
+
+	/**
+	 * The empty map shared by all keys and values types
+	 */
+	@SuppressWarnings("rawtypes")
+	private static final PersistentMap Empty = new PersistentMap<>(null);
+
+	/**
+	 * The root of the treap (or null if this map is empty)
+	 */
+	private final Node<K, V> root;
+
+	/**
+	 * Private constructor from root node
+	 * @param root the root of the treap
+	 */
+	private PersistentMap(Node<K, V> root)
+	{
+		this.root = root;
+	}
+
+	/**
+	 * The empty map
+	 * @param <K> The type of keys
+	 * @param <V> The type of values
+	 * @return the empty map
+	 */
+	@SuppressWarnings("unchecked")
+	public static <K extends Comparable<? super K>, V> PersistentMap<K, V> empty()
+	{
+		return Empty;
+	}
+
+	/**
+	 * Map containing all entries of the provided map
+	 * @param <K> The type of keys
+	 * @param <V> The type of values
+	 * @param map the map containing the entries to copy
+	 * @return a new map containing the same entries as the provided map
+	 * @throws NullPointerException if provided map or any of its keys is null
+	 */
+	public static <K extends Comparable<? super K>, V> PersistentMap<K, V>
+	    of(Map<? extends K, ? extends V> map) throws NullPointerException
+	{
+		PersistentMap<K, V> result = empty();
+		for (Map.Entry<? extends K, ? extends V> entry : map.entrySet())
+		{
+			result = result.put(entry.getKey(), entry.getValue());
+		}
+		return result;
+	}
+
+	/**
+	 * Number of entries in this map
+	 * @return the number of entries in this map
+	 */
+	public int size()
+	{
+		return size(root);
+	}
+
+	/**
+	 * Test if this map is empty
+	 * @return true if this map contains no entries
+	 */
+	public boolean isEmpty()
+	{
+		return root == null;
+	}
+
+	/**
+	 * Test if this map contains a key
+	 * @param key the key to search
+	 * @return true if this map contains an entry for this key
+	 * @throws NullPointerException if provided key is null
+	 */
+	public boolean containsKey(K key) throws NullPointerException
+	{
+		return find(key) != null;
+	}
+
+	/**
+	 * Value accessor
+	 * @param key the key of the value
+	 * @return the value associated with the provided key or null if there is
+	 * no such key in this map
+	 * @throws NullPointerException if provided key is null
+	 */
+	public V get(K key) throws NullPointerException
+	{
+		Node<K, V> node = find(key);
+		return node == null ? null : node.value;
+	}
+
+	/**
+	 * Associate a value to a key
+	 * @param key the key
+	 * @param value the value to associate with the key
+	 * @return a new map where the key is associated with the value (or this
+	 * map if the key was already associated with an equal value)
+	 * @throws NullPointerException if provided key is null
+	 */
+	public PersistentMap<K, V> put(K key, V value) throws NullPointerException
+	{
+		Node<K, V> existing = find(key);
+		if ((existing != null) && Objects.equals(existing.value, value))
+		{
+			return this;
+		}
+		return new PersistentMap<>(put(root, key, value, priority(key)));
+	}
+
+	/**
+	 * Remove a key
+	 * @param key the key to remove
+	 * @return a new map without the provided key (or this map if the key was
+	 * not present)
+	 * @throws NullPointerException if provided key is null
+	 */
+	public PersistentMap<K, V> remove(K key) throws NullPointerException
+	{
+		if (find(key) == null)
+		{
+			return this;
+		}
+		return new PersistentMap<>(remove(root, key));
+	}
+
+	/**
+	 * Perform an action on each entry of this map in keys order
+	 * @param action the action to perform on each key and value
+	 * @throws NullPointerException if provided action is null
+	 */
+	public void forEach(BiConsumer<? super K, ? super V> action)
+	    throws NullPointerException
+	{
+		Objects.requireNonNull(action);
+		forEach(root, action);
+	}
+
+	/**
+	 * String representation of this map
+	 * @return a String containing all entries of this map in keys order
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder("{");
+		forEach((K key, V value) -> {
+			if (builder.length() > 1)
+			{
+				builder.append(", ");
+			}
+			builder.append(key + "=" + value);
+		});
+		return builder.append('}').toString();
+	}
+
+	/**
+	 * Search the node of a key
+	 * @param key the key to search
+	 * @return the node of the key or null if there is no such key
+	 * @throws NullPointerException if provided key is null
+	 */
+	private Node<K, V> find(K key) throws NullPointerException
+	{
+		Objects.requireNonNull(key);
+		Node<K, V> node = root;
+		while (node != null)
+		{
+			int comparison = key.compareTo(node.key);
+			if (comparison == 0)
+			{
+				return node;
+			}
+			node = comparison < 0 ? node.left : node.right;
+		}
+		return null;
+	}
+
+	/**
+	 * Priority of a key
+	 * @param key the key
+	 * @return a well spread priority computed from the key's hash code
+	 */
+	private static int priority(Object key)
+	{
+		int hash = key.hashCode() * 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * Test if a node should be above another one
+	 * @param <K> The type of keys
+	 * @param priority the priority of the first node
+	 * @param key the key of the first node
+	 * @param other the other node
+	 * @return true if the first node has a higher priority than the other one
+	 * (ties are broken on keys so that the shape of a treap only depends on
+	 * its keys)
+	 */
+	private static <K extends Comparable<? super K>> boolean
+	    above(int priority, K key, Node<K, ?> other)
+	{
+		return (priority > other.priority)
+		    || ((priority == other.priority) && (key.compareTo(other.key) < 0));
+	}
+
+	/**
+	 * Size of a (possibly null) sub-tree
+	 * @param node the root of the sub-tree
+	 * @return the number of nodes in the sub-tree
+	 */
+	private static int size(Node<?, ?> node)
+	{
+		return node == null ? 0 : node.size;
+	}
+
+	/**
+	 * Put an entry in a sub-tree
+	 * @param <K> The type of keys
+	 * @param <V> The type of values
+	 * @param node the root of the sub-tree
+	 * @param key the key
+	 * @param value the value
+	 * @param priority the priority of the key
+	 * @return the root of a new sub-tree containing the entry
+	 */
+	private static <K extends Comparable<? super K>, V> Node<K, V>
+	    put(Node<K, V> node, K key, V value, int priority)
+	{
+		if (node == null)
+		{
+			return new Node<>(key, value, priority, null, null);
+		}
+		int comparison = key.compareTo(node.key);
+		if (comparison == 0)
+		{
+			return new Node<>(key, value, node.priority, node.left, node.right);
+		}
+		if (comparison < 0)
+		{
+			Node<K, V> left = put(node.left, key, value, priority);
+			if (above(left.priority, left.key, node))
+			{
+				// Rotate right
+				return left.with(left.left, node.with(left.right, node.right));
+			}
+			return node.with(left, node.right);
+		}
+		Node<K, V> right = put(node.right, key, value, priority);
+		if (above(right.priority, right.key, node))
+		{
+			// Rotate left
+			return right.with(node.with(node.left, right.left), right.right);
+		}
+		return node.with(node.left, right);
+	}
+
+	/**
+	 * Remove a key from a sub-tree containing this key
+	 * @param <K> The type of keys
+	 * @param <V> The type of values
+	 * @param node the root of the sub-tree
+	 * @param key the key to remove
+	 * @return the root of a new sub-tree without the key
+	 */
+	private static <K extends Comparable<? super K>, V> Node<K, V>
+	    remove(Node<K, V> node, K key)
+	{
+		int comparison = key.compareTo(node.key);
+		if (comparison < 0)
+		{
+			return node.with(remove(node.left, key), node.right);
+		}
+		if (comparison > 0)
+		{
+			return node.with(node.left, remove(node.right, key));
+		}
+		return merge(node.left, node.right);
+	}
+
+	/**
+	 * Merge two sub-trees
+	 * @param <K> The type of keys
+	 * @param <V> The type of values
+	 * @param lower the root of the sub-tree containing the lower keys
+	 * @param greater the root of the sub-tree containing the greater keys
+	 * @return the root of the merged sub-trees
+	 */
+	private static <K extends Comparable<? super K>, V> Node<K, V>
+	    merge(Node<K, V> lower, Node<K, V> greater)
+	{
+		if (lower == null)
+		{
+			return greater;
+		}
+		if (greater == null)
+		{
+			return lower;
+		}
+		if (above(lower.priority, lower.key, greater))
+		{
+			return lower.with(lower.left, merge(lower.right, greater));
+		}
+		return greater.with(merge(lower, greater.left), greater.right);
+	}
+
+	/**
+	 * Perform an action on each entry of a sub-tree in keys order
+	 * @param <K> The type of keys
+	 * @param <V> The type of values
+	 * @param node the root of the sub-tree
+	 * @param action the action to perform on each key and value
+	 */
+	private static <K, V> void forEach(Node<K, V> node,
+	                                   BiConsumer<? super K, ? super V> action)
+	{
+		while (node != null)
+		{
+			forEach(node.left, action);
+			action.accept(node.key, node.value);
+			node = node.right;
+		}
+	}
+}
@@ -0,0 +1,448 @@
+package utils;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Map whose content is an immutable {@link PersistentMap}
+ * snapshot atomically swapped by each modification.
+ * <ul>
+ * 	<li>Readers never lock and always read a consistent state: single reads
+ * 	({@link #get(Object)}, {@link #containsKey(Object)}) read the current
+ * 	snapshot and {@link #snapshot()} provides a snapshot which can be read
+ * 	at leisure (e.g. by the JavaFX application thread) while other threads
+ * 	keep on modifying this map.</li>
+ * 	<li>Writers publish each modification with a compare-and-set of the
+ * 	snapshot. {@link #putAll(Map)} and {@link #publish(PersistentMap)}
+ * 	publish many modifications at once: readers either see all of them or
+ * 	none of them.</li>
+ * 	<li>{@link Listener}s are notified (on the writing thread) after each
+ * 	new snapshot has been published, once per publication.</li>
+ * </ul>
+ * Iterations over this map (including through its views) iterate over the
+ * snapshot taken when the iteration started (in keys order), so they never
+ * throw {@link java.util.ConcurrentModificationException}s.
+ * @param <K> The type of keys (which must be mutually comparable and non
+ * null)
+ * @param <V> The type of values
+ * @implNote This class does not depend on JavaFX so it can be used in
+ * headless mode. UI components observe it through an adapter (see
+ * {@link expressions.models.ExpressionsModel#getVariables()}).
+ */
+public class SnapshotMap<K extends Comparable<? super K>, V> extends AbstractMap<K, V>
+{
+	/**
+	 * Listener notified of each publication of a new snapshot
+	 * @param <K> The type of keys
+	 * @param <V> The type of values
+	 */
+	@FunctionalInterface
+	public interface Listener<K extends Comparable<? super K>, V>
+	{
+		/**
+		 * Notification of the publication of a new snapshot (on the writing
+		 * thread)
+		 * @param previous the snapshot replaced by the publication
+		 * @param current the published snapshot
+		 * @param keys the keys possibly modified by the publication
+		 */
+		void published(PersistentMap<K, V> previous,
+		               PersistentMap<K, V> current,
+		               List<K> keys);
+	}
+
+	/**
+	 * The current snapshot
+	 */
+	private final AtomicReference<PersistentMap<K, V>> state;
+
+	/**
+	 * Listeners notified of each publication
+	 */
+	private final List<Listener<K, V>> listeners;
+
+	/**
+	 * Constructor of an empty map
+	 */
+	public SnapshotMap()
+	{
+		state = new AtomicReference<>(PersistentMap.empty());
+		listeners = new CopyOnWriteArrayList<>();
+	}
+
+	/**
+	 * Copy constructor
+	 * @param map the map whose entries are copied
+	 * @throws NullPointerException if map or any of its keys is null
+	 */
+	public SnapshotMap(Map<? extends K, ? extends V> map) throws NullPointerException
+	{
+		this();
+		state.set(PersistentMap.of(map));
+	}
+
+	/**
+	 * Current snapshot of this map
+	 * @return the immutable content of this map at the time of the call
+	 */
+	public PersistentMap<K, V> snapshot()
+	{
+		return state.get();
+	}
+
+	/**
+	 * Number of entries
+	 * @return the number of entries of the current snapshot
+	 */
+	@Override
+	public int size()
+	{
+		return state.get().size();
+	}
+
+	/**
+	 * Test if this map is empty
+	 * @return true if the current snapshot is empty
+	 */
+	@Override
+	public boolean isEmpty()
+	{
+		return state.get().isEmpty();
+	}
+
+	/**
+	 * Test if this map contains a key
+	 * @param key the key to search
+	 * @return true if the current snapshot contains this key
+	 */
+	@Override
+	public boolean containsKey(Object key)
+	{
+		K comparable = comparable(key);
+		return comparable != null && state.get().containsKey(comparable);
+	}
+
+	/**
+	 * Value accessor
+	 * @param key the key of the value
+	 * @return the value associated with this key in the current snapshot or
+	 * null if there is no such key
+	 */
+	@Override
+	public V get(Object key)
+	{
+		K comparable = comparable(key);
+		return comparable == null ? null : state.get().get(comparable);
+	}
+
+	/**
+	 * Associate a value with a key
+	 * @param key the key
+	 * @param value the value
+	 * @return the previous value associated with the key (or null)
+	 * @throws NullPointerException if key is null
+	 */
+	@Override
+	public V put(K key, V value) throws NullPointerException
+	{
+		Objects.requireNonNull(key);
+		return update((PersistentMap<K, V> map) -> map.put(key, value), List.of(key)).get(key);
+	}
+
+	/**
+	 * Remove a key
+	 * @param key the key to remove
+	 * @return the value previously associated with the key (or null)
+	 */
+	@Override
+	public V remove(Object key)
+	{
+		K comparable = comparable(key);
+		if (comparable == null)
+		{
+			return null;
+		}
+		return update((PersistentMap<K, V> map) -> map.remove(comparable), List.of(comparable))
+		    .get(comparable);
+	}
+
+	/**
+	 * Publish all entries of the provided map at once
+	 * @param map the entries to put in this map
+	 * @throws NullPointerException if map or any of its keys is null
+	 */
+	@Override
+	public void putAll(Map<? extends K, ? extends V> map) throws NullPointerException
+	{
+		List<K> keys = new ArrayList<>(map.keySet());
+		for (K key : keys)
+		{
+			Objects.requireNonNull(key);
+		}
+		update((PersistentMap<K, V> current) -> {
+			PersistentMap<K, V> next = current;
+			for (Map.Entry<? extends K, ? extends V> entry : map.entrySet())
+			{
+				next = next.put(entry.getKey(), entry.getValue());
+			}
+			return next;
+		}, keys);
+	}
+
+	/**
+	 * Replace the whole content of this map at once
+	 * @param map the new content of this map
+	 * @throws NullPointerException if map is null
+	 */
+	public void publish(PersistentMap<K, V> map) throws NullPointerException
+	{
+		Objects.requireNonNull(map);
+		PersistentMap<K, V> previous = state.getAndSet(map);
+		List<K> keys = new ArrayList<>();
+		previous.forEach((K key, V value) -> keys.add(key));
+		map.forEach((K key, V value) -> {
+			if (!previous.containsKey(key))
+			{
+				keys.add(key);
+			}
+		});
+		fireChanges(previous, map, keys);
+	}
+
+	/**
+	 * Remove all entries at once
+	 */
+	@Override
+	public void clear()
+	{
+		publish(PersistentMap.empty());
+	}
+
+	/**
+	 * Entries of this map
+	 * @return a view of the entries of this map iterating over the snapshot
+	 * taken when the iteration starts
+	 */
+	@Override
+	public Set<Map.Entry<K, V>> entrySet()
+	{
+		return new AbstractSet<>()
+		{
+			/**
+			 * Iterator over the current snapshot
+			 * @return an iterator over the entries of the current snapshot
+			 * whose removals and values changes are applied to the map
+			 */
+			@Override
+			public Iterator<Map.Entry<K, V>> iterator()
+			{
+				List<Map.Entry<K, V>> entries = new ArrayList<>(size());
+				state.get().forEach((K key, V value) -> entries.add(new Entry(key, value)));
+				return new Iterator<>()
+				{
+					/**
+					 * Index of the next entry
+					 */
+					private int next = 0;
+
+					/**
+					 * Index of the last returned entry (or -1)
+					 */
+					private int last = -1;
+
+					/**
+					 * Test if there are more entries
+					 * @return true if there are more entries
+					 */
+					@Override
+					public boolean hasNext()
+					{
+						return next < entries.size();
+					}
+
+					/**
+					 * Next entry
+					 * @return the next entry
+					 * @throws NoSuchElementException if there are no more
+					 * entries
+					 */
+					@Override
+					public Map.Entry<K, V> next() throws NoSuchElementException
+					{
+						if (!hasNext())
+						{
+							throw new NoSuchElementException();
+						}
+						last = next++;
+						return entries.get(last);
+					}
+
+					/**
+					 * Remove the key of the last returned entry from the map
+					 * @throws IllegalStateException if there is no last
+					 * returned entry
+					 */
+					@Override
+					public void remove() throws IllegalStateException
+					{
+						if (last < 0)
+						{
+							throw new IllegalStateException();
+						}
+						SnapshotMap.this.remove(entries.get(last).getKey());
+						last = -1;
+					}
+				};
+			}
+
+			/**
+			 * Number of entries
+			 * @return the number of entries of the current snapshot
+			 */
+			@Override
+			public int size()
+			{
+				return SnapshotMap.this.size();
+			}
+		};
+	}
+
+	/**
+	 * Add a listener notified of each publication
+	 * @param listener the listener to add
+	 * @throws NullPointerException if listener is null
+	 */
+	public void addListener(Listener<K, V> listener) throws NullPointerException
+	{
+		listeners.add(Objects.requireNonNull(listener));
+	}
+
+	/**
+	 * Remove a listener
+	 * @param listener the listener to remove
+	 */
+	public void removeListener(Listener<K, V> listener)
+	{
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Atomically apply a modification to the current snapshot and notify
+	 * listeners
+	 * @param modification the modification producing a new snapshot from
+	 * the current one (which might be applied several times if other threads
+	 * modify this map concurrently)
+	 * @param keys the keys possibly modified by the modification
+	 * @return the snapshot replaced by the modification
+	 */
+	private PersistentMap<K, V> update(UnaryOperator<PersistentMap<K, V>> modification,
+	                                   List<K> keys)
+	{
+		while (true)
+		{
+			PersistentMap<K, V> previous = state.get();
+			PersistentMap<K, V> next = modification.apply(previous);
+			if (next == previous)
+			{
+				return previous;
+			}
+			if (state.compareAndSet(previous, next))
+			{
+				fireChanges(previous, next, keys);
+				return previous;
+			}
+		}
+	}
+
+	/**
+	 * Notify listeners of a publication
+	 * @param previous the snapshot before the modifications
+	 * @param current the snapshot after the modifications
+	 * @param keys the possibly modified keys
+	 */
+	private void fireChanges(PersistentMap<K, V> previous,
+	                         PersistentMap<K, V> current,
+	                         List<K> keys)
+	{
+		if (current == previous)
+		{
+			return;
+		}
+		for (Listener<K, V> listener : listeners)
+		{
+			listener.published(previous, current, keys);
+		}
+	}
+
+	/**
+	 * Key of the type of this map's keys
+	 * @param key the key to convert
+	 * @return the key if it is a non null key of the type of keys of this
+	 * map or null otherwise
+	 */
+	@SuppressWarnings("unchecked")
+	private K comparable(Object key)
+	{
+		if (key == null)
+		{
+			return null;
+		}
+		PersistentMap<K, V> current = state.get();
+		if (current.isEmpty())
+		{
+			return (K) key;
+		}
+		try
+		{
+			current.containsKey((K) key);
+			return (K) key;
+		}
+		catch (ClassCastException e)
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * Entry of an iterated snapshot whose value changes are applied to the map
+	 */
+	private final class Entry extends AbstractMap.SimpleEntry<K, V>
+	{
+		/**
+		 * Serial version
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Constructor
+		 * @param key the key
+		 * @param value the value
+		 */
+		Entry(K key, V value)
+		{
+			super(key, value);
+		}
+
+		/**
+		 * Change the value of this entry in the map
+		 * @param value the new value
+		 * @return the previous value of this entry
+		 */
+		@Override
+		public V setValue(V value)
+		{
+			SnapshotMap.this.put(getKey(), value);
+			return super.setValue(value);
+		}
+	}
+}
@@ -29,8 +29,6 @@ import javafx.beans.InvalidationListener;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 
-import java.util.Arrays;
-
 /**
  * A convenience class for creating implementations of {@link javafx.beans.value.ObservableValue}.
  * It contains all of the infrastructure support for value invalidation- and
@@ -188,87 +186,57 @@ public abstract class ExpressionHelper<T> extends ExpressionHelperBase {
 
     private static class Generic<T> extends ExpressionHelper<T> {
 
-        private InvalidationListener[] invalidationListeners;
-        private ChangeListener<? super T>[] changeListeners;
-        private int invalidationSize;
-        private int changeSize;
-        private boolean locked;
+        private ListenerList<InvalidationListener> invalidationListeners;
+        private ListenerList<ChangeListener<? super T>> changeListeners;
         private T currentValue;
 
         private Generic(ObservableValue<T> observable, InvalidationListener listener0, InvalidationListener listener1) {
             super(observable);
-            this.invalidationListeners = new InvalidationListener[] {listener0, listener1};
-            this.invalidationSize = 2;
+            this.invalidationListeners = new ListenerList<>(listener0, listener1);
         }
 
         private Generic(ObservableValue<T> observable, ChangeListener<? super T> listener0, ChangeListener<? super T> listener1) {
             super(observable);
-            this.changeListeners = new ChangeListener[] {listener0, listener1};
-            this.changeSize = 2;
+            this.changeListeners = new ListenerList<>(listener0, listener1);
             this.currentValue = observable.getValue();
         }
 
         private Generic(ObservableValue<T> observable, InvalidationListener invalidationListener, ChangeListener<? super T> changeListener) {
             super(observable);
-            this.invalidationListeners = new InvalidationListener[] {invalidationListener};
-            this.invalidationSize = 1;
-            this.changeListeners = new ChangeListener[] {changeListener};
-            this.changeSize = 1;
+            this.invalidationListeners = new ListenerList<>(invalidationListener);
+            this.changeListeners = new ListenerList<>(changeListener);
             this.currentValue = observable.getValue();
         }
 
+        private int invalidationSize() {
+            return (invalidationListeners == null)? 0 : invalidationListeners.size();
+        }
+
+        private int changeSize() {
+            return (changeListeners == null)? 0 : changeListeners.size();
+        }
+
         @Override
         protected Generic<T> addListener(InvalidationListener listener) {
             if (invalidationListeners == null) {
-                invalidationListeners = new InvalidationListener[] {listener};
-                invalidationSize = 1;
+                invalidationListeners = new ListenerList<>(listener);
             } else {
-                final int oldCapacity = invalidationListeners.length;
-                if (locked) {
-                    final int newCapacity = (invalidationSize < oldCapacity)? oldCapacity : (oldCapacity * 3)/2 + 1;
-                    invalidationListeners = Arrays.copyOf(invalidationListeners, newCapacity);
-                } else if (invalidationSize == oldCapacity) {
-                    invalidationSize = trim(invalidationSize, invalidationListeners);
-                    if (invalidationSize == oldCapacity) {
-                        final int newCapacity = (oldCapacity * 3)/2 + 1;
-                        invalidationListeners = Arrays.copyOf(invalidationListeners, newCapacity);
-                    }
-                }
-                invalidationListeners[invalidationSize++] = listener;
+                invalidationListeners.add(listener);
             }
             return this;
         }
 
         @Override
         protected ExpressionHelper<T> removeListener(InvalidationListener listener) {
-            if (invalidationListeners != null) {
-                for (int index = 0; index < invalidationSize; index++) {
-                    if (listener.equals(invalidationListeners[index])) {
-                        if (invalidationSize == 1) {
-                            if (changeSize == 1) {
-                                return new SingleChange<>(observable, changeListeners[0]);
-                            }
-                            invalidationListeners = null;
-                            invalidationSize = 0;
-                        } else if ((invalidationSize == 2) && (changeSize == 0)) {
-                            return new SingleInvalidation<>(observable, invalidationListeners[1-index]);
-                        } else {
-                            final int numMoved = invalidationSize - index - 1;
-                            final InvalidationListener[] oldListeners = invalidationListeners;
-                            if (locked) {
-                                invalidationListeners = new InvalidationListener[invalidationListeners.length];
-                                System.arraycopy(oldListeners, 0, invalidationListeners, 0, index);
-                            }
-                            if (numMoved > 0) {
-                                System.arraycopy(oldListeners, index+1, invalidationListeners, index, numMoved);
-                            }
-                            invalidationSize--;
-                            if (!locked) {
-                                invalidationListeners[invalidationSize] = null; // Let gc do its work
-                            }
-                        }
-                        break;
+            if ((invalidationListeners != null) && invalidationListeners.remove(listener)) {
+                final int invalidationSize = invalidationListeners.size();
+                if (invalidationSize == 0) {
+                    if (changeSize() == 1) {
+                        return new SingleChange<>(observable, changeListeners.first());
                     }
+                    invalidationListeners = null;
+                } else if ((invalidationSize == 1) && (changeSize() == 0)) {
+                    return new SingleInvalidation<>(observable, invalidationListeners.first());
                 }
             }
             return this;
@@ -277,23 +245,11 @@ public abstract class ExpressionHelper<T> extends ExpressionHelperBase {
         @Override
         protected ExpressionHelper<T> addListener(ChangeListener<? super T> listener) {
             if (changeListeners == null) {
-                changeListeners = new ChangeListener[] {listener};
-                changeSize = 1;
+                changeListeners = new ListenerList<>(listener);
             } else {
-                final int oldCapacity = changeListeners.length;
-                if (locked) {
-                    final int newCapacity = (changeSize < oldCapacity)? oldCapacity : (oldCapacity * 3)/2 + 1;
-                    changeListeners = Arrays.copyOf(changeListeners, newCapacity);
-                } else if (changeSize == oldCapacity) {
-                    changeSize = trim(changeSize, changeListeners);
-                    if (changeSize == oldCapacity) {
-                        final int newCapacity = (oldCapacity * 3)/2 + 1;
-                        changeListeners = Arrays.copyOf(changeListeners, newCapacity);
-                    }
-                }
-                changeListeners[changeSize++] = listener;
+                changeListeners.add(listener);
             }
-            if (changeSize == 1) {
+            if (changeListeners.size() == 1) {
                 currentValue = observable.getValue();
             }
             return this;
@@ -301,71 +257,52 @@ public abstract class ExpressionHelper<T> extends ExpressionHelperBase {
 
         @Override
         protected ExpressionHelper<T> removeListener(ChangeListener<? super T> listener) {
-            if (changeListeners != null) {
-                for (int index = 0; index < changeSize; index++) {
-                    if (listener.equals(changeListeners[index])) {
-                        if (changeSize == 1) {
-                            if (invalidationSize == 1) {
-                                return new SingleInvalidation<>(observable, invalidationListeners[0]);
-                            }
-                            changeListeners = null;
-                            changeSize = 0;
-                        } else if ((changeSize == 2) && (invalidationSize == 0)) {
-                            return new SingleChange<>(observable, changeListeners[1-index]);
-                        } else {
-                            final int numMoved = changeSize - index - 1;
-                            final ChangeListener<? super T>[] oldListeners = changeListeners;
-                            if (locked) {
-                                changeListeners = new ChangeListener[changeListeners.length];
-                                System.arraycopy(oldListeners, 0, changeListeners, 0, index);
-                            }
-                            if (numMoved > 0) {
-                                System.arraycopy(oldListeners, index+1, changeListeners, index, numMoved);
-                            }
-                            changeSize--;
-                            if (!locked) {
-                                changeListeners[changeSize] = null; // Let gc do its work
-                            }
-                        }
-                        break;
+            if ((changeListeners != null) && changeListeners.remove(listener)) {
+                final int changeSize = changeListeners.size();
+                if (changeSize == 0) {
+                    if (invalidationSize() == 1) {
+                        return new SingleInvalidation<>(observable, invalidationListeners.first());
                     }
+                    changeListeners = null;
+                } else if ((changeSize == 1) && (invalidationSize() == 0)) {
+                    return new SingleChange<>(observable, changeListeners.first());
                 }
             }
             return this;
         }
 
         @Override
+        @SuppressWarnings("unchecked")
         protected void fireValueChangedEvent() {
-            final InvalidationListener[] curInvalidationList = invalidationListeners;
-            final int curInvalidationSize = invalidationSize;
-            final ChangeListener<? super T>[] curChangeList = changeListeners;
-            final int curChangeSize = changeSize;
-
-            try {
-                locked = true;
-                for (int i = 0; i < curInvalidationSize; i++) {
-                    try {
-                        curInvalidationList[i].invalidated(observable);
-                    } catch (Exception e) {
-                        Thread.currentThread().getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), e);
+            final Object[] curInvalidationList = (invalidationListeners == null)? null : invalidationListeners.snapshot();
+            final Object[] curChangeList = (changeListeners == null)? null : changeListeners.snapshot();
+
+            if (curInvalidationList != null) {
+                for (Object listener : curInvalidationList) {
+                    if (listener != null) {
+                        try {
+                            ((InvalidationListener) listener).invalidated(observable);
+                        } catch (Exception e) {
+                            Thread.currentThread().getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), e);
+                        }
                     }
                 }
-                if (curChangeSize > 0) {
-                    final T oldValue = currentValue;
-                    currentValue = observable.getValue();
-                    final boolean changed = (currentValue == null)? (oldValue != null) : !currentValue.equals(oldValue);
-                    if (changed) {
-                        for (int i = 0; i < curChangeSize; i++) {
+            }
+            if (curChangeList != null) {
+                final T oldValue = currentValue;
+                currentValue = observable.getValue();
+                final boolean changed = (currentValue == null)? (oldValue != null) : !currentValue.equals(oldValue);
+                if (changed) {
+                    for (Object listener : curChangeList) {
+                        if (listener != null) {
                             try {
-                                curChangeList[i].changed(observable, oldValue, currentValue);
+                                ((ChangeListener<? super T>) listener).changed(observable, oldValue, currentValue);
                             } catch (Exception e) {
                                 Thread.currentThread().getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), e);
                             }
                         }
                     }
                 }
-            } finally {
-                locked = false;
             }
         }
     }
@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.javafx.binding;
+
+import java.util.Arrays;
+import javafx.beans.WeakListener;
+
+/**
+ * An insertion-ordered multiset of listeners with amortized O(1) add and
+ * remove, used by the {@code Generic} implementations of the listener
+ * helpers.
+ *
+ * Removed listeners leave a {@code null} tombstone in the backing array so
+ * that the position of the remaining listeners (and therefore their
+ * notification order) does not change. Tombstones are compacted once they
+ * outnumber the live listeners, and garbage collected {@link WeakListener}s
+ * are swept at the same time when the array is full. Once more than
+ * {@link #INDEX_THRESHOLD} listeners are registered, an identity hash table
+ * (open addressing with linear probing) maps each distinct listener to the
+ * first and last of its positions, which are linked through {@link #next},
+ * so that removing the first occurrence of a listener does not depend on
+ * the number of listeners nor on its duplicates. Only listeners which do not
+ * override {@link Object#equals(Object)} are indexed: other listeners (such
+ * as content bindings, whose hash code depends on the content of the bound
+ * collection) are still searched linearly with {@code equals}, exactly as
+ * before.
+ *
+ * Listeners are notified by iterating over an array returned by
+ * {@link #snapshot()}: the first modification following a snapshot copies
+ * the backing array, so listeners added or removed during a notification
+ * neither receive nor miss the event being delivered, as with the former
+ * copy-on-write arrays.
+ *
+ * This class is not thread-safe.
+ *
+ * @param <L> the type of listeners
+ */
+public final class ListenerList<L> {
+
+    /**
+     * Number of listeners above which removals use the index rather than a
+     * linear scan.
+     */
+    static final int INDEX_THRESHOLD = 8;
+
+    /**
+     * Whether instances of a class compare by identity.
+     */
+    private static final ClassValue<Boolean> IDENTITY_EQUALS = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("equals", Object.class).getDeclaringClass() == Object.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
+    private Object[] listeners;
+    private int end;
+    private int size;
+    private boolean shared;
+
+    /**
+     * Hash table of the first positions + 1 of indexed listeners in
+     * {@link #listeners} (0 for empty slots), or {@code null} when listeners
+     * are searched linearly. The table is at least twice as large as
+     * {@link #listeners}.
+     */
+    private int[] heads;
+
+    /**
+     * Last positions + 1 of the listeners in {@link #heads}.
+     */
+    private int[] tails;
+
+    /**
+     * Next position + 1 of the same listener for each position of
+     * {@link #listeners} (0 for the last one).
+     */
+    private int[] next;
+
+    public ListenerList(L listener) {
+        listeners = new Object[] {listener};
+        end = 1;
+        size = 1;
+    }
+
+    public ListenerList(L listener0, L listener1) {
+        listeners = new Object[] {listener0, listener1};
+        end = 2;
+        size = 2;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the first registered listener.
+     *
+     * @return the first listener or {@code null} if this list is empty
+     */
+    @SuppressWarnings("unchecked")
+    public L first() {
+        for (int i = 0; i < end; i++) {
+            if (listeners[i] != null) {
+                return (L) listeners[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Appends a listener.
+     *
+     * @param listener the listener to add
+     */
+    public void add(L listener) {
+        if (end == listeners.length) {
+            compact(true);
+        } else if (shared) {
+            listeners = listeners.clone();
+            shared = false;
+        }
+        listeners[end++] = listener;
+        size++;
+        if (heads != null) {
+            index(listener, end - 1);
+        } else if (size > INDEX_THRESHOLD) {
+            buildIndex();
+        }
+    }
+
+    /**
+     * Removes the first registered listener equal to the given listener.
+     *
+     * @param listener the listener to remove
+     * @return {@code true} if a listener has been removed
+     */
+    public boolean remove(L listener) {
+        int position = -1;
+        if ((heads != null) && IDENTITY_EQUALS.get(listener.getClass())) {
+            // equals is ==: the first occurrence is the head of its chain
+            final int slot = find(listener);
+            if (slot >= 0) {
+                position = heads[slot] - 1;
+                unlink(slot, position);
+            }
+        } else {
+            for (int i = 0; i < end; i++) {
+                if ((listeners[i] != null) && listener.equals(listeners[i])) {
+                    position = i;
+                    break;
+                }
+            }
+            if ((position >= 0) && (heads != null) && IDENTITY_EQUALS.get(listeners[position].getClass())) {
+                unlink(find(listeners[position]), position);
+            }
+        }
+        if (position < 0) {
+            return false;
+        }
+        if (shared) {
+            listeners = listeners.clone();
+            shared = false;
+        }
+        listeners[position] = null;
+        size--;
+        if (position == end - 1) {
+            end--;
+        }
+        if ((end - size) > size) {
+            compact(false);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the listeners to notify. Registered listeners are the non
+     * {@code null} elements of the returned array, in notification order. The
+     * returned array must not be modified and is not affected by later
+     * modifications of this list.
+     *
+     * @return the current listeners
+     */
+    public Object[] snapshot() {
+        shared = true;
+        return listeners;
+    }
+
+    /**
+     * Moves the live listeners to a new array. When the array is full,
+     * garbage collected weak listeners are dropped as well and the capacity
+     * grows unless at least half of it has been freed.
+     */
+    private void compact(boolean full) {
+        final Object[] compacted = new Object[listeners.length];
+        int count = 0;
+        for (int i = 0; i < end; i++) {
+            final Object listener = listeners[i];
+            if ((listener != null) && !(full && (listener instanceof WeakListener)
+                    && ((WeakListener) listener).wasGarbageCollected())) {
+                compacted[count++] = listener;
+            }
+        }
+        final int oldCapacity = listeners.length;
+        int newCapacity = (full && (count > oldCapacity / 2))? (oldCapacity * 3)/2 + 1 : oldCapacity;
+        if (count < newCapacity / 4) {
+            newCapacity = Math.max(count * 2, 2);
+        }
+        listeners = (newCapacity == oldCapacity)? compacted : Arrays.copyOf(compacted, newCapacity);
+        end = count;
+        size = count;
+        shared = false;
+        if (heads != null) {
+            if (size > INDEX_THRESHOLD) {
+                buildIndex();
+            } else {
+                heads = null;
+                tails = null;
+                next = null;
+            }
+        }
+    }
+
+    private static int hash(Object listener) {
+        final int h = System.identityHashCode(listener) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void buildIndex() {
+        final int capacity = Integer.highestOneBit(Math.max(listeners.length, 8)) << 2;
+        heads = new int[capacity];
+        tails = new int[capacity];
+        next = new int[listeners.length];
+        for (int i = 0; i < end; i++) {
+            final Object listener = listeners[i];
+            if (listener != null) {
+                index(listener, i);
+            }
+        }
+    }
+
+    /**
+     * Returns the slot of a listener in {@link #heads} or -1 if it is not
+     * indexed.
+     */
+    private int find(Object listener) {
+        final int mask = heads.length - 1;
+        for (int i = hash(listener) & mask; heads[i] != 0; i = (i + 1) & mask) {
+            if (listeners[heads[i] - 1] == listener) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Appends a position to the chain of its listener.
+     */
+    private void index(Object listener, int position) {
+        if (!IDENTITY_EQUALS.get(listener.getClass())) {
+            return;
+        }
+        if (next.length < listeners.length) {
+            // the backing array grew: index is rebuilt including this position
+            buildIndex();
+            return;
+        }
+        next[position] = 0;
+        final int mask = heads.length - 1;
+        int i = hash(listener) & mask;
+        for (; heads[i] != 0; i = (i + 1) & mask) {
+            if (listeners[heads[i] - 1] == listener) {
+                next[tails[i] - 1] = position + 1;
+                tails[i] = position + 1;
+                return;
+            }
+        }
+        heads[i] = position + 1;
+        tails[i] = position + 1;
+    }
+
+    /**
+     * Removes a position from the chain of its listener found at slot.
+     */
+    private void unlink(int slot, int position) {
+        int previous = -1;
+        int current = heads[slot] - 1;
+        while (current != position) {
+            previous = current;
+            current = next[current] - 1;
+        }
+        if (previous < 0) {
+            if (next[position] == 0) {
+                delete(slot);
+            } else {
+                heads[slot] = next[position];
+            }
+        } else {
+            next[previous] = next[position];
+            if (tails[slot] == position + 1) {
+                tails[slot] = previous + 1;
+            }
+        }
+    }
+
+    /**
+     * Deletes a hash table slot, shifting back the following entries of the
+     * probe sequence so that no tombstone is needed in the table.
+     */
+    private void delete(int slot) {
+        final int mask = heads.length - 1;
+        int hole = slot;
+        int i = slot;
+        while (true) {
+            i = (i + 1) & mask;
+            if (heads[i] == 0) {
+                break;
+            }
+            final int home = hash(listeners[heads[i] - 1]) & mask;
+            // move entry i to the hole unless its home lies cyclically in (hole, i]
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                heads[hole] = heads[i];
+                tails[hole] = tails[i];
+                hole = i;
+            }
+        }
+        heads[hole] = 0;
+        tails[hole] = 0;
+    }
+}
@@ -26,9 +26,9 @@
 package com.sun.javafx.collections;
 
 import com.sun.javafx.binding.ExpressionHelperBase;
+import com.sun.javafx.binding.ListenerList;
 import javafx.beans.InvalidationListener;
 import javafx.collections.ListChangeListener;
-import java.util.Arrays;
 
 /**
  */
@@ -168,81 +168,51 @@ public abstract class ListListenerHelper<E> extends ExpressionHelperBase {
 
     private static class Generic<E> extends ListListenerHelper<E> {
 
-        private InvalidationListener[] invalidationListeners;
-        private ListChangeListener<? super E>[] changeListeners;
-        private int invalidationSize;
-        private int changeSize;
-        private boolean locked;
+        private ListenerList<InvalidationListener> invalidationListeners;
+        private ListenerList<ListChangeListener<? super E>> changeListeners;
 
         private Generic(InvalidationListener listener0, InvalidationListener listener1) {
-            this.invalidationListeners = new InvalidationListener[] {listener0, listener1};
-            this.invalidationSize = 2;
+            this.invalidationListeners = new ListenerList<>(listener0, listener1);
         }
 
         private Generic(ListChangeListener<? super E> listener0, ListChangeListener<? super E> listener1) {
-            this.changeListeners = new ListChangeListener[] {listener0, listener1};
-            this.changeSize = 2;
+            this.changeListeners = new ListenerList<>(listener0, listener1);
         }
 
         private Generic(InvalidationListener invalidationListener, ListChangeListener<? super E> changeListener) {
-            this.invalidationListeners = new InvalidationListener[] {invalidationListener};
-            this.invalidationSize = 1;
-            this.changeListeners = new ListChangeListener[] {changeListener};
-            this.changeSize = 1;
+            this.invalidationListeners = new ListenerList<>(invalidationListener);
+            this.changeListeners = new ListenerList<>(changeListener);
+        }
+
+        private int invalidationSize() {
+            return (invalidationListeners == null)? 0 : invalidationListeners.size();
+        }
+
+        private int changeSize() {
+            return (changeListeners == null)? 0 : changeListeners.size();
         }
 
         @Override
         protected Generic<E> addListener(InvalidationListener listener) {
             if (invalidationListeners == null) {
-                invalidationListeners = new InvalidationListener[] {listener};
-                invalidationSize = 1;
+                invalidationListeners = new ListenerList<>(listener);
             } else {
-                final int oldCapacity = invalidationListeners.length;
-                if (locked) {
-                    final int newCapacity = (invalidationSize < oldCapacity)? oldCapacity : (oldCapacity * 3)/2 + 1;
-                    invalidationListeners = Arrays.copyOf(invalidationListeners, newCapacity);
-                } else if (invalidationSize == oldCapacity) {
-                    invalidationSize = trim(invalidationSize, invalidationListeners);
-                    if (invalidationSize == oldCapacity) {
-                        final int newCapacity = (oldCapacity * 3)/2 + 1;
-                        invalidationListeners = Arrays.copyOf(invalidationListeners, newCapacity);
-                    }
-                }
-                invalidationListeners[invalidationSize++] = listener;
+                invalidationListeners.add(listener);
             }
             return this;
         }
 
         @Override
         protected ListListenerHelper<E> removeListener(InvalidationListener listener) {
-            if (invalidationListeners != null) {
-                for (int index = 0; index < invalidationSize; index++) {
-                    if (listener.equals(invalidationListeners[index])) {
-                        if (invalidationSize == 1) {
-                            if (changeSize == 1) {
-                                return new SingleChange<>(changeListeners[0]);
-                            }
-                            invalidationListeners = null;
-                            invalidationSize = 0;
-                        } else if ((invalidationSize == 2) && (changeSize == 0)) {
-                            return new SingleInvalidation<>(invalidationListeners[1-index]);
-                        } else {
-                            final int numMoved = invalidationSize - index - 1;
-                            final InvalidationListener[] oldListeners = invalidationListeners;
-                            if (locked) {
-                                invalidationListeners = new InvalidationListener[invalidationListeners.length];
-                                System.arraycopy(oldListeners, 0, invalidationListeners, 0, index);
-                            }
-                            if (numMoved > 0) {
-                                System.arraycopy(oldListeners, index+1, invalidationListeners, index, numMoved);
-                            }
-                            invalidationSize--;
-                            if (!locked) {
-                                invalidationListeners[invalidationSize] = null; // Let gc do its work
-                            }
-                        }
-                        break;
+            if ((invalidationListeners != null) && invalidationListeners.remove(listener)) {
+                final int invalidationSize = invalidationListeners.size();
+                if (invalidationSize == 0) {
+                    if (changeSize() == 1) {
+                        return new SingleChange<>(changeListeners.first());
                     }
+                    invalidationListeners = null;
+                } else if ((invalidationSize == 1) && (changeSize() == 0)) {
+                    return new SingleInvalidation<>(invalidationListeners.first());
                 }
             }
             return this;
@@ -251,86 +221,57 @@ public abstract class ListListenerHelper<E> extends ExpressionHelperBase {
         @Override
         protected ListListenerHelper<E> addListener(ListChangeListener<? super E> listener) {
             if (changeListeners == null) {
-                changeListeners = new ListChangeListener[] {listener};
-                changeSize = 1;
+                changeListeners = new ListenerList<>(listener);
             } else {
-                final int oldCapacity = changeListeners.length;
-                if (locked) {
-                    final int newCapacity = (changeSize < oldCapacity)? oldCapacity : (oldCapacity * 3)/2 + 1;
-                    changeListeners = Arrays.copyOf(changeListeners, newCapacity);
-                } else if (changeSize == oldCapacity) {
-                    changeSize = trim(changeSize, changeListeners);
-                    if (changeSize == oldCapacity) {
-                        final int newCapacity = (oldCapacity * 3)/2 + 1;
-                        changeListeners = Arrays.copyOf(changeListeners, newCapacity);
-                    }
-                }
-                changeListeners[changeSize++] = listener;
+                changeListeners.add(listener);
             }
             return this;
         }
 
         @Override
         protected ListListenerHelper<E> removeListener(ListChangeListener<? super E> listener) {
-            if (changeListeners != null) {
-                for (int index = 0; index < changeSize; index++) {
-                    if (listener.equals(changeListeners[index])) {
-                        if (changeSize == 1) {
-                            if (invalidationSize == 1) {
-                                return new SingleInvalidation<>(invalidationListeners[0]);
-                            }
-                            changeListeners = null;
-                            changeSize = 0;
-                        } else if ((changeSize == 2) && (invalidationSize == 0)) {
-                            return new SingleChange<>(changeListeners[1-index]);
-                        } else {
-                            final int numMoved = changeSize - index - 1;
-                            final ListChangeListener<? super E>[] oldListeners = changeListeners;
-                            if (locked) {
-                                changeListeners = new ListChangeListener[changeListeners.length];
-                                System.arraycopy(oldListeners, 0, changeListeners, 0, index);
-                            }
-                            if (numMoved > 0) {
-                                System.arraycopy(oldListeners, index+1, changeListeners, index, numMoved);
-                            }
-                            changeSize--;
-                            if (!locked) {
-                                changeListeners[changeSize] = null; // Let gc do its work
-                            }
-                        }
-                        break;
+            if ((changeListeners != null) && changeListeners.remove(listener)) {
+                final int changeSize = changeListeners.size();
+                if (changeSize == 0) {
+                    if (invalidationSize() == 1) {
+                        return new SingleInvalidation<>(invalidationListeners.first());
                     }
+                    changeListeners = null;
+                } else if ((changeSize == 1) && (invalidationSize() == 0)) {
+                    return new SingleChange<>(changeListeners.first());
                 }
             }
             return this;
         }
 
         @Override
+        @SuppressWarnings("unchecked")
         protected void fireValueChangedEvent(ListChangeListener.Change<? extends E> change) {
-            final InvalidationListener[] curInvalidationList = invalidationListeners;
-            final int curInvalidationSize = invalidationSize;
-            final ListChangeListener<? super E>[] curChangeList = changeListeners;
-            final int curChangeSize = changeSize;
-
-            try {
-                locked = true;
-                for (int i = 0; i < curInvalidationSize; i++) {
-                    try {
-                        curInvalidationList[i].invalidated(change.getList());
-                    } catch (Exception e) {
-                        Thread.currentThread().getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), e);
+            final Object[] curInvalidationList = (invalidationListeners == null)? null : invalidationListeners.snapshot();
+            final Object[] curChangeList = (changeListeners == null)? null : changeListeners.snapshot();
+
+            if (curInvalidationList != null) {
+                for (Object listener : curInvalidationList) {
+                    if (listener != null) {
+                        try {
+                            ((InvalidationListener) listener).invalidated(change.getList());
+                        } catch (Exception e) {
+                            Thread.currentThread().getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), e);
+                        }
                     }
                 }
-                for (int i = 0; i < curChangeSize; i++) {
-                    change.reset();
-                    try {
-                        curChangeList[i].onChanged(change);
-                    } catch (Exception e) {
-                        Thread.currentThread().getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), e);
+            }
+            if (curChangeList != null) {
+                for (Object listener : curChangeList) {
+                    if (listener != null) {
+                        change.reset();
+                        try {
+                            ((ListChangeListener<? super E>) listener).onChanged(change);
+                        } catch (Exception e) {
+                            Thread.currentThread().getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), e);
+                        }
                     }
                 }
-            } finally {
-                locked = false;
             }
         }
     }
@@ -29,6 +29,7 @@ import com.sun.javafx.binding.ExpressionHelperBase;
 import javafx.beans.InvalidationListener;
 import javafx.collections.MapChangeListener;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  */
@@ -71,6 +72,19 @@ public abstract class MapListenerHelper<K, V> extends ExpressionHelperBase {
         }
     }
 
+    /**
+     * Notifies the invalidation listeners once and the change listeners of
+     * each change, in order.
+     *
+     * @param helper the helper of the observable collection
+     * @param changes the changes to report, which must not be empty
+     */
+    public static <K, V> void fireValueChangedEvent(MapListenerHelper<K, V> helper, List<? extends MapChangeListener.Change<? extends K, ? extends V>> changes) {
+        if (helper != null) {
+            helper.fireValueChangedEvent(changes);
+        }
+    }
+
     public static <K, V> boolean hasListeners(MapListenerHelper<K, V> helper) {
         return helper != null;
     }
@@ -85,6 +99,7 @@ public abstract class MapListenerHelper<K, V> extends ExpressionHelperBase {
     protected abstract MapListenerHelper<K, V> removeListener(MapChangeListener<? super K, ? super V> listener);
 
     protected abstract void fireValueChangedEvent(MapChangeListener.Change<? extends K, ? extends V> change);
+    protected abstract void fireValueChangedEvent(List<? extends MapChangeListener.Change<? extends K, ? extends V>> changes);
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     // Implementations
@@ -125,6 +140,11 @@ public abstract class MapListenerHelper<K, V> extends ExpressionHelperBase {
                 Thread.currentThread().getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), e);
             }
         }
+
+        @Override
+        protected void fireValueChangedEvent(List<? extends MapChangeListener.Change<? extends K, ? extends V>> changes) {
+            fireValueChangedEvent(changes.get(0));
+        }
     }
 
     private static class SingleChange<K, V> extends MapListenerHelper<K, V> {
@@ -163,6 +183,13 @@ public abstract class MapListenerHelper<K, V> extends ExpressionHelperBase {
                 Thread.currentThread().getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), e);
             }
         }
+
+        @Override
+        protected void fireValueChangedEvent(List<? extends MapChangeListener.Change<? extends K, ? extends V>> changes) {
+            for (MapChangeListener.Change<? extends K, ? extends V> change : changes) {
+                fireValueChangedEvent(change);
+            }
+        }
     }
 
     private static class Generic<K, V> extends MapListenerHelper<K, V> {
@@ -331,6 +358,36 @@ public abstract class MapListenerHelper<K, V> extends ExpressionHelperBase {
                 locked = false;
             }
         }
+
+        @Override
+        protected void fireValueChangedEvent(List<? extends MapChangeListener.Change<? extends K, ? extends V>> changes) {
+            final InvalidationListener[] curInvalidationList = invalidationListeners;
+            final int curInvalidationSize = invalidationSize;
+            final MapChangeListener<? super K, ? super V>[] curChangeList = changeListeners;
+            final int curChangeSize = changeSize;
+
+            try {
+                locked = true;
+                for (int i = 0; i < curInvalidationSize; i++) {
+                    try {
+                        curInvalidationList[i].invalidated(changes.get(0).getMap());
+                    } catch (Exception e) {
+                        Thread.currentThread().getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), e);
+                    }
+                }
+                for (MapChangeListener.Change<? extends K, ? extends V> change : changes) {
+                    for (int i = 0; i < curChangeSize; i++) {
+                        try {
+                            curChangeList[i].onChanged(change);
+                        } catch (Exception e) {
+                            Thread.currentThread().getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), e);
+                        }
+                    }
+                }
+            } finally {
+                locked = false;
+            }
+        }
     }
 
 }
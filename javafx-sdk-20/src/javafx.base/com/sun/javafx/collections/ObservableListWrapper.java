@@ -28,6 +28,7 @@ package com.sun.javafx.collections;
 import javafx.collections.ModifiableObservableListBase;
 import com.sun.javafx.collections.NonIterableChange.SimplePermutationChange;
 
+import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Collection;
 import java.util.Comparator;
@@ -42,11 +43,12 @@ import javafx.util.Callback;
  *
  */
 public class ObservableListWrapper<E> extends ModifiableObservableListBase<E> implements
-        SortableList<E>, RandomAccess {
+        SortableList<E>, RandomAccess, TransactionalCollection {
 
     private final List<E> backingList;
 
     private final ElementObserver elementObserver;
+    private int transactionDepth;
 
     public ObservableListWrapper(List<E> list) {
         backingList = list;
@@ -213,7 +215,7 @@ public class ObservableListWrapper<E> extends ModifiableObservableListBase<E> im
             return;
         }
         int[] perm = getSortHelper().sort((List<? extends Comparable>)backingList);
-        fireChange(new SimplePermutationChange<>(0, size(), perm, this));
+        firePermutation(perm);
     }
 
     @Override
@@ -222,7 +224,7 @@ public class ObservableListWrapper<E> extends ModifiableObservableListBase<E> im
             return;
         }
         int[] perm = getSortHelper().sort(backingList, comparator);
-        fireChange(new SimplePermutationChange<>(0, size(), perm, this));
+        firePermutation(perm);
     }
 
     private SortHelper getSortHelper() {
@@ -232,4 +234,35 @@ public class ObservableListWrapper<E> extends ModifiableObservableListBase<E> im
         return helper;
     }
 
+
+    private void firePermutation(int[] perm) {
+        if (transactionDepth > 0) {
+            // Reported as a replacement, which merges with the other changes of
+            // the transaction (a permutation can't be expressed after them)
+            final List<E> unsorted = new ArrayList<>(perm.length);
+            for (int i = 0; i < perm.length; i++) {
+                unsorted.add(get(perm[i]));
+            }
+            beginChange();
+            nextReplace(0, size(), unsorted);
+            endChange();
+        } else {
+            fireChange(new SimplePermutationChange<>(0, size(), perm, this));
+        }
+    }
+
+    @Override
+    public void beginTransaction() {
+        transactionDepth++;
+        beginChange();
+    }
+
+    @Override
+    public void endTransaction() {
+        if (transactionDepth <= 0) {
+            throw new IllegalStateException("Called endTransaction before beginTransaction");
+        }
+        transactionDepth--;
+        endChange();
+    }
 }
@@ -29,16 +29,20 @@ import javafx.beans.InvalidationListener;
 import javafx.collections.MapChangeListener;
 import javafx.collections.ObservableMap;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 /**
  * A Map wrapper class that implements observability.
  *
  */
-public class ObservableMapWrapper<K, V> implements ObservableMap<K, V>{
+public class ObservableMapWrapper<K, V> implements ObservableMap<K, V>, TransactionalCollection {
     private ObservableEntrySet entrySet;
     private ObservableKeySet keySet;
     private ObservableValues values;
@@ -46,6 +50,9 @@ public class ObservableMapWrapper<K, V> implements ObservableMap<K, V>{
     private MapListenerHelper<K, V> listenerHelper;
     private final Map<K, V> backingMap;
 
+    private int transactionDepth;
+    private Map<K, PendingChange<K, V>> pendingChanges;
+
     public ObservableMapWrapper(Map<K, V> map) {
         this.backingMap = map;
     }
@@ -111,10 +118,80 @@ public class ObservableMapWrapper<K, V> implements ObservableMap<K, V>{
 
     }
 
+    /**
+     * The net change of a key during a transaction.
+     */
+    private static final class PendingChange<K, V> {
+        private final K key;
+        private final boolean wasPresent;
+        private final V oldValue;
+        private boolean present;
+        private V newValue;
+
+        private PendingChange(MapChangeListener.Change<K, V> change) {
+            key = change.getKey();
+            wasPresent = change.wasRemoved();
+            oldValue = change.getValueRemoved();
+        }
+
+        private void update(MapChangeListener.Change<K, V> change) {
+            present = change.wasAdded();
+            newValue = change.getValueAdded();
+        }
+    }
+
     protected void callObservers(MapChangeListener.Change<K,V> change) {
+        if (transactionDepth > 0) {
+            if (listenerHelper != null) {
+                if (pendingChanges == null) {
+                    pendingChanges = new LinkedHashMap<>();
+                }
+                pendingChanges.computeIfAbsent(change.getKey(), k -> new PendingChange<>(change)).update(change);
+            }
+            return;
+        }
         MapListenerHelper.fireValueChangedEvent(listenerHelper, change);
     }
 
+    @Override
+    public void beginTransaction() {
+        transactionDepth++;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Each modified key is reported once, from its value before the
+     * transaction to its value after the transaction, and keys whose value
+     * did not change are not reported at all. Invalidation listeners are
+     * notified once.
+     */
+    @Override
+    public void endTransaction() {
+        if (transactionDepth <= 0) {
+            throw new IllegalStateException("Called endTransaction before beginTransaction");
+        }
+        if ((--transactionDepth > 0) || (pendingChanges == null) || pendingChanges.isEmpty()) {
+            return;
+        }
+        final List<PendingChange<K, V>> changes = new ArrayList<>(pendingChanges.values());
+        pendingChanges.clear();
+        final List<SimpleChange> netChanges = new ArrayList<>(changes.size());
+        for (PendingChange<K, V> change : changes) {
+            if (change.wasPresent && change.present && Objects.equals(change.oldValue, change.newValue)) {
+                continue;
+            }
+            if (change.wasPresent || change.present) {
+                netChanges.add(new SimpleChange(change.key,
+                        change.wasPresent? change.oldValue : null,
+                        change.present? change.newValue : null,
+                        change.present, change.wasPresent));
+            }
+        }
+        if (!netChanges.isEmpty()) {
+            MapListenerHelper.fireValueChangedEvent(listenerHelper, netChanges);
+        }
+    }
+
     @Override
     public void addListener(InvalidationListener listener) {
         listenerHelper = MapListenerHelper.addListener(listenerHelper, listener);
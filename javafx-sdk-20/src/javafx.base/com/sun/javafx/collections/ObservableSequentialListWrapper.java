@@ -24,6 +24,7 @@
  */
 package com.sun.javafx.collections;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Iterator;
@@ -35,9 +36,10 @@ import javafx.beans.Observable;
 import javafx.collections.ModifiableObservableListBase;
 import javafx.util.Callback;
 
-public final class ObservableSequentialListWrapper<E> extends ModifiableObservableListBase<E> implements SortableList<E>{
+public final class ObservableSequentialListWrapper<E> extends ModifiableObservableListBase<E> implements SortableList<E>, TransactionalCollection {
     private final List<E> backingList;
     private final ElementObserver elementObserver;
+    private int transactionDepth;
     private SortHelper helper;
 
     public ObservableSequentialListWrapper(List<E> list) {
@@ -236,7 +238,7 @@ public final class ObservableSequentialListWrapper<E> extends ModifiableObservab
             return;
         }
         int[] perm = getSortHelper().sort((List<? extends Comparable>)backingList);
-        fireChange(new NonIterableChange.SimplePermutationChange<>(0, size(), perm, this));
+        firePermutation(perm);
     }
 
     @Override
@@ -245,7 +247,7 @@ public final class ObservableSequentialListWrapper<E> extends ModifiableObservab
             return;
         }
         int[] perm = getSortHelper().sort(backingList, comparator);
-        fireChange(new NonIterableChange.SimplePermutationChange<>(0, size(), perm, this));
+        firePermutation(perm);
     }
 
     private SortHelper getSortHelper() {
@@ -255,4 +257,35 @@ public final class ObservableSequentialListWrapper<E> extends ModifiableObservab
         return helper;
     }
 
+
+    private void firePermutation(int[] perm) {
+        if (transactionDepth > 0) {
+            // Reported as a replacement, which merges with the other changes of
+            // the transaction (a permutation can't be expressed after them)
+            final List<E> unsorted = new ArrayList<>(perm.length);
+            for (int i = 0; i < perm.length; i++) {
+                unsorted.add(get(perm[i]));
+            }
+            beginChange();
+            nextReplace(0, size(), unsorted);
+            endChange();
+        } else {
+            fireChange(new NonIterableChange.SimplePermutationChange<>(0, size(), perm, this));
+        }
+    }
+
+    @Override
+    public void beginTransaction() {
+        transactionDepth++;
+        beginChange();
+    }
+
+    @Override
+    public void endTransaction() {
+        if (transactionDepth <= 0) {
+            throw new IllegalStateException("Called endTransaction before beginTransaction");
+        }
+        transactionDepth--;
+        endChange();
+    }
 }
@@ -29,19 +29,26 @@ import javafx.beans.InvalidationListener;
 import javafx.collections.ObservableSet;
 import javafx.collections.SetChangeListener;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * A Set wrapper class that implements observability.
  */
-public class ObservableSetWrapper<E> implements ObservableSet<E> {
+public class ObservableSetWrapper<E> implements ObservableSet<E>, TransactionalCollection {
 
     private final Set<E> backingSet;
 
     private SetListenerHelper<E> listenerHelper;
 
+    private int transactionDepth;
+    private Map<E, PendingChange<E>> pendingChanges;
+
     /**
      * Creates new instance of ObservableSet that wraps
      * the particular set specified by the parameter set.
@@ -124,10 +131,77 @@ public class ObservableSetWrapper<E> implements ObservableSet<E> {
 
     }
 
+    /**
+     * The net change of an element during a transaction.
+     */
+    private static final class PendingChange<E> {
+        private final boolean wasPresent;
+        private final E removed;
+        private boolean present;
+        private E added;
+
+        private PendingChange(SetChangeListener.Change<E> change) {
+            wasPresent = change.wasRemoved();
+            removed = change.getElementRemoved();
+        }
+
+        private void update(SetChangeListener.Change<E> change) {
+            present = change.wasAdded();
+            added = change.getElementAdded();
+        }
+    }
+
     private void callObservers(SetChangeListener.Change<E> change) {
+        if (transactionDepth > 0) {
+            if (listenerHelper != null) {
+                if (pendingChanges == null) {
+                    pendingChanges = new LinkedHashMap<>();
+                }
+                final E element = change.wasAdded()? change.getElementAdded() : change.getElementRemoved();
+                pendingChanges.computeIfAbsent(element, e -> new PendingChange<>(change)).update(change);
+            }
+            return;
+        }
         SetListenerHelper.fireValueChangedEvent(listenerHelper, change);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void beginTransaction() {
+        transactionDepth++;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Each element is reported at most once: as added if it was not in the
+     * set before the transaction and is in it after, as removed in the
+     * opposite case. Invalidation listeners are notified once.
+     */
+    @Override
+    public void endTransaction() {
+        if (transactionDepth <= 0) {
+            throw new IllegalStateException("Called endTransaction before beginTransaction");
+        }
+        if ((--transactionDepth > 0) || (pendingChanges == null) || pendingChanges.isEmpty()) {
+            return;
+        }
+        final List<PendingChange<E>> changes = new ArrayList<>(pendingChanges.values());
+        pendingChanges.clear();
+        final List<SetChangeListener.Change<E>> netChanges = new ArrayList<>(changes.size());
+        for (PendingChange<E> change : changes) {
+            if (change.wasPresent && !change.present) {
+                netChanges.add(new SimpleRemoveChange(change.removed));
+            } else if (!change.wasPresent && change.present) {
+                netChanges.add(new SimpleAddChange(change.added));
+            }
+        }
+        if (!netChanges.isEmpty()) {
+            SetListenerHelper.fireValueChangedEvent(listenerHelper, netChanges);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
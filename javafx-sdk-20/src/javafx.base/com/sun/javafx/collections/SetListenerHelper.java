@@ -29,6 +29,7 @@ import com.sun.javafx.binding.ExpressionHelperBase;
 import javafx.beans.InvalidationListener;
 import javafx.collections.SetChangeListener;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  */
@@ -71,6 +72,19 @@ public abstract class SetListenerHelper<E> extends ExpressionHelperBase {
         }
     }
 
+    /**
+     * Notifies the invalidation listeners once and the change listeners of
+     * each change, in order.
+     *
+     * @param helper the helper of the observable collection
+     * @param changes the changes to report, which must not be empty
+     */
+    public static <E> void fireValueChangedEvent(SetListenerHelper<E> helper, List<? extends SetChangeListener.Change<? extends E>> changes) {
+        if (helper != null) {
+            helper.fireValueChangedEvent(changes);
+        }
+    }
+
     public static <E> boolean hasListeners(SetListenerHelper<E> helper) {
         return helper != null;
     }
@@ -85,6 +99,7 @@ public abstract class SetListenerHelper<E> extends ExpressionHelperBase {
     protected abstract SetListenerHelper<E> removeListener(SetChangeListener<? super E> listener);
 
     protected abstract void fireValueChangedEvent(SetChangeListener.Change<? extends E> change);
+    protected abstract void fireValueChangedEvent(List<? extends SetChangeListener.Change<? extends E>> changes);
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     // Implementations
@@ -125,6 +140,11 @@ public abstract class SetListenerHelper<E> extends ExpressionHelperBase {
                 Thread.currentThread().getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), e);
             }
         }
+
+        @Override
+        protected void fireValueChangedEvent(List<? extends SetChangeListener.Change<? extends E>> changes) {
+            fireValueChangedEvent(changes.get(0));
+        }
     }
 
     private static class SingleChange<E> extends SetListenerHelper<E> {
@@ -163,6 +183,13 @@ public abstract class SetListenerHelper<E> extends ExpressionHelperBase {
                 Thread.currentThread().getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), e);
             }
         }
+
+        @Override
+        protected void fireValueChangedEvent(List<? extends SetChangeListener.Change<? extends E>> changes) {
+            for (SetChangeListener.Change<? extends E> change : changes) {
+                fireValueChangedEvent(change);
+            }
+        }
     }
 
     private static class Generic<E> extends SetListenerHelper<E> {
@@ -331,6 +358,36 @@ public abstract class SetListenerHelper<E> extends ExpressionHelperBase {
                 locked = false;
             }
         }
+
+        @Override
+        protected void fireValueChangedEvent(List<? extends SetChangeListener.Change<? extends E>> changes) {
+            final InvalidationListener[] curInvalidationList = invalidationListeners;
+            final int curInvalidationSize = invalidationSize;
+            final SetChangeListener<? super E>[] curChangeList = changeListeners;
+            final int curChangeSize = changeSize;
+
+            try {
+                locked = true;
+                for (int i = 0; i < curInvalidationSize; i++) {
+                    try {
+                        curInvalidationList[i].invalidated(changes.get(0).getSet());
+                    } catch (Exception e) {
+                        Thread.currentThread().getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), e);
+                    }
+                }
+                for (SetChangeListener.Change<? extends E> change : changes) {
+                    for (int i = 0; i < curChangeSize; i++) {
+                        try {
+                            curChangeList[i].onChanged(change);
+                        } catch (Exception e) {
+                            Thread.currentThread().getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), e);
+                        }
+                    }
+                }
+            } finally {
+                locked = false;
+            }
+        }
     }
 
 }
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package javafx.collections;
+
+/**
+ * A scope in which modifications of an observable collection are reported
+ * to its listeners as a single change when the scope is closed. Transactions
+ * are started with {@link FXCollections#beginChange(ObservableList)},
+ * {@link FXCollections#beginChange(ObservableMap)} or
+ * {@link FXCollections#beginChange(ObservableSet)} and are meant to be used
+ * in a try-with-resources statement:
+ * <pre>{@code
+ * try (ChangeTransaction transaction = FXCollections.beginChange(map)) {
+ *     map.put("a", 1);
+ *     map.put("b", 2);
+ *     map.remove("c");
+ * }
+ * }</pre>
+ * Transactions can be nested, only the outermost one reports the changes.
+ *
+ * @see FXCollections#beginChange(ObservableList)
+ * @since 21
+ */
+public interface ChangeTransaction extends AutoCloseable {
+
+    /**
+     * Ends this transaction and, if it is the outermost one, reports the
+     * modifications made since it began. Closing a transaction more than
+     * once has no effect.
+     */
+    @Override
+    public void close();
+}
@@ -59,6 +59,7 @@ import com.sun.javafx.collections.ObservableSequentialListWrapper;
 import com.sun.javafx.collections.SetAdapterChange;
 import com.sun.javafx.collections.SortableList;
 import com.sun.javafx.collections.SourceAdapterChange;
+import com.sun.javafx.collections.TransactionalCollection;
 import java.util.RandomAccess;
 import javafx.beans.Observable;
 import javafx.util.Callback;
@@ -181,6 +182,84 @@ public class FXCollections {
         return new ObservableSetWrapper<>(set);
     }
 
+    /**
+     * Begins a transaction on an ObservableList created by this class. All
+     * the modifications made to the list until the returned
+     * transaction is closed are reported to its listeners as a single
+     * {@link ListChangeListener.Change}, possibly containing several
+     * sub-changes, as {@link ObservableList#setAll(Collection)} does.
+     * If the list does not support transactions, the returned transaction has
+     * no effect and modifications are reported as they happen.
+     * @param list the list to modify
+     * @return the transaction to close once modifications are done
+     * @throws NullPointerException if list is null
+     * @see ChangeTransaction
+     * @since 21
+     */
+    public static ChangeTransaction beginChange(ObservableList<?> list) {
+        return begin(list);
+    }
+
+    /**
+     * Begins a transaction on an ObservableMap created by this class. The
+     * modifications made to the map until the returned transaction is closed
+     * are reported to its listeners once it is closed, with a single
+     * {@link MapChangeListener.Change} per modified key describing its value
+     * before and after the transaction. Keys which end with the value they
+     * had before the transaction are not reported. Invalidation listeners
+     * are notified once.
+     * If the map does not support transactions, the returned transaction has
+     * no effect and modifications are reported as they happen.
+     * @param map the map to modify
+     * @return the transaction to close once modifications are done
+     * @throws NullPointerException if map is null
+     * @see ChangeTransaction
+     * @since 21
+     */
+    public static ChangeTransaction beginChange(ObservableMap<?, ?> map) {
+        return begin(map);
+    }
+
+    /**
+     * Begins a transaction on an ObservableSet created by this class. The
+     * modifications made to the set until the returned transaction is closed
+     * are reported to its listeners once it is closed, with a single
+     * {@link SetChangeListener.Change} per element whose membership changed
+     * during the transaction. Invalidation listeners are notified once.
+     * If the set does not support transactions, the returned transaction has
+     * no effect and modifications are reported as they happen.
+     * @param set the set to modify
+     * @return the transaction to close once modifications are done
+     * @throws NullPointerException if set is null
+     * @see ChangeTransaction
+     * @since 21
+     */
+    public static ChangeTransaction beginChange(ObservableSet<?> set) {
+        return begin(set);
+    }
+
+    private static ChangeTransaction begin(Observable collection) {
+        if (collection == null) {
+            throw new NullPointerException();
+        }
+        if (!(collection instanceof TransactionalCollection)) {
+            return () -> {};
+        }
+        final TransactionalCollection transactional = (TransactionalCollection) collection;
+        transactional.beginTransaction();
+        return new ChangeTransaction() {
+            private boolean closed;
+
+            @Override
+            public void close() {
+                if (!closed) {
+                    closed = true;
+                    transactional.endTransaction();
+                }
+            }
+        };
+    }
+
     /**
      * Constructs a read-only interface to the specified ObservableMap. Only
      * mutation operations made to the underlying ObservableMap will be reported
@@ -33,6 +33,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.function.Predicate;
+import java.util.stream.IntStream;
 import javafx.beans.NamedArg;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ObjectPropertyBase;
@@ -55,6 +56,20 @@ public final class FilteredList<E> extends TransformationList<E, E>{
     private SortHelper helper;
     private static final Predicate ALWAYS_TRUE = t -> true;
 
+    /**
+     * How the next predicate change relates to the current predicate.
+     */
+    private enum Refilter { ALL, NARROWING, WIDENING }
+
+    private Refilter refilter = Refilter.ALL;
+
+    /**
+     * Minimal source size for a parallel refilter to be worth it.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    private boolean parallel;
+
     /**
      * Constructs a new FilteredList wrapper around the source list.
      * The provided predicate will match the elements in the source list that will be visible.
@@ -99,7 +114,13 @@ public final class FilteredList<E> extends TransformationList<E, E>{
             predicate = new ObjectPropertyBase<>() {
                 @Override
                 protected void invalidated() {
-                    refilter();
+                    final Refilter hint = refilter;
+                    refilter = Refilter.ALL;
+                    switch (hint) {
+                        case NARROWING: narrow(); break;
+                        case WIDENING: widen(); break;
+                        default: refilter(); break;
+                    }
                 }
 
                 @Override
@@ -125,6 +146,75 @@ public final class FilteredList<E> extends TransformationList<E, E>{
         predicateProperty().set(predicate);
     }
 
+    /**
+     * Sets a predicate matching only elements already matched by the current
+     * predicate, e.g. when a search text gets one more character.
+     * Only the elements visible in this list are tested against the new
+     * predicate and the resulting change only contains removals.
+     * <p>
+     * If the new predicate matches elements not matched by the current one,
+     * these elements are not added to this list.
+     * @param predicate the narrower predicate or null to match all elements
+     * @throws RuntimeException if {@link #predicateProperty()} is bound
+     * @since 21
+     */
+    public final void narrowPredicate(Predicate<? super E> predicate) {
+        setPredicate(predicate, Refilter.NARROWING);
+    }
+
+    /**
+     * Sets a predicate matching at least all elements matched by the current
+     * predicate, e.g. when a search text loses its last character.
+     * Only the elements filtered out of this list are tested against the new
+     * predicate and the resulting change only contains additions.
+     * <p>
+     * If the new predicate does not match elements matched by the current
+     * one, these elements are not removed from this list.
+     * @param predicate the wider predicate or null to match all elements
+     * @throws RuntimeException if {@link #predicateProperty()} is bound
+     * @since 21
+     */
+    public final void widenPredicate(Predicate<? super E> predicate) {
+        setPredicate(predicate, Refilter.WIDENING);
+    }
+
+    /**
+     * Sets whether the predicate is evaluated in parallel when the whole
+     * source list is refiltered, i.e. when the predicate is set.
+     * Large source lists are then split into chunks tested by the threads
+     * of the common {@link java.util.concurrent.ForkJoinPool}, while the
+     * resulting change is still delivered on the calling thread once all
+     * the elements have been tested.
+     * <p>
+     * Parallel evaluation only pays off for large lists or expensive
+     * predicates and requires the predicate to be thread-safe.
+     * @param parallel true to evaluate the predicate in parallel
+     * @since 21
+     */
+    public final void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Returns whether the predicate is evaluated in parallel when the whole
+     * source list is refiltered.
+     * @return true if the predicate is evaluated in parallel
+     * @see #setParallel(boolean)
+     * @since 21
+     */
+    public final boolean isParallel() {
+        return parallel;
+    }
+
+    private void setPredicate(Predicate<? super E> predicate, Refilter hint) {
+        refilter = hint;
+        try {
+            setPredicate(predicate);
+        } finally {
+            refilter = Refilter.ALL;
+        }
+    }
+
     private Predicate<? super E> getPredicateImpl() {
         if (getPredicate() != null) {
             return getPredicate();
@@ -325,16 +415,92 @@ public final class FilteredList<E> extends TransformationList<E, E>{
         size = 0;
         int i = 0;
         Predicate<? super E> pred = getPredicateImpl();
-        for (Iterator<? extends E> it = getSource().iterator();it.hasNext(); ) {
-            final E next = it.next();
-            if (pred.test(next)) {
-                filtered[size++] = i;
+        if (parallel && getSource().size() >= PARALLEL_THRESHOLD) {
+            refilterParallel(pred);
+        } else {
+            for (Iterator<? extends E> it = getSource().iterator();it.hasNext(); ) {
+                final E next = it.next();
+                if (pred.test(next)) {
+                    filtered[size++] = i;
+                }
+                ++i;
             }
-            ++i;
         }
         if (hasListeners()) {
             fireChange(new GenericAddRemoveChange<>(0, size, removed, this));
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private void refilterParallel(Predicate<? super E> pred) {
+        // The source is read once so that workers don't depend on its implementation
+        final Object[] elements = getSource().toArray();
+        final int[] matching = IntStream.range(0, elements.length)
+                .parallel()
+                .filter(i -> pred.test((E) elements[i]))
+                .toArray();
+        System.arraycopy(matching, 0, filtered, 0, matching.length);
+        size = matching.length;
+    }
+
+    /**
+     * Re-tests the visible elements only, the ones filtered out being still
+     * filtered out by a narrower predicate.
+     */
+    private void narrow() {
+        final boolean notify = hasListeners();
+        if (notify) {
+            beginChange();
+        }
+        final List<? extends E> source = getSource();
+        final Predicate<? super E> pred = getPredicateImpl();
+        final int oldSize = size;
+        size = 0;
+        for (int i = 0; i < oldSize; ++i) {
+            final int index = filtered[i];
+            final E element = source.get(index);
+            if (pred.test(element)) {
+                filtered[size++] = index;
+            } else if (notify) {
+                nextRemove(size, element);
+            }
+        }
+        if (notify) {
+            endChange();
+        }
+    }
+
+    /**
+     * Re-tests the filtered out elements only, the visible ones being still
+     * visible with a wider predicate.
+     */
+    private void widen() {
+        final boolean notify = hasListeners();
+        if (notify) {
+            beginChange();
+        }
+        final Predicate<? super E> pred = getPredicateImpl();
+        final int[] visible = filtered;
+        final int visibleSize = size;
+        filtered = new int[Math.max(filtered.length, getSource().size() * 3 / 2 + 1)];
+        size = 0;
+        int v = 0;
+        int i = 0;
+        for (Iterator<? extends E> it = getSource().iterator(); it.hasNext(); ++i) {
+            final E next = it.next();
+            if (v < visibleSize && visible[v] == i) {
+                filtered[size++] = i;
+                ++v;
+            } else if (pred.test(next)) {
+                filtered[size++] = i;
+                if (notify) {
+                    nextAdd(size - 1, size);
+                }
+            }
+        }
+        if (notify) {
+            endChange();
+        }
+    }
+
 }
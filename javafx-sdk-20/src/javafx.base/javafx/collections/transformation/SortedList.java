@@ -62,6 +62,13 @@ public final class SortedList<E> extends TransformationList<E, E>{
 
     private final Element<E> tempElement = new Element<>(null, -1);
 
+    /**
+     * Minimal size for a parallel sort to be worth it.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    private boolean parallel;
+
 
     /**
      * Creates a new SortedList wrapped around the source list.
@@ -155,6 +162,35 @@ public final class SortedList<E> extends TransformationList<E, E>{
         comparatorProperty().set(comparator);
     }
 
+    /**
+     * Sets whether this list is sorted in parallel when it is sorted as a
+     * whole, i.e. when the comparator is set, when elements are updated or
+     * when the whole source list is replaced.
+     * Large lists are then sorted by a parallel merge sort running in the
+     * common {@link java.util.concurrent.ForkJoinPool}, while the resulting
+     * change is still delivered on the calling thread once sorted. As the
+     * sequential sort, the parallel sort is stable.
+     * <p>
+     * Parallel sorting only pays off for large lists or expensive
+     * comparators and requires the comparator to be thread-safe.
+     * @param parallel true to sort in parallel
+     * @since 21
+     */
+    public final void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Returns whether this list is sorted in parallel when it is sorted as a
+     * whole.
+     * @return true if this list is sorted in parallel
+     * @see #setParallel(boolean)
+     * @since 21
+     */
+    public final boolean isParallel() {
+        return parallel;
+    }
+
     /**
      * Returns the element at the specified position in this list.
      *
@@ -182,10 +218,7 @@ public final class SortedList<E> extends TransformationList<E, E>{
 
     private void doSortWithPermutationChange() {
         if (elementComparator != null) {
-            int[] perm = helper.sort(sorted, 0, size, elementComparator);
-            for (int i = 0; i < size; i++) {
-                this.perm[sorted[i].index] = i;
-            }
+            int[] perm = sortElements();
             fireChange(new SimplePermutationChange<>(0, size, perm, this));
         } else {
             int[] perm = new int[size];
@@ -219,6 +252,29 @@ public final class SortedList<E> extends TransformationList<E, E>{
         }
     }
 
+    /**
+     * Sorts all the elements and updates the source to view mapping.
+     * @return the permutation of the view indexes
+     */
+    private int[] sortElements() {
+        if (!parallel || size < PARALLEL_THRESHOLD) {
+            int[] perm = helper.sort(sorted, 0, size, elementComparator);
+            for (int i = 0; i < size; i++) {
+                this.perm[sorted[i].index] = i;
+            }
+            return perm;
+        }
+        Arrays.parallelSort(sorted, 0, size, elementComparator);
+        int[] perm = new int[size];
+        for (int i = 0; i < size; i++) {
+            // this.perm still holds the view index of each element before sorting
+            final int index = sorted[i].index;
+            perm[this.perm[index]] = i;
+            this.perm[index] = i;
+        }
+        return perm;
+    }
+
     @Override
     public int getSourceIndex(int index) {
         return sorted[index].index;
@@ -352,9 +408,9 @@ public final class SortedList<E> extends TransformationList<E, E>{
         size = to;
         for (int i = 0; i < to; ++i) {
             sorted[i] = new Element<>(list.get(i), i);
+            perm[i] = i;
         }
-        int[] perm = helper.sort(sorted, 0, size, elementComparator);
-        System.arraycopy(perm, 0, this.perm, 0, size);
+        sortElements();
         nextAdd(0, size);
     }
 
@@ -379,10 +435,7 @@ public final class SortedList<E> extends TransformationList<E, E>{
     }
 
     private void update(Change<? extends E> c) {
-        int[] perm = helper.sort(sorted, 0, size, elementComparator);
-        for (int i = 0; i < size; i++) {
-            this.perm[sorted[i].index] = i;
-        }
+        int[] perm = sortElements();
         nextPermutation(0, size, perm);
         for (int i = c.getFrom(), to = c.getTo(); i < to; ++i) {
             nextUpdate(this.perm[i]);
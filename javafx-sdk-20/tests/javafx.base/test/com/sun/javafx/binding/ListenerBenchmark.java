@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package test.com.sun.javafx.binding;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import javafx.beans.InvalidationListener;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+/**
+ * Benchmark of listeners churn on shared observables: reports the time per
+ * {@code addListener} / {@code removeListener} (in random order) and per
+ * notified listener for increasing numbers of listeners registered on a
+ * property and on an observable list.
+ *
+ * Usage: java test.com.sun.javafx.binding.ListenerBenchmark [maxListeners] [rounds]
+ */
+public final class ListenerBenchmark {
+
+    /**
+     * Sink preventing notifications from being optimized away.
+     */
+    private static long notifications = 0L;
+
+    private ListenerBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        final int maxListeners = (args.length > 0)? Integer.parseInt(args[0]) : 16384;
+        final int rounds = (args.length > 1)? Integer.parseInt(args[1]) : 5;
+        final Random random = new Random(42);
+
+        System.out.printf("%9s %14s %14s %14s %14s %14s%n",
+                "listeners", "prop add ns", "prop remove ns", "prop fire ns", "list add ns", "list remove ns");
+        for (int n = 16; n <= maxListeners; n *= 4) {
+            final List<InvalidationListener> invalidationListeners = new ArrayList<>(n);
+            final List<ListChangeListener<Integer>> changeListeners = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                // capturing lambdas so that each listener is a distinct instance
+                final int weight = i;
+                invalidationListeners.add(observable -> notifications += weight);
+                changeListeners.add(change -> notifications += weight);
+            }
+            final double[] times = new double[5];
+            // small sizes are repeated to be measurable
+            final int measured = rounds * Math.max(1, 4096 / n);
+            // the first half of the rounds is a warm up
+            for (int round = 0; round < 2 * measured; round++) {
+                final SimpleIntegerProperty property = new SimpleIntegerProperty();
+                final ObservableList<Integer> list = FXCollections.observableArrayList();
+
+                long start = System.nanoTime();
+                for (InvalidationListener listener : invalidationListeners) {
+                    property.addListener(listener);
+                }
+                final long propertyAdd = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (int i = 0; i < 16; i++) {
+                    property.set(i + 1);
+                    property.get();
+                }
+                final long propertyFire = System.nanoTime() - start;
+
+                Collections.shuffle(invalidationListeners, random);
+                start = System.nanoTime();
+                for (InvalidationListener listener : invalidationListeners) {
+                    property.removeListener(listener);
+                }
+                final long propertyRemove = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (ListChangeListener<Integer> listener : changeListeners) {
+                    list.addListener(listener);
+                }
+                final long listAdd = System.nanoTime() - start;
+
+                Collections.shuffle(changeListeners, random);
+                start = System.nanoTime();
+                for (ListChangeListener<Integer> listener : changeListeners) {
+                    list.removeListener(listener);
+                }
+                final long listRemove = System.nanoTime() - start;
+
+                if (round >= measured) {
+                    times[0] += (double) propertyAdd / n / measured;
+                    times[1] += (double) propertyRemove / n / measured;
+                    times[2] += (double) propertyFire / (16L * n) / measured;
+                    times[3] += (double) listAdd / n / measured;
+                    times[4] += (double) listRemove / n / measured;
+                }
+            }
+            System.out.printf("%9d %14.1f %14.1f %14.1f %14.1f %14.1f%n",
+                    n, times[0], times[1], times[2], times[3], times[4]);
+        }
+        if (notifications == 0L) {
+            System.err.println("No listener has been notified");
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package test.com.sun.javafx.binding;
+
+import com.sun.javafx.binding.ListenerList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import javafx.beans.WeakListener;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ListenerListTest {
+
+    /**
+     * Listener comparing by value, which is searched linearly rather than
+     * through the identity index.
+     */
+    private static final class EqualListener {
+        private final int key;
+
+        EqualListener(int key) {
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return (obj instanceof EqualListener) && (((EqualListener) obj).key == key);
+        }
+
+        @Override
+        public int hashCode() {
+            return key;
+        }
+
+        @Override
+        public String toString() {
+            return "EqualListener[" + key + "]";
+        }
+    }
+
+    private static final class WeakListenerMock implements WeakListener {
+        private boolean garbageCollected;
+
+        @Override
+        public boolean wasGarbageCollected() {
+            return garbageCollected;
+        }
+    }
+
+    private static List<Object> listeners(Object[] snapshot) {
+        final List<Object> result = new ArrayList<>();
+        for (Object listener : snapshot) {
+            if (listener != null) {
+                result.add(listener);
+            }
+        }
+        return result;
+    }
+
+    private static void assertContent(List<Object> expected, ListenerList<Object> list) {
+        assertEquals(expected, listeners(list.snapshot()));
+        assertEquals(expected.size(), list.size());
+        assertSame(expected.isEmpty()? null : expected.get(0), list.first());
+    }
+
+    @Test
+    public void testAddRemove() {
+        final Object listener0 = new Object();
+        final Object listener1 = new Object();
+        final ListenerList<Object> list = new ListenerList<>(listener0, listener1);
+        assertContent(List.of(listener0, listener1), list);
+
+        list.add(listener0);
+        assertContent(List.of(listener0, listener1, listener0), list);
+
+        assertTrue(list.remove(listener0));
+        assertContent(List.of(listener1, listener0), list);
+
+        assertFalse(list.remove(new Object()));
+        assertTrue(list.remove(listener0));
+        assertTrue(list.remove(listener1));
+        assertContent(List.of(), list);
+        assertFalse(list.remove(listener1));
+        assertNull(list.first());
+    }
+
+    @Test
+    public void testRemoveByEquals() {
+        final Object listener = new EqualListener(1);
+        final ListenerList<Object> list = new ListenerList<>(listener);
+        final List<Object> expected = new ArrayList<>(List.of(listener));
+        for (int i = 0; i < 20; i++) {
+            list.add(new EqualListener(i % 4));
+            expected.add(new EqualListener(i % 4));
+        }
+        assertTrue(list.remove(new EqualListener(3)));
+        expected.remove(new EqualListener(3));
+        assertContent(expected, list);
+        assertTrue(list.remove(new EqualListener(1)));
+        assertFalse(listeners(list.snapshot()).stream().anyMatch(l -> l == listener));
+        assertFalse(list.remove(new EqualListener(4)));
+    }
+
+    @Test
+    public void testSnapshotIsNotModified() {
+        final Object listener0 = new Object();
+        final Object listener1 = new Object();
+        final ListenerList<Object> list = new ListenerList<>(listener0, listener1);
+        final Object[] snapshot = list.snapshot();
+        final Object[] copy = snapshot.clone();
+
+        list.remove(listener0);
+        list.add(new Object());
+        for (int i = 0; i < 20; i++) {
+            list.add(new Object());
+        }
+        assertTrue(Arrays.equals(copy, snapshot));
+    }
+
+    @Test
+    public void testGarbageCollectedWeakListenersAreDropped() {
+        final WeakListenerMock weak = new WeakListenerMock();
+        final Object listener = new Object();
+        final ListenerList<Object> list = new ListenerList<>(weak);
+        weak.garbageCollected = true;
+
+        // the backing array is full: adding a listener sweeps weak listeners
+        list.add(listener);
+        assertContent(List.of(listener), list);
+    }
+
+    /**
+     * Compares a random trace of additions, removals and snapshots, with
+     * duplicated listeners and listeners comparing by value, crossing the
+     * threshold of the identity index in both directions, to the same trace
+     * applied to an {@link ArrayList}.
+     */
+    @Test
+    public void testRandomTrace() {
+        final Random random = new Random(3);
+        for (int round = 0; round < 1000; round++) {
+            final List<Object> pool = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                pool.add(new Object());
+                pool.add(new EqualListener(i));
+            }
+            final Object first = pool.get(0);
+            final ListenerList<Object> list = new ListenerList<>(first);
+            final List<Object> expected = new ArrayList<>(List.of(first));
+            Object[] snapshot = list.snapshot();
+            List<Object> snapshotContent = listeners(snapshot);
+
+            // additions are more likely in the first half so that the list grows then shrinks
+            final int operations = random.nextInt(400);
+            for (int i = 0; i < operations; i++) {
+                final int operation = random.nextInt(10);
+                final boolean growing = i < operations / 2;
+                if (operation < (growing? 6 : 3)) {
+                    final Object listener = random.nextBoolean()
+                            ? pool.get(random.nextInt(pool.size()))
+                            : (random.nextInt(4) == 0)? new EqualListener(random.nextInt(3)) : new Object();
+                    list.add(listener);
+                    expected.add(listener);
+                } else if (operation < 9) {
+                    final Object listener = (!expected.isEmpty() && random.nextBoolean())
+                            ? expected.get(random.nextInt(expected.size()))
+                            : pool.get(random.nextInt(pool.size()));
+                    assertEquals("round " + round + ", operation " + i,
+                            expected.remove(listener), list.remove(listener));
+                } else {
+                    assertEquals("round " + round + ", operation " + i,
+                            snapshotContent, listeners(snapshot));
+                    snapshot = list.snapshot();
+                    snapshotContent = listeners(snapshot);
+                }
+                assertContent(expected, list);
+            }
+        }
+    }
+}
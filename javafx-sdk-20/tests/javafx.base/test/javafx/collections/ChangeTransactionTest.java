@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package test.javafx.collections;
+
+import java.util.ArrayList;
+import java.util.List;
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+import javafx.collections.ChangeTransaction;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.MapChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.ObservableMap;
+import javafx.collections.ObservableSet;
+import javafx.collections.SetChangeListener;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ChangeTransactionTest {
+
+    private int changeCount;
+    private int invalidationCount;
+
+    private final InvalidationListener invalidationListener = (Observable observable) -> invalidationCount++;
+
+    @Test
+    public void testList() {
+        final ObservableList<Integer> list = FXCollections.observableArrayList(1, 2, 3);
+        final List<Integer> replica = new ArrayList<>(list);
+        list.addListener((ListChangeListener.Change<? extends Integer> change) -> {
+            changeCount++;
+            while (change.next()) {
+                assertFalse(change.wasPermutated());
+                replica.subList(change.getFrom(), change.getFrom() + change.getRemovedSize()).clear();
+                replica.addAll(change.getFrom(), change.getAddedSubList());
+            }
+        });
+        list.addListener(invalidationListener);
+        try (ChangeTransaction transaction = FXCollections.beginChange(list)) {
+            list.add(4);
+            list.remove(Integer.valueOf(1));
+            try (ChangeTransaction nested = FXCollections.beginChange(list)) {
+                list.add(0, 9);
+            }
+            FXCollections.sort(list);
+            assertEquals(0, changeCount);
+            assertEquals(0, invalidationCount);
+        }
+        assertEquals(1, changeCount);
+        assertEquals(1, invalidationCount);
+        assertEquals(List.of(2, 3, 4, 9), list);
+        assertEquals(list, replica);
+    }
+
+    @Test
+    public void testMap() {
+        final ObservableMap<String, Integer> map = FXCollections.observableHashMap();
+        map.put("c", 3);
+        map.put("d", 4);
+        final List<String> changes = new ArrayList<>();
+        map.addListener((MapChangeListener.Change<? extends String, ? extends Integer> change) -> {
+            assertSame(map, change.getMap());
+            changes.add(change.getKey() + ":" + change.getValueRemoved() + "->" + change.getValueAdded());
+        });
+        map.addListener(invalidationListener);
+        try (ChangeTransaction transaction = FXCollections.beginChange(map)) {
+            map.put("a", 1);
+            map.put("a", 2);
+            map.put("b", 1);
+            map.remove("b");
+            map.remove("c");
+            map.put("d", 5);
+            map.put("d", 4);
+            assertTrue(changes.isEmpty());
+        }
+        changes.sort(null);
+        assertEquals(List.of("a:null->2", "c:3->null"), changes);
+        assertEquals(1, invalidationCount);
+
+        // no net change: no notification at all
+        try (ChangeTransaction transaction = FXCollections.beginChange(map)) {
+            map.put("e", 1);
+            map.remove("e");
+        }
+        assertEquals(2, changes.size());
+        assertEquals(1, invalidationCount);
+    }
+
+    @Test
+    public void testMapInvalidationListenerOnly() {
+        final ObservableMap<String, Integer> map = FXCollections.observableHashMap();
+        map.addListener(invalidationListener);
+        try (ChangeTransaction transaction = FXCollections.beginChange(map)) {
+            map.put("a", 1);
+            map.put("b", 2);
+            map.put("c", 3);
+        }
+        assertEquals(1, invalidationCount);
+        map.put("d", 4);
+        assertEquals(2, invalidationCount);
+    }
+
+    @Test
+    public void testSet() {
+        final ObservableSet<String> set = FXCollections.observableSet("x", "w");
+        final List<String> elements = new ArrayList<>();
+        set.addListener((SetChangeListener.Change<? extends String> change) -> {
+            elements.add(change.wasAdded()? "+" + change.getElementAdded() : "-" + change.getElementRemoved());
+        });
+        set.addListener(invalidationListener);
+        final ChangeTransaction transaction = FXCollections.beginChange(set);
+        set.add("y");
+        set.remove("x");
+        set.add("x");
+        set.add("z");
+        set.remove("y");
+        set.remove("w");
+        transaction.close();
+        transaction.close();
+        elements.sort(null);
+        assertEquals(List.of("+z", "-w"), elements);
+        assertEquals(1, invalidationCount);
+    }
+
+    @Test
+    public void testSetInvalidationListenerOnly() {
+        final ObservableSet<String> set = FXCollections.observableSet();
+        set.addListener(invalidationListener);
+        try (ChangeTransaction transaction = FXCollections.beginChange(set)) {
+            set.add("a");
+            set.add("b");
+        }
+        assertEquals(1, invalidationCount);
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package test.javafx.collections;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link FilteredList#narrowPredicate(Predicate)} and
+ * {@link FilteredList#widenPredicate(Predicate)}.
+ */
+public class FilteredListHintsTest {
+
+    private ObservableList<Integer> source;
+    private FilteredList<Integer> list;
+    private List<Integer> replica;
+    private int changeCount;
+    private boolean added;
+    private boolean removed;
+    private int tests;
+
+    private Predicate<Integer> multipleOf(int divisor) {
+        return value -> {
+            tests++;
+            return value % divisor == 0;
+        };
+    }
+
+    @Before
+    public void setUp() {
+        source = FXCollections.observableArrayList();
+        for (int i = 0; i < 100; i++) {
+            source.add(i);
+        }
+        list = new FilteredList<>(source, multipleOf(2));
+        replica = new ArrayList<>(list);
+        list.addListener((ListChangeListener.Change<? extends Integer> change) -> {
+            changeCount++;
+            while (change.next()) {
+                added |= change.wasAdded();
+                removed |= change.wasRemoved();
+                replica.subList(change.getFrom(), change.getFrom() + change.getRemovedSize()).clear();
+                replica.addAll(change.getFrom(), change.getAddedSubList());
+            }
+        });
+        tests = 0;
+    }
+
+    private void assertSourceIndexes() {
+        for (int i = 0; i < list.size(); i++) {
+            assertEquals(list.get(i), source.get(list.getSourceIndex(i)));
+        }
+        assertEquals(list, replica);
+    }
+
+    @Test
+    public void testNarrowPredicate() {
+        list.narrowPredicate(multipleOf(6));
+        assertEquals(50, tests);
+        assertEquals(17, list.size());
+        assertEquals(1, changeCount);
+        assertTrue(removed);
+        assertFalse(added);
+        assertSourceIndexes();
+    }
+
+    @Test
+    public void testWidenPredicate() {
+        list.narrowPredicate(multipleOf(6));
+        tests = 0;
+        added = false;
+        removed = false;
+        list.widenPredicate(multipleOf(3));
+        assertEquals(83, tests);
+        assertEquals(34, list.size());
+        assertEquals(2, changeCount);
+        assertTrue(added);
+        assertFalse(removed);
+        assertSourceIndexes();
+
+        list.widenPredicate(null);
+        assertEquals(source, list);
+        assertSourceIndexes();
+    }
+
+    @Test
+    public void testHintOnlyAppliesToNextChange() {
+        list.narrowPredicate(multipleOf(6));
+        tests = 0;
+        list.setPredicate(multipleOf(5));
+        assertEquals(100, tests);
+        assertTrue(list.contains(5));
+        assertFalse(list.contains(3));
+        assertSourceIndexes();
+    }
+
+    @Test
+    public void testNoChangeWhenNothingIsFiltered() {
+        list.narrowPredicate(value -> value % 2 == 0);
+        assertEquals(0, changeCount);
+        list.widenPredicate(value -> value % 2 == 0);
+        assertEquals(0, changeCount);
+        assertSourceIndexes();
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testBoundPredicate() {
+        list.predicateProperty().bind(new SimpleObjectProperty<>(multipleOf(3)));
+        list.narrowPredicate(multipleOf(6));
+    }
+
+    /**
+     * Compares random chains of narrowing and widening predicates to full
+     * refilters of the same source.
+     */
+    @Test
+    public void testRandomHints() {
+        final Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            int divisor = 1 + random.nextInt(4);
+            list.setPredicate(multipleOf(divisor));
+            for (int step = 0; step < 10; step++) {
+                if (random.nextBoolean()) {
+                    divisor *= 2 + random.nextInt(2);
+                    list.narrowPredicate(multipleOf(divisor));
+                } else {
+                    // a divisor of the current divisor has more multiples
+                    final int factor = 2 + random.nextInt(2);
+                    divisor = (divisor % factor == 0)? divisor / factor : 1;
+                    list.widenPredicate(multipleOf(divisor));
+                }
+                final int d = divisor;
+                assertEquals(source.filtered(value -> value % d == 0), list);
+                assertSourceIndexes();
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package test.javafx.collections;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import javafx.beans.Observable;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link FilteredList#setParallel(boolean)} and
+ * {@link SortedList#setParallel(boolean)}: parallel lists must hold the same
+ * elements in the same order and fire equivalent changes as sequential ones.
+ */
+public class TransformationListParallelTest {
+
+    private static final int SIZE = 20000;
+
+    private ObservableList<SimpleIntegerProperty> source;
+    private Thread notified;
+
+    @Before
+    public void setUp() {
+        final Random random = new Random(11);
+        source = FXCollections.observableArrayList(property -> new Observable[] {property});
+        for (int i = 0; i < SIZE; i++) {
+            // few distinct values so that the stability of sorts matters
+            source.add(new SimpleIntegerProperty(random.nextInt(100)));
+        }
+    }
+
+    /**
+     * Replays every change of a list on a copy of its content.
+     */
+    private <E> List<E> replicate(ObservableList<E> list) {
+        final List<E> replica = new ArrayList<>(list);
+        list.addListener((ListChangeListener.Change<? extends E> change) -> {
+            notified = Thread.currentThread();
+            while (change.next()) {
+                if (change.wasPermutated()) {
+                    final List<E> permuted = new ArrayList<>(replica.subList(change.getFrom(), change.getTo()));
+                    for (int i = change.getFrom(); i < change.getTo(); i++) {
+                        permuted.set(change.getPermutation(i) - change.getFrom(), replica.get(i));
+                    }
+                    for (int i = change.getFrom(); i < change.getTo(); i++) {
+                        replica.set(i, permuted.get(i - change.getFrom()));
+                    }
+                } else if (!change.wasUpdated()) {
+                    replica.subList(change.getFrom(), change.getFrom() + change.getRemovedSize()).clear();
+                    replica.addAll(change.getFrom(), change.getAddedSubList());
+                }
+            }
+        });
+        return replica;
+    }
+
+    private static Predicate<SimpleIntegerProperty> lessThan(int bound) {
+        return property -> property.get() < bound;
+    }
+
+    @Test
+    public void testFilteredList() {
+        final FilteredList<SimpleIntegerProperty> sequential = new FilteredList<>(source);
+        final FilteredList<SimpleIntegerProperty> parallel = new FilteredList<>(source);
+        assertFalse(parallel.isParallel());
+        parallel.setParallel(true);
+        assertTrue(parallel.isParallel());
+        final List<SimpleIntegerProperty> replica = replicate(parallel);
+
+        for (int bound : new int[] {50, 10, 90, 0, 100}) {
+            sequential.setPredicate(lessThan(bound));
+            notified = null;
+            parallel.setPredicate(lessThan(bound));
+            assertSame(Thread.currentThread(), notified);
+            assertEquals(sequential, parallel);
+            assertEquals(parallel, replica);
+            for (int i = 0; i < parallel.size(); i++) {
+                assertEquals(sequential.getSourceIndex(i), parallel.getSourceIndex(i));
+            }
+        }
+
+        // hints and source changes after a parallel refilter
+        parallel.narrowPredicate(lessThan(30));
+        sequential.setPredicate(lessThan(30));
+        source.remove(0, 100);
+        source.add(new SimpleIntegerProperty(1));
+        assertEquals(sequential, parallel);
+        assertEquals(parallel, replica);
+    }
+
+    @Test
+    public void testFilteredListPredicateIsTestedOncePerElement() {
+        final FilteredList<SimpleIntegerProperty> parallel = new FilteredList<>(source);
+        parallel.setParallel(true);
+        final AtomicInteger tests = new AtomicInteger();
+        parallel.setPredicate(property -> {
+            tests.incrementAndGet();
+            return true;
+        });
+        assertEquals(SIZE, tests.get());
+        assertEquals(source, parallel);
+    }
+
+    @Test
+    public void testSortedList() {
+        final SortedList<SimpleIntegerProperty> sequential = new SortedList<>(source);
+        final SortedList<SimpleIntegerProperty> parallel = new SortedList<>(source);
+        assertFalse(parallel.isParallel());
+        parallel.setParallel(true);
+        assertTrue(parallel.isParallel());
+        final List<SimpleIntegerProperty> replica = replicate(parallel);
+
+        final Comparator<SimpleIntegerProperty> ascending = Comparator.comparingInt(SimpleIntegerProperty::get);
+        final List<Comparator<SimpleIntegerProperty>> comparators =
+                List.of(ascending, ascending.reversed(), Comparator.comparingInt(p -> p.get() % 7), ascending);
+        for (Comparator<SimpleIntegerProperty> comparator : comparators) {
+            sequential.setComparator(comparator);
+            notified = null;
+            parallel.setComparator(comparator);
+            assertSame(Thread.currentThread(), notified);
+            assertSortedAlike(sequential, parallel);
+            assertEquals(parallel, replica);
+        }
+
+        // updates sort the whole list again
+        source.get(SIZE / 2).set(-1);
+        source.get(SIZE / 3).set(1000);
+        assertSortedAlike(sequential, parallel);
+        assertEquals(-1, parallel.get(0).get());
+        assertEquals(parallel, replica);
+
+        // so do source replacements
+        final List<SimpleIntegerProperty> reversed = new ArrayList<>(source);
+        Collections.reverse(reversed);
+        source.setAll(reversed);
+        assertSortedAlike(sequential, parallel);
+        assertEquals(parallel, replica);
+
+        // incremental changes still work from the mapping set by parallel sorts
+        source.remove(10, 20);
+        source.add(0, new SimpleIntegerProperty(42));
+        assertSortedAlike(sequential, parallel);
+        assertEquals(parallel, replica);
+    }
+
+    private static void assertSortedAlike(SortedList<SimpleIntegerProperty> expected, SortedList<SimpleIntegerProperty> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i), actual.get(i));
+            assertEquals(expected.getSourceIndex(i), actual.getSourceIndex(i));
+            assertEquals(i, actual.getViewIndex(actual.getSourceIndex(i)));
+        }
+    }
+}